@@ -0,0 +1,89 @@
+package net.ijus.nidi.benchmarks;
+
+import net.ijus.nidi.Context;
+import net.ijus.nidi.ContextHolder;
+import net.ijus.nidi.bindings.Scope;
+import net.ijus.nidi.builder.ContextBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static net.ijus.nidi.benchmarks.Fixtures.*;
+
+/**
+ * Measures <code>Context.getInstance</code> for each kind of Binding: BasicBinding (ALWAYS_CREATE_NEW), CachingBinding
+ * (SINGLETON and ONE_PER_BINDING), ContextBindingReference and NullBinding. The <code>metrics</code> param compares
+ * the metered Bindings against the plain ones, which are what's used when metrics are disabled.
+ */
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BindingBenchmark {
+
+    @Param({"BASIC", "SINGLETON", "ONE_PER_BINDING", "REFERENCE", "NULL"})
+    public String bindingType;
+
+    @Param({"false", "true"})
+    public boolean compiled;
+
+    @Param({"false", "true"})
+    public boolean metrics;
+
+    Context ctx;
+
+    @Setup
+    public void setup() {
+        ContextBuilder builder = new ContextBuilder();
+        builder.setCompiledInstantiation(compiled);
+        builder.setMetricsEnabled(metrics);
+
+        if (bindingType.equals("BASIC")) {
+            builder.bind(Service.class).withScope(Scope.ALWAYS_CREATE_NEW).to(ServiceImpl.class);
+        } else if (bindingType.equals("SINGLETON")) {
+            builder.bind(Service.class).withScope(Scope.SINGLETON).to(ServiceImpl.class);
+        } else if (bindingType.equals("ONE_PER_BINDING")) {
+            builder.bind(Service.class).withScope(Scope.ONE_PER_BINDING).to(ServiceImpl.class);
+        } else if (bindingType.equals("REFERENCE")) {
+            builder.bind(ServiceImpl.class).withScope(Scope.SINGLETON).to(ServiceImpl.class);
+            builder.bind(Service.class).reference(ServiceImpl.class);
+        } else if (bindingType.equals("NULL")) {
+            builder.bind(Service.class).toNull();
+        }
+
+        ctx = builder.build();
+        ContextHolder.setContext(ctx);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ContextHolder.setContext(null);
+    }
+
+    @Benchmark
+    public Object getInstance() {
+        return ctx.getInstance(Service.class);
+    }
+
+    @Benchmark
+    public Object getInstanceFromContextHolder() {
+        return ContextHolder.getContext().getInstance(Service.class);
+    }
+
+    @Benchmark
+    public Object getBinding() {
+        return ctx.getBinding(Service.class);
+    }
+}
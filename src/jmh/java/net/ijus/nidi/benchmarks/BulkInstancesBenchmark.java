@@ -0,0 +1,78 @@
+package net.ijus.nidi.benchmarks;
+
+import net.ijus.nidi.Context;
+import net.ijus.nidi.bindings.Scope;
+import net.ijus.nidi.builder.ContextBuilder;
+import net.ijus.nidi.instantiation.InstancePlan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static net.ijus.nidi.benchmarks.Fixtures.*;
+
+/**
+ * Measures getting every class in the dependency chain, plus all of the leaves, the way a request handler would.
+ * <code>oneAtATime</code> calls <code>getInstance</code> for each key, <code>getInstances</code> uses the cached plan,
+ * and <code>heldPlan</code> executes a plan that the caller holds on to. When the chain is SINGLETON, the plan only asks
+ * for each class in it once, even though each one is also a dependency of the next.
+ */
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BulkInstancesBenchmark {
+
+    @Param({"ALWAYS_CREATE_NEW", "SINGLETON"})
+    public Scope chainScope;
+
+    Context ctx;
+    Object[] keys;
+    InstancePlan plan;
+
+    @Setup
+    public void setup() {
+        ContextBuilder builder = new ContextBuilder();
+        for (Class c : CHAIN) {
+            builder.register(c).withScope(chainScope);
+        }
+        for (Class c : LEAVES) {
+            builder.register(c).withScope(Scope.SINGLETON);
+        }
+        ctx = builder.build();
+
+        keys = new Object[CHAIN.length + LEAVES.length];
+        System.arraycopy(CHAIN, 0, keys, 0, CHAIN.length);
+        System.arraycopy(LEAVES, 0, keys, CHAIN.length, LEAVES.length);
+        plan = ctx.planInstances(keys);
+    }
+
+    @Benchmark
+    public Object[] oneAtATime() {
+        Object[] instances = new Object[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            instances[i] = ctx.getInstance((Class) keys[i]);
+        }
+        return instances;
+    }
+
+    @Benchmark
+    public Object getInstances() {
+        return ctx.getInstances(keys);
+    }
+
+    @Benchmark
+    public Object[] heldPlan() {
+        return plan.execute();
+    }
+}
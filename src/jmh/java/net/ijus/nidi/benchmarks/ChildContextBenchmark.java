@@ -0,0 +1,62 @@
+package net.ijus.nidi.benchmarks;
+
+import net.ijus.nidi.Context;
+import net.ijus.nidi.bindings.Scope;
+import net.ijus.nidi.builder.ContextBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static net.ijus.nidi.benchmarks.Fixtures.*;
+
+/**
+ * Measures building a child Context that overrides two Bindings of a much larger parent, which should cost the same no
+ * matter how many Bindings the parent has.
+ */
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChildContextBenchmark {
+
+    Context parent;
+
+    @Setup
+    public void setup() {
+        ContextBuilder builder = new ContextBuilder();
+        for (Class c : CHAIN) {
+            builder.register(c);
+        }
+        for (Class c : LEAVES) {
+            builder.register(c).withScope(Scope.SINGLETON);
+        }
+        builder.register(FanOut8.class);
+        builder.register(Root.class);
+        builder.bind(Service.class).to(ServiceImpl.class);
+        builder.register(UsesService.class);
+        parent = builder.build();
+    }
+
+    @Benchmark
+    public Context buildChild() {
+        ContextBuilder builder = new ContextBuilder(parent);
+        builder.bind(Service.class).to(OtherServiceImpl.class);
+        builder.register(UsesService.class);
+        return builder.build();
+    }
+
+    @Benchmark
+    public Object buildChildAndGetInstance() {
+        return buildChild().getInstance(Root.class);
+    }
+}
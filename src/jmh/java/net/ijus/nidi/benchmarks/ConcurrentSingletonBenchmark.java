@@ -0,0 +1,53 @@
+package net.ijus.nidi.benchmarks;
+
+import net.ijus.nidi.bindings.CachingBinding;
+import net.ijus.nidi.bindings.Scope;
+import net.ijus.nidi.instantiation.ConstructorInstanceGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static net.ijus.nidi.benchmarks.Fixtures.*;
+
+/**
+ * Reads an already created singleton from many threads at once. <code>plainField</code> reads the same instance out of
+ * an ordinary field, which is the cost that <code>CachingBinding.getInstance()</code> should match.
+ */
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class ConcurrentSingletonBenchmark {
+
+    CachingBinding<Service> binding;
+    Service plainInstance;
+
+    @Setup
+    public void setup() {
+        ConstructorInstanceGenerator<ServiceImpl> gen = new ConstructorInstanceGenerator<ServiceImpl>(ServiceImpl.class);
+        binding = new CachingBinding<Service>((ConstructorInstanceGenerator) gen, Service.class, ServiceImpl.class, Scope.SINGLETON);
+        plainInstance = binding.getInstance();
+    }
+
+    @Benchmark
+    public Object cachingBinding() {
+        return binding.getInstance();
+    }
+
+    @Benchmark
+    public Object plainField() {
+        return plainInstance;
+    }
+}
@@ -0,0 +1,79 @@
+package net.ijus.nidi.benchmarks;
+
+import net.ijus.nidi.Context;
+import net.ijus.nidi.bindings.Scope;
+import net.ijus.nidi.builder.ContextBuilder;
+import net.ijus.nidi.instantiation.ConstructorMetadataCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static net.ijus.nidi.benchmarks.Fixtures.*;
+
+/**
+ * Measures configuring and building a whole Context, which is what an application pays for at startup.
+ */
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContextBuildBenchmark {
+
+    @Param({"false", "true"})
+    public boolean compiled;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    /**
+     * When true, the ConstructorMetadataCache is cleared before every build, which is what the first Context built in
+     * a JVM pays for
+     */
+    @Param({"false", "true"})
+    public boolean coldCache;
+
+    @Benchmark
+    public Context build() {
+        if (coldCache) {
+            ConstructorMetadataCache.clear();
+        }
+        ContextBuilder builder = new ContextBuilder();
+        builder.setCompiledInstantiation(compiled);
+        builder.setParallelBuild(parallel);
+        configure(builder);
+        return builder.build();
+    }
+
+    /**
+     * Binds every fixture, with the leaves as singletons
+     */
+    static void configure(ContextBuilder builder) {
+        for (Class c : CHAIN) {
+            builder.register(c);
+        }
+        for (Class c : LEAVES) {
+            builder.register(c).withScope(Scope.SINGLETON);
+        }
+        builder.register(FanOut1.class);
+        builder.register(FanOut2.class);
+        builder.register(FanOut4.class);
+        builder.register(FanOut8.class);
+        builder.register(Root.class);
+
+        builder.bindProperty("url", "http://localhost:8080");
+        builder.bindProperty("retries", 3);
+        builder.register(Configured.class);
+        builder.bind(Service.class).to(ServiceImpl.class);
+        builder.register(UsesService.class).bindConstructorParam(Service.class).to(OtherServiceImpl.class);
+    }
+}
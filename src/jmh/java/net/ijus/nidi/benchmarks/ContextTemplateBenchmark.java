@@ -0,0 +1,49 @@
+package net.ijus.nidi.benchmarks;
+
+import net.ijus.nidi.Context;
+import net.ijus.nidi.builder.ContextBuilder;
+import net.ijus.nidi.builder.ContextTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares creating a Context from a ContextTemplate with building the same Context from scratch
+ */
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContextTemplateBenchmark {
+
+    ContextTemplate template;
+
+    @Setup
+    public void setup() {
+        ContextBuilder builder = new ContextBuilder();
+        ContextBuildBenchmark.configure(builder);
+        template = builder.buildTemplate();
+    }
+
+    @Benchmark
+    public Context newContext() {
+        return template.newContext();
+    }
+
+    @Benchmark
+    public Context build() {
+        ContextBuilder builder = new ContextBuilder();
+        ContextBuildBenchmark.configure(builder);
+        return builder.build();
+    }
+}
@@ -0,0 +1,89 @@
+package net.ijus.nidi.benchmarks;
+
+import net.ijus.nidi.Context;
+import net.ijus.nidi.bindings.Scope;
+import net.ijus.nidi.builder.ContextBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static net.ijus.nidi.benchmarks.Fixtures.*;
+
+/**
+ * Measures creating instances with dependency graphs of varying depth and fan-out. <code>handWritten</code> creates the
+ * same 15 object graph as <code>rootGraph</code> using plain <code>new</code> calls, and is the baseline to compare against.
+ */
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DependencyGraphBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int size;
+
+    @Param({"ALWAYS_CREATE_NEW", "SINGLETON"})
+    public Scope scope;
+
+    @Param({"false", "true"})
+    public boolean compiled;
+
+    Context ctx;
+    Class chainClass;
+    Class fanOutClass;
+
+    @Setup
+    public void setup() {
+        ContextBuilder builder = new ContextBuilder();
+        builder.setDefaultScope(Scope.ALWAYS_CREATE_NEW);
+        builder.setCompiledInstantiation(compiled);
+
+        chainClass = CHAIN[size];
+        fanOutClass = fanOutClass(size);
+
+        for (Class c : CHAIN) {
+            builder.register(c).withScope(scope);
+        }
+        for (Class c : LEAVES) {
+            builder.register(c).withScope(scope);
+        }
+        builder.register(FanOut1.class).withScope(scope);
+        builder.register(FanOut2.class).withScope(scope);
+        builder.register(FanOut4.class).withScope(scope);
+        builder.register(FanOut8.class).withScope(scope);
+        builder.register(Root.class).withScope(scope);
+
+        ctx = builder.build();
+    }
+
+    @Benchmark
+    public Object chain() {
+        return ctx.getInstance(chainClass);
+    }
+
+    @Benchmark
+    public Object fanOut() {
+        return ctx.getInstance(fanOutClass);
+    }
+
+    @Benchmark
+    public Object rootGraph() {
+        return ctx.getInstance(Root.class);
+    }
+
+    @Benchmark
+    public Object handWritten() {
+        return newRootByHand();
+    }
+}
@@ -0,0 +1,266 @@
+package net.ijus.nidi.benchmarks;
+
+import net.ijus.nidi.Optional;
+import net.ijus.nidi.Require;
+
+import java.util.List;
+
+/**
+ * Plain Java classes used as the implementation classes in the benchmarks. They're kept deliberately trivial so that
+ * the benchmarks measure NiDI and not the constructors.
+ */
+public class Fixtures {
+
+    public interface Service {
+    }
+
+    public static class ServiceImpl implements Service {
+    }
+
+    public static class OtherServiceImpl implements Service {
+    }
+
+    public static class Leaf {
+    }
+
+    /*
+    Chains of dependencies, where each class depends on the one before it
+     */
+
+    public static class Chain1 {
+        public final Leaf dep;
+
+        public Chain1(Leaf dep) {
+            this.dep = dep;
+        }
+    }
+
+    public static class Chain2 {
+        public final Chain1 dep;
+
+        public Chain2(Chain1 dep) {
+            this.dep = dep;
+        }
+    }
+
+    public static class Chain3 {
+        public final Chain2 dep;
+
+        public Chain3(Chain2 dep) {
+            this.dep = dep;
+        }
+    }
+
+    public static class Chain4 {
+        public final Chain3 dep;
+
+        public Chain4(Chain3 dep) {
+            this.dep = dep;
+        }
+    }
+
+    public static class Chain5 {
+        public final Chain4 dep;
+
+        public Chain5(Chain4 dep) {
+            this.dep = dep;
+        }
+    }
+
+    public static class Chain6 {
+        public final Chain5 dep;
+
+        public Chain6(Chain5 dep) {
+            this.dep = dep;
+        }
+    }
+
+    public static class Chain7 {
+        public final Chain6 dep;
+
+        public Chain7(Chain6 dep) {
+            this.dep = dep;
+        }
+    }
+
+    public static class Chain8 {
+        public final Chain7 dep;
+
+        public Chain8(Chain7 dep) {
+            this.dep = dep;
+        }
+    }
+
+    public static final Class[] CHAIN = {Leaf.class, Chain1.class, Chain2.class, Chain3.class, Chain4.class, Chain5.class, Chain6.class, Chain7.class, Chain8.class};
+
+    /*
+    Classes with several independent dependencies
+     */
+
+    public static class LeafA {
+    }
+
+    public static class LeafB {
+    }
+
+    public static class LeafC {
+    }
+
+    public static class LeafD {
+    }
+
+    public static class LeafE {
+    }
+
+    public static class LeafF {
+    }
+
+    public static class LeafG {
+    }
+
+    public static class LeafH {
+    }
+
+    public static final Class[] LEAVES = {LeafA.class, LeafB.class, LeafC.class, LeafD.class, LeafE.class, LeafF.class, LeafG.class, LeafH.class};
+
+    public static class FanOut1 {
+        public FanOut1(LeafA a) {
+        }
+    }
+
+    public static class FanOut2 {
+        public FanOut2(LeafA a, LeafB b) {
+        }
+    }
+
+    public static class FanOut4 {
+        public FanOut4(LeafA a, LeafB b, LeafC c, LeafD d) {
+        }
+    }
+
+    public static class FanOut8 {
+        public FanOut8(LeafA a, LeafB b, LeafC c, LeafD d, LeafE e, LeafF f, LeafG g, LeafH h) {
+        }
+    }
+
+    public static Class fanOutClass(int width) {
+        switch (width) {
+            case 1:
+                return FanOut1.class;
+            case 2:
+                return FanOut2.class;
+            case 4:
+                return FanOut4.class;
+            case 8:
+                return FanOut8.class;
+            default:
+                throw new IllegalArgumentException("No FanOut class with width: " + width);
+        }
+    }
+
+    /**
+     * The root of a graph of 15 objects: itself, a FanOut4 with its 4 leaves, a Chain8 with its 8 dependencies, minus
+     * the shared Leaf at the bottom of the chain.
+     */
+    public static class Root {
+        public final FanOut4 fanOut;
+        public final Chain8 chain;
+
+        public Root(FanOut4 fanOut, Chain8 chain) {
+            this.fanOut = fanOut;
+            this.chain = chain;
+        }
+    }
+
+    public static Root newRootByHand() {
+        FanOut4 fanOut = new FanOut4(new LeafA(), new LeafB(), new LeafC(), new LeafD());
+        Chain8 chain = new Chain8(new Chain7(new Chain6(new Chain5(new Chain4(new Chain3(new Chain2(new Chain1(new Leaf()))))))));
+        return new Root(fanOut, chain);
+    }
+
+    /*
+    Classes with property bindings and constructor param overrides
+     */
+
+    public static class Configured {
+        public final String url;
+        public final Integer retries;
+
+        public Configured(@Require("url") String url, @Require("retries") Integer retries) {
+            this.url = url;
+            this.retries = retries;
+        }
+    }
+
+    public static class PrimitiveConfigured {
+        public final int port;
+        public final long timeout;
+        public final double threshold;
+        public final boolean enabled;
+
+        public PrimitiveConfigured(@Require("port") int port, @Require("timeout") long timeout, @Require("threshold") double threshold, @Require("enabled") boolean enabled) {
+            this.port = port;
+            this.timeout = timeout;
+            this.threshold = threshold;
+            this.enabled = enabled;
+        }
+    }
+
+    public static class UsesService {
+        public final Service service;
+
+        public UsesService(Service service) {
+            this.service = service;
+        }
+    }
+
+    public static class OptionalService {
+        public final Service service;
+
+        public OptionalService(@Optional Service service) {
+            this.service = service;
+        }
+    }
+
+    /**
+     * Stands in for something like a compressor, which holds on to a large buffer and must only be used by one thread
+     */
+    public static class Heavyweight {
+        public final byte[] buffer = new byte[64 * 1024];
+
+        public int use(int value) {
+            buffer[value & (buffer.length - 1)]++;
+            return buffer[0];
+        }
+    }
+
+    /*
+    A chain of plugins, provided by a multibinding
+     */
+
+    public interface Plugin {
+        int apply(int value);
+    }
+
+    public static class AddOne implements Plugin {
+        @Override
+        public int apply(int value) {
+            return value + 1;
+        }
+    }
+
+    public static class PluginChain {
+        public final List<Plugin> plugins;
+
+        public PluginChain(List<Plugin> plugins) {
+            this.plugins = plugins;
+        }
+
+        public int run(int value) {
+            for (int i = 0; i < plugins.size(); i++) {
+                value = plugins.get(i).apply(value);
+            }
+            return value;
+        }
+    }
+}
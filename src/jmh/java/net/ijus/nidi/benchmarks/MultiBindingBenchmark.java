@@ -0,0 +1,81 @@
+package net.ijus.nidi.benchmarks;
+
+import net.ijus.nidi.Context;
+import net.ijus.nidi.bindings.Scope;
+import net.ijus.nidi.builder.ContextBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static net.ijus.nidi.benchmarks.Fixtures.*;
+
+/**
+ * Measures a chain of plugins provided by a multibinding. <code>runChain</code> iterates the materialized List held by a
+ * SINGLETON, and should allocate nothing, the same as <code>runHandBuiltChain</code>, which uses an ArrayList bound with
+ * <code>toObject</code>. <code>getAll</code> is the cost of asking the Context for the List, and
+ * <code>newChain</code> creates an ALWAYS_CREATE_NEW consumer of it.
+ */
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MultiBindingBenchmark {
+
+    @Param({"2", "8"})
+    public int size;
+
+    @Param({"SINGLETON", "ALWAYS_CREATE_NEW"})
+    public Scope elementScope;
+
+    Context ctx;
+    PluginChain chain;
+    PluginChain handBuilt;
+
+    @Setup
+    public void setup() {
+        ContextBuilder builder = new ContextBuilder();
+        List<Plugin> plugins = new ArrayList<Plugin>();
+        for (int i = 0; i < size; i++) {
+            builder.multibind(Plugin.class).addBinding().withScope(elementScope).to(AddOne.class);
+            plugins.add(new AddOne());
+        }
+        builder.register(PluginChain.class).withScope(Scope.ALWAYS_CREATE_NEW);
+        ctx = builder.build();
+
+        chain = ctx.getInstance(PluginChain.class);
+        handBuilt = new PluginChain(plugins);
+    }
+
+    @Benchmark
+    public int runChain() {
+        return chain.run(0);
+    }
+
+    @Benchmark
+    public int runHandBuiltChain() {
+        return handBuilt.run(0);
+    }
+
+    @Benchmark
+    public Object getAll() {
+        return ctx.getAll(Plugin.class);
+    }
+
+    @Benchmark
+    public Object newChain() {
+        return ctx.getInstance(PluginChain.class);
+    }
+}
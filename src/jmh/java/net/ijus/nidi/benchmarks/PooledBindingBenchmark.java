@@ -0,0 +1,92 @@
+package net.ijus.nidi.benchmarks;
+
+import net.ijus.nidi.Context;
+import net.ijus.nidi.bindings.Lease;
+import net.ijus.nidi.bindings.Scope;
+import net.ijus.nidi.builder.ContextBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static net.ijus.nidi.benchmarks.Fixtures.*;
+
+/**
+ * Borrows and releases a heavyweight instance from 64 threads at once. <code>handRolledPool</code> wraps
+ * <code>getInstance</code> in an ArrayBlockingQueue, which is what a POOLED Binding replaces, and
+ * <code>alwaysCreateNew</code> shows what it costs to not pool at all.
+ */
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(64)
+public class PooledBindingBenchmark {
+
+    @Param({"8", "64"})
+    public int poolSize;
+
+    Context ctx;
+    Context unpooledCtx;
+    BlockingQueue<Heavyweight> handRolled;
+
+    @Setup
+    public void setup() {
+        ContextBuilder builder = new ContextBuilder();
+        builder.register(Heavyweight.class).withPoolSize(poolSize, poolSize);
+        ctx = builder.build();
+
+        ContextBuilder unpooled = new ContextBuilder();
+        unpooled.register(Heavyweight.class).withScope(Scope.ALWAYS_CREATE_NEW);
+        unpooledCtx = unpooled.build();
+
+        handRolled = new ArrayBlockingQueue<Heavyweight>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            handRolled.add(unpooledCtx.getInstance(Heavyweight.class));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        ctx.dispose();
+    }
+
+    @Benchmark
+    public int pooledBinding() {
+        try (Lease<Heavyweight> lease = ctx.borrow(Heavyweight.class)) {
+            return lease.get().use(poolSize);
+        }
+    }
+
+    @Benchmark
+    public int handRolledPool() {
+        Heavyweight instance = handRolled.poll();
+        if (instance == null) {
+            instance = unpooledCtx.getInstance(Heavyweight.class);
+        }
+        try {
+            return instance.use(poolSize);
+        } finally {
+            handRolled.offer(instance);
+        }
+    }
+
+    @Benchmark
+    public int alwaysCreateNew() {
+        return unpooledCtx.getInstance(Heavyweight.class).use(poolSize);
+    }
+}
@@ -0,0 +1,84 @@
+package net.ijus.nidi.benchmarks;
+
+import net.ijus.nidi.Context;
+import net.ijus.nidi.builder.ContextBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static net.ijus.nidi.benchmarks.Fixtures.*;
+
+/**
+ * Measures instances that get their constructor params from bound properties, from <code>bindConstructorParam</code>
+ * overrides, and from optional params bound to null. <code>primitiveProperties</code> uses int, long, double and
+ * boolean properties, which are passed to the constructor without being boxed.
+ */
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropertyBindingBenchmark {
+
+    @Param({"false", "true"})
+    public boolean compiled;
+
+    Context ctx;
+
+    @Setup
+    public void setup() {
+        ContextBuilder builder = new ContextBuilder();
+        builder.setCompiledInstantiation(compiled);
+
+        builder.bindProperty("url", "http://localhost:8080");
+        builder.bindProperty("retries", 3);
+        builder.register(Configured.class);
+
+        builder.bindProperty("port", 8080);
+        builder.bindProperty("timeout", 30000L);
+        builder.bindProperty("threshold", 0.75d);
+        builder.bindProperty("enabled", true);
+        builder.register(PrimitiveConfigured.class);
+
+        builder.bind(Service.class).to(ServiceImpl.class);
+        builder.register(UsesService.class).bindConstructorParam(Service.class).to(OtherServiceImpl.class);
+        builder.register(OptionalService.class);
+
+        ctx = builder.build();
+    }
+
+    @Benchmark
+    public Object boundProperties() {
+        return ctx.getInstance(Configured.class);
+    }
+
+    @Benchmark
+    public Object primitiveProperties() {
+        return ctx.getInstance(PrimitiveConfigured.class);
+    }
+
+    @Benchmark
+    public Object propertyLookup() {
+        return ctx.getInstance("url");
+    }
+
+    @Benchmark
+    public Object constructorParamOverride() {
+        return ctx.getInstance(UsesService.class);
+    }
+
+    @Benchmark
+    public Object contextReferenceParam() {
+        return ctx.getInstance(OptionalService.class);
+    }
+}
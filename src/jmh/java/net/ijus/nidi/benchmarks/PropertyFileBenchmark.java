@@ -0,0 +1,96 @@
+package net.ijus.nidi.benchmarks;
+
+import net.ijus.nidi.Context;
+import net.ijus.nidi.builder.ContextBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import static net.ijus.nidi.benchmarks.Fixtures.*;
+
+/**
+ * Measures building a Context whose properties come from a file with <code>propertyCount</code> entries, of which only
+ * the few needed by <code>PrimitiveConfigured</code> and <code>Configured</code> are used. <code>mappedFile</code> uses
+ * <code>bindProperties</code>, and <code>eagerlyParsed</code> loads the whole file with <code>java.util.Properties</code>
+ * and calls <code>bindProperty</code> for every entry, which is what configs had to do before.
+ */
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropertyFileBenchmark {
+
+    @Param({"100", "10000"})
+    public int propertyCount;
+
+    File file;
+
+    @Setup
+    public void setup() throws IOException {
+        file = File.createTempFile("nidi-benchmark", ".properties");
+        try (PrintWriter out = new PrintWriter(file, "UTF-8")) {
+            out.println("url=http://localhost:8080");
+            out.println("retries=3");
+            out.println("port=8080");
+            out.println("timeout=30000");
+            out.println("threshold=0.75");
+            out.println("enabled=true");
+            for (int i = 0; i < propertyCount; i++) {
+                out.println("unused.property." + i + "=some value that nobody needs " + i);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public Context mappedFile() {
+        ContextBuilder builder = new ContextBuilder();
+        builder.bindProperties(null, file);
+        builder.register(PrimitiveConfigured.class);
+        builder.register(Configured.class);
+        return builder.build();
+    }
+
+    @Benchmark
+    public Context eagerlyParsed() throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), "UTF-8")) {
+            properties.load(reader);
+        }
+        ContextBuilder builder = new ContextBuilder();
+        for (String key : properties.stringPropertyNames()) {
+            builder.bindProperty(key, properties.getProperty(key));
+        }
+        builder.bindProperty("retries", Integer.valueOf(properties.getProperty("retries")));
+        builder.bindProperty("port", Integer.parseInt(properties.getProperty("port")));
+        builder.bindProperty("timeout", Long.parseLong(properties.getProperty("timeout")));
+        builder.bindProperty("threshold", Double.parseDouble(properties.getProperty("threshold")));
+        builder.bindProperty("enabled", Boolean.parseBoolean(properties.getProperty("enabled")));
+        builder.register(PrimitiveConfigured.class);
+        builder.register(Configured.class);
+        return builder.build();
+    }
+}
@@ -0,0 +1,120 @@
+package net.ijus.nidi;
+
+import net.ijus.nidi.utils.LatencyHistogram;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The results of a benchmark run by <code>ContextTestUtils.benchmark</code>. All latencies are in nanoseconds. The
+ * assert methods make it easy to check a latency budget from a test, without needing a separate benchmarking harness.
+ */
+public class BenchmarkReport {
+
+    private final String name;
+    private final int threads;
+    private final long elapsedNanos;
+    private final long allocatedBytes;
+    private final LatencyHistogram histogram;
+
+    public BenchmarkReport(String name, int threads, long elapsedNanos, long allocatedBytes, LatencyHistogram histogram) {
+        this.name = name;
+        this.threads = threads;
+        this.elapsedNanos = elapsedNanos;
+        this.allocatedBytes = allocatedBytes;
+        this.histogram = histogram;
+    }
+
+    public long getOperations() {
+        return histogram.getCount();
+    }
+
+    public long getP50() {
+        return histogram.getValueAtPercentile(50);
+    }
+
+    public long getP99() {
+        return histogram.getValueAtPercentile(99);
+    }
+
+    public long getP999() {
+        return histogram.getValueAtPercentile(99.9);
+    }
+
+    public long getMax() {
+        return histogram.getMax();
+    }
+
+    public double getMean() {
+        return histogram.getMean();
+    }
+
+    public long getPercentile(double percentile) {
+        return histogram.getValueAtPercentile(percentile);
+    }
+
+    /**
+     * @return operations per second across all threads
+     */
+    public double getThroughput() {
+        return (elapsedNanos == 0) ? 0 : getOperations() / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * @return the average number of bytes allocated per operation, or -1 if allocations could not be measured
+     */
+    public double getAllocatedBytesPerOp() {
+        if (allocatedBytes < 0 || getOperations() == 0) {
+            return -1;
+        }
+        return allocatedBytes / (double) getOperations();
+    }
+
+    /**
+     * Throws an AssertionError if the given percentile is above the budget.
+     *
+     * @param percentile for example 99.9
+     * @param maxNanos the latency budget in nanoseconds
+     * @return this report, for chaining
+     */
+    public BenchmarkReport assertPercentileBelow(double percentile, long maxNanos) {
+        long actual = getPercentile(percentile);
+        if (actual > maxNanos) {
+            throw new AssertionError("Benchmark: " + name + " expected p" + percentile + " to be at most " + maxNanos + "ns, but was " + actual + "ns. " + this);
+        }
+        return this;
+    }
+
+    /**
+     * Throws an AssertionError if more than the given number of bytes are allocated per operation. Does nothing if
+     * allocations can't be measured on this JVM.
+     */
+    public BenchmarkReport assertAllocatedBytesPerOpBelow(double maxBytes) {
+        double actual = getAllocatedBytesPerOp();
+        if (actual > maxBytes) {
+            throw new AssertionError("Benchmark: " + name + " expected at most " + maxBytes + " bytes/op to be allocated, but was " + actual + ". " + this);
+        }
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d ops on %d thread(s), p50=%dns p99=%dns p999=%dns max=%dns mean=%.1fns, %.0f ops/s, %.1f bytes/op",
+                name, getOperations(), threads, getP50(), getP99(), getP999(), getMax(), getMean(), getThroughput(), getAllocatedBytesPerOp());
+    }
+}
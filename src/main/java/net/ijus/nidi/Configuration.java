@@ -55,6 +55,20 @@ public class Configuration {
         return build(builder);
     }
 
+    /**
+     * Configures and builds a child Context that overlays the parent. The config only needs to bind what's different
+     * from the parent, and everything else is looked up in the parent.
+     *
+     * @param parent a Context that has already been built
+     * @param config binds the overrides for the child
+     * @return the child Context
+     */
+    public static Context configureChild(Context parent, ContextConfig config) throws InvalidConfigurationException {
+        ContextBuilder builder = new ContextBuilder(parent);
+        configure(builder, config);
+        return build(builder);
+    }
+
     /**
      * validates the builder, then builds and returns the Context
      *
@@ -94,8 +108,12 @@ public class Configuration {
     }
 
     public static void configure(ContextBuilder builder, ContextConfig config) throws InvalidConfigurationException {
-        config.configure(builder);
-
+        StartupTimeline.Span span = StartupTimeline.begin(StartupTimeline.CONFIG, config.getClass().getName());
+        try {
+            config.configure(builder);
+        } finally {
+            StartupTimeline.end(span);
+        }
     }
 
 }
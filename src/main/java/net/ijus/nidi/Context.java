@@ -1,9 +1,32 @@
 package net.ijus.nidi;
 
 import net.ijus.nidi.bindings.Binding;
+import net.ijus.nidi.bindings.BindingGraph;
+import net.ijus.nidi.bindings.Disposable;
+import net.ijus.nidi.bindings.Lease;
+import net.ijus.nidi.bindings.MultiBinding;
+import net.ijus.nidi.bindings.PooledBinding;
+import net.ijus.nidi.instantiation.AsyncInstantiator;
+import net.ijus.nidi.instantiation.InstanceFuture;
+import net.ijus.nidi.instantiation.InstancePlan;
+import net.ijus.nidi.metrics.ContextMetrics;
+import net.ijus.nidi.metrics.MetricsSnapshot;
+import net.ijus.nidi.utils.ConcurrencyUtils;
 
+import javax.management.ObjectName;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Context is the main point of contact between NiDI and the rest of the application. Context handles generating and managing all of the classes that are bound within it's configuration.
@@ -15,19 +38,85 @@ import java.util.Map;
  * Once the Context is created, the important methods are <code>getInstance(Class or Object)</code>. These will provide an instance of the correct class, all ready to go.
  */
 public class Context {
-    private Map<Object, Binding> bindingsMap = new LinkedHashMap<Object, Binding>();
+    private Map<Object, Binding> bindingsMap = Collections.emptyMap();
 
+    /**
+     * The Context that this one overlays, or null. Lookups for keys that aren't bound in this Context fall through to it
+     */
+    private final Context parent;
+
+    /**
+     * Every Binding reachable from this Context, including the parent's. Computed the first time it's needed, once the
+     * Context has been built.
+     */
+    private volatile Set<Binding> reachableBindings;
+
+    /**
+     * Lookup tables that get populated when the Context is frozen. Class keys are compared by identity, so looking up a
+     * Binding is a single probe that never calls <code>hashCode</code> or <code>equals</code> on the Class.
+     */
+    private Map<Class, Binding> classBindings = new IdentityHashMap<Class, Binding>();
+    private Map<String, Binding> propertyBindings = new HashMap<String, Binding>();
+
+    /**
+     * The List form of each multibinding, keyed by element type
+     */
+    private Map<Class, MultiBinding> multiBindings = Collections.emptyMap();
+
+    private boolean frozen = false;
+    private boolean linked = false;
+    private volatile boolean disposed = false;
+
+    /**
+     * The Executor used by getInstanceAsync. If this is null, the shared default pool is used
+     */
+    private Executor asyncExecutor;
+
+    /**
+     * The names of the MBeans registered for this Context, if any
+     */
+    private List<ObjectName> mbeanNames = Collections.emptyList();
+
+    /**
+     * The plans used by getInstances, keyed by the list of requested keys. Callers are expected to use a small, fixed
+     * number of key sets, so once this is full, new plans just aren't cached.
+     */
+    private final Map<List<Object>, InstancePlan> instancePlans = new ConcurrentHashMap<List<Object>, InstancePlan>();
+    static final int MAX_CACHED_PLANS = 256;
+
+
+    public Context() {
+        this(null);
+    }
+
+    /**
+     * Creates a child Context, which overlays the given parent. Use <code>new ContextBuilder(parent)</code> to build one.
+     *
+     * @param parent the Context to fall through to, or null
+     */
+    public Context(Context parent) {
+        this.parent = parent;
+    }
 
     public <T> Binding<T> getBinding(Class<T> key) {
-        return (Binding<T>) bindingsMap.get(key);
+        Binding<T> binding = classBindings.get(key);
+        if (binding == null && parent != null) {
+            return parent.getBinding(key);
+        }
+        return binding;
     }
 
 	public Binding getBinding(String key) {
-		return bindingsMap.get(key);
+		Binding binding = propertyBindings.get(key);
+		if (binding == null && parent != null) {
+			return parent.getBinding(key);
+		}
+		return binding;
 	}
 
     public boolean containsBinding(Object key) {
-        return bindingsMap.containsKey(key);
+        boolean contains = (key instanceof String) ? propertyBindings.containsKey(key) : classBindings.containsKey(key);
+        return contains || (parent != null && parent.containsBinding(key));
     }
 
 	/**
@@ -41,11 +130,12 @@ public class Context {
 	 * @return an instance of the class requested, already cast to the correct type.
 	 */
     public <T> T getInstance(final Class<T> clazz) {
-        if (!containsBinding(clazz)) {
+        Binding<T> binding = getBinding(clazz);
+        if (binding == null) {
             throw new InvalidConfigurationException("The Class: " + clazz.getCanonicalName() + " was requested from a Context, but no Binding exists for it");
         }
 
-        return getBinding(clazz).getInstance();
+        return binding.getInstance();
     }
 
 	/**
@@ -56,19 +146,357 @@ public class Context {
 	 * @return the requested instance
 	 */
     public Object getInstance(final String key) {
-        if (!containsBinding(key)) {
+        Binding binding = getBinding(key);
+        if (binding == null) {
             throw new InvalidConfigurationException("The Property: " + key + " was requested from a Context but no Binding exists for it");
         }
 
-        return getBinding(key).getInstance();
+        return binding.getInstance();
     }
 
-    public Map<Object, Binding> getBindingsMap() {
-        return bindingsMap;
+    /**
+     * Returns every element of the multibinding for the given type, in the order they were added. If every element is
+     * a SINGLETON, the same immutable List is returned every time.
+     *
+     * @param elementType the element type passed to <code>ContextBuilder.multibind</code>
+     * @return an immutable List of the elements
+     * @throws InvalidConfigurationException if nothing has been multibound for the type
+     */
+    @SuppressWarnings("unchecked")
+    public <E> List<E> getAll(final Class<E> elementType) {
+        MultiBinding<E> binding = getMultiBinding(elementType);
+        if (binding == null) {
+            throw new InvalidConfigurationException("All instances of: " + elementType.getCanonicalName() + " were requested from a Context, but no multibinding exists for it");
+        }
+        return (List<E>) binding.getInstance();
+    }
+
+    /**
+     * @return the List form of the multibinding for the element type, or null if there isn't one
+     */
+    @SuppressWarnings("unchecked")
+    public <E> MultiBinding<E> getMultiBinding(Class<E> elementType) {
+        MultiBinding<E> binding = multiBindings.get(elementType);
+        if (binding == null && parent != null) {
+            return parent.getMultiBinding(elementType);
+        }
+        return binding;
+    }
+
+    /**
+     * Gets instances for several keys at once, which is useful for something like a request handler that needs a dozen
+     * services at a time. The Bindings for a set of keys are looked up once, and the plan for creating them is cached,
+     * so later calls with the same keys skip the lookups. Within a single call, a SINGLETON, ONE_PER_BINDING or THREAD
+     * scoped dependency that's shared by several of the instances is only requested once. ALWAYS_CREATE_NEW Bindings
+     * still create a new instance every time they're needed.
+     *
+     * @param keys Classes and property names, in any mix
+     * @return the instances, in the same order as the keys
+     * @throws InvalidConfigurationException if there's no Binding for any of the keys
+     */
+    public Instances getInstances(Object... keys) {
+        List<Object> keyList = Arrays.asList(keys);
+        InstancePlan plan = instancePlans.get(keyList);
+        if (plan == null) {
+            keys = keys.clone();
+            plan = planInstances(keys);
+            if (linked && instancePlans.size() < MAX_CACHED_PLANS) {
+                instancePlans.put(Arrays.asList(keys), plan);
+            }
+        }
+        return new Instances(keys, plan.execute());
+    }
+
+    /**
+     * Creates the plan used by <code>getInstances</code>, without caching it. Callers that hold on to the plan themselves
+     * can skip even the cache lookup by calling <code>InstancePlan.execute()</code> directly.
+     *
+     * @param keys Classes and property names, in any mix
+     * @throws InvalidConfigurationException if there's no Binding for any of the keys
+     */
+    public InstancePlan planInstances(Object... keys) {
+        Binding[] bindings = new Binding[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            Object key = keys[i];
+            if (key instanceof Class) {
+                bindings[i] = getBinding((Class) key);
+                if (bindings[i] == null) {
+                    throw new InvalidConfigurationException("The Class: " + ((Class) key).getCanonicalName() + " was requested from a Context, but no Binding exists for it");
+                }
+            } else if (key instanceof String) {
+                bindings[i] = getBinding((String) key);
+                if (bindings[i] == null) {
+                    throw new InvalidConfigurationException("The Property: " + key + " was requested from a Context but no Binding exists for it");
+                }
+            } else {
+                throw new InvalidConfigurationException("Instances must be requested by either a Class or a String, but got: " + String.valueOf(key));
+            }
+        }
+        return new InstancePlan(bindings);
+    }
+
+    /**
+     * @return the number of plans cached by getInstances
+     */
+    public int getCachedPlanCount() {
+        return instancePlans.size();
+    }
+
+    /**
+     * Creates an instance of the given class asynchronously, using the async Executor. Constructor args that don't
+     * depend on each other are created at the same time, and the constructor is called once all of them are done.
+     * Instances that are already cached are used as-is. If creating any part of the instance fails, the returned future
+     * fails with that exception, and any parts that haven't finished yet are cancelled.
+     *
+     * @param clazz The type of instance being requested
+     * @return a future that will be completed with the instance
+     */
+    public <T> InstanceFuture<T> getInstanceAsync(final Class<T> clazz) {
+        return getInstanceAsync(clazz, 0, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * The same as <code>getInstanceAsync(Class)</code>, except that the returned future fails with a TimeoutException
+     * if the instance hasn't been created before the timeout. Any parts that haven't finished by then are cancelled.
+     *
+     * @param timeout the most time to allow for creating the instance, or 0 for no limit
+     * @param unit the unit for the timeout
+     */
+    public <T> InstanceFuture<T> getInstanceAsync(final Class<T> clazz, long timeout, TimeUnit unit) {
+        Binding<T> binding = getBinding(clazz);
+        if (binding == null) {
+            throw new InvalidConfigurationException("The Class: " + clazz.getCanonicalName() + " was requested from a Context, but no Binding exists for it");
+        }
+
+        return new AsyncInstantiator(getAsyncExecutor()).getInstance(binding, timeout, unit);
+    }
+
+    /**
+     * Borrows an instance of the given class. For a Binding with <code>Scope.POOLED</code>, the instance comes from the
+     * pool and goes back into it when the Lease is closed. For any other Binding, this is the same as
+     * <code>getInstance(Class)</code> and closing the Lease does nothing, so callers don't need to know how the class is scoped.
+     *
+     * @param clazz The type of instance being requested
+     * @return a Lease holding the instance, which should be closed as soon as the caller is done with it
+     */
+    public <T> Lease<T> borrow(final Class<T> clazz) {
+        Binding<T> binding = getBinding(clazz);
+        if (binding == null) {
+            throw new InvalidConfigurationException("The Class: " + clazz.getCanonicalName() + " was requested from a Context, but no Binding exists for it");
+        }
+
+        if (binding instanceof PooledBinding) {
+            return ((PooledBinding<T>) binding).lease();
+        }
+        return new Lease<T>(binding.getInstance());
+    }
+
+    /**
+     * Populates the Context with its Bindings and makes it immutable. This is called exactly once, by
+     * <code>ContextBuilder.build()</code>. Bindings are split into a table keyed by Class and another keyed by property name.
+     *
+     * @param bindings all of the Bindings for the Context, keyed by either Class or String
+     * @throws InvalidConfigurationException if the Context has already been frozen
+     */
+    public void freeze(Map<Object, Binding> bindings) throws InvalidConfigurationException {
+        freeze(bindings, Collections.<Class, MultiBinding>emptyMap());
+    }
+
+    /**
+     * The same as <code>freeze(Map)</code>, but also sets the multibindings
+     *
+     * @param multiBindings the List form of each multibinding, keyed by element type
+     */
+    public void freeze(Map<Object, Binding> bindings, Map<Class, MultiBinding> multiBindings) throws InvalidConfigurationException {
+        if (frozen) {
+            throw new InvalidConfigurationException("Attempted to add Bindings to a Context that has already been built");
+        }
+
+        Map<Class, Binding> classTable = new IdentityHashMap<Class, Binding>(bindings.size());
+        Map<String, Binding> propertyTable = new HashMap<String, Binding>();
+        for (Map.Entry<Object, Binding> entry : bindings.entrySet()) {
+            Object key = entry.getKey();
+            if (key instanceof Class) {
+                classTable.put((Class) key, entry.getValue());
+            } else if (key instanceof String) {
+                propertyTable.put((String) key, entry.getValue());
+            } else {
+                throw new InvalidConfigurationException("Bindings must be keyed by either a Class or a String, but got: " + String.valueOf(key));
+            }
+        }
+
+        this.classBindings = classTable;
+        this.propertyBindings = propertyTable;
+        this.bindingsMap = Collections.unmodifiableMap(new LinkedHashMap<Object, Binding>(bindings));
+        this.multiBindings = Collections.unmodifiableMap(new LinkedHashMap<Class, MultiBinding>(multiBindings));
+        this.frozen = true;
+    }
+
+    /**
+     * Removes all of the indirection from the Bindings in a frozen Context. Any ContextBindingReferences, both in the
+     * lookup tables and in constructor params, get replaced with the Bindings they resolve to. The Bindings returned by
+     * <code>getBindingsMap()</code> are left as they were declared. This is called by <code>ContextBuilder.build()</code>,
+     * and calling it again does nothing.
+     *
+     * @return the number of references that were replaced
+     * @throws InvalidConfigurationException if the Context hasn't been frozen yet
+     */
+    public int link() throws InvalidConfigurationException {
+        if (!frozen) {
+            throw new InvalidConfigurationException("Attempted to link a Context before it was built");
+        }
+        if (linked) {
+            return 0;
+        }
+
+        int count = BindingGraph.link(getRootBindings());
+        Map<Class, Binding> classTable = new IdentityHashMap<Class, Binding>(classBindings.size());
+        for (Map.Entry<Class, Binding> entry : classBindings.entrySet()) {
+            Binding resolved = BindingGraph.resolve(entry.getValue());
+            count += (resolved != entry.getValue()) ? 1 : 0;
+            classTable.put(entry.getKey(), resolved);
+        }
+        Map<String, Binding> propertyTable = new HashMap<String, Binding>(propertyBindings.size() * 2);
+        for (Map.Entry<String, Binding> entry : propertyBindings.entrySet()) {
+            propertyTable.put(entry.getKey(), BindingGraph.resolve(entry.getValue()));
+        }
+
+        this.classBindings = classTable;
+        this.propertyBindings = propertyTable;
+        this.linked = true;
+        return count;
+    }
+
+    /**
+     * Returns the current metrics for every Binding in this Context. Metrics are only recorded if they were enabled on the
+     * ContextBuilder, otherwise the snapshot is empty.
+     *
+     * @return a snapshot of the metrics, which won't change as the Context is used
+     */
+    public MetricsSnapshot getMetrics() {
+        return new MetricsSnapshot(ContextMetrics.collect(bindingsMap, getOwnedBindings()));
+    }
+
+    /**
+     * Registers an MBean with the platform MBeanServer for each metered Binding in this Context. Any MBeans that were
+     * already registered for this Context are unregistered first.
+     *
+     * @param contextName identifies this Context in the names of the MBeans
+     * @return the number of MBeans registered
+     */
+    public synchronized int registerMBeans(String contextName) {
+        unregisterMBeans();
+        mbeanNames = ContextMetrics.register(contextName, ContextMetrics.collect(bindingsMap, getOwnedBindings()));
+        return mbeanNames.size();
+    }
+
+    public synchronized void unregisterMBeans() {
+        ContextMetrics.unregister(mbeanNames);
+        mbeanNames = Collections.emptyList();
+    }
+
+    /**
+     * Releases the resources held by the Bindings in this Context, such as the per-thread instances of THREAD scoped
+     * Bindings, and unregisters any MBeans. This should be called once the Context is no longer being used, since
+     * Bindings that have been disposed will refuse to create any more instances. Calling it again does nothing. Disposing
+     * a child Context leaves the Bindings that belong to its parent alone.
+     *
+     * @return the number of Bindings that were disposed
+     */
+    public int dispose() {
+        if (disposed) {
+            return 0;
+        }
+        disposed = true;
+        unregisterMBeans();
+
+        int count = 0;
+        for (Binding binding : getOwnedBindings()) {
+            if (binding instanceof Disposable) {
+                ((Disposable) binding).dispose();
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return every Binding reachable from this Context, including any that belong to the parent
+     */
+    public Set<Binding> getReachableBindings() {
+        Set<Binding> reachable = reachableBindings;
+        if (reachable == null) {
+            reachable = Collections.unmodifiableSet(BindingGraph.reachable(getRootBindings()));
+            if (linked) {
+                //the graph can still change until references are linked
+                reachableBindings = reachable;
+            }
+        }
+        return reachable;
+    }
+
+    /**
+     * @return the Bindings reachable from this Context that don't also belong to the parent
+     */
+    protected Set<Binding> getOwnedBindings() {
+        if (parent == null) {
+            return getReachableBindings();
+        }
+        Set<Binding> owned = BindingGraph.reachable(getRootBindings());
+        owned.removeAll(parent.getReachableBindings());
+        return owned;
+    }
+
+    /**
+     * @return the Bindings in this Context along with its multibindings, which is where walking the graph of Bindings starts
+     */
+    public Collection<Binding> getRootBindings() {
+        if (multiBindings.isEmpty()) {
+            return bindingsMap.values();
+        }
+        List<Binding> roots = new ArrayList<Binding>(bindingsMap.size() + multiBindings.size());
+        roots.addAll(bindingsMap.values());
+        roots.addAll(multiBindings.values());
+        return roots;
+    }
+
+    /**
+     * @return the List form of each multibinding declared in this Context, keyed by element type
+     */
+    public Map<Class, MultiBinding> getMultiBindings() {
+        return multiBindings;
     }
 
-    public void setBindingsMap(Map<Object, Binding> bindingsMap) {
-        this.bindingsMap = bindingsMap;
+    public Context getParent() {
+        return parent;
+    }
+
+    public Executor getAsyncExecutor() {
+        return (asyncExecutor != null) ? asyncExecutor : ConcurrencyUtils.getDefaultPool();
+    }
+
+    public void setAsyncExecutor(Executor asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+    }
+
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+    public boolean isLinked() {
+        return linked;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * @return a read-only view of all the Bindings in this Context, in the order they were declared. For a child Context,
+     * this only includes the Bindings declared in the child.
+     */
+    public Map<Object, Binding> getBindingsMap() {
+        return bindingsMap;
     }
 
 }
@@ -0,0 +1,105 @@
+package net.ijus.nidi;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One Context that has been published in the ContextHolder, along with its version and the number of readers that are
+ * currently holding it. Once it has been replaced and the last reader has released it, it is drained and its
+ * ContextShutdownHook, if any, gets called exactly once.
+ */
+public class ContextGeneration {
+    private static final Logger log = LoggerFactory.getLogger(ContextGeneration.class);
+
+    private final Context context;
+    private final long version;
+    private final AtomicInteger readers = new AtomicInteger();
+    private final AtomicBoolean drained = new AtomicBoolean();
+    private final CountDownLatch drainedLatch = new CountDownLatch(1);
+    private volatile boolean retired = false;
+    private volatile ContextShutdownHook hook;
+
+    public ContextGeneration(Context context, long version) {
+        this.context = context;
+        this.version = version;
+    }
+
+    /**
+     * Registers a reader. The caller has to check that this generation is still current afterwards, and release it if not.
+     */
+    void acquire() {
+        readers.incrementAndGet();
+    }
+
+    void release() {
+        if (readers.decrementAndGet() == 0 && retired) {
+            drain();
+        }
+    }
+
+    /**
+     * Marks this generation as replaced. If there aren't any readers, it's drained immediately.
+     */
+    void retire(ContextShutdownHook hook) {
+        this.hook = hook;
+        this.retired = true;
+        if (readers.get() == 0) {
+            drain();
+        }
+    }
+
+    private void drain() {
+        if (!drained.compareAndSet(false, true)) {
+            return;
+        }
+        log.debug("Context version {} has been drained", version);
+        try {
+            if (hook != null && context != null) {
+                hook.shutdown(context);
+            }
+        } catch (RuntimeException e) {
+            log.error("The shutdown hook for Context version " + version + " failed", e);
+        } finally {
+            drainedLatch.countDown();
+        }
+    }
+
+    /**
+     * Waits for every reader to release this generation, and for the shutdown hook to finish
+     *
+     * @return true if it was drained before the timeout
+     */
+    public boolean awaitDrained(long timeout, TimeUnit unit) throws InterruptedException {
+        return drainedLatch.await(timeout, unit);
+    }
+
+    public boolean isDrained() {
+        return drainedLatch.getCount() == 0;
+    }
+
+    public boolean isRetired() {
+        return retired;
+    }
+
+    public int getReaderCount() {
+        return readers.get();
+    }
+
+    public Context getContext() {
+        return context;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public String toString() {
+        return "ContextGeneration version: " + version + ", readers: " + readers.get() + (retired ? ", retired" : "");
+    }
+}
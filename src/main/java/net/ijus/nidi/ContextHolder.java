@@ -3,25 +3,101 @@ package net.ijus.nidi;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
 /**
  * Created by pfried on 6/16/14.
+ *
+ * Holds the application's main Context. The Context can be replaced at runtime with <code>swap</code>: build the new
+ * Context first, then swap it in, and every call to getContext() after that sees the new one. getContext() is a single
+ * volatile read once the holder has been initialized.
+ *
+ * Code that needs a consistent view across several calls, or needs the old Context to stay alive until it's done,
+ * should use <code>acquire()</code> instead. A replaced Context is drained once every lease on it has been closed, and
+ * then its ContextShutdownHook is called.
  */
 public class ContextHolder {
     public static Context getContext() {
-        if (ctx == null) {
-            initContext();
+        ContextGeneration gen = current.get();
+        if (gen == null) {
+            gen = initGeneration();
         }
+        return gen.getContext();
+    }
 
-        return ctx;
+    /**
+     * Acquires the current Context, which won't be drained until the lease is closed
+     */
+    public static ContextLease acquire() {
+        while (true) {
+            ContextGeneration gen = current.get();
+            if (gen == null) {
+                gen = initGeneration();
+            }
+            gen.acquire();
+            if (current.get() == gen) {
+                return new ContextLease(gen);
+            }
+            //swapped out between the read and the acquire, so let it drain and try again with the new one
+            gen.release();
+        }
     }
 
+    /**
+     * Replaces the Context without any shutdown hook
+     */
     public static void setContext(Context context) {
-        if (ctx != null) {
-            log.warn("The Context in the ContextHolder is being replaced at runtime.");
+        ContextGeneration old = swap(context, null);
+        if (old != null && old.getContext() != null && context != null) {
+            log.info("The Context in the ContextHolder has been replaced at runtime.");
+        }
+    }
+
+    /**
+     * Atomically replaces the Context. Readers that call getContext() after this returns get the new Context.
+     *
+     * @param context the new Context, which should already be built. If null, the next call to getContext() initializes
+     *                the holder again.
+     * @param hook called with the old Context once every lease on it has been closed, or null
+     * @return the generation that was replaced, which can be used to wait for it to drain, or null if there wasn't one
+     */
+    public static ContextGeneration swap(Context context, ContextShutdownHook hook) {
+        ContextGeneration next = (context != null) ? new ContextGeneration(context, versions.incrementAndGet()) : null;
+        ContextGeneration old = current.getAndSet(next);
+        if (old != null) {
+            old.retire(hook);
         }
+        return old;
+    }
+
+    public static ContextGeneration swap(Context context) {
+        return swap(context, null);
+    }
+
+    /**
+     * @return the version of the current Context, which goes up every time it's replaced, or 0 if there isn't one
+     */
+    public static long getVersion() {
+        ContextGeneration gen = current.get();
+        return (gen != null) ? gen.getVersion() : 0;
+    }
 
-        ctx = context;
+    public static ContextGeneration getGeneration() {
+        return current.get();
+    }
 
+    private static ContextGeneration initGeneration() {
+        synchronized (ContextHolder.class) {
+            ContextGeneration gen = current.get();
+            if (gen == null) {
+                gen = new ContextGeneration(initContext(), versions.incrementAndGet());
+                if (!current.compareAndSet(null, gen)) {
+                    gen = current.get();
+                }
+            }
+            return gen;
+        }
     }
 
     private static Context initContext() {
@@ -47,13 +123,15 @@ public class ContextHolder {
     }
 
     public static Context getCtx() {
-        return ctx;
+        ContextGeneration gen = current.get();
+        return (gen != null) ? gen.getContext() : null;
     }
 
     public static void setCtx(Context ctx) {
-        ContextHolder.ctx = ctx;
+        swap(ctx, null);
     }
 
     private static final Logger log = LoggerFactory.getLogger(ContextHolder.class);
-    private static Context ctx;
+    private static final AtomicReference<ContextGeneration> current = new AtomicReference<ContextGeneration>();
+    private static final AtomicLong versions = new AtomicLong();
 }
@@ -0,0 +1,38 @@
+package net.ijus.nidi;
+
+import net.ijus.nidi.bindings.Lease;
+
+/**
+ * A Context acquired from the ContextHolder. The Context won't be shut down while the lease is open, even if it gets
+ * replaced, so everything done with one lease sees the same version of the configuration.
+ * <pre>
+ *     try (ContextLease lease = ContextHolder.acquire()) {
+ *         lease.get().getInstance(OrderService.class).process(order);
+ *     }
+ * </pre>
+ */
+public class ContextLease extends Lease<Context> {
+
+    private final ContextGeneration generation;
+
+    ContextLease(ContextGeneration generation) {
+        super(generation.getContext());
+        this.generation = generation;
+    }
+
+    public long getVersion() {
+        return generation.getVersion();
+    }
+
+    /**
+     * @return true if the ContextHolder has been given a newer Context since this lease was acquired
+     */
+    public boolean isStale() {
+        return generation.isRetired();
+    }
+
+    @Override
+    protected void release(Context instance) {
+        generation.release();
+    }
+}
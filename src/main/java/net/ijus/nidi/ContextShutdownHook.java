@@ -0,0 +1,20 @@
+package net.ijus.nidi;
+
+/**
+ * Called with a Context that has been replaced in the ContextHolder, once every reader that acquired it has released it.
+ * This is where the old Context's singletons can be shut down.
+ */
+public interface ContextShutdownHook {
+
+    /**
+     * Disposes the retired Context, which closes any THREAD scoped or POOLED instances that are AutoCloseable
+     */
+    ContextShutdownHook DISPOSE = new ContextShutdownHook() {
+        @Override
+        public void shutdown(Context retired) {
+            retired.dispose();
+        }
+    };
+
+    void shutdown(Context retired);
+}
@@ -1,12 +1,22 @@
 package net.ijus.nidi;
 
+import net.ijus.nidi.instantiation.CreationException;
 import net.ijus.nidi.instantiation.InstanceGenerator;
+import net.ijus.nidi.utils.AllocationCounter;
+import net.ijus.nidi.utils.LatencyHistogram;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.math.BigInteger;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static java.lang.System.currentTimeMillis;
+import static java.lang.System.nanoTime;
 
 /**
  * Created by pfried on 6/18/14.
@@ -21,13 +31,26 @@ public class ContextTestUtils {
     }
 
     /**
-     * Executes the ContextConfig and returns the execution time in milliseconds. This is provided so that
-     * Context configuration can be benchmarked easily.
-     * @param config
-     * @return
+     * Configures and builds a new Context from the ContextConfig while recording a StartupTimeline, so it's easy to see
+     * where the time went. Any classes passed in are instantiated after the build, so the timeline also covers their
+     * first instantiation, nested by dependency.
+     *
+     * @param config the config to time
+     * @param firstInstances classes to get from the new Context once it's built. can be empty.
+     * @return the recorded timeline
      */
-    public static long timeConfiguration(ContextConfig config) {
-        return ContextTestUtils.time(config, currentTimeMillis());
+    public static StartupTimeline timeConfiguration(ContextConfig config, Class... firstInstances) {
+        StartupTimeline timeline = StartupTimeline.start();
+        try {
+            Context ctx = Configuration.configureNew(config);
+            for (Class clazz : firstInstances) {
+                ctx.getInstance(clazz);
+            }
+        } finally {
+            timeline.stop();
+        }
+        log.info("Configuration of {} took {}ms", config.getClass().getName(), TimeUnit.NANOSECONDS.toMillis(timeline.getTotalNanos()));
+        return timeline;
     }
 
     /**
@@ -35,7 +58,9 @@ public class ContextTestUtils {
      * InstanceGeneration can be easily benchmarked.
      * @param gen any instance generator to run.
      * @return
+     * @deprecated millisecond resolution is too coarse to be useful. Use {@link #benchmark(InstanceGenerator, int, int)} instead
      */
+    @Deprecated
     public static long timeInstanceGeneration(InstanceGenerator gen){
         long start = currentTimeMillis();
         gen.createNewInstance();
@@ -50,7 +75,9 @@ public class ContextTestUtils {
      * @param numExecutions the number of iterations to use for the test
      * @param numWarmups the number of warmup iterations. these will be logged, but not returned. can be 0.
      * @return each of the execution times, in order from first to last.
+     * @deprecated millisecond resolution is too coarse to be useful. Use {@link #benchmark(InstanceGenerator, int, int)} instead
      */
+    @Deprecated
     public static long[] benchmarkGenerator(InstanceGenerator gen, int numExecutions, int numWarmups) {
         if (numWarmups > 0) {
             log.info("Starting Benchmark of InstanceGenerator: Warming up with {} iterations", numWarmups);
@@ -71,6 +98,10 @@ public class ContextTestUtils {
         return times;
     }
 
+    /**
+     * @deprecated millisecond resolution is too coarse to be useful. Use {@link #benchmark(InstanceGenerator, int, int)} instead
+     */
+    @Deprecated
     public static long[] doBenchmark(InstanceGenerator gen, int iterations) {
         long[] times = new long[iterations];
         for (int i = 0; i < iterations; i++) {
@@ -81,10 +112,139 @@ public class ContextTestUtils {
         return times;
     }
 
-    private static long time(ContextConfig config, long startTime) {
-        Configuration.configureNew(config);
-        return System.currentTimeMillis() - startTime;
+    /**
+     * Benchmarks an InstanceGenerator on a single new thread from <code>Executors.defaultThreadFactory()</code>, while the
+     * current thread waits for it to finish. Every call is timed with <code>System.nanoTime()</code> and
+     * recorded in a fixed-size histogram, so the report can give accurate percentiles even for very fast generators.
+     *
+     * @param gen the generator to benchmark
+     * @param iterations the number of measured calls
+     * @param warmups the number of calls to make before measuring. can be 0.
+     * @return the percentiles, throughput and allocation rate
+     */
+    public static BenchmarkReport benchmark(InstanceGenerator gen, int iterations, int warmups) {
+        return benchmark(gen, iterations, warmups, 1, Executors.defaultThreadFactory());
     }
 
+    /**
+     * Benchmarks <code>Context.getInstance(Class)</code> from several threads at once
+     *
+     * @see #benchmark(InstanceGenerator, int, int, int, ThreadFactory)
+     */
+    public static BenchmarkReport benchmark(final Context ctx, final Class clazz, int iterations, int warmups, int threads, ThreadFactory threadFactory) {
+        InstanceGenerator gen = new InstanceGenerator() {
+            @Override
+            public Object createNewInstance() {
+                return ctx.getInstance(clazz);
+            }
+
+            @Override
+            public String toString() {
+                return "Context.getInstance(" + clazz.getSimpleName() + ")";
+            }
+        };
+        return benchmark(gen, iterations, warmups, threads, threadFactory);
+    }
+
+    /**
+     * Benchmarks configuring and building a new Context from the given ContextConfig
+     */
+    public static BenchmarkReport benchmarkConfiguration(final ContextConfig config, int iterations, int warmups) {
+        InstanceGenerator gen = new InstanceGenerator() {
+            @Override
+            public Object createNewInstance() {
+                return Configuration.configureNew(config);
+            }
+
+            @Override
+            public String toString() {
+                return "Configuration of " + config.getClass().getName();
+            }
+        };
+        return benchmark(gen, iterations, warmups);
+    }
+
+    /**
+     * Benchmarks an InstanceGenerator using several threads at once. Each thread makes <code>warmups</code> calls, then
+     * all of the threads start measuring at the same time and each makes another <code>iterations</code> calls. Each call
+     * is timed in nanoseconds and recorded in a histogram, and the bytes allocated by each thread are read from the
+     * ThreadMXBean. Any ThreadFactory can be used, including one that creates virtual threads.
+     *
+     * @param gen the generator to benchmark
+     * @param iterations the number of measured calls made by each thread
+     * @param warmups the number of calls each thread makes before measuring. can be 0.
+     * @param threads the number of threads to use
+     * @param threadFactory creates the threads that run the benchmark
+     * @return the percentiles, throughput and allocation rate across all threads
+     * @throws CreationException if the generator throws an exception on any thread
+     */
+    public static BenchmarkReport benchmark(final InstanceGenerator gen, final int iterations, final int warmups, int threads, ThreadFactory threadFactory) {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final AtomicLong allocatedBytes = new AtomicLong();
+        final AtomicBoolean allocationsUnsupported = new AtomicBoolean();
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final CountDownLatch ready = new CountDownLatch(threads);
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+
+        log.info("Starting Benchmark of {} using {} thread(s), with {} warmup and {} measured iterations each", gen, threads, warmups, iterations);
+        for (int t = 0; t < threads; t++) {
+            Thread thread = threadFactory.newThread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = 0; i < warmups; i++) {
+                            gen.createNewInstance();
+                        }
+                        LatencyHistogram threadHistogram = new LatencyHistogram();
+                        ready.countDown();
+                        start.await();
+
+                        long allocStart = AllocationCounter.currentThreadAllocatedBytes();
+                        for (int i = 0; i < iterations; i++) {
+                            long opStart = nanoTime();
+                            gen.createNewInstance();
+                            threadHistogram.record(nanoTime() - opStart);
+                        }
+                        long allocEnd = AllocationCounter.currentThreadAllocatedBytes();
+
+                        if (allocStart < 0 || allocEnd < 0) {
+                            allocationsUnsupported.set(true);
+                        } else {
+                            allocatedBytes.addAndGet(allocEnd - allocStart);
+                        }
+                        histogram.add(threadHistogram);
+
+                    } catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    } finally {
+                        ready.countDown();
+                        done.countDown();
+                    }
+                }
+            });
+            thread.start();
+        }
+
+        long elapsed;
+        try {
+            ready.await();
+            long startTime = nanoTime();
+            start.countDown();
+            done.await();
+            elapsed = nanoTime() - startTime;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CreationException("Interrupted while waiting for the benchmark of " + gen + " to finish", e);
+        }
+
+        if (failure.get() != null) {
+            throw new CreationException("The benchmark of " + gen + " failed", failure.get());
+        }
+
+        BenchmarkReport report = new BenchmarkReport(String.valueOf(gen), threads, elapsed, allocationsUnsupported.get() ? -1 : allocatedBytes.get(), histogram);
+        log.info("Finished Benchmark: {}", report);
+        return report;
+    }
 
 }
@@ -0,0 +1,64 @@
+package net.ijus.nidi;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The instances returned by <code>Context.getInstances</code>, one for each requested key
+ */
+public class Instances {
+
+    private final Object[] keys;
+    private final Object[] values;
+
+    Instances(Object[] keys, Object[] values) {
+        this.keys = keys;
+        this.values = values;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the class wasn't one of the requested keys
+     */
+    public <T> T get(Class<T> clazz) {
+        return clazz.cast(values[indexOf(clazz)]);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the property wasn't one of the requested keys
+     */
+    public Object get(String property) {
+        return values[indexOf(property)];
+    }
+
+    /**
+     * @return the instance for the key at the given position in the request
+     */
+    public Object get(int index) {
+        return values[index];
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * @return the instances keyed by Class or property name, in the order they were requested
+     */
+    public Map<Object, Object> asMap() {
+        Map<Object, Object> map = new LinkedHashMap<Object, Object>(values.length * 2);
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], values[i]);
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    private int indexOf(Object key) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("The key: " + key + " was not one of the keys passed to getInstances");
+    }
+}
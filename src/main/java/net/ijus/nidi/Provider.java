@@ -0,0 +1,12 @@
+package net.ijus.nidi;
+
+/**
+ * Provides instances of a class on demand. Any constructor param declared as <code>Provider&lt;Foo&gt;</code> will be
+ * given a Provider that is linked directly to the Binding for <code>Foo</code>, so nothing is created until
+ * <code>get()</code> is called. Each call returns whatever the Binding would return from <code>getInstance()</code>,
+ * so a Provider for an ALWAYS_CREATE_NEW class returns a new instance every time.
+ */
+public interface Provider<T> {
+
+    public abstract T get();
+}
@@ -0,0 +1,321 @@
+package net.ijus.nidi;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records where the time goes while a Context is configured, built and first used. Each phase is a Span: running the
+ * ContextConfig, each <code>inheritFrom</code>, building each Binding, reflecting on constructors, linking, creating
+ * eager singletons and so on. Creating an instance is also a Span, and the Spans for its constructor args are nested
+ * inside it, so both the inclusive time and the exclusive (self) time are visible for every class.
+ *
+ * A timeline only records Spans on the thread that started it. Work that happens on other threads, like a parallel build
+ * or eager singletons, shows up as a single Span for the whole phase. Instances created by compiled instantiation don't
+ * get their own Spans. While no timeline is recording, the only cost is reading a volatile int.
+ *
+ * <pre>
+ *     StartupTimeline timeline = StartupTimeline.start();
+ *     try {
+ *         Context ctx = Configuration.configureNew(MyConfig.class);
+ *         ctx.getInstance(MyService.class);
+ *     } finally {
+ *         timeline.stop();
+ *     }
+ *     System.out.println(timeline.toTextTree());
+ * </pre>
+ */
+public class StartupTimeline {
+
+    public static final String CONFIG = "config";
+    public static final String INHERIT = "inherit";
+    public static final String BUILD = "build";
+    public static final String BINDING = "binding";
+    public static final String REFLECTION = "reflection";
+    public static final String INSTANTIATE = "instantiate";
+
+    private static final ThreadLocal<StartupTimeline> current = new ThreadLocal<StartupTimeline>();
+
+    /**
+     * The number of timelines that are recording on any thread, so that the ThreadLocal only gets checked while one is
+     */
+    private static final AtomicInteger recordingCount = new AtomicInteger();
+
+    private final Span root;
+    private final Deque<Span> stack = new ArrayDeque<Span>();
+    private final long threadId;
+    private volatile boolean recording;
+
+    protected StartupTimeline() {
+        this.threadId = Thread.currentThread().getId();
+        this.root = new Span(null, "timeline", "Startup", System.nanoTime());
+        stack.push(root);
+    }
+
+    /**
+     * Starts recording a new timeline on the current thread, replacing any timeline that was already recording there
+     */
+    public static StartupTimeline start() {
+        StartupTimeline previous = current.get();
+        if (previous != null) {
+            previous.stop();
+        }
+        StartupTimeline timeline = new StartupTimeline();
+        timeline.recording = true;
+        current.set(timeline);
+        recordingCount.incrementAndGet();
+        return timeline;
+    }
+
+    /**
+     * Stops recording. Any Spans that are still open are ended now. Calling it again does nothing.
+     *
+     * @return this timeline, for chaining
+     */
+    public StartupTimeline stop() {
+        if (!recording) {
+            return this;
+        }
+        if (current.get() != this) {
+            throw new IllegalStateException("A StartupTimeline can only be stopped by the thread that started it");
+        }
+        recording = false;
+        current.remove();
+        recordingCount.decrementAndGet();
+
+        long now = System.nanoTime();
+        while (!stack.isEmpty()) {
+            stack.pop().end = now;
+        }
+        return this;
+    }
+
+    /**
+     * Opens a new Span as a child of the innermost open Span, if a timeline is recording on the current thread.
+     *
+     * @param category the kind of work, like <code>StartupTimeline.BINDING</code>
+     * @param name what the work is for, usually a class name
+     * @return the Span, which must be passed to end(), or null if nothing is recording
+     */
+    public static Span begin(String category, String name) {
+        if (recordingCount.get() == 0) {
+            return null;
+        }
+        StartupTimeline timeline = current.get();
+        if (timeline == null) {
+            return null;
+        }
+        Span span = new Span(timeline.stack.peek(), category, name, System.nanoTime());
+        span.parent.children.add(span);
+        timeline.stack.push(span);
+        return span;
+    }
+
+    /**
+     * Ends a Span returned by begin(). Does nothing if the span is null.
+     */
+    public static void end(Span span) {
+        if (span == null || span.end != 0) {
+            return;
+        }
+        span.end = System.nanoTime();
+        StartupTimeline timeline = current.get();
+        if (timeline != null) {
+            //pop any children that weren't ended because of an exception, along with the span itself
+            while (!timeline.stack.isEmpty() && timeline.stack.peek() != timeline.root) {
+                Span popped = timeline.stack.pop();
+                if (popped.end == 0) {
+                    popped.end = span.end;
+                }
+                if (popped == span) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if a timeline is recording on the current thread
+     */
+    public static boolean isRecording() {
+        return recordingCount.get() > 0 && current.get() != null;
+    }
+
+    /**
+     * @return the Span that covers the whole timeline. Its children are the top level phases.
+     */
+    public Span getRoot() {
+        return root;
+    }
+
+    public long getTotalNanos() {
+        return root.getInclusiveNanos();
+    }
+
+    /**
+     * @return every Span in the timeline, depth first, not including the root
+     */
+    public List<Span> getSpans() {
+        List<Span> spans = new ArrayList<Span>();
+        collect(root, spans);
+        return spans;
+    }
+
+    /**
+     * @return the Spans with the given category, depth first
+     */
+    public List<Span> getSpans(String category) {
+        List<Span> spans = new ArrayList<Span>();
+        for (Span span : getSpans()) {
+            if (span.getCategory().equals(category)) {
+                spans.add(span);
+            }
+        }
+        return spans;
+    }
+
+    private static void collect(Span span, List<Span> spans) {
+        for (Span child : span.children) {
+            spans.add(child);
+            collect(child, spans);
+        }
+    }
+
+    /**
+     * Formats the timeline as an indented tree, one Span per line, with the inclusive and self time of each
+     */
+    public String toTextTree() {
+        StringBuilder sb = new StringBuilder();
+        appendTree(sb, root, 0);
+        return sb.toString();
+    }
+
+    private void appendTree(StringBuilder sb, Span span, int depth) {
+        for (int i = 0; i < depth; i++) {
+            sb.append("  ");
+        }
+        sb.append(span.getCategory()).append(' ').append(span.getName())
+                .append(String.format(Locale.ROOT, "  %.3fms (self %.3fms)", millis(span.getInclusiveNanos()), millis(span.getExclusiveNanos())))
+                .append('\n');
+        for (Span child : span.children) {
+            appendTree(sb, child, depth + 1);
+        }
+    }
+
+    /**
+     * Formats the timeline as JSON in the Chrome trace event format, which can be opened in <code>chrome://tracing</code>
+     * or Perfetto. Each Span is a complete ("X") event, with times in microseconds from the start of the timeline.
+     */
+    public String toChromeTrace() {
+        StringBuilder sb = new StringBuilder("{\"traceEvents\":[");
+        boolean first = true;
+        for (Span span : getSpans()) {
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            sb.append("{\"name\":");
+            appendJsonString(sb, span.getName());
+            sb.append(",\"cat\":");
+            appendJsonString(sb, span.getCategory());
+            sb.append(",\"ph\":\"X\",\"pid\":1,\"tid\":").append(threadId)
+                    .append(",\"ts\":").append(micros(span.start - root.start))
+                    .append(",\"dur\":").append(micros(span.getInclusiveNanos()))
+                    .append(",\"args\":{\"selfMicros\":").append(micros(span.getExclusiveNanos())).append("}}");
+        }
+        sb.append("],\"displayTimeUnit\":\"ms\"}");
+        return sb.toString();
+    }
+
+    private static void appendJsonString(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    @Override
+    public String toString() {
+        return toTextTree();
+    }
+
+    /**
+     * A single timed piece of work in a StartupTimeline
+     */
+    public static class Span {
+        private final Span parent;
+        private final String category;
+        private final String name;
+        private final long start;
+        private volatile long end;
+        private final List<Span> children = new ArrayList<Span>(2);
+
+        Span(Span parent, String category, String name, long start) {
+            this.parent = parent;
+            this.category = category;
+            this.name = name;
+            this.start = start;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Span getParent() {
+            return parent;
+        }
+
+        public List<Span> getChildren() {
+            return Collections.unmodifiableList(children);
+        }
+
+        /**
+         * @return the wall time of this Span, including its children. If it hasn't ended yet, the time so far.
+         */
+        public long getInclusiveNanos() {
+            long e = end;
+            return ((e == 0) ? System.nanoTime() : e) - start;
+        }
+
+        /**
+         * @return the wall time of this Span, minus the time spent in its children
+         */
+        public long getExclusiveNanos() {
+            long self = getInclusiveNanos();
+            for (Span child : children) {
+                self -= child.getInclusiveNanos();
+            }
+            return Math.max(self, 0);
+        }
+
+        @Override
+        public String toString() {
+            return category + " " + name;
+        }
+    }
+}
@@ -0,0 +1,445 @@
+package net.ijus.nidi.aot;
+
+import net.ijus.nidi.Configuration;
+import net.ijus.nidi.Context;
+import net.ijus.nidi.InvalidConfigurationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Generates the Java source for a class that provides the same instances as a Context, but creates them by calling
+ * constructors directly. The generated class has the same <code>getInstance(Class)</code> and <code>getInstance(String)</code>
+ * methods as a Context, and uses no reflection or MethodHandles at runtime. SINGLETON and ONE_PER_BINDING instances are
+ * held in fields of the generated class, so each instance of it behaves like a separate Context.
+ *
+ * Everything in the Context has to be expressible as plain Java for this to work. That means:
+ * <ul>
+ *     <li>Implementation classes must be public, with public constructors</li>
+ *     <li>Bound values (from <code>toObject</code> or <code>bindProperty</code>) must be Strings, primitive wrappers, Classes or enums</li>
+ *     <li>Custom InstanceGenerators and InstanceSetupFunctions must be public classes with a public no-arg constructor</li>
+ *     <li>There can't be any POOLED Bindings, since the generated class has no way to borrow and return instances</li>
+ *     <li>There can't be any multibindings or <code>Provider</code> constructor params</li>
+ * </ul>
+ * Anything else causes an InvalidConfigurationException, since there's no way to recreate it from source.
+ *
+ * The main method makes this easy to run from a build, for example with a Gradle JavaExec task.
+ */
+public class ContextSourceGenerator {
+    private static final Logger log = LoggerFactory.getLogger(ContextSourceGenerator.class);
+
+    private static final String INDENT = "    ";
+
+    private final ResolvedGraph graph;
+    private final String packageName;
+    private final String simpleName;
+    private final String description;
+
+    /**
+     * @param graph the resolved Bindings to generate the source for
+     * @param className the fully qualified name of the class to generate
+     * @param description describes where the Bindings came from, for the generated class comment
+     */
+    public ContextSourceGenerator(ResolvedGraph graph, String className, String description) {
+        this.graph = graph;
+        int lastDot = className.lastIndexOf('.');
+        this.packageName = (lastDot > 0) ? className.substring(0, lastDot) : null;
+        this.simpleName = className.substring(lastDot + 1);
+        this.description = description;
+    }
+
+    /**
+     * Configures a new Context using the given ContextConfig, and creates a generator for it
+     */
+    public static ContextSourceGenerator forConfig(Class configClass, String className) throws InvalidConfigurationException {
+        Context ctx = Configuration.configureNew(configClass);
+        return new ContextSourceGenerator(ResolvedGraph.fromContext(ctx), className, configClass.getName());
+    }
+
+    /**
+     * Usage: <code>ContextSourceGenerator &lt;ContextConfig class&gt; &lt;generated class name&gt; &lt;output directory&gt;</code>
+     */
+    public static void main(String[] args) throws IOException, ClassNotFoundException {
+        if (args.length != 3) {
+            System.err.println("Usage: ContextSourceGenerator <ContextConfig class> <generated class name> <output directory>");
+            System.exit(1);
+        }
+
+        Class configClass = Class.forName(args[0]);
+        File file = forConfig(configClass, args[1]).writeTo(new File(args[2]));
+        log.info("Generated {} from {}", file, configClass.getName());
+    }
+
+    /**
+     * Writes the generated source file to the correct package directory under the given source root
+     *
+     * @return the file that was written
+     */
+    public File writeTo(File sourceRoot) throws IOException {
+        File dir = (packageName != null) ? new File(sourceRoot, packageName.replace('.', File.separatorChar)) : sourceRoot;
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Could not create directory: " + dir);
+        }
+
+        File file = new File(dir, simpleName + ".java");
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            writer.write(generate());
+        } finally {
+            writer.close();
+        }
+        return file;
+    }
+
+    /**
+     * @return the complete source for the generated class
+     * @throws InvalidConfigurationException if any of the Bindings can't be expressed as plain Java
+     */
+    public String generate() throws InvalidConfigurationException {
+        StringBuilder src = new StringBuilder();
+        if (packageName != null) {
+            src.append("package ").append(packageName).append(";\n\n");
+        }
+
+        src.append("/**\n");
+        src.append(" * Generated by NiDI from ").append(description).append(". Do not edit.\n");
+        src.append(" */\n");
+        src.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        src.append("public final class ").append(simpleName).append(" {\n\n");
+
+        appendClassKeys(src);
+        for (ResolvedNode node : graph.getNodes()) {
+            appendNode(src, node);
+        }
+        appendGetInstanceByClass(src);
+        appendGetInstanceByName(src);
+        appendNodeSwitch(src);
+
+        src.append("}\n");
+        return src.toString();
+    }
+
+    protected void appendClassKeys(StringBuilder src) {
+        line(src, 1, "private static final java.util.Map<Class, Integer> CLASS_KEYS = new java.util.IdentityHashMap<Class, Integer>();");
+        src.append("\n");
+        line(src, 1, "static {");
+        for (Map.Entry<Object, Integer> entry : graph.getKeys().entrySet()) {
+            if (entry.getKey() instanceof Class) {
+                Class key = (Class) entry.getKey();
+                line(src, 2, "CLASS_KEYS.put(" + typeName(key, "the bound class") + ".class, " + entry.getValue() + ");");
+            }
+        }
+        line(src, 1, "}");
+        src.append("\n");
+    }
+
+    protected void appendNode(StringBuilder src, ResolvedNode node) {
+        if (node.isPooled()) {
+            throw new InvalidConfigurationException("The POOLED Binding for " + node.getBoundClass().getName() + " can't be generated as source, since the generated class has no way to borrow and return instances");
+        }
+        String type = returnType(node);
+        String method = "node" + node.getIndex();
+
+        if (node.getSetupClass() != null) {
+            line(src, 1, "private final " + instantiableName(node.getSetupClass(), "an InstanceSetupFunction") + " " + method + "Setup = new " + typeName(node.getSetupClass(), "") + "();");
+        }
+        if (node.getGeneratorClass() != null) {
+            line(src, 1, "private final " + instantiableName(node.getGeneratorClass(), "an InstanceGenerator") + " " + method + "Generator = new " + typeName(node.getGeneratorClass(), "") + "();");
+        }
+        if (node.getSetupClass() != null || node.getGeneratorClass() != null) {
+            src.append("\n");
+        }
+
+        if (node.getKind() == ResolvedNode.Kind.NULL || node.getKind() == ResolvedNode.Kind.CONSTANT) {
+            line(src, 1, "private " + type + " " + method + "() {");
+            line(src, 2, "return " + literal(node) + ";");
+            line(src, 1, "}");
+            src.append("\n");
+            return;
+        }
+
+        if (node.isCaching()) {
+            line(src, 1, "private volatile " + type + " " + method + "Instance;");
+            //each node gets its own lock, so creating one instance never blocks the creation of an unrelated one
+            line(src, 1, "private final Object " + method + "Lock = new Object();");
+            src.append("\n");
+            line(src, 1, "private " + type + " " + method + "() {");
+            line(src, 2, type + " instance = " + method + "Instance;");
+            line(src, 2, "if (instance == null) {");
+            line(src, 3, "synchronized (" + method + "Lock) {");
+            line(src, 4, "instance = " + method + "Instance;");
+            line(src, 4, "if (instance == null) {");
+            line(src, 5, "instance = " + method + "Create();");
+            line(src, 5, method + "Instance = instance;");
+            line(src, 4, "}");
+            line(src, 3, "}");
+            line(src, 2, "}");
+            line(src, 2, "return instance;");
+            line(src, 1, "}");
+            src.append("\n");
+            method = method + "Create";
+
+        } else if (node.isThreadScoped()) {
+            line(src, 1, "private final ThreadLocal<" + type + "> " + method + "Local = new ThreadLocal<" + type + ">();");
+            src.append("\n");
+            line(src, 1, "private " + type + " " + method + "() {");
+            line(src, 2, type + " instance = " + method + "Local.get();");
+            line(src, 2, "if (instance == null) {");
+            line(src, 3, "instance = " + method + "Create();");
+            line(src, 3, method + "Local.set(instance);");
+            line(src, 2, "}");
+            line(src, 2, "return instance;");
+            line(src, 1, "}");
+            src.append("\n");
+            method = method + "Create";
+        }
+
+        line(src, 1, "private " + type + " " + method + "() {");
+        if (node.getKind() == ResolvedNode.Kind.GENERATOR) {
+            line(src, 2, "return (" + type + ") node" + node.getIndex() + "Generator.createNewInstance();");
+
+        } else {
+            Class[] paramTypes = node.getParameterTypes();
+            int[] args = node.getArgs();
+            StringBuilder argList = new StringBuilder();
+            for (int i = 0; i < args.length; i++) {
+                String paramType = typeName(boxed(paramTypes[i]), "a constructor param of " + node.getImplClass().getName());
+                line(src, 2, paramType + " arg" + i + " = (" + paramType + ") node" + args[i] + "();");
+                argList.append((i > 0) ? ", " : "").append("arg").append(i);
+            }
+
+            String impl = instantiableName(node.getImplClass(), "an implementation class");
+            line(src, 2, type + " instance;");
+            line(src, 2, "try {");
+            line(src, 3, "instance = new " + impl + "(" + argList + ");");
+            line(src, 2, "} catch (Exception e) {");
+            line(src, 3, "throw new net.ijus.nidi.instantiation.CreationException(\"Error creating a new instance of: " + node.getImplClass().getName() + "\", e);");
+            line(src, 2, "}");
+            if (node.getSetupClass() != null) {
+                line(src, 2, "node" + node.getIndex() + "Setup.setup(instance);");
+            }
+            line(src, 2, "return instance;");
+        }
+        line(src, 1, "}");
+        src.append("\n");
+    }
+
+    protected void appendGetInstanceByClass(StringBuilder src) {
+        line(src, 1, "/**");
+        line(src, 1, " * Returns an instance of the given class, exactly like <code>Context.getInstance(Class)</code>");
+        line(src, 1, " */");
+        line(src, 1, "public <T> T getInstance(final Class<T> clazz) {");
+        line(src, 2, "Integer node = CLASS_KEYS.get(clazz);");
+        line(src, 2, "if (node == null) {");
+        line(src, 3, "throw new net.ijus.nidi.InvalidConfigurationException(\"The Class: \" + clazz.getCanonicalName() + \" was requested from a Context, but no Binding exists for it\");");
+        line(src, 2, "}");
+        line(src, 2, "return (T) instance(node);");
+        line(src, 1, "}");
+        src.append("\n");
+    }
+
+    protected void appendGetInstanceByName(StringBuilder src) {
+        line(src, 1, "/**");
+        line(src, 1, " * Returns the instance for the given property, exactly like <code>Context.getInstance(String)</code>");
+        line(src, 1, " */");
+        line(src, 1, "public Object getInstance(final String key) {");
+        line(src, 2, "switch (key) {");
+        for (Map.Entry<Object, Integer> entry : graph.getKeys().entrySet()) {
+            if (entry.getKey() instanceof String) {
+                line(src, 3, "case " + stringLiteral((String) entry.getKey()) + ":");
+                line(src, 4, "return node" + entry.getValue() + "();");
+            }
+        }
+        line(src, 3, "default:");
+        line(src, 4, "throw new net.ijus.nidi.InvalidConfigurationException(\"The Property: \" + key + \" was requested from a Context but no Binding exists for it\");");
+        line(src, 2, "}");
+        line(src, 1, "}");
+        src.append("\n");
+    }
+
+    protected void appendNodeSwitch(StringBuilder src) {
+        line(src, 1, "private Object instance(int node) {");
+        line(src, 2, "switch (node) {");
+        for (Integer node : new TreeSet<Integer>(graph.getKeys().values())) {
+            line(src, 3, "case " + node + ":");
+            line(src, 4, "return node" + node + "();");
+        }
+        line(src, 3, "default:");
+        line(src, 4, "throw new IllegalStateException(\"Unknown node: \" + node);");
+        line(src, 2, "}");
+        line(src, 1, "}");
+    }
+
+    /**
+     * The return type for the method that provides a node's instance. This is the implementation class if possible,
+     * otherwise the bound class, and otherwise just Object.
+     */
+    protected String returnType(ResolvedNode node) {
+        if (node.getKind() == ResolvedNode.Kind.NULL) {
+            return "Object";
+        }
+        if (node.getKind() == ResolvedNode.Kind.CONSTANT) {
+            return (node.getValue() != null) ? literalType(node.getValue()) : "Object";
+        }
+        if (node.getImplClass() != null && isAccessible(node.getImplClass())) {
+            return typeName(node.getImplClass(), "");
+        }
+        if (node.getBoundClass() != null && isAccessible(node.getBoundClass()) && !node.getBoundClass().isPrimitive()) {
+            return typeName(node.getBoundClass(), "");
+        }
+        return "Object";
+    }
+
+    protected String literal(ResolvedNode node) {
+        Object value = node.getValue();
+        if (value == null) {
+            return "null";
+        } else if (value instanceof String) {
+            return stringLiteral((String) value);
+        } else if (value instanceof Integer) {
+            return "Integer.valueOf(" + value + ")";
+        } else if (value instanceof Long) {
+            return "Long.valueOf(" + value + "L)";
+        } else if (value instanceof Short) {
+            return "Short.valueOf((short) " + value + ")";
+        } else if (value instanceof Byte) {
+            return "Byte.valueOf((byte) " + value + ")";
+        } else if (value instanceof Boolean) {
+            return "Boolean." + (((Boolean) value) ? "TRUE" : "FALSE");
+        } else if (value instanceof Character) {
+            return "Character.valueOf((char) " + (int) (Character) value + ")";
+        } else if (value instanceof Double) {
+            Double d = (Double) value;
+            return (d.isNaN() || d.isInfinite()) ? "Double.valueOf(Double.longBitsToDouble(" + Double.doubleToRawLongBits(d) + "L))" : "Double.valueOf(" + d + "d)";
+        } else if (value instanceof Float) {
+            Float f = (Float) value;
+            return (f.isNaN() || f.isInfinite()) ? "Float.valueOf(Float.intBitsToFloat(" + Float.floatToRawIntBits(f) + "))" : "Float.valueOf(" + f + "f)";
+        } else if (value instanceof Class) {
+            return typeName((Class) value, "a bound Class value") + ".class";
+        } else if (value instanceof Enum) {
+            return typeName(((Enum) value).getDeclaringClass(), "a bound enum value") + "." + ((Enum) value).name();
+        }
+        throw new InvalidConfigurationException("The value bound to " + node.getBoundClass().getName() + " is a " + value.getClass().getName() + ", which can't be written as a literal in generated source. Only Strings, primitive wrappers, Classes and enums are supported");
+    }
+
+    protected String literalType(Object value) {
+        if (value instanceof Enum) {
+            return typeName(((Enum) value).getDeclaringClass(), "a bound enum value");
+        } else if (value instanceof Class) {
+            return "Class";
+        }
+        return "java.lang." + value.getClass().getSimpleName();
+    }
+
+    protected static String stringLiteral(String value) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20 || c > 0x7e) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    /**
+     * Returns the name of a class that the generated code needs to create with <code>new</code>. The class has to be
+     * public, and must have a public no-arg constructor unless it's an implementation class, since those get created
+     * using their resolved constructor.
+     */
+    protected String instantiableName(Class clazz, String role) {
+        if (Modifier.isAbstract(clazz.getModifiers()) || clazz.isInterface()) {
+            throw new InvalidConfigurationException("Cannot generate source that creates " + role + ": " + clazz.getName() + " because it is abstract");
+        }
+        if (!role.equals("an implementation class")) {
+            try {
+                if (!Modifier.isPublic(clazz.getConstructor().getModifiers())) {
+                    throw new NoSuchMethodException();
+                }
+            } catch (NoSuchMethodException e) {
+                throw new InvalidConfigurationException("Cannot generate source that creates " + role + ": " + clazz.getName() + " because it does not have a public no-arg constructor");
+            }
+        }
+        return typeName(clazz, role);
+    }
+
+    /**
+     * Returns the name to use for the class in generated source
+     *
+     * @throws InvalidConfigurationException if the class can't be referenced from generated source
+     */
+    protected String typeName(Class clazz, String role) {
+        if (!isAccessible(clazz)) {
+            throw new InvalidConfigurationException("Cannot generate source that refers to " + (role.length() > 0 ? role + ": " : "") + clazz.getName() + " because it is not a public top-level or static nested class");
+        }
+        return clazz.getCanonicalName();
+    }
+
+    protected static boolean isAccessible(Class clazz) {
+        if (clazz.isPrimitive()) {
+            return true;
+        }
+        if (clazz.isArray()) {
+            return isAccessible(clazz.getComponentType());
+        }
+        if (clazz.getCanonicalName() == null || !Modifier.isPublic(clazz.getModifiers())) {
+            return false;
+        }
+        if (clazz.isMemberClass()) {
+            return Modifier.isStatic(clazz.getModifiers()) && isAccessible(clazz.getEnclosingClass());
+        }
+        return true;
+    }
+
+    protected static Class boxed(Class clazz) {
+        if (!clazz.isPrimitive()) {
+            return clazz;
+        } else if (clazz == int.class) {
+            return Integer.class;
+        } else if (clazz == long.class) {
+            return Long.class;
+        } else if (clazz == boolean.class) {
+            return Boolean.class;
+        } else if (clazz == double.class) {
+            return Double.class;
+        } else if (clazz == float.class) {
+            return Float.class;
+        } else if (clazz == short.class) {
+            return Short.class;
+        } else if (clazz == byte.class) {
+            return Byte.class;
+        } else if (clazz == char.class) {
+            return Character.class;
+        }
+        return Void.class;
+    }
+
+    private static void line(StringBuilder src, int indent, String line) {
+        for (int i = 0; i < indent; i++) {
+            src.append(INDENT);
+        }
+        src.append(line).append('\n');
+    }
+
+    public ResolvedGraph getGraph() {
+        return graph;
+    }
+}
@@ -0,0 +1,399 @@
+package net.ijus.nidi.aot;
+
+import net.ijus.nidi.Configuration;
+import net.ijus.nidi.Context;
+import net.ijus.nidi.InvalidConfigurationException;
+import net.ijus.nidi.bindings.Scope;
+import net.ijus.nidi.builder.ContextBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Saves a ResolvedGraph to a compact binary file, so that a Context can be recreated on the next start without running
+ * the ContextConfig or resolving any constructors. Each snapshot records a fingerprint of the config class and the
+ * classpath, and is only used if the fingerprint still matches.
+ *
+ * The easiest way to use this is <code>GraphSnapshot.configure(MyConfig.class, snapshotFile)</code>, which loads the
+ * snapshot if it's valid, and otherwise builds the Context normally and writes a new snapshot for next time.
+ */
+public class GraphSnapshot {
+    private static final Logger log = LoggerFactory.getLogger(GraphSnapshot.class);
+
+    static final int MAGIC = 0x4E694449;
+    static final int FORMAT_VERSION = 2;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final byte KEY_CLASS = 0;
+    private static final byte KEY_STRING = 1;
+
+    private static final byte VALUE_NONE = 0;
+    private static final byte VALUE_STRING = 1;
+    private static final byte VALUE_INTEGER = 2;
+    private static final byte VALUE_LONG = 3;
+    private static final byte VALUE_SHORT = 4;
+    private static final byte VALUE_BYTE = 5;
+    private static final byte VALUE_BOOLEAN = 6;
+    private static final byte VALUE_CHARACTER = 7;
+    private static final byte VALUE_DOUBLE = 8;
+    private static final byte VALUE_FLOAT = 9;
+    private static final byte VALUE_CLASS = 10;
+    private static final byte VALUE_ENUM = 11;
+
+    private static final Map<String, Class> PRIMITIVES = new HashMap<String, Class>();
+
+    static {
+        for (Class c : new Class[]{int.class, long.class, short.class, byte.class, boolean.class, char.class, double.class, float.class, void.class}) {
+            PRIMITIVES.put(c.getName(), c);
+        }
+    }
+
+    /**
+     * Returns a Context for the given config class, using the snapshot file if it matches the current fingerprint.
+     * Otherwise, the Context is built normally and a new snapshot is written. The Context is also built normally if the
+     * snapshot can't be turned back into a Context, for instance because a constructor it uses no longer exists.
+     * Failing to write the snapshot, for instance because the config binds a value that can't be saved, is logged but
+     * is not an error.
+     *
+     * A snapshot only holds the Bindings, not the options set on the ContextBuilder. So if the config enables eager
+     * singletons, compiled instantiation or metrics, or sets an async Executor, no snapshot is written and the Context
+     * is always built normally.
+     *
+     * @param configClass the ContextConfig class
+     * @param snapshotFile where the snapshot is kept
+     * @return the Context
+     */
+    public static Context configure(Class configClass, File snapshotFile) throws InvalidConfigurationException {
+        long fingerprint = SnapshotFingerprint.of(configClass);
+        ResolvedGraph graph = read(snapshotFile, fingerprint, configClass.getClassLoader());
+        if (graph != null) {
+            log.debug("Creating the Context for {} from the snapshot: {}", configClass.getName(), snapshotFile);
+            try {
+                return graph.toContext();
+            } catch (InvalidConfigurationException e) {
+                log.warn("Ignoring snapshot: " + snapshotFile + " because a Context could not be created from it", e);
+            }
+        }
+
+        ContextBuilder builder = new ContextBuilder();
+        Configuration.configure(builder, configClass);
+        Context ctx = Configuration.build(builder);
+        String option = unsupportedOption(builder);
+        if (option != null) {
+            log.info("Not writing a snapshot of the Context for {} because it uses {}, which a snapshot can't restore", configClass.getName(), option);
+            return ctx;
+        }
+        try {
+            write(ResolvedGraph.fromContext(ctx), fingerprint, snapshotFile);
+        } catch (IOException | InvalidConfigurationException e) {
+            log.warn("Could not write a snapshot of the Context for " + configClass.getName() + " to " + snapshotFile, e);
+        }
+        return ctx;
+    }
+
+    /**
+     * @return a description of the first builder option that a snapshot can't restore, or null if there aren't any
+     */
+    static String unsupportedOption(ContextBuilder builder) {
+        if (builder.isEagerSingletons()) {
+            return "eager singletons";
+        } else if (builder.isCompiledInstantiation()) {
+            return "compiled instantiation";
+        } else if (builder.isMetricsEnabled()) {
+            return "metrics";
+        } else if (builder.getAsyncExecutor() != null) {
+            return "a custom async Executor";
+        }
+        return null;
+    }
+
+    /**
+     * Writes the graph to the given file. The file is written under a temporary name first and then moved into place,
+     * so a reader will never see a partially written snapshot.
+     *
+     * @throws InvalidConfigurationException if the graph contains a bound value that can't be saved
+     */
+    public static void write(ResolvedGraph graph, long fingerprint, File file) throws IOException, InvalidConfigurationException {
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Could not create directory: " + dir);
+        }
+
+        File temp = File.createTempFile(file.getName(), ".tmp", dir);
+        try {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+            try {
+                writeGraph(graph, fingerprint, out);
+            } finally {
+                out.close();
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    /**
+     * Reads a snapshot by memory-mapping the file
+     *
+     * @param file the snapshot file
+     * @param fingerprint the expected fingerprint
+     * @param classLoader used to load all of the classes in the snapshot
+     * @return the graph, or null if the file doesn't exist, has a different fingerprint, or can't be read
+     */
+    public static ResolvedGraph read(File file, long fingerprint, ClassLoader classLoader) {
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 16 || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                log.debug("Ignoring snapshot: {} because it is not a snapshot of the current format", file);
+                return null;
+            }
+            if (buffer.getLong() != fingerprint) {
+                log.debug("Ignoring snapshot: {} because the config or classpath has changed", file);
+                return null;
+            }
+            return readGraph(new Reader(buffer, classLoader));
+
+        } catch (IOException | BufferUnderflowException | ClassNotFoundException | IllegalArgumentException e) {
+            log.warn("Ignoring snapshot: " + file + " because it could not be read", e);
+            return null;
+        }
+    }
+
+    static void writeGraph(ResolvedGraph graph, long fingerprint, DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeLong(fingerprint);
+
+        List<ResolvedNode> nodes = graph.getNodes();
+        out.writeInt(nodes.size());
+        for (ResolvedNode node : nodes) {
+            out.writeByte(node.getKind().ordinal());
+            writeString(out, node.getScope().name());
+            writeClass(out, node.getBoundClass());
+            writeClass(out, node.getImplClass());
+
+            Class[] paramTypes = node.getParameterTypes();
+            int[] args = node.getArgs();
+            out.writeInt(args.length);
+            for (int i = 0; i < args.length; i++) {
+                writeClass(out, paramTypes[i]);
+                out.writeInt(args[i]);
+            }
+
+            writeValue(out, node);
+            writeClass(out, node.getSetupClass());
+            writeClass(out, node.getGeneratorClass());
+            out.writeInt(node.getMinPoolSize());
+            out.writeInt(node.getMaxPoolSize());
+        }
+
+        out.writeInt(graph.getKeys().size());
+        for (Map.Entry<Object, Integer> entry : graph.getKeys().entrySet()) {
+            if (entry.getKey() instanceof Class) {
+                out.writeByte(KEY_CLASS);
+                writeString(out, ((Class) entry.getKey()).getName());
+            } else {
+                out.writeByte(KEY_STRING);
+                writeString(out, (String) entry.getKey());
+            }
+            out.writeInt(entry.getValue());
+        }
+    }
+
+    static ResolvedGraph readGraph(Reader in) throws ClassNotFoundException {
+        int nodeCount = in.readCount("node");
+        List<ResolvedNode> nodes = new ArrayList<ResolvedNode>(nodeCount);
+        ResolvedNode.Kind[] kinds = ResolvedNode.Kind.values();
+        for (int idx = 0; idx < nodeCount; idx++) {
+            int kindOrdinal = in.buffer.get();
+            if (kindOrdinal < 0 || kindOrdinal >= kinds.length) {
+                throw new IllegalArgumentException("Node " + idx + " has an unknown kind: " + kindOrdinal);
+            }
+            ResolvedNode.Kind kind = kinds[kindOrdinal];
+            Scope scope = Scope.valueOf(in.readString());
+            Class bound = in.readClass();
+            Class impl = in.readClass();
+
+            int argCount = in.readCount("arg");
+            Class[] paramTypes = new Class[argCount];
+            int[] args = new int[argCount];
+            for (int i = 0; i < argCount; i++) {
+                paramTypes[i] = in.readClass();
+                args[i] = in.buffer.getInt();
+                if (args[i] < 0 || args[i] >= idx) {
+                    throw new IllegalArgumentException("Node " + idx + " refers to node " + args[i] + ", which hasn't been read yet");
+                }
+            }
+
+            Object value = in.readValue();
+            Class setup = in.readClass();
+            Class generator = in.readClass();
+            int minPoolSize = in.buffer.getInt();
+            int maxPoolSize = in.buffer.getInt();
+            nodes.add(new ResolvedNode(idx, kind, scope, bound, impl, paramTypes, args, value, setup, generator, minPoolSize, maxPoolSize));
+        }
+
+        int keyCount = in.readCount("key");
+        Map<Object, Integer> keys = new LinkedHashMap<Object, Integer>();
+        for (int i = 0; i < keyCount; i++) {
+            byte keyType = in.buffer.get();
+            Object key = (keyType == KEY_CLASS) ? in.loadClass(in.readString()) : in.readString();
+            int node = in.buffer.getInt();
+            if (node < 0 || node >= nodeCount) {
+                throw new IllegalArgumentException("The key: " + key + " refers to node " + node + ", which doesn't exist");
+            }
+            keys.put(key, node);
+        }
+
+        return new ResolvedGraph(nodes, keys);
+    }
+
+    private static void writeValue(DataOutputStream out, ResolvedNode node) throws IOException {
+        Object value = node.getValue();
+        if (value == null) {
+            out.writeByte(VALUE_NONE);
+        } else if (value instanceof String) {
+            out.writeByte(VALUE_STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(VALUE_INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(VALUE_LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Short) {
+            out.writeByte(VALUE_SHORT);
+            out.writeShort((Short) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(VALUE_BYTE);
+            out.writeByte((Byte) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(VALUE_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Character) {
+            out.writeByte(VALUE_CHARACTER);
+            out.writeChar((Character) value);
+        } else if (value instanceof Double) {
+            out.writeByte(VALUE_DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte(VALUE_FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Class) {
+            out.writeByte(VALUE_CLASS);
+            writeClass(out, (Class) value);
+        } else if (value instanceof Enum) {
+            out.writeByte(VALUE_ENUM);
+            writeClass(out, ((Enum) value).getDeclaringClass());
+            writeString(out, ((Enum) value).name());
+        } else {
+            throw new InvalidConfigurationException("The value bound to " + node.getBoundClass().getName() + " is a " + value.getClass().getName() + ", which can't be saved in a snapshot. Only Strings, primitive wrappers, Classes and enums are supported");
+        }
+    }
+
+    private static void writeClass(DataOutputStream out, Class clazz) throws IOException {
+        writeString(out, (clazz != null) ? clazz.getName() : "");
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads values out of the mapped snapshot
+     */
+    static class Reader {
+        final MappedByteBuffer buffer;
+        final ClassLoader classLoader;
+
+        Reader(MappedByteBuffer buffer, ClassLoader classLoader) {
+            this.buffer = buffer;
+            this.classLoader = classLoader;
+        }
+
+        String readString() {
+            int length = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) {
+                throw new IllegalArgumentException("Invalid string length: " + length);
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, UTF_8);
+        }
+
+        /**
+         * Reads the number of items that follow. Every item takes at least one byte, so a count larger than what's
+         * left in the file can only come from a corrupt snapshot.
+         *
+         * @throws IllegalArgumentException if the count is negative or larger than the rest of the file
+         */
+        int readCount(String what) {
+            int count = buffer.getInt();
+            if (count < 0 || count > buffer.remaining()) {
+                throw new IllegalArgumentException("Invalid " + what + " count: " + count);
+            }
+            return count;
+        }
+
+        Class readClass() throws ClassNotFoundException {
+            String name = readString();
+            return (name.length() > 0) ? loadClass(name) : null;
+        }
+
+        Class loadClass(String name) throws ClassNotFoundException {
+            Class primitive = PRIMITIVES.get(name);
+            return (primitive != null) ? primitive : Class.forName(name, false, classLoader);
+        }
+
+        @SuppressWarnings("unchecked")
+        Object readValue() throws ClassNotFoundException {
+            byte type = buffer.get();
+            switch (type) {
+                case VALUE_NONE: return null;
+                case VALUE_STRING: return readString();
+                case VALUE_INTEGER: return buffer.getInt();
+                case VALUE_LONG: return buffer.getLong();
+                case VALUE_SHORT: return buffer.getShort();
+                case VALUE_BYTE: return buffer.get();
+                case VALUE_BOOLEAN: return buffer.get() != 0;
+                case VALUE_CHARACTER: return buffer.getChar();
+                case VALUE_DOUBLE: return buffer.getDouble();
+                case VALUE_FLOAT: return buffer.getFloat();
+                case VALUE_CLASS: return readClass();
+                case VALUE_ENUM:
+                    Class enumClass = readClass();
+                    if (enumClass == null || !enumClass.isEnum()) {
+                        throw new IllegalArgumentException("Not an enum class: " + enumClass);
+                    }
+                    return Enum.valueOf(enumClass, readString());
+                default:
+                    throw new IllegalArgumentException("Unknown value type: " + type);
+            }
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package net.ijus.nidi.aot;
+
+import net.ijus.nidi.Context;
+import net.ijus.nidi.InvalidConfigurationException;
+import net.ijus.nidi.bindings.BasicBinding;
+import net.ijus.nidi.bindings.Binding;
+import net.ijus.nidi.bindings.BindingGraph;
+import net.ijus.nidi.bindings.CachingBinding;
+import net.ijus.nidi.bindings.MultiBinding;
+import net.ijus.nidi.bindings.NullBinding;
+import net.ijus.nidi.bindings.PooledBinding;
+import net.ijus.nidi.bindings.ProviderBinding;
+import net.ijus.nidi.bindings.Scope;
+import net.ijus.nidi.bindings.ThreadScopedBinding;
+import net.ijus.nidi.instantiation.ConstantGenerator;
+import net.ijus.nidi.instantiation.ConstructorInstanceGenerator;
+import net.ijus.nidi.instantiation.ConstructorMetadata;
+import net.ijus.nidi.instantiation.InstanceGenerator;
+import net.ijus.nidi.instantiation.InstanceSetupFunction;
+import net.ijus.nidi.instantiation.NullGenerator;
+import net.ijus.nidi.metrics.MeteredBinding;
+import net.ijus.nidi.utils.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A description of all the Bindings in a built Context, with every ContextBindingReference already resolved. Two keys
+ * that share an instance (for example, a reference to a SINGLETON) point to the same node, while each reference to a
+ * ONE_PER_BINDING Binding gets a node of its own.
+ *
+ * This is what gets turned into source code by the ContextSourceGenerator, and what gets saved by a GraphSnapshot.
+ */
+public class ResolvedGraph {
+
+    private final List<ResolvedNode> nodes;
+    private final Map<Object, Integer> keys;
+
+    public ResolvedGraph(List<ResolvedNode> nodes, Map<Object, Integer> keys) {
+        this.nodes = Collections.unmodifiableList(new ArrayList<ResolvedNode>(nodes));
+        this.keys = Collections.unmodifiableMap(new LinkedHashMap<Object, Integer>(keys));
+    }
+
+    /**
+     * Creates a graph from a Context that has already been built
+     *
+     * @param ctx the Context
+     * @return the graph of its Bindings
+     * @throws InvalidConfigurationException if the Bindings contain a cycle, a Provider or a multibinding, or record metrics
+     */
+    public static ResolvedGraph fromContext(Context ctx) throws InvalidConfigurationException {
+        return new Resolver().resolve(ctx);
+    }
+
+    /**
+     * Creates a new Context with a Binding for each node. Constructors are looked up directly using the parameter
+     * types in each node, so none of the usual constructor resolution or validation needs to happen.
+     *
+     * @return a new Context that provides the same instances as the one this graph was created from
+     * @throws InvalidConfigurationException if a constructor no longer exists, or a generator can't be created
+     */
+    public Context toContext() throws InvalidConfigurationException {
+        Binding[] bindings = new Binding[nodes.size()];
+        for (ResolvedNode node : nodes) {
+            bindings[node.getIndex()] = createBinding(node, bindings);
+        }
+
+        Map<Object, Binding> bindingsMap = new LinkedHashMap<Object, Binding>();
+        for (Map.Entry<Object, Integer> entry : keys.entrySet()) {
+            bindingsMap.put(entry.getKey(), bindings[entry.getValue()]);
+        }
+
+        Context ctx = new Context();
+        ctx.freeze(bindingsMap);
+        ctx.link();
+        for (Binding binding : bindings) {
+            if (binding instanceof PooledBinding) {
+                ((PooledBinding) binding).prefill();
+            }
+        }
+        return ctx;
+    }
+
+    @SuppressWarnings("unchecked")
+    protected Binding createBinding(ResolvedNode node, Binding[] bindings) {
+        InstanceGenerator gen;
+        switch (node.getKind()) {
+            case NULL:
+                return new NullBinding(node.getBoundClass());
+
+            case CONSTANT:
+                return new CachingBinding(new ConstantGenerator(node.getValue()), node.getBoundClass(), node.getImplClass(), Scope.SINGLETON);
+
+            case CONSTRUCTOR:
+                int[] args = node.getArgs();
+                Binding[] argBindings = new Binding[args.length];
+                for (int i = 0; i < args.length; i++) {
+                    argBindings[i] = bindings[args[i]];
+                }
+                InstanceSetupFunction setup = (node.getSetupClass() != null) ? (InstanceSetupFunction) instantiate(node.getSetupClass()) : null;
+                gen = new ConstructorInstanceGenerator(constructorMetadata(node), argBindings, setup);
+                break;
+
+            default:
+                gen = (InstanceGenerator) instantiate(node.getGeneratorClass());
+        }
+
+        if (node.isCaching()) {
+            return new CachingBinding(gen, node.getBoundClass(), node.getImplClass(), node.getScope());
+        } else if (node.isPooled()) {
+            return new PooledBinding(gen, node.getBoundClass(), node.getImplClass(), node.getMinPoolSize(), node.getMaxPoolSize());
+        } else if (node.isThreadScoped()) {
+            return new ThreadScopedBinding(gen, node.getBoundClass(), node.getImplClass());
+        }
+        return new BasicBinding(node.getBoundClass(), node.getImplClass(), gen);
+    }
+
+    @SuppressWarnings("unchecked")
+    protected static ConstructorMetadata constructorMetadata(ResolvedNode node) {
+        try {
+            return ConstructorMetadata.forConstructor(node.getImplClass().getConstructor(node.getParameterTypes()));
+        } catch (NoSuchMethodException e) {
+            throw new InvalidConfigurationException("The Class: " + node.getImplClass().getName() + " no longer has a public constructor with the params: " + ClassUtils.classNames(node.getParameterTypes()), e);
+        }
+    }
+
+    protected static Object instantiate(Class clazz) {
+        try {
+            return clazz.newInstance();
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new InvalidConfigurationException("Could not create an instance of: " + clazz.getName() + ". It must be a public class with a public no-arg constructor", e);
+        }
+    }
+
+    public List<ResolvedNode> getNodes() {
+        return nodes;
+    }
+
+    public ResolvedNode getNode(int index) {
+        return nodes.get(index);
+    }
+
+    /**
+     * @return the node index for each key in the Context, in the order they were declared
+     */
+    public Map<Object, Integer> getKeys() {
+        return keys;
+    }
+
+    static class Resolver {
+        private final List<ResolvedNode> nodes = new ArrayList<ResolvedNode>();
+        private final Map<Binding, Integer> indexes = new IdentityHashMap<Binding, Integer>();
+        private final Set<Binding> visiting = Collections.newSetFromMap(new IdentityHashMap<Binding, Boolean>());
+
+        ResolvedGraph resolve(Context ctx) {
+            for (MultiBinding multi : ctx.getMultiBindings().values()) {
+                indexOf(multi);
+            }
+            Map<Object, Integer> keys = new LinkedHashMap<Object, Integer>();
+            for (Map.Entry<Object, Binding> entry : ctx.getBindingsMap().entrySet()) {
+                keys.put(entry.getKey(), indexOf(entry.getValue()));
+            }
+            return new ResolvedGraph(nodes, keys);
+        }
+
+        int indexOf(Binding binding) {
+            Binding resolved = BindingGraph.resolve(binding);
+            Integer known = indexes.get(resolved);
+            if (known != null) {
+                return known;
+            }
+
+            if (!visiting.add(resolved)) {
+                throw new InvalidConfigurationException("Circular dependency found in the Binding for class: " + resolved.getBoundClass().getName());
+            }
+
+            ResolvedNode node = createNode(resolved);
+            visiting.remove(resolved);
+            nodes.add(node);
+            indexes.put(resolved, node.getIndex());
+            return node.getIndex();
+        }
+
+        ResolvedNode createNode(Binding binding) {
+            Scope scope = (binding instanceof CachingBinding || binding instanceof ThreadScopedBinding || binding instanceof PooledBinding) ? binding.getScope() : Scope.ALWAYS_CREATE_NEW;
+            int minPoolSize = (binding instanceof PooledBinding) ? ((PooledBinding) binding).getMinSize() : 0;
+            int maxPoolSize = (binding instanceof PooledBinding) ? ((PooledBinding) binding).getMaxSize() : 0;
+            Class bound = binding.getBoundClass();
+            Class impl = binding.getImplClass();
+            InstanceGenerator gen = binding.getInstanceGenerator();
+
+            if (binding instanceof MeteredBinding) {
+                throw new InvalidConfigurationException("The Binding for " + bound.getName() + " records metrics, which can't be saved in a snapshot or generated as source");
+
+            } else if (binding instanceof ProviderBinding) {
+                throw new InvalidConfigurationException("The Provider<" + ((ProviderBinding) binding).getProvidedClass().getName() + "> constructor param can't be saved in a snapshot or generated as source");
+
+            } else if (binding instanceof MultiBinding) {
+                throw new InvalidConfigurationException("The multibinding for " + ((MultiBinding) binding).getElementType().getName() + " can't be saved in a snapshot or generated as source");
+
+            } else if (binding instanceof NullBinding || gen == null || gen instanceof NullGenerator) {
+                return new ResolvedNode(nodes.size(), ResolvedNode.Kind.NULL, Scope.SINGLETON, bound, null, null, null, null, null, null);
+
+            } else if (gen instanceof ConstantGenerator) {
+                Object value = ((ConstantGenerator) gen).getValue();
+                return new ResolvedNode(nodes.size(), ResolvedNode.Kind.CONSTANT, Scope.SINGLETON, bound, impl, null, null, value, null, null);
+
+            } else if (gen instanceof ConstructorInstanceGenerator) {
+                ConstructorInstanceGenerator cig = (ConstructorInstanceGenerator) gen;
+                Binding[] constructorArgs = cig.getConstructorArgs();
+                int[] args = new int[constructorArgs.length];
+                for (int i = 0; i < constructorArgs.length; i++) {
+                    args[i] = indexOf(constructorArgs[i]);
+                }
+                Class setupClass = (cig.getSetup() != null) ? cig.getSetup().getClass() : null;
+                return new ResolvedNode(nodes.size(), ResolvedNode.Kind.CONSTRUCTOR, scope, bound, cig.getClazz(), cig.getParameterTypes(), args, null, setupClass, null, minPoolSize, maxPoolSize);
+
+            } else {
+                return new ResolvedNode(nodes.size(), ResolvedNode.Kind.GENERATOR, scope, bound, impl, null, null, null, null, gen.getClass(), minPoolSize, maxPoolSize);
+            }
+        }
+    }
+}
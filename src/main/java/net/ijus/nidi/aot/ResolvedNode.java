@@ -0,0 +1,145 @@
+package net.ijus.nidi.aot;
+
+import net.ijus.nidi.bindings.Scope;
+
+/**
+ * One node in a ResolvedGraph. Each node describes how a single Binding provides its instances, without holding on
+ * to the Binding itself. Nodes refer to each other by index, and every node comes after all of the nodes it depends on.
+ */
+public class ResolvedNode {
+
+    /**
+     * The different ways that a node can provide an instance
+     */
+    public enum Kind {
+        /**
+         * Calls a constructor, using other nodes for the constructor params
+         */
+        CONSTRUCTOR,
+        /**
+         * Always provides the same value, from <code>toObject</code> or <code>bindProperty</code>
+         */
+        CONSTANT,
+        /**
+         * Calls a custom InstanceGenerator, from <code>toValue</code>
+         */
+        GENERATOR,
+        /**
+         * Always provides null
+         */
+        NULL
+    }
+
+    private final int index;
+    private final Kind kind;
+    private final Scope scope;
+    private final Class boundClass;
+    private final Class implClass;
+    private final Class[] parameterTypes;
+    private final int[] args;
+    private final Object value;
+    private final Class setupClass;
+    private final Class generatorClass;
+    private final int minPoolSize;
+    private final int maxPoolSize;
+
+    public ResolvedNode(int index, Kind kind, Scope scope, Class boundClass, Class implClass, Class[] parameterTypes, int[] args, Object value, Class setupClass, Class generatorClass) {
+        this(index, kind, scope, boundClass, implClass, parameterTypes, args, value, setupClass, generatorClass, 0, 0);
+    }
+
+    /**
+     * @param minPoolSize the min size of the pool, for a POOLED node. Ignored for any other scope.
+     * @param maxPoolSize the max size of the pool, for a POOLED node. Ignored for any other scope.
+     */
+    public ResolvedNode(int index, Kind kind, Scope scope, Class boundClass, Class implClass, Class[] parameterTypes, int[] args, Object value, Class setupClass, Class generatorClass, int minPoolSize, int maxPoolSize) {
+        this.index = index;
+        this.kind = kind;
+        this.scope = scope;
+        this.boundClass = boundClass;
+        this.implClass = implClass;
+        this.parameterTypes = (parameterTypes != null) ? parameterTypes : new Class[0];
+        this.args = (args != null) ? args : new int[0];
+        this.value = value;
+        this.setupClass = setupClass;
+        this.generatorClass = generatorClass;
+        this.minPoolSize = minPoolSize;
+        this.maxPoolSize = maxPoolSize;
+    }
+
+    /**
+     * @return true if this node only ever creates one instance
+     */
+    public boolean isCaching() {
+        return scope == Scope.SINGLETON || scope == Scope.ONE_PER_BINDING;
+    }
+
+    /**
+     * @return true if this node creates one instance per thread
+     */
+    public boolean isThreadScoped() {
+        return scope == Scope.THREAD;
+    }
+
+    /**
+     * @return true if this node keeps a pool of instances
+     */
+    public boolean isPooled() {
+        return scope == Scope.POOLED;
+    }
+
+    public int getMinPoolSize() {
+        return minPoolSize;
+    }
+
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public Scope getScope() {
+        return scope;
+    }
+
+    public Class getBoundClass() {
+        return boundClass;
+    }
+
+    public Class getImplClass() {
+        return implClass;
+    }
+
+    public Class[] getParameterTypes() {
+        return parameterTypes;
+    }
+
+    /**
+     * @return the indexes of the nodes that provide each constructor param
+     */
+    public int[] getArgs() {
+        return args;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public Class getSetupClass() {
+        return setupClass;
+    }
+
+    public Class getGeneratorClass() {
+        return generatorClass;
+    }
+
+    @Override
+    public String toString() {
+        return "ResolvedNode " + index + ": " + kind + " " + scope + " " + ((implClass != null) ? implClass.getName() : boundClass.getName());
+    }
+}
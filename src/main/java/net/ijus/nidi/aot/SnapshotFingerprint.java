@@ -0,0 +1,101 @@
+package net.ijus.nidi.aot;
+
+import java.io.File;
+import java.io.UnsupportedEncodingException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Computes a fingerprint for a ContextConfig class and the classpath it runs with. If any jar or class file on the
+ * classpath is added, removed or modified, the fingerprint changes, so a snapshot made with a different version of
+ * the code will never be used.
+ */
+public class SnapshotFingerprint {
+
+    /**
+     * @param configClass the ContextConfig class
+     * @return the fingerprint of the config class, the snapshot format, and every entry on the classpath
+     */
+    public static long of(Class configClass) {
+        MessageDigest digest = newDigest();
+        update(digest, configClass.getName());
+        update(digest, String.valueOf(GraphSnapshot.FORMAT_VERSION));
+
+        for (File entry : classpathEntries(configClass)) {
+            addFile(digest, entry, entry.getAbsolutePath());
+        }
+
+        byte[] hash = digest.digest();
+        long fingerprint = 0;
+        for (int i = 0; i < 8; i++) {
+            fingerprint = (fingerprint << 8) | (hash[i] & 0xff);
+        }
+        return fingerprint;
+    }
+
+    /**
+     * @return the entries from <code>java.class.path</code>, plus wherever the config class itself was loaded from
+     */
+    protected static Set<File> classpathEntries(Class configClass) {
+        Set<File> entries = new LinkedHashSet<File>();
+        String classpath = System.getProperty("java.class.path");
+        if (classpath != null && classpath.length() > 0) {
+            for (String path : classpath.split(File.pathSeparator)) {
+                entries.add(new File(path).getAbsoluteFile());
+            }
+        }
+
+        CodeSource codeSource = configClass.getProtectionDomain().getCodeSource();
+        if (codeSource != null && codeSource.getLocation() != null) {
+            URL location = codeSource.getLocation();
+            try {
+                entries.add(new File(location.toURI()).getAbsoluteFile());
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                //not a file, so there's nothing that could be checked for changes anyway
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Adds the path, size and modification time of a file. Directories are walked, since their own modification time
+     * doesn't change when a file inside them is modified.
+     */
+    protected static void addFile(MessageDigest digest, File file, String path) {
+        update(digest, path);
+        if (file.isDirectory()) {
+            String[] children = file.list();
+            if (children != null) {
+                Arrays.sort(children);
+                for (String child : children) {
+                    addFile(digest, new File(file, child), path + "/" + child);
+                }
+            }
+        } else {
+            update(digest, file.exists() ? file.length() + ":" + file.lastModified() : "missing");
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        try {
+            digest.update(value.getBytes("UTF-8"));
+            digest.update((byte) 0);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not available", e);
+        }
+    }
+}
@@ -42,6 +42,13 @@ public class BasicBinding<T> implements Binding<T> {
         return instanceGenerator;
     }
 
+    /**
+     * @return a new BasicBinding for the same classes, which uses the given InstanceGenerator
+     */
+    public BasicBinding<T> copy(InstanceGenerator<T> instanceGenerator) {
+        return new BasicBinding<T>(getBoundClass(), getImplClass(), instanceGenerator);
+    }
+
     public void setInstanceGenerator(InstanceGenerator<T> instanceGenerator) {
         this.instanceGenerator = instanceGenerator;
     }
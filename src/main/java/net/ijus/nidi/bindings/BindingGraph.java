@@ -0,0 +1,149 @@
+package net.ijus.nidi.bindings;
+
+import net.ijus.nidi.instantiation.ConstructorInstanceGenerator;
+import net.ijus.nidi.instantiation.InstanceGenerator;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Utility methods for walking the graph of Bindings in a built Context. The edges of the graph are the Bindings for
+ * each constructor param of a ConstructorInstanceGenerator, and the elements of a MultiBinding.
+ */
+public class BindingGraph {
+
+    private static final Binding[] NO_BINDINGS = new Binding[0];
+
+    /**
+     * Follows ContextBindingReferences until reaching the Binding that actually provides instances. This will resolve
+     * any references that haven't been resolved yet, so it should only be called once the Context has been built.
+     *
+     * @param binding any Binding
+     * @return the first Binding that is not a ContextBindingReference
+     */
+    public static Binding resolve(Binding binding) {
+        Binding b = binding;
+        while (b instanceof ContextBindingReference) {
+            b = ((ContextBindingReference) b).getResolvedBinding();
+        }
+        return b;
+    }
+
+    /**
+     * Returns the Bindings that provide the constructor params for the given Binding. These are returned as-is, so they
+     * may still be ContextBindingReferences.
+     *
+     * @param binding any Binding
+     * @return the constructor param Bindings, or an empty array if the Binding doesn't create instances using a constructor.
+     * For a MultiBinding, its elements.
+     */
+    public static Binding[] getConstructorArgs(Binding binding) {
+        Binding resolved = resolve(binding);
+        if (resolved instanceof MultiBinding) {
+            return ((MultiBinding) resolved).getElements();
+        }
+        InstanceGenerator gen = resolved.getInstanceGenerator();
+        if (gen instanceof ConstructorInstanceGenerator) {
+            return ((ConstructorInstanceGenerator) gen).getConstructorArgs();
+        }
+        return NO_BINDINGS;
+    }
+
+    /**
+     * Replaces every ContextBindingReference used as a constructor param, or as the target of a Provider, with the
+     * Binding that it resolves to. For a reference to a ONE_PER_BINDING Binding, that's the CachingBinding created just
+     * for that reference. This walks the whole graph, including Bindings that aren't in the Context itself, like inner
+     * bindings. Once linked, getting an instance never has to go through a reference.
+     *
+     * This should be called once the Context has been built, but before it's used by any other threads.
+     *
+     * @param bindings the top level Bindings from the Context
+     * @return the number of references that were replaced
+     */
+    public static int link(Collection<Binding> bindings) {
+        Set<Binding> visited = Collections.newSetFromMap(new IdentityHashMap<Binding, Boolean>());
+        int linked = 0;
+        for (Binding binding : bindings) {
+            linked += link(resolve(binding), visited);
+        }
+        return linked;
+    }
+
+    private static int link(Binding binding, Set<Binding> visited) {
+        if (!visited.add(binding)) {
+            return 0;
+        }
+
+        if (binding instanceof ProviderBinding) {
+            ProviderBinding provider = (ProviderBinding) binding;
+            int linked = provider.link() ? 1 : 0;
+            return linked + link(provider.getTarget(), visited);
+        }
+
+        if (binding instanceof MultiBinding) {
+            MultiBinding multi = (MultiBinding) binding;
+            int linked = multi.link();
+            for (Binding element : multi.getElements()) {
+                linked += link(element, visited);
+            }
+            return linked;
+        }
+
+        InstanceGenerator gen = binding.getInstanceGenerator();
+        if (!(gen instanceof ConstructorInstanceGenerator)) {
+            return 0;
+        }
+
+        ConstructorInstanceGenerator cig = (ConstructorInstanceGenerator) gen;
+        Binding[] args = cig.getConstructorArgs();
+        Binding[] linkedArgs = new Binding[args.length];
+        int linked = 0;
+        for (int i = 0; i < args.length; i++) {
+            linkedArgs[i] = resolve(args[i]);
+            if (linkedArgs[i] != args[i]) {
+                linked++;
+            }
+            linked += link(linkedArgs[i], visited);
+        }
+
+        if (linked > 0) {
+            cig.setConstructorArgs(linkedArgs);
+        }
+        return linked;
+    }
+
+    /**
+     * Returns every Binding reachable from the given Bindings, including inner bindings and the CachingBindings created
+     * for ONE_PER_BINDING references. Only resolved Bindings are returned, never ContextBindingReferences.
+     *
+     * @param bindings the top level Bindings from the Context
+     * @return a set of Bindings, compared by identity
+     */
+    public static Set<Binding> reachable(Collection<Binding> bindings) {
+        Set<Binding> visited = Collections.newSetFromMap(new IdentityHashMap<Binding, Boolean>());
+        for (Binding binding : bindings) {
+            collect(resolve(binding), visited);
+        }
+        return visited;
+    }
+
+    private static void collect(Binding binding, Set<Binding> visited) {
+        if (visited.add(binding)) {
+            for (Binding arg : getConstructorArgs(binding)) {
+                collect(resolve(arg), visited);
+            }
+            if (binding instanceof ProviderBinding) {
+                collect(resolve(((ProviderBinding) binding).getTarget()), visited);
+            }
+        }
+    }
+
+    /**
+     * @return true if the binding caches its instance, meaning that it has SINGLETON or ONE_PER_BINDING scope
+     */
+    public static boolean isCaching(Binding binding) {
+        return resolve(binding) instanceof CachingBinding;
+    }
+}
@@ -1,11 +1,18 @@
 package net.ijus.nidi.bindings;
 
 import net.ijus.nidi.InvalidConfigurationException;
+import net.ijus.nidi.instantiation.ConstructorInstanceGenerator;
 import net.ijus.nidi.instantiation.InstanceGenerator;
 
+import java.util.concurrent.locks.ReentrantLock;
+
 /**
  * A Binding that caches the generated instance. This Binding will only ever call out to its InstanceGenerator
  * once, one the first call to getInstance(). After that, all subsequent calls will return the same instance.
+ *
+ * CachingBindings are safe to use from multiple threads. Once the instance has been created, getInstance() is just a
+ * volatile read. If several threads ask for the instance before it exists, only one of them will create it and the
+ * others will wait for it. Waiting uses a ReentrantLock rather than synchronized, so virtual threads don't get pinned.
  */
 public class CachingBinding<T> implements Binding<T> {
     public CachingBinding(InstanceGenerator<T> instanceGenerator, Class<T> boundClass, Class<? extends T> implClass, Scope scope) {
@@ -18,11 +25,69 @@ public class CachingBinding<T> implements Binding<T> {
 
     @Override
     public T getInstance() {
-        if (cachedInstance == null) {
-            this.cachedInstance = instanceGenerator.createNewInstance();
+        T instance = cachedInstance;
+        if (instance == null) {
+            instance = createAndCache();
         }
 
-        return cachedInstance;
+        return instance;
+    }
+
+    /**
+     * Creates the instance if no other thread has done so yet. Only one thread will ever call the InstanceGenerator
+     * at a time, and if it fails then the next caller will try again.
+     *
+     * @return the cached instance
+     */
+    protected T createAndCache() {
+        creationLock.lock();
+        try {
+            T instance = cachedInstance;
+            if (instance == null) {
+                instance = createInstance();
+                this.cachedInstance = instance;
+            }
+            return instance;
+
+        } finally {
+            creationLock.unlock();
+        }
+    }
+
+    /**
+     * Calls the InstanceGenerator. This is only ever called while holding the creation lock.
+     */
+    protected T createInstance() {
+        return instanceGenerator.createNewInstance();
+    }
+
+    /**
+     * Creates the instance from constructor args that are already available, unless it has already been created. This
+     * follows the same rules as <code>getInstance()</code>, so the constructor is only called while holding the creation
+     * lock, and never once an instance has been cached.
+     *
+     * @param generator the generator for this Binding's constructor
+     * @param args the constructor args, in order
+     * @return the cached instance
+     */
+    public T createIfAbsent(ConstructorInstanceGenerator<T> generator, Object[] args) {
+        T cached = cachedInstance;
+        if (cached != null) {
+            return cached;
+        }
+
+        creationLock.lock();
+        try {
+            T instance = cachedInstance;
+            if (instance == null) {
+                instance = generator.createNewInstance(args);
+                this.cachedInstance = instance;
+            }
+            return instance;
+
+        } finally {
+            creationLock.unlock();
+        }
     }
 
     @Override
@@ -50,11 +115,27 @@ public class CachingBinding<T> implements Binding<T> {
         return this.instanceGenerator;
     }
 
+    /**
+     * @return a new CachingBinding with the same classes and scope, which uses the given InstanceGenerator and hasn't
+     * cached anything yet
+     */
+    public CachingBinding<T> copy(InstanceGenerator<T> instanceGenerator) {
+        return new CachingBinding<T>(instanceGenerator, getBoundClass(), getImplClass(), getScope());
+    }
+
+    /**
+     * @return a new CachingBinding for a ContextBindingReference to this ONE_PER_BINDING Binding. It caches its own
+     * instance, but otherwise behaves the same as this one.
+     */
+    public CachingBinding<T> forReference() {
+        return copy(instanceGenerator);
+    }
+
     public void validateScope(final Scope scope) throws InvalidConfigurationException {
         if (scope == null) {
             throw new InvalidConfigurationException("The Scope for this binding cannot be null: CachingScopedBinding for Class: " + boundClass.getCanonicalName() + " to: " + implClass.getCanonicalName());
 
-        } else if (scope.equals(Scope.ALWAYS_CREATE_NEW)) {
+        } else if (scope.equals(Scope.ALWAYS_CREATE_NEW) || scope.equals(Scope.THREAD) || scope.equals(Scope.POOLED)) {
             throw new InvalidConfigurationException("The scope: " + String.valueOf(scope) + " is not compatible with t");
         }
 
@@ -84,7 +165,8 @@ public class CachingBinding<T> implements Binding<T> {
         this.scope = scope;
     }
 
-    private T cachedInstance;
+    private volatile T cachedInstance;
+    private final ReentrantLock creationLock = new ReentrantLock();
     private InstanceGenerator<T> instanceGenerator;
     private Class<T> boundClass;
     private Class<? extends T> implClass;
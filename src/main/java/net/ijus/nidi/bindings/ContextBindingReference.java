@@ -6,6 +6,8 @@ import net.ijus.nidi.instantiation.InstanceGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
 /**
  * Represents a reference to another binding in the Context. Every time a Class' constructor requires another class, a new
  * Binding must be created. Say we have a Class, 'Foo' that is bound in the main context. That's one binding. If we also have
@@ -14,9 +16,15 @@ import org.slf4j.LoggerFactory;
  *
  * This can also be used to handle situations where a single concrete implementation is used for multiple base classes. In
  * order to respect the Scope, a ContextBindingReference should be used. This is why there are two fields, one for referencedClass, and another for provides.
+ *
+ * Once a Context is built, <code>BindingGraph.link</code> replaces references with the Bindings they resolve to, so a
+ * ContextBindingReference is normally only used while the Context is being built. Resolving is safe to do from multiple
+ * threads: if two threads race to resolve the same reference, they will both end up with the same Binding.
  */
 public class ContextBindingReference<T> implements Binding<T> {
     private static final Logger log = LoggerFactory.getLogger(ContextBindingReference.class);
+    private static final AtomicReferenceFieldUpdater<ContextBindingReference, Binding> RESOLVED_BINDING =
+            AtomicReferenceFieldUpdater.newUpdater(ContextBindingReference.class, Binding.class, "resolvedBinding");
     /**
      * referencedClass can be anything. It doesn't necessarily have to extend T
      */
@@ -28,7 +36,7 @@ public class ContextBindingReference<T> implements Binding<T> {
     /**
      * The resolved Binding must provide a T as its impl class in order to be valid
      */
-    private Binding<T> resolvedBinding;
+    private volatile Binding<T> resolvedBinding;
     /**
      * This is the baseClass
      */
@@ -74,11 +82,14 @@ public class ContextBindingReference<T> implements Binding<T> {
     }
 
     public Binding<T> getResolvedBinding() {
-        if (resolvedBinding == null) {
-            this.resolvedBinding = createResolvedBinding();
+        Binding<T> b = resolvedBinding;
+        if (b == null) {
+            //only the first one wins, so every caller sees the same ONE_PER_BINDING CachingBinding
+            RESOLVED_BINDING.compareAndSet(this, null, createResolvedBinding());
+            b = resolvedBinding;
         }
 
-        return resolvedBinding;
+        return b;
     }
 
     public Binding createResolvedBinding() {
@@ -87,13 +98,18 @@ public class ContextBindingReference<T> implements Binding<T> {
             throw new InvalidConfigurationException("The Context does not contain a Binding for class: " + referencedClass.getName() + ". Perhaps the referenced Binding trying to be created to early");
         }
 
+        //collapse chains of references, so that resolving never takes more than one hop
+        b = BindingGraph.resolve(b);
+
         final Scope s = b.getScope();
         log.debug("Resolving binding for class: {} with scope: {}", this.referencedClass.getName(), s);
 
         /*
         Depending on the Scope, we may need to wrap the resolved binding in a CachingBinding
          */
-        if (s.equals(Scope.ONE_PER_BINDING)) {
+        if (s.equals(Scope.ONE_PER_BINDING) && b instanceof CachingBinding) {
+            b = ((CachingBinding) b).forReference();
+        } else if (s.equals(Scope.ONE_PER_BINDING)) {
             b = new CachingBinding(b.getInstanceGenerator(), this.referencedClass, b.getImplClass(), Scope.ONE_PER_BINDING);
         }
 
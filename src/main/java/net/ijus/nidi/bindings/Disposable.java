@@ -0,0 +1,13 @@
+package net.ijus.nidi.bindings;
+
+/**
+ * Implemented by Bindings that hold on to resources which should be released once their Context is no longer used.
+ * <code>Context.dispose()</code> calls this for every Disposable Binding in the Context.
+ */
+public interface Disposable {
+
+    /**
+     * Releases everything held by this Binding. Calling this more than once has no further effect.
+     */
+    public abstract void dispose();
+}
@@ -0,0 +1,44 @@
+package net.ijus.nidi.bindings;
+
+/**
+ * An instance borrowed from a Context, which is meant to be used with try-with-resources:
+ * <pre>
+ *     try (Lease&lt;Compressor&gt; lease = ctx.borrow(Compressor.class)) {
+ *         lease.get().compress(bytes);
+ *     }
+ * </pre>
+ * For a POOLED Binding, closing the Lease returns the instance to the pool. For any other Binding, closing does nothing.
+ * A Lease must only be closed once, and the instance must not be used after that.
+ */
+public class Lease<T> implements AutoCloseable {
+
+    private final T instance;
+    private boolean closed = false;
+
+    public Lease(T instance) {
+        this.instance = instance;
+    }
+
+    public T get() {
+        return instance;
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            release(instance);
+        }
+    }
+
+    /**
+     * Called the first time the Lease is closed
+     */
+    protected void release(T instance) {
+
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+}
@@ -0,0 +1,297 @@
+package net.ijus.nidi.bindings;
+
+import net.ijus.nidi.instantiation.InstanceGenerator;
+import net.ijus.nidi.metrics.MeteredBinding;
+
+import java.lang.reflect.Array;
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * Provides every element contributed to a multibinding, as an array, a List, a Set or a Map. The elements are regular
+ * Bindings, in the order they were contributed, and each one keeps its own scope.
+ *
+ * If every element caches its instance (SINGLETON, ONE_PER_BINDING, constants or null), the collection is created once,
+ * the first time it's requested, and then the same immutable collection is returned every time. The List is a thin
+ * wrapper around an array, so iterating it by index never allocates. Java arrays can't be made read-only, so the array
+ * form is copied for every request. If any element has another scope, a new collection is created every time, with a
+ * new instance from each element Binding.
+ *
+ * All four forms of a multibinding share the same elements. Use <code>as(Kind)</code> to get the others.
+ */
+public class MultiBinding<E> implements Binding<Object> {
+
+    public enum Kind {ARRAY, LIST, SET, MAP}
+
+    private final Class<E> elementType;
+    private final Kind kind;
+    private final String[] keys;
+    private volatile Binding[] elements;
+
+    /**
+     * Set once the collection has been created, if every element caches its instance
+     */
+    private volatile Object materialized;
+
+    /**
+     * Whether every element caches its instance, worked out the first time it's needed and again whenever
+     * <code>link()</code> replaces the elements. Null until then.
+     */
+    private volatile Boolean materializable;
+
+    /**
+     * The other forms of this multibinding, indexed by Kind. Shared by all of the forms.
+     */
+    private final MultiBinding[] views;
+
+    private final InstanceGenerator<Object> generator = new InstanceGenerator<Object>() {
+        @Override
+        public Object createNewInstance() {
+            return create();
+        }
+    };
+
+    /**
+     * @param elementType the type of each element
+     * @param elements the Binding for each element, in order
+     * @param keys the key for each element, used for the Map form. Any of them can be null, as long as the Map form is never used.
+     */
+    public MultiBinding(Class<E> elementType, Binding[] elements, String[] keys) {
+        this(elementType, Kind.LIST, elements, keys, new MultiBinding[Kind.values().length]);
+    }
+
+    private MultiBinding(Class<E> elementType, Kind kind, Binding[] elements, String[] keys, MultiBinding[] views) {
+        this.elementType = elementType;
+        this.kind = kind;
+        this.elements = elements;
+        this.keys = keys;
+        this.views = views;
+        views[kind.ordinal()] = this;
+    }
+
+    /**
+     * @return the form of this multibinding for the given Kind, which shares its elements
+     */
+    @SuppressWarnings("unchecked")
+    public MultiBinding<E> as(Kind kind) {
+        synchronized (views) {
+            MultiBinding<E> view = views[kind.ordinal()];
+            if (view == null) {
+                view = new MultiBinding<E>(elementType, kind, elements, keys, views);
+                view.materializable = materializable;
+            }
+            return view;
+        }
+    }
+
+    @Override
+    public Object getInstance() {
+        Object instance = materialized;
+        if (instance == null) {
+            instance = create();
+            if (isMaterializable()) {
+                materialized = instance;
+            }
+        }
+        return (kind == Kind.ARRAY) ? ((Object[]) instance).clone() : instance;
+    }
+
+    /**
+     * Creates a new collection, getting an instance from every element Binding
+     */
+    protected Object create() {
+        Binding[] bindings = elements;
+        @SuppressWarnings("unchecked")
+        E[] values = (E[]) Array.newInstance(elementType, bindings.length);
+        for (int i = 0; i < bindings.length; i++) {
+            values[i] = elementType.cast(bindings[i].getInstance());
+        }
+
+        switch (kind) {
+            case LIST:
+                return new ArrayView<E>(values);
+            case SET:
+                Set<E> set = new LinkedHashSet<E>(values.length * 2);
+                Collections.addAll(set, values);
+                return Collections.unmodifiableSet(set);
+            case MAP:
+                Map<String, E> map = new LinkedHashMap<String, E>(values.length * 2);
+                for (int i = 0; i < values.length; i++) {
+                    map.put(keys[i], values[i]);
+                }
+                return Collections.unmodifiableMap(map);
+            default:
+                return values;
+        }
+    }
+
+    /**
+     * @return true if every element always provides the same instance, so the collection only has to be created once
+     */
+    public boolean isMaterializable() {
+        Boolean result = materializable;
+        if (result == null) {
+            result = computeMaterializable(elements);
+            materializable = result;
+        }
+        return result;
+    }
+
+    private static boolean computeMaterializable(Binding[] elements) {
+        for (Binding element : elements) {
+            Binding resolved = BindingGraph.resolve(element);
+            if (!(resolved instanceof CachingBinding || resolved instanceof NullBinding) || resolved instanceof MeteredBinding) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isMaterialized() {
+        return materialized != null;
+    }
+
+    /**
+     * Replaces any ContextBindingReferences in the elements with the Bindings they resolve to. This applies to every form
+     * of the multibinding.
+     *
+     * @return the number of references that were replaced
+     */
+    public int link() {
+        synchronized (views) {
+            Binding[] linked = new Binding[elements.length];
+            int count = 0;
+            for (int i = 0; i < linked.length; i++) {
+                linked[i] = BindingGraph.resolve(elements[i]);
+                count += (linked[i] != elements[i]) ? 1 : 0;
+            }
+            //the elements never change after this, so whether they can be materialized only has to be worked out once
+            Boolean linkedMaterializable = computeMaterializable(linked);
+            for (MultiBinding view : views) {
+                if (view != null) {
+                    if (count > 0) {
+                        view.elements = linked;
+                    }
+                    view.materializable = linkedMaterializable;
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * @return a new multibinding of the same Kind, with the given elements and its own collection
+     */
+    public MultiBinding<E> copy(Binding[] elements) {
+        return new MultiBinding<E>(elementType, Kind.LIST, elements, keys, new MultiBinding[Kind.values().length]).as(kind);
+    }
+
+    public Binding[] getElements() {
+        return elements.clone();
+    }
+
+    /**
+     * @return the key for each element, any of which may be null
+     */
+    public String[] getKeys() {
+        return keys.clone();
+    }
+
+    /**
+     * @return true if every element has a key, which is needed for the Map form
+     */
+    public boolean isKeyed() {
+        for (String key : keys) {
+            if (key == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public Class<E> getElementType() {
+        return elementType;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public int size() {
+        return elements.length;
+    }
+
+    @Override
+    public Class getImplClass() {
+        return getBoundClass();
+    }
+
+    @Override
+    public Class getBoundClass() {
+        switch (kind) {
+            case LIST:
+                return List.class;
+            case SET:
+                return Set.class;
+            case MAP:
+                return Map.class;
+            default:
+                return Array.newInstance(elementType, 0).getClass();
+        }
+    }
+
+    @Override
+    public Scope getScope() {
+        return isMaterializable() ? Scope.SINGLETON : Scope.ALWAYS_CREATE_NEW;
+    }
+
+    @Override
+    public void validate() {
+
+    }
+
+    /**
+     * @return a generator that creates a new collection every time, without caching it
+     */
+    @Override
+    public InstanceGenerator<Object> getInstanceGenerator() {
+        return generator;
+    }
+
+    @Override
+    public String toString() {
+        return "MultiBinding: " + kind + " of " + elements.length + " " + elementType.getName();
+    }
+
+    /**
+     * An immutable List backed directly by an array
+     */
+    static final class ArrayView<E> extends AbstractList<E> implements RandomAccess {
+        private final E[] values;
+
+        ArrayView(E[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public E get(int index) {
+            return values[index];
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+
+        @Override
+        public Object[] toArray() {
+            return values.clone();
+        }
+    }
+}
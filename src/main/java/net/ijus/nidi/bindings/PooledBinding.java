@@ -0,0 +1,253 @@
+package net.ijus.nidi.bindings;
+
+import net.ijus.nidi.InvalidConfigurationException;
+import net.ijus.nidi.instantiation.CreationException;
+import net.ijus.nidi.instantiation.InstanceGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A Binding with <code>Scope.POOLED</code>, which keeps a bounded pool of idle instances for classes that are expensive
+ * to create but must only be used by one caller at a time, like buffers or compressors. Instances are borrowed with
+ * <code>Context.borrow(Class)</code> and go back into the pool when the Lease is closed.
+ *
+ * The pool never blocks. Idle instances are kept in an AtomicReferenceArray with one slot per instance, and each slot
+ * is padded out to its own cache line. A thread starts looking for an instance at a slot picked from its thread id, so
+ * threads mostly stay out of each other's way. If there's no idle instance, a new one is created. If an instance is
+ * released when the pool is already full, it is discarded, and closed if it's AutoCloseable. So <code>maxSize</code>
+ * bounds the number of instances that are kept around, not the number that are in use at once.
+ *
+ * Calling getInstance() directly, which is what happens when a pooled class is a constructor param, takes an instance
+ * out of the pool for good.
+ */
+public class PooledBinding<T> implements Binding<T>, Disposable {
+    private static final Logger log = LoggerFactory.getLogger(PooledBinding.class);
+
+    /**
+     * The number of array elements between two slots, so that no two slots share a cache line
+     */
+    static final int SLOT_STRIDE = 16;
+
+    public static final int DEFAULT_MIN_SIZE = 0;
+    public static final int DEFAULT_MAX_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+
+    public PooledBinding(InstanceGenerator<T> instanceGenerator, Class<T> boundClass, Class<? extends T> implClass, int minSize, int maxSize) {
+        validatePoolSize(minSize, maxSize);
+        this.instanceGenerator = instanceGenerator;
+        this.boundClass = boundClass;
+        this.implClass = implClass;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.slots = new AtomicReferenceArray<T>(maxSize * SLOT_STRIDE);
+    }
+
+    public static void validatePoolSize(int minSize, int maxSize) throws InvalidConfigurationException {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new InvalidConfigurationException("Invalid pool size, min: " + minSize + " max: " + maxSize + ". The max must be at least 1, and the min must be between 0 and the max");
+        }
+    }
+
+    @Override
+    public T getInstance() {
+        return borrow();
+    }
+
+    /**
+     * Takes an idle instance out of the pool, or creates a new one if there aren't any
+     */
+    public T borrow() {
+        checkNotDisposed();
+        int start = startSlot();
+        for (int i = 0; i < maxSize; i++) {
+            int index = slotIndex(start + i);
+            T instance = slots.get(index);
+            if (instance != null && slots.compareAndSet(index, instance, null)) {
+                return instance;
+            }
+        }
+
+        createdCount.incrementAndGet();
+        return createInstance();
+    }
+
+    /**
+     * Calls the InstanceGenerator
+     */
+    protected T createInstance() {
+        return instanceGenerator.createNewInstance();
+    }
+
+    /**
+     * Returns an instance to the pool. If the pool is full, or has been disposed, the instance is discarded instead.
+     *
+     * @param instance an instance that was borrowed from this pool
+     */
+    public void release(T instance) {
+        if (instance == null) {
+            return;
+        }
+
+        if (!disposed) {
+            int start = startSlot();
+            for (int i = 0; i < maxSize; i++) {
+                int index = slotIndex(start + i);
+                if (slots.get(index) == null && slots.compareAndSet(index, null, instance)) {
+                    if (disposed) {
+                        //dispose() may have already cleared this slot
+                        discard(slots.getAndSet(index, null));
+                    }
+                    return;
+                }
+            }
+        }
+
+        discard(instance);
+    }
+
+    /**
+     * Borrows an instance, wrapped in a Lease that releases it back to this pool when closed
+     */
+    public Lease<T> lease() {
+        final T instance = borrow();
+        return new Lease<T>(instance) {
+            @Override
+            protected void release(T leased) {
+                PooledBinding.this.release(leased);
+            }
+        };
+    }
+
+    /**
+     * Creates instances until the pool holds at least <code>minSize</code> idle instances
+     *
+     * @return the number of instances that were created
+     */
+    public int prefill() {
+        int created = 0;
+        while (getIdleCount() < minSize) {
+            checkNotDisposed();
+            T instance = createInstance();
+            createdCount.incrementAndGet();
+            release(instance);
+            created++;
+        }
+        return created;
+    }
+
+    /**
+     * Discards all of the idle instances, closing any that are AutoCloseable. Instances that are still borrowed will be
+     * discarded when they're released.
+     */
+    @Override
+    public void dispose() {
+        disposed = true;
+        for (int i = 0; i < maxSize; i++) {
+            discard(slots.getAndSet(slotIndex(i), null));
+        }
+    }
+
+    /**
+     * @return the number of instances currently sitting in the pool
+     */
+    public int getIdleCount() {
+        int idle = 0;
+        for (int i = 0; i < maxSize; i++) {
+            if (slots.get(slotIndex(i)) != null) {
+                idle++;
+            }
+        }
+        return idle;
+    }
+
+    /**
+     * @return the total number of instances this pool has had to create
+     */
+    public long getCreatedCount() {
+        return createdCount.get();
+    }
+
+    /**
+     * @return a new, empty PooledBinding with the same classes and pool size, which uses the given InstanceGenerator
+     */
+    public PooledBinding<T> copy(InstanceGenerator<T> instanceGenerator) {
+        return new PooledBinding<T>(instanceGenerator, boundClass, implClass, minSize, maxSize);
+    }
+
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+    protected void checkNotDisposed() throws CreationException {
+        if (disposed) {
+            throw new CreationException("The POOLED Binding for class: " + boundClass.getName() + " has already been disposed");
+        }
+    }
+
+    protected void discard(T instance) {
+        if (instance instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) instance).close();
+            } catch (Exception e) {
+                log.warn("Error closing POOLED instance of: " + instance.getClass().getName(), e);
+            }
+        }
+    }
+
+    /**
+     * Spreads threads across the pool, so that each thread tends to reuse the same slot
+     */
+    protected int startSlot() {
+        long id = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+        return (int) ((id >>> 33) % maxSize);
+    }
+
+    private int slotIndex(int slot) {
+        return (slot % maxSize) * SLOT_STRIDE;
+    }
+
+    @Override
+    public Class<? extends T> getImplClass() {
+        return implClass;
+    }
+
+    @Override
+    public Class<T> getBoundClass() {
+        return boundClass;
+    }
+
+    @Override
+    public Scope getScope() {
+        return SCOPE;
+    }
+
+    @Override
+    public void validate() {
+
+    }
+
+    @Override
+    public InstanceGenerator<T> getInstanceGenerator() {
+        return instanceGenerator;
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public static final Scope SCOPE = Scope.POOLED;
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicLong createdCount = new AtomicLong();
+    private volatile boolean disposed = false;
+    private final InstanceGenerator<T> instanceGenerator;
+    private final Class<T> boundClass;
+    private final Class<? extends T> implClass;
+    private final int minSize;
+    private final int maxSize;
+}
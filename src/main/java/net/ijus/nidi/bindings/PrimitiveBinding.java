@@ -0,0 +1,87 @@
+package net.ijus.nidi.bindings;
+
+import net.ijus.nidi.InvalidConfigurationException;
+import net.ijus.nidi.instantiation.ConstantGenerator;
+import net.ijus.nidi.instantiation.InstanceGenerator;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * A bound property with a primitive value, like an int port number or a double threshold. These are created by the
+ * primitive <code>ContextBuilder.bindProperty</code> methods.
+ *
+ * The value is boxed exactly once, when the Binding is created, so <code>getInstance()</code> always returns the same
+ * wrapper object. When a constructor param has the same primitive type, the value is inserted into the constructor's
+ * MethodHandle as a raw primitive, so creating an instance never has to box or unbox it.
+ */
+public class PrimitiveBinding<T> extends CachingBinding<T> {
+
+    private final Class<T> primitiveType;
+    private final T value;
+    private final MethodHandle constantHandle;
+
+    /**
+     * @param primitiveType one of the primitive classes, like <code>int.class</code>
+     * @param value the value, as the matching wrapper
+     * @throws InvalidConfigurationException if the type isn't primitive, or the value isn't its wrapper
+     */
+    @SuppressWarnings("unchecked")
+    public PrimitiveBinding(Class<T> primitiveType, T value) throws InvalidConfigurationException {
+        super(new ConstantGenerator<T>(value), primitiveType, (Class<T>) wrapperFor(primitiveType), Scope.SINGLETON);
+        if (value == null || !getImplClass().isInstance(value)) {
+            throw new InvalidConfigurationException("Attempted to bind the primitive type: " + primitiveType.getName() + " to the value: " + String.valueOf(value));
+        }
+        this.primitiveType = primitiveType;
+        this.value = value;
+        this.constantHandle = MethodHandles.constant(primitiveType, value);
+        setCachedInstance(value);
+    }
+
+    /**
+     * @return the wrapper class for a primitive type, like <code>Integer</code> for <code>int</code>
+     * @throws InvalidConfigurationException if the type isn't primitive
+     */
+    public static Class wrapperFor(Class primitiveType) throws InvalidConfigurationException {
+        if (primitiveType == null || !primitiveType.isPrimitive() || primitiveType == void.class) {
+            throw new InvalidConfigurationException("A PrimitiveBinding can only be created for a primitive type, but got: " + String.valueOf(primitiveType));
+        }
+        return MethodType.methodType(primitiveType).wrap().returnType();
+    }
+
+    /**
+     * @return true if the value can be used for a param of the given type without boxing
+     */
+    public boolean isExactFor(Class paramType) {
+        return paramType == primitiveType;
+    }
+
+    /**
+     * @return a MethodHandle with the type <code>()primitiveType</code> that returns the raw value
+     */
+    public MethodHandle getConstantHandle() {
+        return constantHandle;
+    }
+
+    public Class<T> getPrimitiveType() {
+        return primitiveType;
+    }
+
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * @return a new PrimitiveBinding with the same value. The InstanceGenerator is ignored, since the value never changes.
+     */
+    @Override
+    public PrimitiveBinding<T> copy(InstanceGenerator<T> instanceGenerator) {
+        return new PrimitiveBinding<T>(primitiveType, value);
+    }
+
+    @Override
+    public String toString() {
+        return "PrimitiveBinding: " + primitiveType.getName() + " = " + value;
+    }
+}
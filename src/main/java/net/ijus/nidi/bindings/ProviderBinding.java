@@ -0,0 +1,93 @@
+package net.ijus.nidi.bindings;
+
+import net.ijus.nidi.Provider;
+import net.ijus.nidi.instantiation.ConstantGenerator;
+import net.ijus.nidi.instantiation.InstanceGenerator;
+
+/**
+ * The Binding for a constructor param declared as <code>Provider&lt;T&gt;</code>. It always provides the same Provider,
+ * which calls <code>getInstance()</code> on the target Binding. The target is usually a ContextBindingReference until
+ * the Context is linked, after which the Provider goes straight to the Binding that actually creates the instances.
+ *
+ * The target isn't treated as a constructor param, so it isn't created eagerly, and a Provider can be used to break a
+ * circular dependency.
+ */
+public class ProviderBinding<T> extends CachingBinding<Provider<T>> {
+
+    public ProviderBinding(Class<T> providedClass, Binding<T> target) {
+        this(providedClass, new BindingProvider<T>(target));
+    }
+
+    private ProviderBinding(Class<T> providedClass, BindingProvider<T> provider) {
+        super(new ConstantGenerator<Provider<T>>(provider), (Class) Provider.class, (Class) BindingProvider.class, Scope.SINGLETON);
+        this.providedClass = providedClass;
+        this.provider = provider;
+    }
+
+    /**
+     * Points the Provider at the Binding that its target resolves to
+     *
+     * @return true if the target was a reference that got replaced
+     */
+    public boolean link() {
+        Binding<T> target = provider.getTarget();
+        Binding<T> resolved = BindingGraph.resolve(target);
+        provider.setTarget(resolved);
+        return resolved != target;
+    }
+
+    public Binding<T> getTarget() {
+        return provider.getTarget();
+    }
+
+    public void setTarget(Binding<T> target) {
+        provider.setTarget(target);
+    }
+
+    /**
+     * @return a new ProviderBinding with its own Provider, for the same target. The InstanceGenerator is ignored, since
+     * a ProviderBinding always provides its own Provider.
+     */
+    @Override
+    public ProviderBinding<T> copy(InstanceGenerator<Provider<T>> instanceGenerator) {
+        return new ProviderBinding<T>(providedClass, getTarget());
+    }
+
+    public Class<T> getProvidedClass() {
+        return providedClass;
+    }
+
+    @Override
+    public String toString() {
+        return "ProviderBinding for: " + providedClass.getName();
+    }
+
+    private final Class<T> providedClass;
+    private final BindingProvider<T> provider;
+
+    static final class BindingProvider<T> implements Provider<T> {
+        private volatile Binding<T> target;
+
+        BindingProvider(Binding<T> target) {
+            this.target = target;
+        }
+
+        @Override
+        public T get() {
+            return target.getInstance();
+        }
+
+        Binding<T> getTarget() {
+            return target;
+        }
+
+        void setTarget(Binding<T> target) {
+            this.target = target;
+        }
+
+        @Override
+        public String toString() {
+            return "Provider for: " + target.getBoundClass().getName();
+        }
+    }
+}
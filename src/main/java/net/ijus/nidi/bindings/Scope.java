@@ -4,5 +4,5 @@ package net.ijus.nidi.bindings;
  * Created by pfried on 6/16/14.
  */
 public enum Scope {
-    SINGLETON, ONE_PER_BINDING, ALWAYS_CREATE_NEW;
+    SINGLETON, ONE_PER_BINDING, ALWAYS_CREATE_NEW, THREAD, POOLED;
 }
@@ -0,0 +1,195 @@
+package net.ijus.nidi.bindings;
+
+import net.ijus.nidi.instantiation.CreationException;
+import net.ijus.nidi.instantiation.InstanceGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A Binding with <code>Scope.THREAD</code>, which caches one instance per thread. This is meant for classes that are
+ * expensive to create but aren't thread safe, like parsers or message digests. The first call to getInstance() on
+ * a thread creates the instance, and every call after that on the same thread returns it.
+ *
+ * Each instance is only strongly reachable from the thread that created it, so it gets collected along with the thread.
+ * The Binding keeps weak references to them, which are purged as threads die, so this is safe to use from short lived
+ * threads like virtual threads, where you simply get one instance per thread. Calling dispose() releases all of the
+ * instances that are still alive, and closes any that are <code>AutoCloseable</code>. After that, getInstance() throws a
+ * CreationException.
+ */
+public class ThreadScopedBinding<T> implements Binding<T>, Disposable {
+    private static final Logger log = LoggerFactory.getLogger(ThreadScopedBinding.class);
+
+    public ThreadScopedBinding(InstanceGenerator<T> instanceGenerator, Class<T> boundClass, Class<? extends T> implClass) {
+        this.instanceGenerator = instanceGenerator;
+        this.boundClass = boundClass;
+        this.implClass = implClass;
+    }
+
+    @Override
+    public T getInstance() {
+        Slot<T> slot = slots.get();
+        if (slot != null) {
+            T instance = slot.get();
+            if (instance != null) {
+                return instance;
+            }
+        }
+
+        return createForCurrentThread();
+    }
+
+    /**
+     * Creates the instance for the current thread and registers it, so that it can be released by dispose()
+     *
+     * @return the new instance
+     */
+    protected T createForCurrentThread() {
+        checkNotDisposed();
+        Slot<T> slot = new Slot<T>(createInstance());
+        purge();
+        registry.add(new SlotReference<T>(slot, queue));
+        slots.set(slot);
+
+        if (disposed) {
+            //dispose() may have run without seeing this slot
+            slots.remove();
+            release(slot);
+            checkNotDisposed();
+        }
+        return slot.get();
+    }
+
+    /**
+     * Calls the InstanceGenerator
+     */
+    protected T createInstance() {
+        return instanceGenerator.createNewInstance();
+    }
+
+    /**
+     * Releases the instances for every thread. Instances that implement AutoCloseable are closed, so this should only be
+     * called once no other thread is using the Context.
+     */
+    @Override
+    public void dispose() {
+        disposed = true;
+        slots.remove();
+        for (SlotReference<T> ref : registry) {
+            Slot<T> slot = ref.get();
+            if (slot != null) {
+                release(slot);
+            }
+        }
+        registry.clear();
+    }
+
+    /**
+     * @return the number of threads that currently have an instance. Threads that have died but haven't been garbage
+     * collected yet are still counted.
+     */
+    public int getInstanceCount() {
+        purge();
+        int count = 0;
+        for (SlotReference<T> ref : registry) {
+            Slot<T> slot = ref.get();
+            if (slot != null && slot.get() != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return a new ThreadScopedBinding for the same classes, which uses the given InstanceGenerator and has no instances yet
+     */
+    public ThreadScopedBinding<T> copy(InstanceGenerator<T> instanceGenerator) {
+        return new ThreadScopedBinding<T>(instanceGenerator, boundClass, implClass);
+    }
+
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+    protected void checkNotDisposed() throws CreationException {
+        if (disposed) {
+            throw new CreationException("The THREAD scoped Binding for class: " + boundClass.getName() + " has already been disposed");
+        }
+    }
+
+    protected void release(Slot<T> slot) {
+        T instance = slot.getAndSet(null);
+        if (instance instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) instance).close();
+            } catch (Exception e) {
+                log.warn("Error closing THREAD scoped instance of: " + instance.getClass().getName(), e);
+            }
+        }
+    }
+
+    /**
+     * Removes the registry entries for threads whose instances have been garbage collected
+     */
+    protected void purge() {
+        Object ref;
+        while ((ref = queue.poll()) != null) {
+            registry.remove(ref);
+        }
+    }
+
+    @Override
+    public Class<? extends T> getImplClass() {
+        return implClass;
+    }
+
+    @Override
+    public Class<T> getBoundClass() {
+        return boundClass;
+    }
+
+    @Override
+    public Scope getScope() {
+        return SCOPE;
+    }
+
+    @Override
+    public void validate() {
+
+    }
+
+    @Override
+    public InstanceGenerator<T> getInstanceGenerator() {
+        return instanceGenerator;
+    }
+
+    /**
+     * Holds the instance for a single thread. The thread's ThreadLocal is the only strong reference to it.
+     */
+    static final class Slot<T> extends AtomicReference<T> {
+        Slot(T instance) {
+            super(instance);
+        }
+    }
+
+    static final class SlotReference<T> extends WeakReference<Slot<T>> {
+        SlotReference(Slot<T> slot, ReferenceQueue<Slot<T>> queue) {
+            super(slot, queue);
+        }
+    }
+
+    public static final Scope SCOPE = Scope.THREAD;
+    private final ThreadLocal<Slot<T>> slots = new ThreadLocal<Slot<T>>();
+    private final Set<SlotReference<T>> registry = Collections.newSetFromMap(new ConcurrentHashMap<SlotReference<T>, Boolean>());
+    private final ReferenceQueue<Slot<T>> queue = new ReferenceQueue<Slot<T>>();
+    private volatile boolean disposed = false;
+    private final InstanceGenerator<T> instanceGenerator;
+    private final Class<T> boundClass;
+    private final Class<? extends T> implClass;
+}
@@ -2,21 +2,25 @@ package net.ijus.nidi.builder;
 
 import net.ijus.nidi.*;
 import net.ijus.nidi.bindings.*;
+import net.ijus.nidi.instantiation.ConstantGenerator;
 import net.ijus.nidi.instantiation.ConstructorInstanceGenerator;
+import net.ijus.nidi.instantiation.ConstructorMetadata;
+import net.ijus.nidi.instantiation.ConstructorMetadataCache;
 import net.ijus.nidi.instantiation.InstanceGenerator;
 import net.ijus.nidi.instantiation.InstanceSetupFunction;
 import net.ijus.nidi.instantiation.NullGenerator;
-import net.ijus.nidi.utils.ReflectionUtils;
+import net.ijus.nidi.metrics.MeteredBasicBinding;
+import net.ijus.nidi.metrics.MeteredCachingBinding;
+import net.ijus.nidi.metrics.MeteredPooledBinding;
+import net.ijus.nidi.metrics.MeteredThreadScopedBinding;
+import net.ijus.nidi.utils.ClassUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.lang.annotation.Annotation;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Modifier;
 import java.util.*;
 
-import static net.ijus.nidi.utils.ReflectionUtils.*;
-
 /**
  * Created by pfried on 7/2/14.
  */
@@ -45,6 +49,12 @@ public class BindingBuilder<T> {
      */
     private Scope scope;
 
+    /**
+     * The pool size, used only if the scope is POOLED
+     */
+    private int minPoolSize = PooledBinding.DEFAULT_MIN_SIZE;
+    private int maxPoolSize = PooledBinding.DEFAULT_MAX_SIZE;
+
     /**
      * If this property is set, this is the closure that will get called to setup properties on a newly created instance
      */
@@ -80,6 +90,32 @@ public class BindingBuilder<T> {
         this.ctxBuilder = ctxBuilder;
     }
 
+    /**
+     * Creates a deep copy of this BindingBuilder, including all of its inner bindings, that belongs to the given
+     * ContextBuilder. Building a BindingBuilder changes it, so a copy has to be made for each Context that uses it.
+     * InstanceGenerators and setup functions are shared with the copy.
+     *
+     * @param ctxBuilder the ContextBuilder for the copy
+     * @return the copy
+     */
+    public BindingBuilder<T> copy(ContextBuilder ctxBuilder) {
+        BindingBuilder<T> copy = new BindingBuilder<T>(this.baseClass, ctxBuilder);
+        copy.finalized = this.finalized;
+        copy.boundToNull = this.boundToNull;
+        copy.scope = this.scope;
+        copy.minPoolSize = this.minPoolSize;
+        copy.maxPoolSize = this.maxPoolSize;
+        copy.instanceConfigClosure = this.instanceConfigClosure;
+        copy.instanceGenerator = this.instanceGenerator;
+        copy.impl = this.impl;
+        copy.bindingReferenceClass = this.bindingReferenceClass;
+        copy.binding = this.binding;
+        for (Map.Entry<Object, BindingBuilder> entry : this.innerBindings.entrySet()) {
+            copy.innerBindings.put(entry.getKey(), entry.getValue().copy(ctxBuilder));
+        }
+        return copy;
+    }
+
     /**
      * convenience method for creating BindingBuilder with the correct generic type
      * @param clazz
@@ -219,13 +255,7 @@ public class BindingBuilder<T> {
         if (obj == null) {
             return toNull();
         }
-        InstanceGenerator<T> gen = new InstanceGenerator<T>() {
-            @Override
-            public T createNewInstance() {
-                return obj;
-            }
-        };
-        BindingBuilder<T> bb = toValue(gen);
+        BindingBuilder<T> bb = toValue(new ConstantGenerator<T>(obj));
         return bb.withScope(Scope.SINGLETON);
     }
 
@@ -254,6 +284,27 @@ public class BindingBuilder<T> {
         return this;
     }
 
+    /**
+     * Sets the scope to POOLED with the given pool size. The pool is filled with <code>min</code> instances when the
+     * Context is built, and keeps at most <code>max</code> idle instances after that.
+     *
+     * <pre>
+     * bind(Compressor).withPoolSize(4, 32).to(DeflateCompressor)
+     * </pre>
+     *
+     * @param min the number of instances to create up front
+     * @param max the most idle instances to keep in the pool
+     * @return
+     */
+    public BindingBuilder<T> withPoolSize(int min, int max) {
+        checkFinalization();
+        PooledBinding.validatePoolSize(min, max);
+        this.scope = Scope.POOLED;
+        this.minPoolSize = min;
+        this.maxPoolSize = max;
+        return this;
+    }
+
     /**
      * Creates an inner binding, which will only be used for resolving constructor params for this binding.
      *
@@ -270,12 +321,11 @@ public class BindingBuilder<T> {
          * Since this method is binding to a named property, we'll have to resolve what that is immediately, since
 		 * we have no other way of knowing the class
 		 */
-        Constructor constructor = resolveConstructor(this.impl);
-        String[] paramAnnots = getBoundAnnotatedParams(constructor.getParameterAnnotations());
+        ConstructorMetadata metadata = getConstructorMetadata(this.impl);
         Class paramClass = null;
-        for (int i = 0; i < paramAnnots.length; i++) {
-            if (paramAnnots[i] != null && paramAnnots[i].equals(param)) {
-                paramClass = constructor.getParameterTypes()[i];
+        for (int i = 0; i < metadata.getParameterCount(); i++) {
+            if (param.equals(metadata.getBoundAnnotationValue(i))) {
+                paramClass = metadata.getParameterType(i);
             }
 
         }
@@ -287,6 +337,8 @@ public class BindingBuilder<T> {
 
         BindingBuilder bb = BindingBuilder.create(paramClass, ctxBuilder);
         bb.scope = this.scope;
+        bb.minPoolSize = this.minPoolSize;
+        bb.maxPoolSize = this.maxPoolSize;
         this.innerBindings.put(param, bb);
         return bb;
     }
@@ -305,8 +357,7 @@ public class BindingBuilder<T> {
             throw new InvalidConfigurationException("Cannot call bindConstructorParam() yet because the implementation class has not been set");
         }
 
-        Constructor constructor = resolveConstructor(this.impl);
-        Class[] types = constructor.getParameterTypes();
+        Class[] types = getConstructorMetadata(this.impl).getParameterTypes();
 
         //check to make sure the parameters have exactly one occurrence of the specified class
         int paramsOfType = 0;
@@ -327,6 +378,8 @@ public class BindingBuilder<T> {
         // ok, now that that's out of the way, we can just return a new bindingBuilder
         BindingBuilder<E> bb = BindingBuilder.create(paramType, this.ctxBuilder);
         bb.scope = this.scope;
+        bb.minPoolSize = this.minPoolSize;
+        bb.maxPoolSize = this.maxPoolSize;
         this.innerBindings.put(paramType, bb);
         return bb;
 
@@ -352,37 +405,50 @@ public class BindingBuilder<T> {
      * @return
      */
     protected Binding[] resolveConstructorParams(Constructor constructor) {
-        Class[] constructorParams = constructor.getParameterTypes();
-        if (constructorParams.length == 0) {
+        return resolveConstructorParams(ConstructorMetadata.forConstructor(constructor));
+    }
+
+    /**
+     * returns a Binding[] containing a binding for each constructor parameter described by the metadata.
+     *
+     * @param metadata
+     * @return
+     */
+    protected Binding[] resolveConstructorParams(ConstructorMetadata metadata) {
+        int paramCount = metadata.getParameterCount();
+        if (paramCount == 0) {
             return new Binding[0];
         }
 
 
-        Binding[] paramBindings = new Binding[constructorParams.length];
-        Annotation[][] parameterAnnotations = constructor.getParameterAnnotations();
-        String[] boundAnnotationValues = getBoundAnnotatedParams(parameterAnnotations);
+        Binding[] paramBindings = new Binding[paramCount];
 
+        for (int paramIdx = 0; paramIdx < paramCount; paramIdx++) {
 
-        for (int paramIdx = 0; paramIdx < constructorParams.length; paramIdx++) {
+            final Class paramType = metadata.getParameterType(paramIdx);
 
-            final Class paramType = constructorParams[paramIdx];
-
-            if (boundAnnotationValues[paramIdx] != null) {
+            if (metadata.getBoundAnnotationValue(paramIdx) != null) {
                 //This Constructor parameter has a @Require or @Optional annotation with a String value
-                String paramName = boundAnnotationValues[paramIdx];
+                String paramName = metadata.getBoundAnnotationValue(paramIdx);
 
-                paramBindings[paramIdx] = buildPropertyBinding(paramName);
+                paramBindings[paramIdx] = buildPropertyBinding(paramName, paramType);
 
             } else if (innerBindings.containsKey(paramType)) {
                 //Binding for this constructor param has been overridden
                 paramBindings[paramIdx] = buildNormalInnerBinding(paramType);
 
+            } else if (paramType == Provider.class) {
+                paramBindings[paramIdx] = buildProviderBinding(metadata.getProvidedType(paramIdx), metadata.isParameterOptional(paramIdx));
+
+            } else if (metadata.getElementType(paramIdx) != null && ctxBuilder.containsMultibinding(metadata.getElementType(paramIdx))) {
+                paramBindings[paramIdx] = buildMultiBinding(paramType, metadata.getElementType(paramIdx));
+
             } else if (ctxBuilder.containsNonNullBinding(paramType)) {
                 //This constructor param is not annotated and is not overridden in the innerBindings
                 //This means we have to look in the context for the correct binding
                 paramBindings[paramIdx] = buildContextRefBinding(paramType);
 
-            } else if (ReflectionUtils.isParameterOptional(parameterAnnotations, paramIdx)) {
+            } else if (metadata.isParameterOptional(paramIdx)) {
                 paramBindings[paramIdx] = new NullBinding(paramType);
 
             } else {
@@ -396,6 +462,61 @@ public class BindingBuilder<T> {
         return paramBindings;
     }
 
+    /**
+     * Builds the Binding for a constructor param declared as <code>Provider&lt;providedType&gt;</code>. The Provider uses
+     * whichever Binding the param would have used if it had been declared as just <code>providedType</code>.
+     *
+     * @param providedType the type argument of the Provider
+     * @param optional if true, the Provider will provide null when there's no Binding for the type
+     * @return
+     */
+    protected Binding buildProviderBinding(final Class providedType, boolean optional) {
+        if (providedType == null) {
+            throw new InvalidConfigurationException("The Constructor for " + name(impl) + " has a Provider parameter without a type argument. Provider params must be declared as Provider<SomeClass>");
+        }
+
+        Binding target;
+        if (innerBindings.containsKey(providedType)) {
+            target = buildNormalInnerBinding(providedType);
+
+        } else if (ctxBuilder.containsNonNullBinding(providedType)) {
+            target = buildContextRefBinding(providedType);
+
+        } else if (optional) {
+            target = new NullBinding(providedType);
+
+        } else {
+            throw new InvalidConfigurationException("The Constructor for " + name(impl) + " requires a Provider for type: " + name(providedType) + ", but no Binding for this class could be found");
+        }
+
+        return new ProviderBinding(providedType, target);
+    }
+
+    /**
+     * Builds the Binding for an array, List, Collection, Set or Map param that's filled by a multibinding
+     *
+     * @param paramType the declared type of the param
+     * @param elementType the type of each element
+     * @return the form of the multibinding that matches the param type
+     */
+    protected Binding buildMultiBinding(final Class paramType, final Class elementType) {
+        MultiBinding multi = ctxBuilder.getMultiBinding(elementType);
+        MultiBinding.Kind kind;
+        if (paramType.isArray()) {
+            kind = MultiBinding.Kind.ARRAY;
+        } else if (paramType == Set.class) {
+            kind = MultiBinding.Kind.SET;
+        } else if (paramType == Map.class) {
+            kind = MultiBinding.Kind.MAP;
+            if (!multi.isKeyed()) {
+                throw new InvalidConfigurationException("The Constructor for " + name(impl) + " requires a Map of " + name(elementType) + ", but not every element of that multibinding has a key. Use addBinding(String) to give each element a key");
+            }
+        } else {
+            kind = MultiBinding.Kind.LIST;
+        }
+        return multi.as(kind);
+    }
+
     /**
      * Builds an inner binding for the specified class.
      * When the constructor for the impl class is to use bindings that have been overridden for this class.
@@ -414,6 +535,14 @@ public class BindingBuilder<T> {
     }
 
     protected Binding buildPropertyBinding(final String key) {
+        return buildPropertyBinding(key, Object.class);
+    }
+
+    /**
+     * @param key the property name
+     * @param paramType the type of the constructor param, which a property from a file gets converted to
+     */
+    protected Binding buildPropertyBinding(final String key, final Class paramType) {
 
         BindingBuilder propertyBuilder = null;
         if (innerBindings.containsKey(key)) {
@@ -422,6 +551,12 @@ public class BindingBuilder<T> {
         } else if (ctxBuilder.containsBindingFor(key)) {
             log.debug("resolving property binding for " + key + " using a binding found in the context");
             propertyBuilder = ctxBuilder.getCtxBindings().get(key);
+        } else if (ctxBuilder.containsFileProperty(key)) {
+            log.debug("resolving property binding for " + key + " using a property file");
+            return ctxBuilder.getFileProperty(key, paramType);
+        } else if (ctxBuilder.containsParentBinding(key)) {
+            log.debug("resolving property binding for " + key + " using the binding in the parent context");
+            return ctxBuilder.getParentBinding(key);
         }
 
 
@@ -444,7 +579,7 @@ public class BindingBuilder<T> {
      */
     protected <E> Binding<E> buildContextRefBinding(Class refClass, Class<E> provides) {
         log.trace("buildContextRefBinding: baseType=" + name(refClass));
-        if (!ctxBuilder.containsBindingFor(refClass)) {
+        if (!ctxBuilder.containsBindingFor(refClass) && !ctxBuilder.containsParentBinding(refClass)) {
             throw new InvalidConfigurationException("Attempted to reference a Binding for " + String.valueOf(refClass) + " in the ContextBuilder, but no Binding for that class has been declared");
         }
 
@@ -473,40 +608,22 @@ public class BindingBuilder<T> {
      * @return
      */
     protected <E> Constructor<E> resolveConstructor(final Class<E> clazz) {
-        Constructor[] constructors = clazz.getConstructors();
-        Constructor<E> constructor;
-        if (constructors.length == 1) {
-            constructor = constructors[0];
-
-        } else if (constructors.length > 1) {
-            List<Constructor> withAnno = new LinkedList<Constructor>();
-            for (Constructor c : constructors) {
-                if (c.isAnnotationPresent(Inject.class)) {
-                    withAnno.add(c);
-                }
-            }
-
-            if (withAnno.size() != 1) {
-                throw new InvalidConfigurationException("The Class: " + name(clazz) + " has more than one constructor, so exactly one Constructor should have the @Inject annotation. Found " + withAnno.size() + " Constructors with that annotation.");
-            }
-
-            constructor = withAnno.get(0);
-        } else {
-            throw new InvalidConfigurationException("The Class: " + name(clazz) + " has no public constructors");
-        }
+        return getConstructorMetadata(clazz).getConstructor();
+    }
 
-        return constructor;
+    /**
+     * Returns the metadata for the constructor of the given class. This is shared by every ContextBuilder, so the
+     * reflection only has to happen once per class.
+     *
+     * @param clazz
+     * @return
+     */
+    protected <E> ConstructorMetadata<E> getConstructorMetadata(final Class<E> clazz) {
+        return ConstructorMetadataCache.get(clazz);
     }
 
     protected String name(final Class clazz) {
-        String name;
-        if (clazz.isAnonymousClass()) {
-            name = "Anonymous implementation of: " + clazz.getSuperclass().getCanonicalName();
-        } else {
-            name = clazz.getCanonicalName();
-        }
-
-        return name;
+        return ClassUtils.name(clazz);
     }
 
     /**
@@ -517,6 +634,12 @@ public class BindingBuilder<T> {
             if (impl == null && bindingReferenceClass == null) {
                 throw new InvalidConfigurationException("The Class: " + name(baseClass) + " was declared to be bound but the implementation class is null");
 
+            } else if (impl != null && baseClass.isPrimitive()) {
+                //a primitive can only be bound to a value of its wrapper class
+                if (PrimitiveBinding.wrapperFor(baseClass) != impl) {
+                    throw new InvalidConfigurationException("The primitive type: " + name(baseClass) + " was bound to " + name(impl) + ", but it can only be bound to a " + PrimitiveBinding.wrapperFor(baseClass).getSimpleName());
+                }
+
             } else if (impl != null && !baseClass.isAssignableFrom(impl)) {
                 throw new InvalidConfigurationException("The Class: " + name(baseClass) + " was bound to " + name(impl) + " but it is not a " + baseClass.getSimpleName());
 
@@ -574,9 +697,9 @@ public class BindingBuilder<T> {
         InstanceGenerator gen = this.instanceGenerator;
 
         if (gen == null) {
-            Constructor constructor = resolveConstructor(this.impl);
-            Binding[] params = resolveConstructorParams(constructor);
-            gen = new ConstructorInstanceGenerator(this.impl, params, instanceConfigClosure);
+            ConstructorMetadata metadata = getConstructorMetadata(this.impl);
+            Binding[] params = resolveConstructorParams(metadata);
+            gen = new ConstructorInstanceGenerator(metadata, params, instanceConfigClosure);
         }
 
 
@@ -593,10 +716,23 @@ public class BindingBuilder<T> {
     }
 
     protected Binding createBindingForInstanceGenerator(InstanceGenerator instanceGenerator) {
+        if (this.baseClass.isPrimitive() && instanceGenerator instanceof ConstantGenerator) {
+            //constants never create anything, so there's nothing to measure
+            return new PrimitiveBinding(this.baseClass, ((ConstantGenerator) instanceGenerator).getValue());
+        }
+
+        if (ctxBuilder != null && ctxBuilder.isMetricsEnabled()) {
+            return createMeteredBinding(instanceGenerator);
+        }
+
         Binding b;
 
         if (this.scope.equals(Scope.ALWAYS_CREATE_NEW)) {
             b = new BasicBinding(this.baseClass, this.impl, instanceGenerator);
+        } else if (this.scope.equals(Scope.THREAD)) {
+            b = new ThreadScopedBinding(instanceGenerator, this.baseClass, this.impl);
+        } else if (this.scope.equals(Scope.POOLED)) {
+            b = new PooledBinding(instanceGenerator, this.baseClass, this.impl, this.minPoolSize, this.maxPoolSize);
         } else {
             b = new CachingBinding(instanceGenerator, this.baseClass, this.impl, this.scope);
         }
@@ -604,6 +740,25 @@ public class BindingBuilder<T> {
         return b;
     }
 
+    /**
+     * The same as createBindingForInstanceGenerator, except that the Binding records metrics
+     */
+    protected Binding createMeteredBinding(InstanceGenerator instanceGenerator) {
+        Binding b;
+
+        if (this.scope.equals(Scope.ALWAYS_CREATE_NEW)) {
+            b = new MeteredBasicBinding(this.baseClass, this.impl, instanceGenerator);
+        } else if (this.scope.equals(Scope.THREAD)) {
+            b = new MeteredThreadScopedBinding(instanceGenerator, this.baseClass, this.impl);
+        } else if (this.scope.equals(Scope.POOLED)) {
+            b = new MeteredPooledBinding(instanceGenerator, this.baseClass, this.impl, this.minPoolSize, this.maxPoolSize);
+        } else {
+            b = new MeteredCachingBinding(instanceGenerator, this.baseClass, this.impl, this.scope);
+        }
+
+        return b;
+    }
+
     protected void checkFinalization() throws InvalidConfigurationException {
         if (this.finalized) {
             throw new InvalidConfigurationException("Attempted to modify a BindingBuilder that has already been finalized. No means no!");
@@ -640,6 +795,14 @@ public class BindingBuilder<T> {
         return scope;
     }
 
+    public int getMinPoolSize() {
+        return minPoolSize;
+    }
+
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
     public void setScope(Scope scope) {
         this.scope = scope;
     }
@@ -0,0 +1,240 @@
+package net.ijus.nidi.builder;
+
+import net.ijus.nidi.ContextConfig;
+import net.ijus.nidi.InvalidConfigurationException;
+import net.ijus.nidi.bindings.Scope;
+import net.ijus.nidi.instantiation.ConstantGenerator;
+import net.ijus.nidi.instantiation.InstanceGenerator;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The result of running a ContextConfig class, kept so that <code>ContextBuilder.inheritFrom(Class)</code> doesn't have to
+ * create and run the config every time a Context inherits from it. The template holds an unbuilt copy of every
+ * BindingBuilder and multibinding that the config declared, including anything it inherited, and never changes after
+ * it's created.
+ * Inheriting from it hands out fresh copies of the BindingBuilders, since building them changes them.
+ *
+ * Copies share their InstanceGenerators, so a value bound with <code>toObject</code> would be the same object in every
+ * Context that inherits from the template. That's only done for values that are immutable, like Strings, boxed
+ * primitives, enums and Classes. If the config binds any other constant, like a List or some other mutable object, the
+ * template can't be shared, and the config class is run again every time it's inherited from, so each Context gets its
+ * own objects, the same as it would without templates.
+ *
+ * Templates are cached JVM-wide, one per config class, using a ClassValue. They are never invalidated automatically. If
+ * a config class can produce different bindings over time, for instance because it reads a file, call
+ * <code>invalidate(Class)</code> or <code>clear()</code> when that changes.
+ */
+public class ConfigTemplate {
+
+    private static volatile ClassValue<ConfigTemplate> cache = newCache();
+
+    private static final AtomicLong lookups = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+
+    private final Class configClass;
+    private final Map<Object, BindingBuilder> bindings;
+    private final Map<Class, MultibindingBuilder> multibindings;
+    private final Scope defaultScope;
+    private final List<MappedPropertyFile> propertyFiles;
+
+    /**
+     * False if the config binds a constant that might be mutable, in which case the config gets run again instead of copied
+     */
+    private final boolean shareable;
+
+    /**
+     * Constant values of these types are immutable, so they can be shared between every Context that inherits them
+     */
+    private static final Set<Class> IMMUTABLE_TYPES = new HashSet<Class>(Arrays.<Class>asList(
+            String.class, Integer.class, Long.class, Double.class, Float.class, Short.class, Byte.class, Character.class,
+            Boolean.class, BigInteger.class, BigDecimal.class, Class.class, File.class, URI.class, UUID.class));
+
+    protected ConfigTemplate(Class configClass, ContextBuilder configured) {
+        this.configClass = configClass;
+        this.defaultScope = configured.getDefaultScope();
+
+        Map<Object, BindingBuilder> copies = new LinkedHashMap<Object, BindingBuilder>();
+        for (Map.Entry<Object, BindingBuilder> entry : configured.getCtxBindings().entrySet()) {
+            copies.put(entry.getKey(), entry.getValue().copy(null));
+        }
+        this.bindings = Collections.unmodifiableMap(copies);
+
+        Map<Class, MultibindingBuilder> multiCopies = new LinkedHashMap<Class, MultibindingBuilder>();
+        for (Map.Entry<Class, MultibindingBuilder> entry : configured.getMultibindings().entrySet()) {
+            multiCopies.put(entry.getKey(), entry.getValue().copy(null));
+        }
+        this.multibindings = Collections.unmodifiableMap(multiCopies);
+
+        //kept only for their namespace and file, since each Context re-opens them
+        this.propertyFiles = Collections.unmodifiableList(new ArrayList<MappedPropertyFile>(configured.getPropertyFiles()));
+
+        boolean mutable = hasMutableConstant(copies.values());
+        for (MultibindingBuilder mb : multiCopies.values()) {
+            mutable |= hasMutableConstant(mb.getElements());
+        }
+        this.shareable = !mutable;
+    }
+
+    private static boolean hasMutableConstant(Collection<? extends BindingBuilder> builders) {
+        for (BindingBuilder bb : builders) {
+            InstanceGenerator gen = bb.getInstanceGenerator();
+            if (gen instanceof ConstantGenerator && !isImmutable(((ConstantGenerator) gen).getValue())) {
+                return true;
+            }
+            if (hasMutableConstant(bb.getInnerBindings().values())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the value is known to be immutable, so it's safe for several Contexts to share it
+     */
+    static boolean isImmutable(Object value) {
+        return value == null || value instanceof Enum || IMMUTABLE_TYPES.contains(value.getClass());
+    }
+
+    /**
+     * Returns the template for the given ContextConfig class, creating and running the config if it isn't cached yet
+     *
+     * @throws InvalidConfigurationException if the class isn't a ContextConfig, can't be instantiated, or fails to configure
+     */
+    public static ConfigTemplate forClass(Class configClass) throws InvalidConfigurationException {
+        lookups.incrementAndGet();
+        return cache.get(configClass);
+    }
+
+    /**
+     * Creates a template by running the config class. This doesn't use or change the cache.
+     */
+    public static ConfigTemplate create(Class configClass) throws InvalidConfigurationException {
+        if (!ContextConfig.class.isAssignableFrom(configClass)) {
+            throw new InvalidConfigurationException("Tried to inherit from: " + configClass.getName() + ", but that class does not implement ContextConfig");
+        }
+        return new ConfigTemplate(configClass, runConfig(configClass));
+    }
+
+    /**
+     * Creates and runs the config class
+     *
+     * @return a new ContextBuilder that the config has been applied to
+     */
+    static ContextBuilder runConfig(Class configClass) throws InvalidConfigurationException {
+        ContextConfig config;
+        try {
+            config = (ContextConfig) configClass.newInstance();
+
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new InvalidConfigurationException("Tried to inherit, but failed to create a new instance of class: " + configClass.getName(), e);
+        }
+
+        ContextBuilder builder = new ContextBuilder();
+        config.configure(builder);
+        return builder;
+    }
+
+    /**
+     * Removes the cached template for one config class, so it will be run again the next time it's inherited from
+     */
+    public static void invalidate(Class configClass) {
+        cache.remove(configClass);
+    }
+
+    /**
+     * Removes all of the cached templates. Contexts that have already been built are not affected.
+     */
+    public static void clear() {
+        cache = newCache();
+    }
+
+    public static void resetStats() {
+        lookups.set(0);
+        misses.set(0);
+    }
+
+    public static long getHitCount() {
+        return Math.max(lookups.get() - misses.get(), 0);
+    }
+
+    public static long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Creates a throw-away ContextBuilder holding new copies of the template's BindingBuilders, ready to be passed to
+     * <code>doInheritance</code>. If the template isn't shareable, the config is run again instead.
+     */
+    ContextBuilder newParentBuilder() {
+        if (!shareable) {
+            return runConfig(configClass);
+        }
+        ContextBuilder builder = new ContextBuilder();
+        builder.defaultScope = defaultScope;
+        for (Map.Entry<Object, BindingBuilder> entry : bindings.entrySet()) {
+            builder.ctxBindings.put(entry.getKey(), entry.getValue().copy(builder));
+        }
+        for (Map.Entry<Class, MultibindingBuilder> entry : multibindings.entrySet()) {
+            builder.multibindings.put(entry.getKey(), entry.getValue().copy(builder));
+        }
+        for (MappedPropertyFile properties : propertyFiles) {
+            builder.propertyFiles.add(properties.reopen());
+        }
+        return builder;
+    }
+
+    public Class getConfigClass() {
+        return configClass;
+    }
+
+    /**
+     * @return the unbuilt BindingBuilders declared by the config. These must not be modified or built.
+     */
+    public Map<Object, BindingBuilder> getBindings() {
+        return bindings;
+    }
+
+    /**
+     * @return the unbuilt multibindings declared by the config. These must not be modified or built.
+     */
+    public Map<Class, MultibindingBuilder> getMultibindings() {
+        return multibindings;
+    }
+
+    public Scope getDefaultScope() {
+        return defaultScope;
+    }
+
+    /**
+     * @return true if every constant the config binds is immutable, so the copies can share them. Otherwise, the config
+     * is run again every time it's inherited from.
+     */
+    public boolean isShareable() {
+        return shareable;
+    }
+
+    private static ClassValue<ConfigTemplate> newCache() {
+        return new ClassValue<ConfigTemplate>() {
+            @Override
+            protected ConfigTemplate computeValue(Class<?> type) {
+                misses.incrementAndGet();
+                return create(type);
+            }
+        };
+    }
+}
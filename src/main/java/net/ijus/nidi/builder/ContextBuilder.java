@@ -2,16 +2,36 @@ package net.ijus.nidi.builder;
 
 import net.ijus.nidi.Context;
 import net.ijus.nidi.bindings.Binding;
+import net.ijus.nidi.bindings.BindingGraph;
+import net.ijus.nidi.bindings.MultiBinding;
+import net.ijus.nidi.bindings.NullBinding;
+import net.ijus.nidi.bindings.PooledBinding;
 import net.ijus.nidi.ContextConfig;
 import net.ijus.nidi.InvalidConfigurationException;
+import net.ijus.nidi.StartupTimeline;
 import net.ijus.nidi.bindings.Scope;
+import net.ijus.nidi.instantiation.ConstructorMetadataCache;
 import net.ijus.nidi.instantiation.InstanceGenerator;
+import net.ijus.nidi.instantiation.InstanceHandles;
+import net.ijus.nidi.utils.ConcurrencyUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import static net.ijus.nidi.utils.ConfigurationAssert.*;
 /**
@@ -24,10 +44,95 @@ public class ContextBuilder {
 	boolean defaultScopeChanged = false;
 
 	Scope defaultScope = Scope.ALWAYS_CREATE_NEW;
+
+	/**
+	 * When true, every ConstructorInstanceGenerator in the Context gets compiled into a single MethodHandle once the Context is built
+	 */
+	boolean compiledInstantiation = false;
+
+	/**
+	 * When true, every SINGLETON and ONE_PER_BINDING instance gets created as part of building the Context
+	 */
+	boolean eagerSingletons = false;
+
+	/**
+	 * The pool used for eager instantiation. If this is null, the shared default pool is used
+	 */
+	ForkJoinPool forkJoinPool;
+
+	/**
+	 * When true, the constructors for all of the Bindings are resolved in parallel before the Bindings get built
+	 */
+	boolean parallelBuild = false;
+
+	/**
+	 * The Executor used by <code>Context.getInstanceAsync</code>. If this is null, the shared default pool is used
+	 */
+	Executor asyncExecutor;
+
+	/**
+	 * When true, every Binding in the Context records metrics
+	 */
+	boolean metricsEnabled = false;
+
+	/**
+	 * If this is set and metrics are enabled, the metrics get registered as MBeans using this as the Context name
+	 */
+	String jmxName;
+
+	/**
+	 * The Context that this one overlays, if any. Lookups for anything that isn't bound in this builder fall through to it
+	 */
+	Context parent;
+
 	Map<Object, BindingBuilder> ctxBindings = new LinkedHashMap<Object ,BindingBuilder>();
 
+	/**
+	 * The multibindings declared in this builder, keyed by element type
+	 */
+	Map<Class, MultibindingBuilder> multibindings = new LinkedHashMap<Class, MultibindingBuilder>();
+
+	/**
+	 * The multibindings that have been built so far. Only used while the Context is being built
+	 */
+	Map<Class, MultiBinding> builtMultibindings = new HashMap<Class, MultiBinding>();
+	Set<Class> buildingMultibindings = new HashSet<Class>();
+
+	/**
+	 * Files that properties are looked up in when they aren't bound explicitly. Later files override earlier ones
+	 */
+	List<MappedPropertyFile> propertyFiles = new ArrayList<MappedPropertyFile>();
+
+	/**
+	 * The Bindings created for properties from files so far, keyed by the property name and the param type
+	 */
+	Map<List<Object>, Binding> filePropertyBindings = new LinkedHashMap<List<Object>, Binding>();
+
 	protected Context ctx = new Context();
 
+	public ContextBuilder() {
+	}
+
+	/**
+	 * Creates a ContextBuilder for a child Context that overlays the given parent. Only the Bindings declared in this
+	 * builder get built, so creating a child costs the same no matter how big the parent is. Anything that isn't bound
+	 * here is looked up in the parent, which means the parent's SINGLETON instances are shared with every child.
+	 *
+	 * Bindings in the parent are never rebuilt, so they keep using the parent's own dependencies. If a parent Binding
+	 * should use one of the child's overrides, it has to be bound again in the child.
+	 *
+	 * @param parent a Context that has already been built
+	 * @throws InvalidConfigurationException if the parent hasn't been built yet
+	 */
+	public ContextBuilder(Context parent) throws InvalidConfigurationException {
+		if (parent == null || !parent.isFrozen()) {
+			throw new InvalidConfigurationException("The parent of a child Context must already be built");
+		}
+		this.parent = parent;
+		this.ctx = new Context(parent);
+		this.asyncExecutor = parent.getAsyncExecutor();
+	}
+
 	/**
 	 * alias for newBinding()
 	 * @param clazz
@@ -102,6 +207,100 @@ public class ContextBuilder {
         return bb.toObject(value);
     }
 
+	/**
+	 * Binds a property to a primitive int. Constructor params declared as <code>int</code> get the raw value, without boxing.
+	 */
+	public BindingBuilder<Integer> bindProperty(final String propertyName, int value) {
+		return bind(propertyName, int.class).toObject(value);
+	}
+
+	/**
+	 * Binds a property to a primitive long. Constructor params declared as <code>long</code> get the raw value, without boxing.
+	 */
+	public BindingBuilder<Long> bindProperty(final String propertyName, long value) {
+		return bind(propertyName, long.class).toObject(value);
+	}
+
+	/**
+	 * Binds a property to a primitive double. Constructor params declared as <code>double</code> get the raw value, without boxing.
+	 */
+	public BindingBuilder<Double> bindProperty(final String propertyName, double value) {
+		return bind(propertyName, double.class).toObject(value);
+	}
+
+	/**
+	 * Binds a property to a primitive boolean. Constructor params declared as <code>boolean</code> get the raw value, without boxing.
+	 */
+	public BindingBuilder<Boolean> bindProperty(final String propertyName, boolean value) {
+		return bind(propertyName, boolean.class).toObject(value);
+	}
+
+	/**
+	 * Binds every property in a properties file, with the namespace and a dot added to the front of each key. So with
+	 * the namespace "db", a line <code>url=jdbc:h2:mem</code> satisfies <code>@Require("db.url")</code>.
+	 *
+	 * The file is memory-mapped and indexed right away, but a value is only parsed when a constructor param actually
+	 * requires it, and then converted to the type of that param. Strings, primitives, their wrappers and enums are
+	 * supported. Properties bound with <code>bindProperty</code> always take precedence over ones from a file, and if
+	 * several files have the same key, the one bound last wins. Properties that get used are also available from the
+	 * Context by name.
+	 *
+	 * @param namespace added to the front of every key. May be null or empty to use the keys as they are.
+	 * @param file a file in the <code>java.util.Properties</code> format, encoded as UTF-8
+	 * @return the indexed file, which can also be used to read properties directly
+	 * @throws InvalidConfigurationException if the file can't be read
+	 */
+	public MappedPropertyFile bindProperties(String namespace, File file) throws InvalidConfigurationException {
+		StartupTimeline.Span span = StartupTimeline.begin(StartupTimeline.CONFIG, "bindProperties: " + file);
+		try {
+			MappedPropertyFile properties = new MappedPropertyFile(namespace, file);
+			propertyFiles.add(properties);
+			return properties;
+		} finally {
+			StartupTimeline.end(span);
+		}
+	}
+
+	/**
+	 * @return true if any of the property files bound to this builder contains the key
+	 */
+	public boolean containsFileProperty(String key) {
+		return findPropertyFile(key) != null;
+	}
+
+	/**
+	 * Returns the Binding for a property from a file, parsing the value and converting it to the given type the first
+	 * time that key is requested as that type.
+	 *
+	 * @throws InvalidConfigurationException if no file contains the key, or the value can't be converted to the type
+	 */
+	@SuppressWarnings("unchecked")
+	public Binding getFileProperty(String key, Class type) throws InvalidConfigurationException {
+		List<Object> cacheKey = Arrays.<Object>asList(key, type);
+		Binding binding = filePropertyBindings.get(cacheKey);
+		if (binding == null) {
+			MappedPropertyFile properties = findPropertyFile(key);
+			if (properties == null) {
+				throw new InvalidConfigurationException("None of the property files contain the property: " + key);
+			}
+			BindingBuilder bb = new BindingBuilder(type, this);
+			bb.toObject(properties.getValue(key, type));
+			bb.validateClassAssignment();
+			binding = bb.build();
+			filePropertyBindings.put(cacheKey, binding);
+		}
+		return binding;
+	}
+
+	protected MappedPropertyFile findPropertyFile(String key) {
+		for (int i = propertyFiles.size() - 1; i >= 0; i--) {
+			if (propertyFiles.get(i).contains(key)) {
+				return propertyFiles.get(i);
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * Sets a property that will be bound to any Constructor parameters annotated with @Require('myProperty')
 	 *
@@ -113,6 +312,70 @@ public class ContextBuilder {
         return bind(propertyName, clazz).toObject(value);
     }
 
+	/**
+	 * Returns the multibinding for the given element type, creating it if this is the first time it's been used. Each
+	 * call for the same type adds to the same multibinding, so several configs can each contribute elements to it.
+	 * <pre>
+	 *     multibind(Validator).addBinding().to(NotEmptyValidator)
+	 * </pre>
+	 * @param elementType the type of each element
+	 * @return the MultibindingBuilder, which elements can be added to
+	 */
+	@SuppressWarnings("unchecked")
+	public <E> MultibindingBuilder<E> multibind(Class<E> elementType) {
+		if (elementType == null) {
+			throw new InvalidConfigurationException("The element Class cannot be null when creating a multibinding");
+		}
+		MultibindingBuilder<E> mb = multibindings.get(elementType);
+		if (mb == null) {
+			mb = new MultibindingBuilder<E>(elementType, this);
+			multibindings.put(elementType, mb);
+		}
+		return mb;
+	}
+
+	/**
+	 * @return true if there's a multibinding for the element type in this builder or in the parent Context
+	 */
+	public boolean containsMultibinding(Class elementType) {
+		return multibindings.containsKey(elementType) || (parent != null && parent.getMultiBinding(elementType) != null);
+	}
+
+	/**
+	 * Returns the List form of the multibinding for the element type, building it the first time it's needed. This should
+	 * only be called while the Context is being built. If the type is only multibound in the parent Context, the parent's
+	 * multibinding is returned.
+	 *
+	 * @throws InvalidConfigurationException if there's no multibinding for the type, or if its elements depend on it
+	 */
+	@SuppressWarnings("unchecked")
+	public MultiBinding getMultiBinding(Class elementType) throws InvalidConfigurationException {
+		MultiBinding built = builtMultibindings.get(elementType);
+		if (built != null) {
+			return built;
+		}
+
+		MultiBinding inherited = (parent != null) ? parent.getMultiBinding(elementType) : null;
+		MultibindingBuilder mb = multibindings.get(elementType);
+		if (mb == null) {
+			if (inherited == null) {
+				throw new InvalidConfigurationException("Attempted to use the multibinding for " + elementType.getName() + ", but no elements have been declared for it");
+			}
+			return inherited;
+		}
+
+		if (!buildingMultibindings.add(elementType)) {
+			throw new InvalidConfigurationException("Circular dependency found while building the multibinding for class: " + elementType.getName());
+		}
+		try {
+			built = mb.build(inherited);
+		} finally {
+			buildingMultibindings.remove(elementType);
+		}
+		builtMultibindings.put(elementType, built);
+		return built;
+	}
+
 	/**
 	 * Sets the default scope for this contextBuilder. All bindings will inherit this scope, unless one is
 	 * explicitly set on it.
@@ -140,20 +403,19 @@ public class ContextBuilder {
 
 	/**
 	 * {@see #inheritFrom(ContextConfig)}
+	 * The config class is only created and run the first time any ContextBuilder inherits from it. After that, its
+	 * Bindings are copied from the cached ConfigTemplate. Use <code>ConfigTemplate.invalidate(Class)</code> if the
+	 * config needs to be run again. If the config binds a constant that may be mutable, like <code>toObject(new ArrayList())</code>,
+	 * it's run again every time instead, so that each Context gets its own object.
 	 * @param configClass a class that implements ContextConfig, which will be created by simply calling newInstance() on it
 	 */
 	public void inheritFrom(Class configClass) {
-		if (!ContextConfig.class.isAssignableFrom(configClass)) {
-			throw new InvalidConfigurationException("Tried to inherit from: "+configClass.getName()+", but that class does not implement ContextConfig");
-		}
-		ContextConfig config;
+		StartupTimeline.Span span = StartupTimeline.begin(StartupTimeline.INHERIT, configClass.getName());
 		try {
-			config = (ContextConfig) configClass.newInstance();
-
-		} catch (InstantiationException | IllegalAccessException e) {
-			throw new InvalidConfigurationException("Tried to inherit, but failed to create a new instance of class: " +configClass.getName(), e);
+			doInheritance(ConfigTemplate.forClass(configClass).newParentBuilder());
+		} finally {
+			StartupTimeline.end(span);
 		}
-		inheritFrom(config);
 	}
 
 	/**
@@ -162,38 +424,322 @@ public class ContextBuilder {
 	 * @param config
 	 */
 	void inheritFrom(ContextConfig config) {
-		ContextBuilder parentBuilder = new ContextBuilder();
-		config.configure(parentBuilder);
-		doInheritance(parentBuilder);
+		StartupTimeline.Span span = StartupTimeline.begin(StartupTimeline.INHERIT, config.getClass().getName());
+		try {
+			ContextBuilder parentBuilder = new ContextBuilder();
+			config.configure(parentBuilder);
+			doInheritance(parentBuilder);
+		} finally {
+			StartupTimeline.end(span);
+		}
 	}
 
     public boolean containsNonNullBinding(Object key){
-        return containsBindingFor(key) && !ctxBindings.get(key).isBoundToNull();
+        if (containsBindingFor(key)) {
+            return !ctxBindings.get(key).isBoundToNull();
+        }
+        return containsParentBinding(key) && !(getParentBinding(key) instanceof NullBinding);
     }
 
+	/**
+	 * @return true if the key is bound in this builder. Bindings in the parent Context are not included.
+	 */
 	public boolean containsBindingFor(Object key) {
 		return ctxBindings.containsKey(key);
 	}
 
+	/**
+	 * @return true if this builder has a parent Context that contains a Binding for the key
+	 */
+	public boolean containsParentBinding(Object key) {
+		return parent != null && parent.containsBinding(key);
+	}
+
+	/**
+	 * @return the Binding for the key in the parent Context, or null if there isn't one
+	 */
+	public Binding getParentBinding(Object key) {
+		if (parent == null) {
+			return null;
+		}
+		return (key instanceof String) ? parent.getBinding((String) key) : parent.getBinding((Class) key);
+	}
+
+	public Context getParent() {
+		return parent;
+	}
+
 	public Context getContextRef(){
 		return this.ctx;
 	}
 
 	public Context build() throws InvalidConfigurationException {
+		StartupTimeline.Span buildSpan = StartupTimeline.begin(StartupTimeline.BUILD, "ContextBuilder.build");
+		try {
+			return doBuild();
+		} finally {
+			StartupTimeline.end(buildSpan);
+		}
+	}
+
+	protected Context doBuild() throws InvalidConfigurationException {
 		log.debug("Building Context with {} Bindings in the root context", ctxBindings.size());
-        for (Object key : ctxBindings.keySet()) {
-            BindingBuilder bb = ctxBindings.get(key);
-            bb.inheritScope(defaultScope);
-            bb.validateClassAssignment();
-            Binding binding = bb.build();
-            log.debug("Adding Binding: {} to the Context", binding);
-            ctx.getBindingsMap().put(key, binding);
-        }
+		if (parallelBuild) {
+			StartupTimeline.Span span = StartupTimeline.begin(StartupTimeline.BUILD, "resolveConstructorsInParallel");
+			resolveConstructorsInParallel();
+			StartupTimeline.end(span);
+		}
+
+		Map<Object, Binding> bindings = new LinkedHashMap<Object, Binding>();
+		for (Object key : ctxBindings.keySet()) {
+			StartupTimeline.Span span = StartupTimeline.begin(StartupTimeline.BINDING, (key instanceof Class) ? ((Class) key).getName() : String.valueOf(key));
+			BindingBuilder bb = ctxBindings.get(key);
+			bb.inheritScope(defaultScope);
+			bb.validateClassAssignment();
+			Binding binding = bb.build();
+			log.debug("Adding Binding: {} to the Context", binding);
+			bindings.put(key, binding);
+			StartupTimeline.end(span);
+		}
+		for (Class elementType : multibindings.keySet()) {
+			getMultiBinding(elementType);
+		}
+		//properties from files that were used are available by name, as the type they were first requested as
+		for (Map.Entry<List<Object>, Binding> entry : filePropertyBindings.entrySet()) {
+			Object key = entry.getKey().get(0);
+			if (!bindings.containsKey(key)) {
+				bindings.put(key, entry.getValue());
+			}
+		}
+
+		StartupTimeline.Span span = StartupTimeline.begin(StartupTimeline.BUILD, "link");
+		ctx.freeze(bindings, builtMultibindings);
+		ctx.setAsyncExecutor(asyncExecutor);
+		int linked = ctx.link();
+		log.debug("Linked {} ContextBindingReferences", linked);
+		StartupTimeline.end(span);
+
+		if (eagerSingletons) {
+			span = StartupTimeline.begin(StartupTimeline.BUILD, "createSingletons");
+			createSingletons();
+			StartupTimeline.end(span);
+		}
+
+		if (compiledInstantiation) {
+			span = StartupTimeline.begin(StartupTimeline.BUILD, "compileInstanceGenerators");
+			compileInstanceGenerators();
+			StartupTimeline.end(span);
+		}
+
+		span = StartupTimeline.begin(StartupTimeline.BUILD, "prefillPools");
+		prefillPools();
+		StartupTimeline.end(span);
+
+		if (metricsEnabled && jmxName != null) {
+			int registered = ctx.registerMBeans(jmxName);
+			log.debug("Registered {} metrics MBeans for Context: {}", registered, jmxName);
+		}
 
 		return ctx;
 
 	}
 
+	/**
+	 * Builds a ContextTemplate instead of a Context. The template can then create any number of Contexts with these
+	 * Bindings, each with its own SINGLETON instances, without building them again.
+	 */
+	public ContextTemplate buildTemplate() throws InvalidConfigurationException {
+		return new ContextTemplate(this);
+	}
+
+	/**
+	 * Resolves the constructor metadata for every implementation class in the ContextBuilder, including the ones used
+	 * by inner bindings, in parallel, and adds it to the ConstructorMetadataCache. This is where all of the reflection
+	 * happens, so the Bindings themselves can then be built one at a time in the order they were declared. Any class that fails to resolve is simply skipped here,
+	 * and the same exception will be thrown when its Binding gets built, exactly as it would without a parallel build.
+	 */
+	protected void resolveConstructorsInParallel() {
+		Set<Class> implClasses = new LinkedHashSet<Class>();
+		collectImplClasses(ctxBindings.values(), implClasses);
+		for (MultibindingBuilder mb : multibindings.values()) {
+			collectImplClasses(mb.getElements(), implClasses);
+		}
+		log.debug("Resolving constructors for {} classes in parallel", implClasses.size());
+
+		List<ResolveConstructor> tasks = new ArrayList<ResolveConstructor>(implClasses.size());
+		for (Class clazz : implClasses) {
+			tasks.add(new ResolveConstructor(clazz));
+		}
+		getForkJoinPool().invoke(new ResolveConstructors(tasks));
+	}
+
+	protected void collectImplClasses(Collection<BindingBuilder> builders, Set<Class> implClasses) {
+		for (BindingBuilder bb : builders) {
+			if (bb.getImpl() != null && bb.getInstanceGenerator() == null && bb.getBindingReferenceClass() == null) {
+				implClasses.add(bb.getImpl());
+			}
+			collectImplClasses(bb.getInnerBindings().values(), implClasses);
+		}
+	}
+
+	static class ResolveConstructors extends RecursiveAction {
+		private final List<ResolveConstructor> tasks;
+
+		ResolveConstructors(List<ResolveConstructor> tasks) {
+			this.tasks = tasks;
+		}
+
+		@Override
+		protected void compute() {
+			invokeAll(tasks);
+		}
+	}
+
+	static class ResolveConstructor extends RecursiveAction {
+		private final Class clazz;
+
+		ResolveConstructor(Class clazz) {
+			this.clazz = clazz;
+		}
+
+		@Override
+		protected void compute() {
+			try {
+				ConstructorMetadataCache.get(clazz);
+			} catch (RuntimeException e) {
+				log.debug("Could not resolve the constructor for {} ahead of time, it will be resolved when its Binding is built", clazz.getName());
+			}
+		}
+	}
+
+	/**
+	 * Creates the instances for every SINGLETON and ONE_PER_BINDING Binding in the Context, in dependency order. Bindings
+	 * that don't depend on each other are created in parallel. This happens before the instance generators get compiled,
+	 * so that compiling can pre-bind the cached instances.
+	 */
+	protected void createSingletons() {
+		int count = new SingletonInitializer(getForkJoinPool()).initialize(ctx.getRootBindings());
+		log.debug("Created {} cached instances while building the Context", count);
+	}
+
+	/**
+	 * Compiles the instance generators for every Binding in the Context. This happens after all of the Bindings have
+	 * been added, since compiling resolves any references to other Bindings in the Context.
+	 */
+	protected void compileInstanceGenerators() {
+		log.debug("Compiling instance generators for {} Bindings", ctx.getBindingsMap().size());
+		for (Binding binding : ctx.getRootBindings()) {
+			InstanceHandles.compile(binding);
+		}
+	}
+
+	/**
+	 * Creates the initial instances for every POOLED Binding, including inner bindings. This happens last, so that the
+	 * pools get filled using the compiled instance generators.
+	 */
+	protected void prefillPools() {
+		int count = 0;
+		for (Binding binding : BindingGraph.reachable(ctx.getRootBindings())) {
+			if (binding instanceof PooledBinding) {
+				count += ((PooledBinding) binding).prefill();
+			}
+		}
+		log.debug("Created {} pooled instances while building the Context", count);
+	}
+
+	/**
+	 * Enables or disables compiled instantiation. When enabled, <code>build()</code> will turn the construction of each
+	 * Binding into a single MethodHandle, with the Bindings for constructor params folded in and any constants pre-bound.
+	 * Instances are then created using <code>invokeExact</code>, without allocating an argument array for every call.
+	 * @param compiledInstantiation
+	 */
+	public void setCompiledInstantiation(boolean compiledInstantiation) {
+		this.compiledInstantiation = compiledInstantiation;
+	}
+
+	public boolean isCompiledInstantiation() {
+		return compiledInstantiation;
+	}
+
+	/**
+	 * Enables or disables eager instantiation. When enabled, <code>build()</code> will create the instances for all of the
+	 * SINGLETON and ONE_PER_BINDING Bindings, instead of waiting for them to be requested. Any exception thrown by a
+	 * constructor will be thrown from <code>build()</code>.
+	 * @param eagerSingletons
+	 */
+	public void setEagerSingletons(boolean eagerSingletons) {
+		this.eagerSingletons = eagerSingletons;
+	}
+
+	public boolean isEagerSingletons() {
+		return eagerSingletons;
+	}
+
+	/**
+	 * Enables or disables parallel builds. When enabled, <code>build()</code> first resolves the constructors for all of
+	 * the Bindings on the ForkJoinPool, and then builds the Bindings in the order they were declared. The resulting Context
+	 * and any errors are exactly the same as for a normal build.
+	 * @param parallelBuild
+	 */
+	public void setParallelBuild(boolean parallelBuild) {
+		this.parallelBuild = parallelBuild;
+	}
+
+	public boolean isParallelBuild() {
+		return parallelBuild;
+	}
+
+	/**
+	 * Sets the pool that's used for parallel builds and to create instances in parallel. Defaults to <code>ConcurrencyUtils.getDefaultPool()</code>
+	 * @param forkJoinPool
+	 */
+	public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+		this.forkJoinPool = forkJoinPool;
+	}
+
+	public ForkJoinPool getForkJoinPool() {
+		return (forkJoinPool != null) ? forkJoinPool : ConcurrencyUtils.getDefaultPool();
+	}
+
+	/**
+	 * Sets the Executor that the Context uses for <code>getInstanceAsync</code>. Any Executor works, including one that
+	 * starts a virtual thread for each task, since tasks never block waiting for each other. Defaults to <code>ConcurrencyUtils.getDefaultPool()</code>
+	 * @param asyncExecutor
+	 */
+	public void setAsyncExecutor(Executor asyncExecutor) {
+		this.asyncExecutor = asyncExecutor;
+	}
+
+	public Executor getAsyncExecutor() {
+		return asyncExecutor;
+	}
+
+	/**
+	 * Enables or disables metrics. When enabled, every Binding records how many instances it creates, how long they take
+	 * and how much they allocate, along with failures and cache hits. They're available from <code>Context.getMetrics()</code>.
+	 * When disabled, the normal uninstrumented Bindings are used, so there's no overhead at all.
+	 * @param metricsEnabled
+	 */
+	public void setMetricsEnabled(boolean metricsEnabled) {
+		this.metricsEnabled = metricsEnabled;
+	}
+
+	public boolean isMetricsEnabled() {
+		return metricsEnabled;
+	}
+
+	/**
+	 * Sets the name used to register the metrics for the Context as MBeans. Only used if metrics are enabled
+	 * @param jmxName
+	 */
+	public void setJmxName(String jmxName) {
+		this.jmxName = jmxName;
+	}
+
+	public String getJmxName() {
+		return jmxName;
+	}
+
     public Scope getDefaultScope() {
         return defaultScope;
     }
@@ -202,6 +748,24 @@ public class ContextBuilder {
         return ctxBindings;
     }
 
+    public Map<Class, MultibindingBuilder> getMultibindings() {
+        return multibindings;
+    }
+
+    public List<MappedPropertyFile> getPropertyFiles() {
+        return propertyFiles;
+    }
+
+
+    /**
+     * Makes this the ContextBuilder for the given BindingBuilders and all of their inner bindings
+     */
+    private void adoptBindingBuilders(Collection<BindingBuilder> builders) {
+        for (BindingBuilder bb : builders) {
+            bb.setCtxBuilder(this);
+            adoptBindingBuilders(bb.getInnerBindings().values());
+        }
+    }
 
     /**
      * Consumes the parent context builder and adds it's bindings to this builder. Always preserves the bindings from this
@@ -216,6 +780,29 @@ public class ContextBuilder {
         parentBindings.putAll(ctxBindings); //Add this builders bindings to the parent's, overriding the parents' if there are any conflicts
         this.ctxBindings = parentBindings;
 
+        //multibindings are merged instead of overridden, with the parent's elements first
+        Map<Class, MultibindingBuilder> parentMultibindings = parentBuilder.multibindings;
+        for (Map.Entry<Class, MultibindingBuilder> entry : multibindings.entrySet()) {
+            MultibindingBuilder inherited = parentMultibindings.get(entry.getKey());
+            if (inherited != null) {
+                inherited.addAll(entry.getValue());
+            } else {
+                parentMultibindings.put(entry.getKey(), entry.getValue());
+            }
+        }
+        this.multibindings = parentMultibindings;
+
+        //property files from this builder are bound after the parent's, so they take precedence
+        parentBuilder.propertyFiles.addAll(propertyFiles);
+        this.propertyFiles = parentBuilder.propertyFiles;
+
+        //the inherited bindings have to reference other bindings in this context, not the throw-away parent's
+        adoptBindingBuilders(parentBindings.values());
+        for (MultibindingBuilder mb : parentMultibindings.values()) {
+            mb.setCtxBuilder(this);
+            adoptBindingBuilders(mb.getElements());
+        }
+
         //also inherit the default scope if needed
         if (!defaultScopeChanged && this.defaultScope != parentBuilder.defaultScope) {
             log.debug("Inheriting the default scope specified in the parent context builder: {}", parentBuilder.defaultScope);
@@ -0,0 +1,235 @@
+package net.ijus.nidi.builder;
+
+import net.ijus.nidi.Context;
+import net.ijus.nidi.InvalidConfigurationException;
+import net.ijus.nidi.bindings.BasicBinding;
+import net.ijus.nidi.bindings.Binding;
+import net.ijus.nidi.bindings.BindingGraph;
+import net.ijus.nidi.bindings.CachingBinding;
+import net.ijus.nidi.bindings.ContextBindingReference;
+import net.ijus.nidi.bindings.MultiBinding;
+import net.ijus.nidi.bindings.PooledBinding;
+import net.ijus.nidi.bindings.ProviderBinding;
+import net.ijus.nidi.bindings.ThreadScopedBinding;
+import net.ijus.nidi.instantiation.ConstantGenerator;
+import net.ijus.nidi.instantiation.ConstructorInstanceGenerator;
+import net.ijus.nidi.instantiation.InstanceGenerator;
+import net.ijus.nidi.instantiation.InstanceHandles;
+import net.ijus.nidi.metrics.MeteredBinding;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds a Context once and then stamps out new Contexts with the same wiring, each with its own SINGLETON instances.
+ * This is meant for things like multi-tenant applications, where every tenant gets the same Bindings but must not share
+ * any state.
+ *
+ * The template holds a fully built and linked prototype Context, which is never used to create instances. A new Context
+ * only copies the Bindings that hold state: CachingBindings, THREAD and POOLED Bindings, Providers, Bindings with
+ * metrics, and any Binding that depends on one of those. Everything else, like ALWAYS_CREATE_NEW Bindings with only
+ * stateless dependencies, NullBindings and bound constants, is shared between all of the Contexts. Copying reuses the
+ * resolved constructors, so no reflection or validation happens.
+ *
+ * Custom InstanceGenerators, like the ones passed to <code>toValue</code>, are shared by every Context, so they
+ * shouldn't hold state of their own.
+ */
+public class ContextTemplate {
+    private static final Logger log = LoggerFactory.getLogger(ContextTemplate.class);
+
+    private final Context prototype;
+    private final Set<Binding> stateful = Collections.newSetFromMap(new IdentityHashMap<Binding, Boolean>());
+    private final Set<Binding> checked = Collections.newSetFromMap(new IdentityHashMap<Binding, Boolean>());
+    private final Set<Binding> parentBindings;
+    private final boolean eagerSingletons;
+    private final boolean compiledInstantiation;
+    private final ContextBuilder builder;
+
+    /**
+     * Builds the prototype Context from the given builder. Eager singletons are never created for the prototype, but
+     * they are for every Context created from the template if the builder has them enabled.
+     *
+     * @param builder a configured ContextBuilder that hasn't been built yet
+     * @throws InvalidConfigurationException if the Context fails to build
+     */
+    public ContextTemplate(ContextBuilder builder) throws InvalidConfigurationException {
+        this.builder = builder;
+        this.eagerSingletons = builder.isEagerSingletons();
+        this.compiledInstantiation = builder.isCompiledInstantiation();
+
+        builder.setEagerSingletons(false);
+        builder.setCompiledInstantiation(false);
+        try {
+            this.prototype = builder.build();
+        } finally {
+            builder.setEagerSingletons(eagerSingletons);
+            builder.setCompiledInstantiation(compiledInstantiation);
+        }
+        //the prototype never hands out instances, so anything it created for its pools can be released
+        prototype.dispose();
+
+        Context parent = prototype.getParent();
+        this.parentBindings = (parent != null) ? parent.getReachableBindings() : Collections.<Binding>emptySet();
+
+        for (Binding binding : BindingGraph.reachable(prototype.getRootBindings())) {
+            isStateful(binding);
+        }
+        log.debug("Created ContextTemplate with {} Bindings, {} of which are copied for each Context", prototype.getBindingsMap().size(), stateful.size());
+    }
+
+    /**
+     * Creates a new Context with the same Bindings as the template, and its own state
+     */
+    public Context newContext() {
+        Map<Binding, Binding> copies = new IdentityHashMap<Binding, Binding>(stateful.size() * 2);
+        Context ctx = new Context(prototype.getParent());
+
+        Map<Object, Binding> bindings = new LinkedHashMap<Object, Binding>();
+        for (Map.Entry<Object, Binding> entry : prototype.getBindingsMap().entrySet()) {
+            Binding binding = entry.getValue();
+            if (binding instanceof ContextBindingReference) {
+                ContextBindingReference ref = (ContextBindingReference) binding;
+                bindings.put(entry.getKey(), new ContextBindingReference(ref.getReferencedClass(), ctx, ref.getProvides()));
+            } else {
+                bindings.put(entry.getKey(), copy(binding, copies));
+            }
+        }
+
+        Map<Class, MultiBinding> multiBindings = new LinkedHashMap<Class, MultiBinding>();
+        for (Map.Entry<Class, MultiBinding> entry : prototype.getMultiBindings().entrySet()) {
+            multiBindings.put(entry.getKey(), (MultiBinding) copy(entry.getValue(), copies));
+        }
+
+        ctx.freeze(bindings, multiBindings);
+        ctx.setAsyncExecutor(builder.getAsyncExecutor());
+        ctx.link();
+
+        if (eagerSingletons) {
+            new SingletonInitializer(builder.getForkJoinPool()).initialize(ctx.getRootBindings());
+        }
+        if (compiledInstantiation) {
+            for (Binding binding : ctx.getRootBindings()) {
+                InstanceHandles.compile(binding);
+            }
+        }
+        for (Binding copy : copies.values()) {
+            if (copy instanceof PooledBinding) {
+                ((PooledBinding) copy).prefill();
+            }
+        }
+        return ctx;
+    }
+
+    /**
+     * @return true if the Binding, or anything it depends on, holds state that can't be shared between Contexts
+     */
+    protected boolean isStateful(Binding binding) {
+        if (!checked.add(binding)) {
+            return stateful.contains(binding);
+        }
+
+        boolean result;
+        InstanceGenerator gen = binding.getInstanceGenerator();
+        if (parentBindings.contains(binding)) {
+            //Bindings from the parent of a child Context are always shared, just like they are between siblings
+            result = false;
+
+        } else if (binding instanceof ProviderBinding || binding instanceof MeteredBinding || binding instanceof ThreadScopedBinding || binding instanceof PooledBinding) {
+            result = true;
+
+        } else if (binding instanceof CachingBinding) {
+            //a bound constant is the same object no matter which Context it's in
+            result = !(gen instanceof ConstantGenerator);
+
+        } else {
+            result = false;
+            for (Binding arg : BindingGraph.getConstructorArgs(binding)) {
+                result |= isStateful(BindingGraph.resolve(arg));
+            }
+        }
+
+        if (result) {
+            stateful.add(binding);
+        }
+        return result;
+    }
+
+    /**
+     * Copies a resolved Binding from the prototype, along with its stateful dependencies
+     */
+    @SuppressWarnings("unchecked")
+    protected Binding copy(Binding binding, Map<Binding, Binding> copies) {
+        binding = BindingGraph.resolve(binding);
+        if (!stateful.contains(binding)) {
+            return binding;
+        }
+        Binding copy = copies.get(binding);
+        if (copy != null) {
+            return copy;
+        }
+
+        if (binding instanceof ProviderBinding) {
+            //the copy is registered before its target gets copied, since the target may depend on the Provider
+            ProviderBinding provider = (ProviderBinding) binding;
+            ProviderBinding providerCopy = provider.copy(null);
+            copies.put(binding, providerCopy);
+            providerCopy.setTarget(copy(provider.getTarget(), copies));
+            return providerCopy;
+        }
+
+        if (binding instanceof MultiBinding) {
+            MultiBinding multi = (MultiBinding) binding;
+            Binding[] elements = multi.getElements();
+            for (int i = 0; i < elements.length; i++) {
+                elements[i] = copy(elements[i], copies);
+            }
+            copy = multi.copy(elements);
+            copies.put(binding, copy);
+            return copy;
+        }
+
+        InstanceGenerator gen = binding.getInstanceGenerator();
+        if (gen instanceof ConstructorInstanceGenerator) {
+            Binding[] args = ((ConstructorInstanceGenerator) gen).getConstructorArgs();
+            Binding[] argCopies = new Binding[args.length];
+            for (int i = 0; i < args.length; i++) {
+                argCopies[i] = copy(args[i], copies);
+            }
+            gen = ((ConstructorInstanceGenerator) gen).withConstructorArgs(argCopies);
+        }
+
+        if (binding instanceof CachingBinding) {
+            copy = ((CachingBinding) binding).copy(gen);
+        } else if (binding instanceof ThreadScopedBinding) {
+            copy = ((ThreadScopedBinding) binding).copy(gen);
+        } else if (binding instanceof PooledBinding) {
+            copy = ((PooledBinding) binding).copy(gen);
+        } else if (binding instanceof BasicBinding) {
+            copy = ((BasicBinding) binding).copy(gen);
+        } else {
+            throw new InvalidConfigurationException("A ContextTemplate can't copy the Binding: " + binding + " of type: " + binding.getClass().getName());
+        }
+
+        copies.put(binding, copy);
+        return copy;
+    }
+
+    /**
+     * @return the prototype Context, which should only be used to inspect the Bindings
+     */
+    public Context getPrototype() {
+        return prototype;
+    }
+
+    /**
+     * @return the number of Bindings that get copied for each new Context
+     */
+    public int getStatefulCount() {
+        return stateful.size();
+    }
+}
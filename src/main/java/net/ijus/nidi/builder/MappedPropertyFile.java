@@ -0,0 +1,377 @@
+package net.ijus.nidi.builder;
+
+import net.ijus.nidi.InvalidConfigurationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A properties file that is memory-mapped and indexed once, when it's opened. The index only holds each key and where
+ * its value is in the file. A value is only decoded when <code>getString</code> is called for it, and only converted to
+ * another type when <code>getValue</code> is called, so opening a file costs the same no matter how many of its
+ * properties are actually used.
+ *
+ * The file uses the same format as <code>java.util.Properties</code>: <code>key=value</code>, <code>key: value</code>
+ * or <code>key value</code>, with <code>#</code> and <code>!</code> comments, backslash line continuations and the
+ * usual escapes, including <code>\\uXXXX</code>. The file is read as UTF-8. If a key appears more than once, the last
+ * one wins.
+ *
+ * Every key gets the namespace and a dot added to the front of it, so <code>url</code> in a file bound to the namespace
+ * <code>db</code> becomes <code>db.url</code>. Instances are immutable and can be shared by any number of threads.
+ *
+ * Since values are read from the mapped file after it's been indexed, the file must not change while it's in use. The
+ * size and last modified time are checked before each value is read, and an InvalidConfigurationException is thrown if
+ * either has changed, rather than returning whatever the mapping now holds. Use <code>reopen()</code> to pick up changes.
+ */
+public class MappedPropertyFile {
+    private static final Logger log = LoggerFactory.getLogger(MappedPropertyFile.class);
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final File file;
+    private final String namespace;
+    private final MappedByteBuffer buffer;
+    private final long size;
+    private final long lastModified;
+
+    /**
+     * The index of each key's entry in <code>valueStarts</code> and <code>valueEnds</code>
+     */
+    private final Map<String, Integer> index;
+    private final int[] valueStarts;
+    private final int[] valueEnds;
+
+    /**
+     * Maps and indexes the file
+     *
+     * @param namespace added to the front of every key, followed by a dot. If this is null or empty, keys are used as they are.
+     * @param file the properties file
+     * @throws InvalidConfigurationException if the file can't be read
+     */
+    public MappedPropertyFile(String namespace, File file) throws InvalidConfigurationException {
+        this.file = file;
+        this.namespace = (namespace != null && namespace.length() > 0) ? namespace + "." : "";
+        this.lastModified = (file != null) ? file.lastModified() : 0L;
+        this.buffer = map(file);
+        this.size = buffer.capacity();
+
+        Indexer indexer = new Indexer();
+        indexer.scan();
+        this.index = indexer.index;
+        this.valueStarts = Arrays.copyOf(indexer.starts, indexer.count);
+        this.valueEnds = Arrays.copyOf(indexer.ends, indexer.count);
+        log.debug("Indexed {} properties from: {}", index.size(), file);
+    }
+
+    private static MappedByteBuffer map(File file) {
+        if (file == null || !file.isFile()) {
+            throw new InvalidConfigurationException("Cannot bind properties from: " + file + " because it is not a file");
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new InvalidConfigurationException("Cannot bind properties from: " + file + " because it is larger than 2GB");
+            }
+            //the mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new InvalidConfigurationException("Could not read properties from: " + file, e);
+        }
+    }
+
+    /**
+     * Maps and indexes the file again, picking up any changes made since this one was opened
+     *
+     * @return a new MappedPropertyFile for the same file and namespace
+     * @throws InvalidConfigurationException if the file can't be read
+     */
+    public MappedPropertyFile reopen() throws InvalidConfigurationException {
+        return new MappedPropertyFile(getNamespace(), file);
+    }
+
+    /**
+     * @return true if the file's size or last modified time is different from when it was indexed
+     */
+    public boolean isStale() {
+        return file.length() != size || file.lastModified() != lastModified;
+    }
+
+    /**
+     * @return true if the file has a property for the key, which must include the namespace
+     */
+    public boolean contains(String key) {
+        return index.containsKey(key);
+    }
+
+    /**
+     * Decodes the value for a key. This is done every time it's called, so callers should keep the result if they need it more than once.
+     *
+     * @param key the key, including the namespace
+     * @return the value, or null if there isn't one for the key
+     * @throws InvalidConfigurationException if the file has changed since it was indexed
+     */
+    public String getString(String key) throws InvalidConfigurationException {
+        Integer i = index.get(key);
+        if (i == null) {
+            return null;
+        }
+        //reading a mapping of a file that's been truncated can crash the JVM, and one that's been rewritten gives garbage
+        if (isStale()) {
+            throw new InvalidConfigurationException("Cannot read the property: " + key + " because the file: " + file + " has changed since it was indexed");
+        }
+        return unescape(decode(valueStarts[i], valueEnds[i]), true);
+    }
+
+    /**
+     * Decodes the value for a key and converts it to the given type. Strings, primitives, their wrappers and enums are
+     * supported.
+     *
+     * @param key the key, including the namespace
+     * @param type the type to convert to
+     * @return the converted value, or null if there isn't one for the key
+     * @throws InvalidConfigurationException if the value can't be converted to the type
+     */
+    @SuppressWarnings("unchecked")
+    public Object getValue(String key, Class type) throws InvalidConfigurationException {
+        String value = getString(key);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return convert(value.trim(), type);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidConfigurationException("The property: " + key + " in: " + file + " has the value: '" + value + "', which can't be converted to a " + type.getName(), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static Object convert(String value, Class type) {
+        if (type == String.class || type == Object.class || type == CharSequence.class) {
+            return value;
+        } else if (type == int.class || type == Integer.class) {
+            return Integer.valueOf(value);
+        } else if (type == long.class || type == Long.class) {
+            return Long.valueOf(value);
+        } else if (type == double.class || type == Double.class) {
+            return Double.valueOf(value);
+        } else if (type == boolean.class || type == Boolean.class) {
+            if (!"true".equalsIgnoreCase(value) && !"false".equalsIgnoreCase(value)) {
+                throw new IllegalArgumentException("Expected true or false");
+            }
+            return Boolean.valueOf(value);
+        } else if (type == float.class || type == Float.class) {
+            return Float.valueOf(value);
+        } else if (type == short.class || type == Short.class) {
+            return Short.valueOf(value);
+        } else if (type == byte.class || type == Byte.class) {
+            return Byte.valueOf(value);
+        } else if (type == char.class || type == Character.class) {
+            if (value.length() != 1) {
+                throw new IllegalArgumentException("Expected a single character");
+            }
+            return value.charAt(0);
+        } else if (type.isEnum()) {
+            return Enum.valueOf(type, value);
+        }
+        throw new IllegalArgumentException("Properties from a file can only be converted to Strings, primitives, their wrappers and enums");
+    }
+
+    /**
+     * @return every key in the file, including the namespace
+     */
+    public Set<String> getKeys() {
+        return Collections.unmodifiableSet(index.keySet());
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * @return the namespace, without the trailing dot
+     */
+    public String getNamespace() {
+        return namespace.isEmpty() ? namespace : namespace.substring(0, namespace.length() - 1);
+    }
+
+    private String decode(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * Processes escapes and line continuations, the same way <code>java.util.Properties</code> does
+     *
+     * @param skipContinuations if true, a backslash at the end of a line joins it to the next one
+     */
+    static String unescape(String raw, boolean skipContinuations) {
+        if (raw.indexOf('\\') < 0) {
+            return raw;
+        }
+        StringBuilder sb = new StringBuilder(raw.length());
+        int i = 0;
+        while (i < raw.length()) {
+            char c = raw.charAt(i++);
+            if (c != '\\' || i == raw.length()) {
+                sb.append(c);
+                continue;
+            }
+            c = raw.charAt(i++);
+            switch (c) {
+                case 't': sb.append('\t'); break;
+                case 'n': sb.append('\n'); break;
+                case 'r': sb.append('\r'); break;
+                case 'f': sb.append('\f'); break;
+                case 'u':
+                    if (i + 4 > raw.length()) {
+                        throw new IllegalArgumentException("Malformed \\uXXXX escape in: " + raw);
+                    }
+                    sb.append((char) Integer.parseInt(raw.substring(i, i + 4), 16));
+                    i += 4;
+                    break;
+                case '\r':
+                case '\n':
+                    if (!skipContinuations) {
+                        sb.append(c);
+                        break;
+                    }
+                    //a continuation line: drop the line break and the next line's leading whitespace
+                    if (c == '\r' && i < raw.length() && raw.charAt(i) == '\n') {
+                        i++;
+                    }
+                    while (i < raw.length() && isWhitespace(raw.charAt(i))) {
+                        i++;
+                    }
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\t' || c == '\f';
+    }
+
+    private static boolean isLineEnd(int c) {
+        return c == '\n' || c == '\r';
+    }
+
+    /**
+     * Finds each key and the range of its value in a single pass over the file. Only used while the file is being opened.
+     */
+    private class Indexer {
+        final Map<String, Integer> index = new HashMap<String, Integer>();
+        int[] starts = new int[64];
+        int[] ends = new int[64];
+        int count = 0;
+        int pos = 0;
+        final int limit = buffer.limit();
+
+        void scan() {
+            //skip a UTF-8 byte order mark
+            if (limit >= 3 && (buffer.get(0) & 0xFF) == 0xEF && (buffer.get(1) & 0xFF) == 0xBB && (buffer.get(2) & 0xFF) == 0xBF) {
+                pos = 3;
+            }
+            while (pos < limit) {
+                while (pos < limit && (isWhitespace(buffer.get(pos)) || isLineEnd(buffer.get(pos)))) {
+                    pos++;
+                }
+                if (pos >= limit) {
+                    break;
+                }
+                byte first = buffer.get(pos);
+                if (first == '#' || first == '!') {
+                    skipLine();
+                } else {
+                    readEntry();
+                }
+            }
+        }
+
+        void skipLine() {
+            while (pos < limit && !isLineEnd(buffer.get(pos))) {
+                pos++;
+            }
+        }
+
+        void readEntry() {
+            int keyStart = pos;
+            boolean escaped = false;
+            while (pos < limit) {
+                byte b = buffer.get(pos);
+                if (escaped) {
+                    escaped = false;
+                } else if (b == '\\') {
+                    escaped = true;
+                } else if (b == '=' || b == ':' || isWhitespace(b) || isLineEnd(b)) {
+                    break;
+                }
+                pos++;
+            }
+            int keyEnd = pos;
+
+            //skip the separator, which is whitespace with an optional = or : in it
+            while (pos < limit && isWhitespace(buffer.get(pos))) {
+                pos++;
+            }
+            if (pos < limit && (buffer.get(pos) == '=' || buffer.get(pos) == ':')) {
+                pos++;
+                while (pos < limit && isWhitespace(buffer.get(pos))) {
+                    pos++;
+                }
+            }
+
+            int valueStart = pos;
+            escaped = false;
+            while (pos < limit) {
+                byte b = buffer.get(pos);
+                if (isLineEnd(b)) {
+                    if (!escaped) {
+                        break;
+                    }
+                    //a continuation, so the value carries on to the next line
+                    if (b == '\r' && pos + 1 < limit && buffer.get(pos + 1) == '\n') {
+                        pos++;
+                    }
+                    escaped = false;
+                } else if (b == '\\') {
+                    escaped = !escaped;
+                } else {
+                    escaped = false;
+                }
+                pos++;
+            }
+
+            String key = namespace + unescape(decode(keyStart, keyEnd), false);
+            add(key, valueStart, pos);
+        }
+
+        void add(String key, int start, int end) {
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+                ends = Arrays.copyOf(ends, count * 2);
+            }
+            starts[count] = start;
+            ends[count] = end;
+            index.put(key, count++);
+        }
+    }
+}
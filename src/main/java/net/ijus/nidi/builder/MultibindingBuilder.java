@@ -0,0 +1,151 @@
+package net.ijus.nidi.builder;
+
+import net.ijus.nidi.InvalidConfigurationException;
+import net.ijus.nidi.bindings.Binding;
+import net.ijus.nidi.bindings.MultiBinding;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the elements of a multibinding, such as a chain of plugins that all implement the same interface. Each
+ * element is configured with a normal BindingBuilder, so it can be bound to a class, a value, a reference or null,
+ * and given any scope.
+ * <pre>
+ *     multibind(Validator).addBinding().to(NotEmptyValidator)
+ *     multibind(Validator).addBinding("email").to(EmailValidator).withScope(Scope.SINGLETON)
+ * </pre>
+ * Any constructor that takes a <code>Validator[]</code>, <code>List&lt;Validator&gt;</code>,
+ * <code>Collection&lt;Validator&gt;</code>, <code>Set&lt;Validator&gt;</code> or <code>Map&lt;String, Validator&gt;</code>
+ * then gets all of them, in the order they were added. The Map form requires every element to have a key.
+ *
+ * Calling <code>multibind</code> again for the same type, including from a config that's inherited, adds to the same
+ * multibinding. Inherited elements come first. Adding an element with a key that's already used replaces that element
+ * in place.
+ */
+public class MultibindingBuilder<E> {
+    private static final Logger log = LoggerFactory.getLogger(MultibindingBuilder.class);
+
+    private final Class<E> elementType;
+    private ContextBuilder ctxBuilder;
+    private final List<BindingBuilder<E>> elements = new ArrayList<BindingBuilder<E>>();
+    private final List<String> keys = new ArrayList<String>();
+
+    public MultibindingBuilder(Class<E> elementType, ContextBuilder ctxBuilder) {
+        this.elementType = elementType;
+        this.ctxBuilder = ctxBuilder;
+    }
+
+    /**
+     * Adds an element without a key
+     *
+     * @return the BindingBuilder for the new element, ready to be configured
+     */
+    public BindingBuilder<E> addBinding() {
+        return addBinding(null);
+    }
+
+    /**
+     * Adds an element with the given key, which is used for the Map form. If there's already an element with the same
+     * key, the new one replaces it.
+     *
+     * @return the BindingBuilder for the new element, ready to be configured
+     */
+    public BindingBuilder<E> addBinding(String key) {
+        BindingBuilder<E> bb = new BindingBuilder<E>(elementType, ctxBuilder);
+        add(key, bb);
+        return bb;
+    }
+
+    protected void add(String key, BindingBuilder<E> bb) {
+        int existing = (key != null) ? keys.indexOf(key) : -1;
+        if (existing >= 0) {
+            log.debug("Replacing the element with key: {} in the multibinding for {}", key, elementType.getName());
+            elements.set(existing, bb);
+        } else {
+            elements.add(bb);
+            keys.add(key);
+        }
+    }
+
+    /**
+     * Builds every element, after any elements inherited from a parent Context
+     *
+     * @param inherited the multibinding for the same type in the parent Context, or null
+     * @return the List form of the multibinding
+     */
+    MultiBinding<E> build(MultiBinding<E> inherited) throws InvalidConfigurationException {
+        List<Binding> bindings = new ArrayList<Binding>();
+        List<String> bindingKeys = new ArrayList<String>();
+        if (inherited != null) {
+            Binding[] inheritedElements = inherited.getElements();
+            String[] inheritedKeys = inherited.getKeys();
+            for (int i = 0; i < inheritedElements.length; i++) {
+                if (inheritedKeys[i] == null || !keys.contains(inheritedKeys[i])) {
+                    bindings.add(inheritedElements[i]);
+                    bindingKeys.add(inheritedKeys[i]);
+                }
+            }
+        }
+
+        for (int i = 0; i < elements.size(); i++) {
+            BindingBuilder<E> bb = elements.get(i);
+            bb.inheritScope(ctxBuilder.getDefaultScope());
+            bb.validateClassAssignment();
+            bindings.add(bb.build());
+            bindingKeys.add(keys.get(i));
+        }
+
+        log.debug("Built multibinding for {} with {} elements", elementType.getName(), bindings.size());
+        return new MultiBinding<E>(elementType, bindings.toArray(new Binding[bindings.size()]), bindingKeys.toArray(new String[bindingKeys.size()]));
+    }
+
+    /**
+     * Adds the elements from another MultibindingBuilder after the ones in this builder. This is used for inheritance,
+     * where this builder holds the inherited elements.
+     */
+    @SuppressWarnings("unchecked")
+    void addAll(MultibindingBuilder other) {
+        for (int i = 0; i < other.elements.size(); i++) {
+            add((String) other.keys.get(i), (BindingBuilder<E>) other.elements.get(i));
+        }
+    }
+
+    /**
+     * @return a deep copy of this builder, including all of the element BindingBuilders, that belongs to the given ContextBuilder
+     */
+    public MultibindingBuilder<E> copy(ContextBuilder ctxBuilder) {
+        MultibindingBuilder<E> copy = new MultibindingBuilder<E>(elementType, ctxBuilder);
+        for (int i = 0; i < elements.size(); i++) {
+            copy.elements.add(elements.get(i).copy(ctxBuilder));
+            copy.keys.add(keys.get(i));
+        }
+        return copy;
+    }
+
+    public Class<E> getElementType() {
+        return elementType;
+    }
+
+    public List<BindingBuilder<E>> getElements() {
+        return elements;
+    }
+
+    public List<String> getKeys() {
+        return keys;
+    }
+
+    public int size() {
+        return elements.size();
+    }
+
+    public ContextBuilder getCtxBuilder() {
+        return ctxBuilder;
+    }
+
+    public void setCtxBuilder(ContextBuilder ctxBuilder) {
+        this.ctxBuilder = ctxBuilder;
+    }
+}
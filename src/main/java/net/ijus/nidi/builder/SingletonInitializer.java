@@ -0,0 +1,202 @@
+package net.ijus.nidi.builder;
+
+import net.ijus.nidi.InvalidConfigurationException;
+import net.ijus.nidi.bindings.Binding;
+import net.ijus.nidi.bindings.BindingGraph;
+import net.ijus.nidi.bindings.CachingBinding;
+import net.ijus.nidi.instantiation.CreationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Eagerly creates the instances for every SINGLETON and ONE_PER_BINDING Binding in a Context.
+ *
+ * For each CachingBinding, the initializer finds the other CachingBindings it depends on, either directly or through
+ * Bindings that don't cache their instances. Each CachingBinding keeps a count of the dependencies that haven't been
+ * created yet, and is submitted to a ForkJoinPool as soon as that count reaches zero. So no task ever has to wait on a
+ * lock for another singleton that's still being constructed, and a slow constructor only holds up the Bindings that
+ * actually depend on it.
+ */
+public class SingletonInitializer {
+    private static final Logger log = LoggerFactory.getLogger(SingletonInitializer.class);
+
+    private final ForkJoinPool pool;
+
+    /**
+     * The CachingBindings that have to be created before an instance of each Binding can be created
+     */
+    private final Map<Binding, Set<CachingBinding>> required = new IdentityHashMap<Binding, Set<CachingBinding>>();
+    private final Map<CachingBinding, Set<CachingBinding>> dependencies = new IdentityHashMap<CachingBinding, Set<CachingBinding>>();
+    private final List<CachingBinding> cachingBindings = new ArrayList<CachingBinding>();
+    private final Set<Binding> visiting = Collections.newSetFromMap(new IdentityHashMap<Binding, Boolean>());
+
+    public SingletonInitializer(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Creates the instances for all of the CachingBindings reachable from the given Bindings. Any exception thrown while
+     * creating an instance is rethrown from this method.
+     *
+     * @param bindings the top level Bindings from the Context
+     * @return the number of CachingBindings that were initialized
+     */
+    public int initialize(Collection<Binding> bindings) {
+        for (Binding binding : bindings) {
+            requiredFor(binding);
+        }
+
+        log.debug("Eagerly creating {} cached instances", cachingBindings.size());
+        if (!cachingBindings.isEmpty()) {
+            new Schedule().run();
+        }
+        return cachingBindings.size();
+    }
+
+    /**
+     * Returns the CachingBindings that have to be created before the given binding can create an instance. For a
+     * CachingBinding, this is just the binding itself, since anything that depends on it only needs its cached instance.
+     */
+    protected Set<CachingBinding> requiredFor(Binding binding) {
+        Binding resolved = BindingGraph.resolve(binding);
+        Set<CachingBinding> known = required.get(resolved);
+        if (known != null) {
+            return known;
+        }
+
+        if (!visiting.add(resolved)) {
+            throw new InvalidConfigurationException("Circular dependency found while initializing the Binding for class: " + resolved.getBoundClass().getName());
+        }
+
+        Set<CachingBinding> deps = Collections.newSetFromMap(new IdentityHashMap<CachingBinding, Boolean>());
+        for (Binding arg : BindingGraph.getConstructorArgs(resolved)) {
+            deps.addAll(requiredFor(arg));
+        }
+
+        Set<CachingBinding> result = deps;
+        if (resolved instanceof CachingBinding) {
+            CachingBinding caching = (CachingBinding) resolved;
+            dependencies.put(caching, deps);
+            cachingBindings.add(caching);
+            result = Collections.singleton(caching);
+        }
+
+        visiting.remove(resolved);
+        required.put(resolved, result);
+        return result;
+    }
+
+    /**
+     * @return every CachingBinding that gets initialized, with each one after all of its dependencies
+     */
+    public List<CachingBinding> getCachingBindings() {
+        return cachingBindings;
+    }
+
+    /**
+     * @return the CachingBindings that must be created before the given one, or null if it isn't being initialized
+     */
+    public Set<CachingBinding> getDependencies(CachingBinding binding) {
+        return dependencies.get(binding);
+    }
+
+    /**
+     * Tracks the pending dependencies of each CachingBinding while their instances are being created
+     */
+    class Schedule {
+        final Map<CachingBinding, AtomicInteger> pending = new IdentityHashMap<CachingBinding, AtomicInteger>();
+        final Map<CachingBinding, List<CachingBinding>> dependents = new IdentityHashMap<CachingBinding, List<CachingBinding>>();
+        final AtomicInteger remaining = new AtomicInteger(cachingBindings.size());
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final CountDownLatch finished = new CountDownLatch(1);
+
+        Schedule() {
+            for (CachingBinding binding : cachingBindings) {
+                Set<CachingBinding> deps = dependencies.get(binding);
+                pending.put(binding, new AtomicInteger(deps.size()));
+                dependents.put(binding, new ArrayList<CachingBinding>());
+                for (CachingBinding dep : deps) {
+                    dependents.get(dep).add(binding);
+                }
+            }
+        }
+
+        void run() {
+            for (CachingBinding binding : cachingBindings) {
+                if (pending.get(binding).get() == 0) {
+                    submit(binding);
+                }
+            }
+
+            try {
+                ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                    @Override
+                    public boolean block() throws InterruptedException {
+                        finished.await();
+                        return true;
+                    }
+
+                    @Override
+                    public boolean isReleasable() {
+                        return finished.getCount() == 0;
+                    }
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CreationException("Interrupted while eagerly creating singletons", e);
+            }
+
+            Throwable e = failure.get();
+            if (e instanceof RuntimeException) {
+                throw (RuntimeException) e;
+            } else if (e instanceof Error) {
+                throw (Error) e;
+            } else if (e != null) {
+                throw new CreationException("Failed to eagerly create singletons", e);
+            }
+        }
+
+        void submit(final CachingBinding binding) {
+            pool.execute(new Runnable() {
+                @Override
+                public void run() {
+                    create(binding);
+                }
+            });
+        }
+
+        void create(CachingBinding binding) {
+            if (failure.get() != null) {
+                return;
+            }
+            try {
+                binding.getInstance();
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+                finished.countDown();
+                return;
+            }
+
+            for (CachingBinding dependent : dependents.get(binding)) {
+                if (pending.get(dependent).decrementAndGet() == 0) {
+                    submit(dependent);
+                }
+            }
+            if (remaining.decrementAndGet() == 0) {
+                finished.countDown();
+            }
+        }
+    }
+}
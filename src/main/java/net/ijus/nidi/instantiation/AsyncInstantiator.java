@@ -0,0 +1,264 @@
+package net.ijus.nidi.instantiation;
+
+import net.ijus.nidi.bindings.BasicBinding;
+import net.ijus.nidi.bindings.Binding;
+import net.ijus.nidi.bindings.BindingGraph;
+import net.ijus.nidi.bindings.CachingBinding;
+import net.ijus.nidi.bindings.NullBinding;
+import net.ijus.nidi.metrics.MeteredBinding;
+import net.ijus.nidi.utils.ConcurrencyUtils;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates instances asynchronously, building independent constructor args at the same time. This backs
+ * <code>Context.getInstanceAsync</code>.
+ *
+ * The whole graph of Bindings needed for the instance is planned up front, on the calling thread. Each Binding that
+ * creates instances with a ConstructorInstanceGenerator becomes a task that's submitted to the Executor once all of its
+ * constructor args are done, so tasks never block waiting for each other, and any Executor can be used, including one
+ * that runs each task on a new virtual thread. Bindings that don't use a constructor, and Bindings that record metrics,
+ * are simply a task that calls <code>getInstance()</code>. A SINGLETON that's needed more than once is only created
+ * once per request, and is created with <code>CachingBinding.createIfAbsent</code>, under the same lock as
+ * <code>getInstance()</code>, so its constructor is only ever called once, even if other threads ask for it at the same time.
+ *
+ * If anything fails, or the deadline passes, the request fails immediately, and any tasks that haven't finished are
+ * cancelled.
+ */
+public class AsyncInstantiator {
+
+    private final Executor executor;
+
+    public AsyncInstantiator(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * @param binding the Binding to get an instance from
+     * @param timeout how long to wait before failing with a TimeoutException, or 0 to wait forever
+     * @param unit the unit for the timeout
+     * @return a future that will be completed with the instance
+     */
+    public <T> InstanceFuture<T> getInstance(Binding<T> binding, long timeout, TimeUnit unit) {
+        final Request request = new Request();
+        final InstanceFuture<T> result = request.result;
+
+        if (timeout > 0) {
+            final String className = binding.getBoundClass().getName();
+            final ScheduledFuture<?> deadline = ConcurrencyUtils.getScheduler().schedule(new Runnable() {
+                @Override
+                public void run() {
+                    request.fail(new TimeoutException("Timed out creating an instance of: " + className));
+                }
+            }, timeout, unit);
+            result.addListener(new Runnable() {
+                @Override
+                public void run() {
+                    deadline.cancel(false);
+                }
+            });
+        }
+
+        try {
+            final InstanceFuture<T> root = request.plan(binding);
+            root.addListener(new Runnable() {
+                @Override
+                public void run() {
+                    if (root.isFailed()) {
+                        request.fail(root.getFailure());
+                    } else {
+                        result.complete(root.getNow());
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            request.fail(e);
+        }
+        return result;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * The state for a single call to getInstance
+     */
+    class Request {
+        final InstanceFuture result = new InstanceFuture();
+        final Map<Binding, InstanceFuture> cachingFutures = new IdentityHashMap<Binding, InstanceFuture>();
+        final Queue<FutureTask> tasks = new ConcurrentLinkedQueue<FutureTask>();
+
+        Request() {
+            result.addListener(new Runnable() {
+                @Override
+                public void run() {
+                    if (result.isFailed()) {
+                        cancelTasks();
+                    }
+                }
+            });
+        }
+
+        /**
+         * Creates the future for the given binding, along with the futures for all of its dependencies
+         */
+        @SuppressWarnings("unchecked")
+        InstanceFuture plan(Binding binding) {
+            Binding resolved = BindingGraph.resolve(binding);
+            InstanceFuture future = cachingFutures.get(resolved);
+            if (future != null) {
+                return future;
+            }
+
+            InstanceGenerator gen = resolved.getInstanceGenerator();
+            if (resolved instanceof NullBinding) {
+                return InstanceFuture.completed(null);
+
+            } else if (gen instanceof ConstantGenerator) {
+                return InstanceFuture.completed(((ConstantGenerator) gen).getValue());
+
+            } else if (resolved instanceof CachingBinding && ((CachingBinding) resolved).getCachedInstance() != null) {
+                return InstanceFuture.completed(((CachingBinding) resolved).getCachedInstance());
+            }
+
+            future = new InstanceFuture();
+            if (resolved instanceof CachingBinding) {
+                cachingFutures.put(resolved, future);
+            }
+
+            if (gen instanceof ConstructorInstanceGenerator && !(resolved instanceof MeteredBinding)
+                    && (resolved instanceof CachingBinding || resolved.getClass() == BasicBinding.class)) {
+                planConstructor(resolved, (ConstructorInstanceGenerator) gen, future);
+            } else {
+                submit(new GetInstance(resolved, future));
+            }
+            return future;
+        }
+
+        void planConstructor(Binding binding, ConstructorInstanceGenerator gen, InstanceFuture future) {
+            Binding[] constructorArgs = gen.getConstructorArgs();
+            final InstanceFuture[] args = new InstanceFuture[constructorArgs.length];
+            for (int i = 0; i < constructorArgs.length; i++) {
+                args[i] = plan(constructorArgs[i]);
+            }
+
+            final Construct construct = new Construct(binding, gen, args, future);
+            if (args.length == 0) {
+                submit(construct);
+                return;
+            }
+
+            final AtomicInteger remaining = new AtomicInteger(args.length);
+            for (final InstanceFuture arg : args) {
+                arg.addListener(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (arg.isFailed()) {
+                            fail(arg.getFailure());
+                        } else if (remaining.decrementAndGet() == 0) {
+                            submit(construct);
+                        }
+                    }
+                });
+            }
+        }
+
+        void submit(Runnable runnable) {
+            if (result.isDone()) {
+                return;
+            }
+            FutureTask<Object> task = new FutureTask<Object>(runnable, null);
+            tasks.add(task);
+            if (result.isDone()) {
+                //the request failed while this task was being added, so it may have been missed by cancelTasks()
+                task.cancel(true);
+                return;
+            }
+            executor.execute(task);
+        }
+
+        void fail(Throwable failure) {
+            result.fail(failure);
+        }
+
+        void cancelTasks() {
+            FutureTask task;
+            while ((task = tasks.poll()) != null) {
+                task.cancel(true);
+            }
+        }
+
+        /**
+         * Calls the constructor once all of the args are done
+         */
+        class Construct implements Runnable {
+            final Binding binding;
+            final ConstructorInstanceGenerator gen;
+            final InstanceFuture[] args;
+            final InstanceFuture future;
+
+            Construct(Binding binding, ConstructorInstanceGenerator gen, InstanceFuture[] args, InstanceFuture future) {
+                this.binding = binding;
+                this.gen = gen;
+                this.args = args;
+                this.future = future;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public void run() {
+                try {
+                    Object[] values = new Object[args.length];
+                    for (int i = 0; i < args.length; i++) {
+                        values[i] = args[i].getNow();
+                    }
+                    Object instance;
+                    if (binding instanceof CachingBinding) {
+                        instance = ((CachingBinding) binding).createIfAbsent(gen, values);
+                    } else {
+                        instance = gen.createNewInstance(values);
+                    }
+                    future.complete(instance);
+
+                } catch (Throwable e) {
+                    future.fail(e);
+                    fail(e);
+                }
+            }
+        }
+
+        /**
+         * Gets an instance from a Binding that doesn't use a constructor
+         */
+        class GetInstance implements Runnable {
+            final Binding binding;
+            final InstanceFuture future;
+
+            GetInstance(Binding binding, InstanceFuture future) {
+                this.binding = binding;
+                this.future = future;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public void run() {
+                try {
+                    future.complete(binding.getInstance());
+                } catch (Throwable e) {
+                    future.fail(e);
+                    fail(e);
+                }
+            }
+        }
+    }
+}
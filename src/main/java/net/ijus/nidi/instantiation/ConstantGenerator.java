@@ -0,0 +1,24 @@
+package net.ijus.nidi.instantiation;
+
+/**
+ * InstanceGenerator that always returns the same object. This is what backs <code>BindingBuilder.toObject(Object)</code>
+ * and bound properties. Since the value is known up front, other parts of NiDI can use it directly instead of calling
+ * out to the generator.
+ */
+public class ConstantGenerator<T> implements InstanceGenerator<T> {
+
+    private final T value;
+
+    public ConstantGenerator(T value) {
+        this.value = value;
+    }
+
+    @Override
+    public T createNewInstance() {
+        return value;
+    }
+
+    public T getValue() {
+        return value;
+    }
+}
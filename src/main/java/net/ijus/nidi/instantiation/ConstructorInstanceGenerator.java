@@ -1,7 +1,9 @@
 package net.ijus.nidi.instantiation;
 
 import net.ijus.nidi.InvalidConfigurationException;
+import net.ijus.nidi.StartupTimeline;
 import net.ijus.nidi.bindings.Binding;
+import net.ijus.nidi.bindings.PrimitiveBinding;
 import net.ijus.nidi.utils.ClassUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,11 +26,61 @@ public class ConstructorInstanceGenerator<T> implements InstanceGenerator<T> {
     InstanceSetupFunction<T> setup;
     MethodHandle constructorHandle;
 
+    /**
+     * Set once this generator has been compiled. When present, it is used in place of the constructorHandle and
+     * already includes the constructor args and setup function.
+     */
+    MethodHandle compiledHandle;
+
+    /**
+     * If any of the constructor args are primitive properties of the same type as their param, this is the constructor
+     * handle with those raw values already inserted, and <code>remainingArgs</code> holds the indexes of the other args.
+     * Otherwise, both are null.
+     */
+    MethodHandle primitivesBoundHandle;
+    int[] remainingArgs;
+
+    private static final MethodHandle CREATION_FAILED;
+    private static final MethodHandle APPLY_SETUP;
+
+    static {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            CREATION_FAILED = lookup.findStatic(ConstructorInstanceGenerator.class, "creationFailed", MethodType.methodType(Object.class, Class.class, Throwable.class));
+            APPLY_SETUP = lookup.findStatic(ConstructorInstanceGenerator.class, "applySetup", MethodType.methodType(Object.class, InstanceSetupFunction.class, Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     public ConstructorInstanceGenerator(Class<T> clazz, Binding[] constructorArgs, InstanceSetupFunction<T> setup) throws InvalidConfigurationException {
         this.clazz = clazz;
         this.constructorArgs = (constructorArgs != null)? constructorArgs: new Binding[0];
         this.setup = setup;
         this.constructorHandle = createConstructorHandle();
+        bindPrimitiveArgs();
+    }
+
+    /**
+     * Creates a generator using a constructor that has already been resolved, so that no further reflection is needed
+     */
+    public ConstructorInstanceGenerator(ConstructorMetadata<T> metadata, Binding[] constructorArgs, InstanceSetupFunction<T> setup) {
+        this.clazz = metadata.getType();
+        this.constructorArgs = (constructorArgs != null)? constructorArgs: new Binding[0];
+        this.setup = setup;
+        this.constructorHandle = metadata.getConstructorHandle();
+        bindPrimitiveArgs();
+    }
+
+    /**
+     * Creates a generator for the same constructor and setup function as another, with different constructor args
+     */
+    protected ConstructorInstanceGenerator(ConstructorInstanceGenerator<T> other, Binding[] constructorArgs) {
+        this.clazz = other.clazz;
+        this.constructorArgs = constructorArgs;
+        this.setup = other.setup;
+        this.constructorHandle = other.constructorHandle;
+        bindPrimitiveArgs();
     }
 
     public ConstructorInstanceGenerator(Class<T> clazz, Binding[] constructorArgs) {
@@ -82,14 +134,180 @@ public class ConstructorInstanceGenerator<T> implements InstanceGenerator<T> {
         }
     }
 
+    /**
+     * Inserts the raw value of every PrimitiveBinding arg into the constructor handle, so that those args never get
+     * boxed or unboxed when an instance is created. Args whose type doesn't exactly match the param are left alone.
+     */
+    protected void bindPrimitiveArgs() {
+        MethodType type = constructorHandle.type();
+        MethodHandle handle = constructorHandle;
+        int[] remaining = new int[constructorArgs.length];
+        int remainingCount = 0;
+        boolean bound = false;
+
+        //insert from the last param to the first, so the positions of the params that are left don't change
+        for (int i = constructorArgs.length - 1; i >= 0; i--) {
+            //references aren't resolved here, since they may not be built yet. Linking replaces them and calls back in
+            Binding arg = constructorArgs[i];
+            if (arg instanceof PrimitiveBinding && ((PrimitiveBinding) arg).isExactFor(type.parameterType(i))) {
+                handle = MethodHandles.insertArguments(handle, i, ((PrimitiveBinding) arg).getValue());
+                bound = true;
+            } else {
+                remaining[remainingCount++] = i;
+            }
+        }
+
+        if (!bound) {
+            primitivesBoundHandle = null;
+            remainingArgs = null;
+            return;
+        }
+
+        int[] inOrder = new int[remainingCount];
+        for (int i = 0; i < remainingCount; i++) {
+            inOrder[i] = remaining[remainingCount - 1 - i];
+        }
+        primitivesBoundHandle = handle.asType(handle.type().changeReturnType(Object.class));
+        remainingArgs = inOrder;
+    }
+
+    /**
+     * Compiles this generator into a single MethodHandle with the type <code>()Object</code>. Each constructor arg is
+     * folded into the constructor handle using <code>InstanceHandles.forBinding</code>, so creating an instance no longer
+     * requires an <code>Object[]</code> or <code>invokeWithArguments</code>. Once compiled, <code>createNewInstance()</code>
+     * will always use the compiled handle. This should only be called after the Context has been built, since any
+     * ContextBindingReferences will get resolved.
+     *
+     * @return the compiled handle
+     */
+    public MethodHandle compile() {
+        if (compiledHandle == null) {
+            compiledHandle = createCompiledHandle();
+        }
+        return compiledHandle;
+    }
+
+    protected MethodHandle createCompiledHandle() {
+        MethodType constructorType = constructorHandle.type();
+        int argCount = constructorArgs.length;
+
+        /*
+        Each fold consumes the leading parameter, and the last fold's combiner is the first one to run. So the
+        constructor handle takes its params in reverse, and they're folded from the last param to the first, which means
+        the args get created in the same order as they would be otherwise.
+         */
+        Class[] reversedTypes = new Class[argCount];
+        int[] reorder = new int[argCount];
+        for (int i = 0; i < argCount; i++) {
+            reversedTypes[i] = constructorType.parameterType(argCount - 1 - i);
+            reorder[i] = argCount - 1 - i;
+        }
+        MethodType reversedType = MethodType.methodType(Object.class, reversedTypes);
+        MethodHandle reversed = MethodHandles.permuteArguments(constructorHandle.asType(constructorType.changeReturnType(Object.class)), reversedType, reorder);
+
+        MethodHandle failureHandler = MethodHandles.dropArguments(CREATION_FAILED.bindTo(clazz), 1, reversedTypes);
+        MethodHandle handle = MethodHandles.catchException(reversed, Throwable.class, failureHandler);
+
+        for (int i = argCount - 1; i >= 0; i--) {
+            handle = MethodHandles.foldArguments(handle, InstanceHandles.forBinding(constructorArgs[i], constructorType.parameterType(i)));
+        }
+
+        if (setup != null) {
+            handle = MethodHandles.filterReturnValue(handle, APPLY_SETUP.bindTo(setup));
+        }
+
+        return handle;
+    }
+
+    /**
+     * Returns a new generator that calls the same constructor, using the given Bindings for the constructor args. The
+     * new generator isn't compiled, even if this one is.
+     *
+     * @param constructorArgs one Binding for each constructor param
+     * @return the new generator
+     */
+    public ConstructorInstanceGenerator<T> withConstructorArgs(Binding[] constructorArgs) {
+        return new ConstructorInstanceGenerator<T>(this, constructorArgs);
+    }
+
+    public boolean isCompiled() {
+        return compiledHandle != null;
+    }
+
     @Override
     public T createNewInstance() {
+        if (compiledHandle != null) {
+            return createCompiledInstance();
+        }
+
+        StartupTimeline.Span span = StartupTimeline.begin(StartupTimeline.INSTANTIATE, clazz.getName());
+        if (span != null) {
+            try {
+                return createWithArgs();
+            } finally {
+                StartupTimeline.end(span);
+            }
+        }
+        return createWithArgs();
+    }
+
+    /**
+     * Gets an instance from each of the constructor arg Bindings, then calls the constructor
+     */
+    protected T createWithArgs() {
+        if (primitivesBoundHandle != null) {
+            return createWithPrimitivesBound();
+        }
         Object[] args = new Object[constructorArgs.length];
 
         for (int i = 0; i < constructorArgs.length; i++) {
             args[i] = constructorArgs[i].getInstance();
         }
 
+        return createNewInstance(args);
+    }
+
+    /**
+     * Creates an instance using the handle that already has the primitive args inserted. If all of the args were
+     * primitives, no argument array is needed at all.
+     */
+    protected T createWithPrimitivesBound() {
+        Object[] args = null;
+        if (remainingArgs.length > 0) {
+            args = new Object[remainingArgs.length];
+            for (int i = 0; i < remainingArgs.length; i++) {
+                args[i] = constructorArgs[remainingArgs[i]].getInstance();
+            }
+        }
+
+        Object uncast;
+        try {
+            if (args == null) {
+                uncast = (Object) primitivesBoundHandle.invokeExact();
+            } else {
+                uncast = primitivesBoundHandle.invokeWithArguments(args);
+            }
+        } catch (Throwable e) {
+            String msg = "Error creating a new instance of: " + clazz.getName();
+            log.error(msg, e);
+            throw new CreationException(msg, e);
+        }
+
+        T instance = clazz.cast(uncast);
+        if (setup != null) {
+            setup.setup(instance);
+        }
+        return instance;
+    }
+
+    /**
+     * Creates a new instance using constructor args that have already been created, and then applies the setup function.
+     * This always uses the constructor handle, even if this generator has been compiled.
+     *
+     * @param args one value for each of the constructor args
+     * @return the new instance
+     */
+    public T createNewInstance(Object[] args) {
         T instance;
         try {
             Object uncast;
@@ -114,12 +332,47 @@ public class ConstructorInstanceGenerator<T> implements InstanceGenerator<T> {
         return instance;
     }
 
+    @SuppressWarnings("unchecked")
+    protected T createCompiledInstance() {
+        Object instance;
+        try {
+            instance = (Object) compiledHandle.invokeExact();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            String msg = "Error creating a new instance of: " + clazz.getName();
+            log.error(msg, e);
+            throw new CreationException(msg, e);
+        }
+        return (T) instance;
+    }
+
+    private static Object creationFailed(Class clazz, Throwable e) {
+        String msg = "Error creating a new instance of: " + clazz.getName();
+        log.error(msg, e);
+        throw new CreationException(msg, e);
+    }
+
+    private static Object applySetup(InstanceSetupFunction setup, Object instance) {
+        setup.setup(instance);
+        return instance;
+    }
+
     public Binding[] getConstructorArgs() {
         return constructorArgs;
     }
 
     public void setConstructorArgs(Binding[] constructorArgs) {
         this.constructorArgs = constructorArgs;
+        this.compiledHandle = null;
+        bindPrimitiveArgs();
+    }
+
+    /**
+     * @return the parameter types of the constructor used by this generator
+     */
+    public Class[] getParameterTypes() {
+        return constructorHandle.type().parameterArray();
     }
 
     public Class<T> getClazz() {
@@ -136,6 +389,7 @@ public class ConstructorInstanceGenerator<T> implements InstanceGenerator<T> {
 
     public void setSetup(InstanceSetupFunction<T> setup) {
         this.setup = setup;
+        this.compiledHandle = null;
     }
 
 
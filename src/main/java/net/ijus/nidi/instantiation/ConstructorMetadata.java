@@ -0,0 +1,228 @@
+package net.ijus.nidi.instantiation;
+
+import net.ijus.nidi.Inject;
+import net.ijus.nidi.InvalidConfigurationException;
+import net.ijus.nidi.Provider;
+import net.ijus.nidi.utils.ReflectionUtils;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static net.ijus.nidi.utils.ClassUtils.name;
+
+/**
+ * Everything NiDI needs to know about the constructor it uses for a class: the constructor itself, its parameter types,
+ * the values of any <code>@Require</code> and <code>@Optional</code> annotations, and a MethodHandle for invoking it.
+ * Resolving all of this takes a fair amount of reflection, so it is done once and then reused. Instances are immutable,
+ * so they can safely be shared between threads.
+ */
+public class ConstructorMetadata<T> {
+
+    private final Class<T> type;
+    private final Constructor<T> constructor;
+    private final Class[] parameterTypes;
+    private final Annotation[][] parameterAnnotations;
+    private final String[] boundAnnotationValues;
+    private final boolean[] optionalParams;
+    private final Class[] providedTypes;
+    private final Class[] elementTypes;
+    private final MethodHandle constructorHandle;
+
+    protected ConstructorMetadata(Constructor<T> constructor) throws InvalidConfigurationException {
+        this.type = constructor.getDeclaringClass();
+        this.constructor = constructor;
+        this.parameterTypes = constructor.getParameterTypes();
+        this.parameterAnnotations = constructor.getParameterAnnotations();
+        this.boundAnnotationValues = ReflectionUtils.getBoundAnnotatedParams(parameterAnnotations);
+        this.optionalParams = new boolean[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            optionalParams[i] = ReflectionUtils.isParameterOptional(parameterAnnotations, i);
+        }
+        this.providedTypes = resolveProvidedTypes(constructor);
+        this.elementTypes = resolveElementTypes(constructor);
+        this.constructorHandle = unreflect(constructor);
+    }
+
+    /**
+     * Resolves the constructor for the given class, and then creates the metadata for it
+     *
+     * @throws InvalidConfigurationException if the constructor cannot be resolved
+     */
+    public static <E> ConstructorMetadata<E> forClass(Class<E> clazz) throws InvalidConfigurationException {
+        return forConstructor(resolveConstructor(clazz));
+    }
+
+    public static <E> ConstructorMetadata<E> forConstructor(Constructor<E> constructor) throws InvalidConfigurationException {
+        return new ConstructorMetadata<E>(constructor);
+    }
+
+    /**
+     * Figures out which constructor to use for the given class. If the class has only one public constructor, then
+     * that is the one that gets used. Otherwise, exactly one of the public constructors must have the @Inject annotation.
+     *
+     * @throws InvalidConfigurationException if no single constructor can be chosen
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> Constructor<E> resolveConstructor(final Class<E> clazz) throws InvalidConfigurationException {
+        Constructor[] constructors = clazz.getConstructors();
+        Constructor<E> constructor;
+        if (constructors.length == 1) {
+            constructor = constructors[0];
+
+        } else if (constructors.length > 1) {
+            List<Constructor> withAnno = new LinkedList<Constructor>();
+            for (Constructor c : constructors) {
+                if (c.isAnnotationPresent(Inject.class)) {
+                    withAnno.add(c);
+                }
+            }
+
+            if (withAnno.size() != 1) {
+                throw new InvalidConfigurationException("The Class: " + name(clazz) + " has more than one constructor, so exactly one Constructor should have the @Inject annotation. Found " + withAnno.size() + " Constructors with that annotation.");
+            }
+
+            constructor = withAnno.get(0);
+        } else {
+            throw new InvalidConfigurationException("The Class: " + name(clazz) + " has no public constructors");
+        }
+
+        return constructor;
+    }
+
+    /**
+     * Finds the type argument for each param declared as a <code>Provider</code>. Params that aren't Providers, and
+     * Providers whose type argument isn't a Class, get null.
+     */
+    protected static Class[] resolveProvidedTypes(Constructor constructor) {
+        Class[] rawTypes = constructor.getParameterTypes();
+        Type[] genericTypes = constructor.getGenericParameterTypes();
+        Class[] provided = new Class[rawTypes.length];
+
+        //generic types leave out synthetic params, like the outer instance of an inner class
+        int offset = rawTypes.length - genericTypes.length;
+        for (int i = offset; i < rawTypes.length; i++) {
+            if (rawTypes[i] == Provider.class && genericTypes[i - offset] instanceof ParameterizedType) {
+                provided[i] = toClass(((ParameterizedType) genericTypes[i - offset]).getActualTypeArguments()[0]);
+            }
+        }
+        return provided;
+    }
+
+    /**
+     * Finds the element type for each param that could be filled by a multibinding: an array, a <code>List</code>,
+     * <code>Collection</code> or <code>Set</code>, or a <code>Map</code> with String keys. Any other param gets null.
+     */
+    protected static Class[] resolveElementTypes(Constructor constructor) {
+        Class[] rawTypes = constructor.getParameterTypes();
+        Type[] genericTypes = constructor.getGenericParameterTypes();
+        Class[] elements = new Class[rawTypes.length];
+
+        int offset = rawTypes.length - genericTypes.length;
+        for (int i = offset; i < rawTypes.length; i++) {
+            Class raw = rawTypes[i];
+            Type generic = genericTypes[i - offset];
+            if (raw.isArray() && !raw.getComponentType().isPrimitive()) {
+                elements[i] = raw.getComponentType();
+
+            } else if ((raw == List.class || raw == Collection.class || raw == Set.class) && generic instanceof ParameterizedType) {
+                elements[i] = toClass(((ParameterizedType) generic).getActualTypeArguments()[0]);
+
+            } else if (raw == Map.class && generic instanceof ParameterizedType) {
+                Type[] args = ((ParameterizedType) generic).getActualTypeArguments();
+                if (toClass(args[0]) == String.class) {
+                    elements[i] = toClass(args[1]);
+                }
+            }
+        }
+        return elements;
+    }
+
+    private static Class toClass(Type type) {
+        if (type instanceof Class) {
+            return (Class) type;
+        } else if (type instanceof ParameterizedType) {
+            return toClass(((ParameterizedType) type).getRawType());
+        } else if (type instanceof WildcardType) {
+            return toClass(((WildcardType) type).getUpperBounds()[0]);
+        }
+        return null;
+    }
+
+    protected static MethodHandle unreflect(Constructor constructor) throws InvalidConfigurationException {
+        try {
+            //Nidi only uses public constructors, but setting accessible will skip access checks.
+            // this can help speed things up
+            constructor.setAccessible(true);
+            return MethodHandles.lookup().unreflectConstructor(constructor);
+
+        } catch (IllegalAccessException e) {
+            throw new InvalidConfigurationException("Could not create MethodHandle for Constructor" + constructor.getDeclaringClass().getSimpleName(), e);
+        } catch (SecurityException e) {
+            throw new InvalidConfigurationException("Got a security exception when resolving constructor for " + constructor.getDeclaringClass().getSimpleName(), e);
+        }
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    public Constructor<T> getConstructor() {
+        return constructor;
+    }
+
+    public int getParameterCount() {
+        return parameterTypes.length;
+    }
+
+    public Class getParameterType(int paramIdx) {
+        return parameterTypes[paramIdx];
+    }
+
+    public Class[] getParameterTypes() {
+        return parameterTypes.clone();
+    }
+
+    /**
+     * @return the value of the @Require or @Optional annotation on the given param, or null if it doesn't have one
+     */
+    public String getBoundAnnotationValue(int paramIdx) {
+        return boundAnnotationValues[paramIdx];
+    }
+
+    public boolean isParameterOptional(int paramIdx) {
+        return optionalParams[paramIdx];
+    }
+
+    /**
+     * @return the type provided by a <code>Provider</code> param, or null if the param isn't a Provider
+     */
+    public Class getProvidedType(int paramIdx) {
+        return providedTypes[paramIdx];
+    }
+
+    /**
+     * @return the element type of an array, List, Collection, Set or Map&lt;String, ?&gt; param, or null for any other param
+     */
+    public Class getElementType(int paramIdx) {
+        return elementTypes[paramIdx];
+    }
+
+    public MethodHandle getConstructorHandle() {
+        return constructorHandle;
+    }
+
+    @Override
+    public String toString() {
+        return "ConstructorMetadata: " + constructor;
+    }
+}
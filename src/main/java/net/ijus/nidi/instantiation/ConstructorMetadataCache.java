@@ -0,0 +1,80 @@
+package net.ijus.nidi.instantiation;
+
+import net.ijus.nidi.InvalidConfigurationException;
+import net.ijus.nidi.StartupTimeline;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A JVM-wide cache of ConstructorMetadata, shared by every ContextBuilder. The metadata is stored using a ClassValue,
+ * so it is attached to the Class itself and doesn't keep a ClassLoader from being unloaded. Classes that fail to
+ * resolve are not cached, so the same exception gets thrown every time.
+ *
+ * Clearing the cache simply replaces the ClassValue, which means that clearing is cheap and lookups never need to lock.
+ */
+public class ConstructorMetadataCache {
+
+    private static volatile ClassValue<ConstructorMetadata> cache = newCache();
+
+    private static final AtomicLong lookups = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Returns the metadata for the constructor of the given class, resolving it if it is not already cached
+     *
+     * @param clazz the implementation class
+     * @return the cached metadata
+     * @throws InvalidConfigurationException if the constructor cannot be resolved
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> ConstructorMetadata<E> get(Class<E> clazz) throws InvalidConfigurationException {
+        lookups.incrementAndGet();
+        return (ConstructorMetadata<E>) cache.get(clazz);
+    }
+
+    /**
+     * Removes all of the cached metadata. Contexts that have already been built are not affected.
+     */
+    public static void clear() {
+        cache = newCache();
+    }
+
+    /**
+     * Resets the hit and miss counts to 0
+     */
+    public static void resetStats() {
+        lookups.set(0);
+        misses.set(0);
+    }
+
+    public static long getHitCount() {
+        return Math.max(lookups.get() - misses.get(), 0);
+    }
+
+    public static long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return the fraction of lookups that were already cached, between 0 and 1, or 0 if there haven't been any lookups
+     */
+    public static double getHitRate() {
+        long total = lookups.get();
+        return (total == 0) ? 0 : getHitCount() / (double) total;
+    }
+
+    private static ClassValue<ConstructorMetadata> newCache() {
+        return new ClassValue<ConstructorMetadata>() {
+            @Override
+            protected ConstructorMetadata computeValue(Class<?> type) {
+                misses.incrementAndGet();
+                StartupTimeline.Span span = StartupTimeline.begin(StartupTimeline.REFLECTION, type.getName());
+                try {
+                    return ConstructorMetadata.forClass(type);
+                } finally {
+                    StartupTimeline.end(span);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,155 @@
+package net.ijus.nidi.instantiation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The result of an asynchronous <code>Context.getInstanceAsync</code> call. It can be completed exactly once, with either
+ * an instance or a failure, and listeners can be added to run as soon as it's done.
+ */
+public class InstanceFuture<T> implements Future<T> {
+
+    private final CountDownLatch done = new CountDownLatch(1);
+    private List<Runnable> listeners = new ArrayList<Runnable>(2);
+    private volatile T value;
+    private volatile Throwable failure;
+    private volatile boolean cancelled = false;
+
+    public static <E> InstanceFuture<E> completed(E value) {
+        InstanceFuture<E> future = new InstanceFuture<E>();
+        future.complete(value);
+        return future;
+    }
+
+    /**
+     * @return true if this call completed the future, or false if it was already done
+     */
+    public boolean complete(T value) {
+        synchronized (this) {
+            if (isDone()) {
+                return false;
+            }
+            this.value = value;
+            done.countDown();
+        }
+        runListeners();
+        return true;
+    }
+
+    /**
+     * @return true if this call failed the future, or false if it was already done
+     */
+    public boolean fail(Throwable failure) {
+        synchronized (this) {
+            if (isDone()) {
+                return false;
+            }
+            this.failure = failure;
+            done.countDown();
+        }
+        runListeners();
+        return true;
+    }
+
+    /**
+     * Cancels the request. Any parts of it that haven't started yet will never run.
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        synchronized (this) {
+            if (isDone()) {
+                return false;
+            }
+            this.cancelled = true;
+            this.failure = new CancellationException();
+            done.countDown();
+        }
+        runListeners();
+        return true;
+    }
+
+    /**
+     * Runs the listener once this future is done, on whichever thread completes it. If it's already done, the listener
+     * runs immediately.
+     */
+    public void addListener(Runnable listener) {
+        synchronized (this) {
+            if (!isDone()) {
+                listeners.add(listener);
+                return;
+            }
+        }
+        listener.run();
+    }
+
+    private void runListeners() {
+        List<Runnable> toRun;
+        synchronized (this) {
+            toRun = listeners;
+            listeners = null;
+        }
+        for (Runnable listener : toRun) {
+            listener.run();
+        }
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public boolean isDone() {
+        return done.getCount() == 0;
+    }
+
+    /**
+     * @return true if this future is done, but didn't complete with an instance
+     */
+    public boolean isFailed() {
+        return isDone() && failure != null;
+    }
+
+    /**
+     * @return the failure, or null if this future isn't done or completed normally
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    /**
+     * @return the instance, or null if this future isn't done or has failed
+     */
+    public T getNow() {
+        return value;
+    }
+
+    @Override
+    public T get() throws InterruptedException, ExecutionException {
+        done.await();
+        return report();
+    }
+
+    @Override
+    public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        if (!done.await(timeout, unit)) {
+            throw new TimeoutException();
+        }
+        return report();
+    }
+
+    private T report() throws ExecutionException {
+        if (cancelled) {
+            throw new CancellationException();
+        } else if (failure != null) {
+            throw new ExecutionException(failure);
+        }
+        return value;
+    }
+}
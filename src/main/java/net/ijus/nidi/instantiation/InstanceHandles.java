@@ -0,0 +1,102 @@
+package net.ijus.nidi.instantiation;
+
+import net.ijus.nidi.bindings.BasicBinding;
+import net.ijus.nidi.bindings.Binding;
+import net.ijus.nidi.bindings.BindingGraph;
+import net.ijus.nidi.bindings.CachingBinding;
+import net.ijus.nidi.bindings.NullBinding;
+import net.ijus.nidi.bindings.PrimitiveBinding;
+import net.ijus.nidi.metrics.MeteredBinding;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Utility methods for turning Bindings into MethodHandles. These are used when compiling a
+ * <code>ConstructorInstanceGenerator</code>, so that each constructor argument can be folded directly into the
+ * constructor handle instead of being collected into an <code>Object[]</code> on every call.
+ */
+public class InstanceHandles {
+
+    private static final MethodHandle GET_INSTANCE;
+
+    static {
+        try {
+            GET_INSTANCE = MethodHandles.publicLookup().findVirtual(Binding.class, "getInstance", MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Returns a zero-argument MethodHandle that provides the value for a constructor parameter of the given type.
+     * Bindings are handled as follows:
+     * <ul>
+     *     <li>ContextBindingReferences are resolved to the Binding they point to</li>
+     *     <li>NullBindings and constants (<code>toObject</code> and bound properties) become constant handles</li>
+     *     <li>Primitive properties for a param of the same primitive type return the raw value, without boxing</li>
+     *     <li>ALWAYS_CREATE_NEW Bindings using a ConstructorInstanceGenerator are compiled and folded in directly</li>
+     *     <li>Singletons that have already been created become constant handles</li>
+     *     <li>Bindings that record metrics are never folded in</li>
+     *     <li>Anything else just calls <code>Binding.getInstance()</code></li>
+     * </ul>
+     *
+     * @param binding the Binding that provides the parameter
+     * @param type the parameter type declared by the constructor
+     * @return a MethodHandle with the type <code>()type</code>
+     */
+    public static MethodHandle forBinding(Binding binding, Class type) {
+        Binding b = BindingGraph.resolve(binding);
+        MethodType methodType = MethodType.methodType(type);
+
+        if (b instanceof NullBinding && !type.isPrimitive()) {
+            return MethodHandles.constant(type, null);
+        }
+
+        if (b instanceof PrimitiveBinding && ((PrimitiveBinding) b).isExactFor(type)) {
+            return ((PrimitiveBinding) b).getConstantHandle();
+        }
+
+        InstanceGenerator gen = b.getInstanceGenerator();
+        if (b instanceof MeteredBinding) {
+            //metered bindings have to be called every time, so their metrics stay accurate
+
+        } else if (b instanceof CachingBinding) {
+            Object value = (gen instanceof ConstantGenerator) ? ((ConstantGenerator) gen).getValue() : ((CachingBinding) b).getCachedInstance();
+            if (value != null && isAssignable(type, value)) {
+                return MethodHandles.constant(Object.class, value).asType(methodType);
+            }
+
+        } else if (b.getClass() == BasicBinding.class && gen instanceof ConstructorInstanceGenerator) {
+            return ((ConstructorInstanceGenerator) gen).compile().asType(methodType);
+        }
+
+        if (gen instanceof ConstructorInstanceGenerator) {
+            //the binding still creates its own instances, but it can at least do so using a compiled handle
+            ((ConstructorInstanceGenerator) gen).compile();
+        }
+
+        return GET_INSTANCE.bindTo(b).asType(methodType);
+    }
+
+    /**
+     * Compiles the ConstructorInstanceGenerator used by the given Binding, if there is one.
+     *
+     * @param binding
+     */
+    public static void compile(Binding binding) {
+        InstanceGenerator gen = BindingGraph.resolve(binding).getInstanceGenerator();
+        if (gen instanceof ConstructorInstanceGenerator) {
+            ((ConstructorInstanceGenerator) gen).compile();
+        }
+    }
+
+    protected static boolean isAssignable(Class type, Object value) {
+        if (type.isPrimitive()) {
+            return MethodType.methodType(type).wrap().returnType().isInstance(value);
+        }
+        return type.isInstance(value);
+    }
+
+}
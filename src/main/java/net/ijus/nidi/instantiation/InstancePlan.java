@@ -0,0 +1,182 @@
+package net.ijus.nidi.instantiation;
+
+import net.ijus.nidi.bindings.BasicBinding;
+import net.ijus.nidi.bindings.Binding;
+import net.ijus.nidi.bindings.BindingGraph;
+import net.ijus.nidi.bindings.CachingBinding;
+import net.ijus.nidi.bindings.NullBinding;
+import net.ijus.nidi.bindings.ThreadScopedBinding;
+import net.ijus.nidi.metrics.MeteredBinding;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A precomputed plan for getting instances from several Bindings at once. This backs <code>Context.getInstances</code>.
+ *
+ * The plan is a flat list of steps, in dependency order, that each fill one slot of an <code>Object[]</code>. Bindings
+ * whose scope means every caller gets the same instance anyway (SINGLETON, ONE_PER_BINDING, THREAD and constants) get
+ * one slot, so they're only asked for their instance once per call, no matter how many of the requested instances
+ * depend on them. ALWAYS_CREATE_NEW Bindings that use a constructor are expanded into their constructor args, so that
+ * they can use those shared slots too, and they get a new slot every time they appear, since every use must get a new
+ * instance. Anything else, like POOLED Bindings, Providers and Bindings that record metrics, is simply asked for an
+ * instance every time it appears.
+ *
+ * A plan holds on to the resolved Bindings, so it should only be created once the Context has been built. Plans are
+ * immutable and can be used by any number of threads at the same time.
+ */
+public class InstancePlan {
+
+    private final Step[] steps;
+    private final int[] results;
+
+    /**
+     * @param bindings the Bindings to get instances from, in the order the results will be returned
+     */
+    public InstancePlan(Binding[] bindings) {
+        Planner planner = new Planner();
+        results = new int[bindings.length];
+        for (int i = 0; i < bindings.length; i++) {
+            results[i] = planner.plan(bindings[i]);
+        }
+        steps = planner.steps.toArray(new Step[planner.steps.size()]);
+    }
+
+    /**
+     * Runs the plan
+     *
+     * @return one instance for each of the Bindings the plan was created with, in the same order
+     */
+    public Object[] execute() {
+        Object[] slots = new Object[steps.length];
+        for (int i = 0; i < steps.length; i++) {
+            slots[i] = steps[i].get(slots);
+        }
+
+        Object[] instances = new Object[results.length];
+        for (int i = 0; i < results.length; i++) {
+            instances[i] = slots[results[i]];
+        }
+        return instances;
+    }
+
+    /**
+     * @return the number of steps in the plan, which is the most Bindings that get called each time it's executed
+     */
+    public int getStepCount() {
+        return steps.length;
+    }
+
+    /**
+     * @return the number of instances returned each time the plan is executed
+     */
+    public int size() {
+        return results.length;
+    }
+
+    private static boolean isShared(Binding binding) {
+        if (binding instanceof MeteredBinding) {
+            //each request has to be recorded
+            return false;
+        }
+        return binding instanceof CachingBinding || binding instanceof ThreadScopedBinding || binding instanceof NullBinding;
+    }
+
+    /**
+     * Builds the list of steps. Only used while the plan is being created.
+     */
+    private static class Planner {
+        final List<Step> steps = new ArrayList<Step>();
+        final Map<Binding, Integer> sharedSlots = new IdentityHashMap<Binding, Integer>();
+
+        int plan(Binding binding) {
+            Binding resolved = BindingGraph.resolve(binding);
+            Integer shared = sharedSlots.get(resolved);
+            if (shared != null) {
+                return shared;
+            }
+
+            Step step;
+            InstanceGenerator gen = resolved.getInstanceGenerator();
+            if (resolved instanceof NullBinding) {
+                step = new Constant(null);
+
+            } else if (resolved instanceof CachingBinding && gen instanceof ConstantGenerator && !(resolved instanceof MeteredBinding)) {
+                step = new Constant(((ConstantGenerator) gen).getValue());
+
+            } else if (resolved.getClass() == BasicBinding.class && gen instanceof ConstructorInstanceGenerator) {
+                ConstructorInstanceGenerator constructor = (ConstructorInstanceGenerator) gen;
+                Binding[] args = constructor.getConstructorArgs();
+                int[] argSlots = new int[args.length];
+                for (int i = 0; i < args.length; i++) {
+                    argSlots[i] = plan(args[i]);
+                }
+                step = new Construct(constructor, argSlots);
+
+            } else {
+                step = new GetInstance(resolved);
+            }
+
+            int slot = steps.size();
+            steps.add(step);
+            if (isShared(resolved)) {
+                sharedSlots.put(resolved, slot);
+            }
+            return slot;
+        }
+    }
+
+    /**
+     * Provides the value for one slot, possibly using the values of earlier slots
+     */
+    private static abstract class Step {
+        abstract Object get(Object[] slots);
+    }
+
+    private static class Constant extends Step {
+        private final Object value;
+
+        Constant(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        Object get(Object[] slots) {
+            return value;
+        }
+    }
+
+    private static class GetInstance extends Step {
+        private final Binding binding;
+
+        GetInstance(Binding binding) {
+            this.binding = binding;
+        }
+
+        @Override
+        Object get(Object[] slots) {
+            return binding.getInstance();
+        }
+    }
+
+    private static class Construct extends Step {
+        private final ConstructorInstanceGenerator generator;
+        private final int[] argSlots;
+
+        Construct(ConstructorInstanceGenerator generator, int[] argSlots) {
+            this.generator = generator;
+            this.argSlots = argSlots;
+        }
+
+        @Override
+        Object get(Object[] slots) {
+            Object[] args = new Object[argSlots.length];
+            for (int i = 0; i < argSlots.length; i++) {
+                args[i] = slots[argSlots[i]];
+            }
+            return generator.createNewInstance(args);
+        }
+    }
+}
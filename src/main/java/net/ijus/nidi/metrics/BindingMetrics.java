@@ -0,0 +1,122 @@
+package net.ijus.nidi.metrics;
+
+import net.ijus.nidi.bindings.Scope;
+import net.ijus.nidi.instantiation.InstanceGenerator;
+import net.ijus.nidi.utils.AllocationCounter;
+import net.ijus.nidi.utils.LatencyHistogram;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records what a single metered Binding has been doing: how many instances it created, how long each one took and
+ * how many bytes were allocated while creating it, how many times it failed, and how many times a cached instance was
+ * returned instead. The latency and allocations of an instance include creating any of its constructor params.
+ *
+ * This is also the MBean that gets registered for the Binding, so all of the getters are safe to call at any time.
+ */
+public class BindingMetrics implements BindingMetricsMBean {
+
+    private final Scope scope;
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong allocatedBytes = new AtomicLong();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    public BindingMetrics(Scope scope) {
+        this.scope = scope;
+    }
+
+    /**
+     * Creates a new instance using the generator, and records how it went
+     */
+    public <T> T create(InstanceGenerator<T> generator) {
+        long startBytes = AllocationCounter.currentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        T instance;
+        try {
+            instance = generator.createNewInstance();
+        } catch (RuntimeException | Error e) {
+            failures.incrementAndGet();
+            throw e;
+        }
+
+        latency.record(System.nanoTime() - start);
+        if (startBytes >= 0) {
+            allocatedBytes.addAndGet(AllocationCounter.currentThreadAllocatedBytes() - startBytes);
+        }
+        created.incrementAndGet();
+        return instance;
+    }
+
+    public void recordCacheHit() {
+        cacheHits.incrementAndGet();
+    }
+
+    @Override
+    public String getScope() {
+        return String.valueOf(scope);
+    }
+
+    @Override
+    public long getInstancesCreated() {
+        return created.get();
+    }
+
+    @Override
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    @Override
+    public long getFailures() {
+        return failures.get();
+    }
+
+    /**
+     * @return the total bytes allocated while creating instances, or 0 if allocations can't be measured on this JVM
+     */
+    @Override
+    public long getAllocatedBytes() {
+        return allocatedBytes.get();
+    }
+
+    @Override
+    public double getAllocatedBytesPerInstance() {
+        long count = created.get();
+        return (count == 0) ? 0 : allocatedBytes.get() / (double) count;
+    }
+
+    @Override
+    public long getLatencyP50() {
+        return latency.getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getLatencyP99() {
+        return latency.getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getLatencyMax() {
+        return latency.getMax();
+    }
+
+    @Override
+    public double getLatencyMean() {
+        return latency.getMean();
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    @Override
+    public void reset() {
+        created.set(0);
+        cacheHits.set(0);
+        failures.set(0);
+        allocatedBytes.set(0);
+        latency.reset();
+    }
+}
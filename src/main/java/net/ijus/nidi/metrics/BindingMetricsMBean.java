@@ -0,0 +1,29 @@
+package net.ijus.nidi.metrics;
+
+/**
+ * The JMX view of the metrics for a single Binding. All latencies are in nanoseconds.
+ */
+public interface BindingMetricsMBean {
+
+    public abstract String getScope();
+
+    public abstract long getInstancesCreated();
+
+    public abstract long getCacheHits();
+
+    public abstract long getFailures();
+
+    public abstract long getAllocatedBytes();
+
+    public abstract double getAllocatedBytesPerInstance();
+
+    public abstract long getLatencyP50();
+
+    public abstract long getLatencyP99();
+
+    public abstract long getLatencyMax();
+
+    public abstract double getLatencyMean();
+
+    public abstract void reset();
+}
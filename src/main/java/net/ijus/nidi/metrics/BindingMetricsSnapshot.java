@@ -0,0 +1,81 @@
+package net.ijus.nidi.metrics;
+
+/**
+ * The metrics for a single Binding at one point in time. All latencies are in nanoseconds.
+ */
+public class BindingMetricsSnapshot {
+
+    private final String name;
+    private final String scope;
+    private final long instancesCreated;
+    private final long cacheHits;
+    private final long failures;
+    private final long allocatedBytes;
+    private final long latencyP50;
+    private final long latencyP99;
+    private final long latencyMax;
+    private final double latencyMean;
+
+    public BindingMetricsSnapshot(String name, BindingMetrics metrics) {
+        this.name = name;
+        this.scope = metrics.getScope();
+        this.instancesCreated = metrics.getInstancesCreated();
+        this.cacheHits = metrics.getCacheHits();
+        this.failures = metrics.getFailures();
+        this.allocatedBytes = metrics.getAllocatedBytes();
+        this.latencyP50 = metrics.getLatencyP50();
+        this.latencyP99 = metrics.getLatencyP99();
+        this.latencyMax = metrics.getLatencyMax();
+        this.latencyMean = metrics.getLatencyMean();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getScope() {
+        return scope;
+    }
+
+    public long getInstancesCreated() {
+        return instancesCreated;
+    }
+
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public double getAllocatedBytesPerInstance() {
+        return (instancesCreated == 0) ? 0 : allocatedBytes / (double) instancesCreated;
+    }
+
+    public long getLatencyP50() {
+        return latencyP50;
+    }
+
+    public long getLatencyP99() {
+        return latencyP99;
+    }
+
+    public long getLatencyMax() {
+        return latencyMax;
+    }
+
+    public double getLatencyMean() {
+        return latencyMean;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%s): %d created, %d cache hits, %d failures, p50=%dns p99=%dns max=%dns, %.1f bytes/instance",
+                name, scope, instancesCreated, cacheHits, failures, latencyP50, latencyP99, latencyMax, getAllocatedBytesPerInstance());
+    }
+}
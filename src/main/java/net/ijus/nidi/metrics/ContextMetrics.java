@@ -0,0 +1,107 @@
+package net.ijus.nidi.metrics;
+
+import net.ijus.nidi.bindings.Binding;
+import net.ijus.nidi.bindings.BindingGraph;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds the metered Bindings in a Context, and registers them with JMX
+ */
+public class ContextMetrics {
+    private static final Logger log = LoggerFactory.getLogger(ContextMetrics.class);
+
+    public static final String JMX_DOMAIN = "net.ijus.nidi";
+
+    /**
+     * Returns the metrics for every metered Binding reachable from the given Bindings. The Bindings in the Context are
+     * named after their key. Any others, like inner bindings, are named after their bound class followed by
+     * <code>(inner)</code>, with a number added if there's more than one.
+     *
+     * @param bindingsMap the Bindings in a Context
+     * @return the metrics, keyed by name, in the order the Bindings were declared
+     */
+    public static Map<String, BindingMetrics> collect(Map<Object, Binding> bindingsMap) {
+        return collect(bindingsMap, BindingGraph.reachable(bindingsMap.values()));
+    }
+
+    /**
+     * The same as <code>collect(Map)</code>, except that inner bindings are only included if they're in
+     * <code>reachable</code>. This is used to leave out the Bindings that a child Context reaches in its parent.
+     *
+     * @param bindingsMap the Bindings in a Context
+     * @param reachable the Bindings that may be included as inner bindings
+     */
+    public static Map<String, BindingMetrics> collect(Map<Object, Binding> bindingsMap, Set<Binding> reachable) {
+        Map<String, BindingMetrics> metrics = new LinkedHashMap<String, BindingMetrics>();
+        Set<Binding> named = Collections.newSetFromMap(new IdentityHashMap<Binding, Boolean>());
+        for (Map.Entry<Object, Binding> entry : bindingsMap.entrySet()) {
+            Binding binding = entry.getValue();
+            if (binding instanceof MeteredBinding) {
+                Object key = entry.getKey();
+                metrics.put((key instanceof Class) ? ((Class) key).getName() : String.valueOf(key), ((MeteredBinding) binding).getMetrics());
+                named.add(binding);
+            }
+        }
+
+        for (Binding binding : reachable) {
+            if (binding instanceof MeteredBinding && !named.contains(binding)) {
+                String name = binding.getBoundClass().getName() + " (inner)";
+                String unique = name;
+                for (int i = 2; metrics.containsKey(unique); i++) {
+                    unique = name + " #" + i;
+                }
+                metrics.put(unique, ((MeteredBinding) binding).getMetrics());
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * Registers an MBean for each of the given metrics with the platform MBeanServer, using names like
+     * <code>net.ijus.nidi:type=Binding,context=&lt;contextName&gt;,name=&lt;binding name&gt;</code>.
+     *
+     * @return the names that were registered, for passing to unregister
+     */
+    public static List<ObjectName> register(String contextName, Map<String, BindingMetrics> metrics) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        List<ObjectName> names = new ArrayList<ObjectName>(metrics.size());
+        for (Map.Entry<String, BindingMetrics> entry : metrics.entrySet()) {
+            try {
+                ObjectName name = objectName(contextName, entry.getKey());
+                server.registerMBean(entry.getValue(), name);
+                names.add(name);
+            } catch (JMException e) {
+                log.warn("Could not register the metrics MBean for: " + entry.getKey() + " in Context: " + contextName, e);
+            }
+        }
+        return names;
+    }
+
+    public static void unregister(List<ObjectName> names) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName name : names) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException e) {
+                log.debug("Could not unregister the MBean: {}", name);
+            }
+        }
+    }
+
+    public static ObjectName objectName(String contextName, String bindingName) throws JMException {
+        return new ObjectName(JMX_DOMAIN + ":type=Binding,context=" + ObjectName.quote(contextName) + ",name=" + ObjectName.quote(bindingName));
+    }
+}
@@ -0,0 +1,34 @@
+package net.ijus.nidi.metrics;
+
+import net.ijus.nidi.bindings.BasicBinding;
+import net.ijus.nidi.instantiation.InstanceGenerator;
+
+/**
+ * A BasicBinding that records metrics for every instance it creates
+ */
+public class MeteredBasicBinding<T> extends BasicBinding<T> implements MeteredBinding<T> {
+
+    private final BindingMetrics metrics = new BindingMetrics(SCOPE);
+
+    public MeteredBasicBinding(Class<T> boundClass, Class<? extends T> implClass, InstanceGenerator instanceGenerator) {
+        super(boundClass, implClass, instanceGenerator);
+    }
+
+    @Override
+    public T getInstance() {
+        return metrics.create(getInstanceGenerator());
+    }
+
+    /**
+     * @return a new MeteredBasicBinding with its own metrics
+     */
+    @Override
+    public MeteredBasicBinding<T> copy(InstanceGenerator<T> instanceGenerator) {
+        return new MeteredBasicBinding<T>(getBoundClass(), getImplClass(), instanceGenerator);
+    }
+
+    @Override
+    public BindingMetrics getMetrics() {
+        return metrics;
+    }
+}
@@ -0,0 +1,12 @@
+package net.ijus.nidi.metrics;
+
+import net.ijus.nidi.bindings.Binding;
+
+/**
+ * A Binding that records BindingMetrics. These are only used when a ContextBuilder has metrics enabled, so that the
+ * normal Bindings never pay for any instrumentation.
+ */
+public interface MeteredBinding<T> extends Binding<T> {
+
+    public abstract BindingMetrics getMetrics();
+}
@@ -0,0 +1,59 @@
+package net.ijus.nidi.metrics;
+
+import net.ijus.nidi.bindings.CachingBinding;
+import net.ijus.nidi.bindings.Scope;
+import net.ijus.nidi.instantiation.InstanceGenerator;
+
+/**
+ * A CachingBinding that records metrics when it creates its instance, and counts every time the cached instance is
+ * returned as a cache hit
+ */
+public class MeteredCachingBinding<T> extends CachingBinding<T> implements MeteredBinding<T> {
+
+    private final BindingMetrics metrics;
+
+    public MeteredCachingBinding(InstanceGenerator<T> instanceGenerator, Class<T> boundClass, Class<? extends T> implClass, Scope scope) {
+        this(instanceGenerator, boundClass, implClass, scope, new BindingMetrics(scope));
+    }
+
+    protected MeteredCachingBinding(InstanceGenerator<T> instanceGenerator, Class<T> boundClass, Class<? extends T> implClass, Scope scope, BindingMetrics metrics) {
+        super(instanceGenerator, boundClass, implClass, scope);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public T getInstance() {
+        T instance = getCachedInstance();
+        if (instance != null) {
+            metrics.recordCacheHit();
+            return instance;
+        }
+        return createAndCache();
+    }
+
+    @Override
+    protected T createInstance() {
+        return metrics.create(getInstanceGenerator());
+    }
+
+    /**
+     * @return a new MeteredCachingBinding with its own metrics
+     */
+    @Override
+    public MeteredCachingBinding<T> copy(InstanceGenerator<T> instanceGenerator) {
+        return new MeteredCachingBinding<T>(instanceGenerator, getBoundClass(), getImplClass(), getScope());
+    }
+
+    /**
+     * @return a new MeteredCachingBinding with its own instance, which records into the same metrics as this one
+     */
+    @Override
+    public MeteredCachingBinding<T> forReference() {
+        return new MeteredCachingBinding<T>(getInstanceGenerator(), getBoundClass(), getImplClass(), getScope(), metrics);
+    }
+
+    @Override
+    public BindingMetrics getMetrics() {
+        return metrics;
+    }
+}
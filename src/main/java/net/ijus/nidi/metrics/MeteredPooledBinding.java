@@ -0,0 +1,34 @@
+package net.ijus.nidi.metrics;
+
+import net.ijus.nidi.bindings.PooledBinding;
+import net.ijus.nidi.instantiation.InstanceGenerator;
+
+/**
+ * A PooledBinding that records metrics for each instance it has to create
+ */
+public class MeteredPooledBinding<T> extends PooledBinding<T> implements MeteredBinding<T> {
+
+    private final BindingMetrics metrics = new BindingMetrics(SCOPE);
+
+    public MeteredPooledBinding(InstanceGenerator<T> instanceGenerator, Class<T> boundClass, Class<? extends T> implClass, int minSize, int maxSize) {
+        super(instanceGenerator, boundClass, implClass, minSize, maxSize);
+    }
+
+    @Override
+    protected T createInstance() {
+        return metrics.create(getInstanceGenerator());
+    }
+
+    /**
+     * @return a new MeteredPooledBinding with its own metrics
+     */
+    @Override
+    public MeteredPooledBinding<T> copy(InstanceGenerator<T> instanceGenerator) {
+        return new MeteredPooledBinding<T>(instanceGenerator, getBoundClass(), getImplClass(), getMinSize(), getMaxSize());
+    }
+
+    @Override
+    public BindingMetrics getMetrics() {
+        return metrics;
+    }
+}
@@ -0,0 +1,34 @@
+package net.ijus.nidi.metrics;
+
+import net.ijus.nidi.bindings.ThreadScopedBinding;
+import net.ijus.nidi.instantiation.InstanceGenerator;
+
+/**
+ * A ThreadScopedBinding that records metrics for the instance it creates for each thread
+ */
+public class MeteredThreadScopedBinding<T> extends ThreadScopedBinding<T> implements MeteredBinding<T> {
+
+    private final BindingMetrics metrics = new BindingMetrics(SCOPE);
+
+    public MeteredThreadScopedBinding(InstanceGenerator<T> instanceGenerator, Class<T> boundClass, Class<? extends T> implClass) {
+        super(instanceGenerator, boundClass, implClass);
+    }
+
+    @Override
+    protected T createInstance() {
+        return metrics.create(getInstanceGenerator());
+    }
+
+    /**
+     * @return a new MeteredThreadScopedBinding with its own metrics
+     */
+    @Override
+    public MeteredThreadScopedBinding<T> copy(InstanceGenerator<T> instanceGenerator) {
+        return new MeteredThreadScopedBinding<T>(instanceGenerator, getBoundClass(), getImplClass());
+    }
+
+    @Override
+    public BindingMetrics getMetrics() {
+        return metrics;
+    }
+}
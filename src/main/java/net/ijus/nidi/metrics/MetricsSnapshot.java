@@ -0,0 +1,66 @@
+package net.ijus.nidi.metrics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The metrics for every metered Binding in a Context, as returned by <code>Context.getMetrics()</code>. Bindings are keyed
+ * by the name they were bound with: the class name for a Class, or the property name.
+ */
+public class MetricsSnapshot {
+
+    private final Map<String, BindingMetricsSnapshot> bindings;
+
+    public MetricsSnapshot(Map<String, BindingMetrics> metrics) {
+        Map<String, BindingMetricsSnapshot> snapshots = new LinkedHashMap<String, BindingMetricsSnapshot>();
+        for (Map.Entry<String, BindingMetrics> entry : metrics.entrySet()) {
+            snapshots.put(entry.getKey(), new BindingMetricsSnapshot(entry.getKey(), entry.getValue()));
+        }
+        this.bindings = Collections.unmodifiableMap(snapshots);
+    }
+
+    /**
+     * @return true if the Context was built with metrics enabled
+     */
+    public boolean isEnabled() {
+        return !bindings.isEmpty();
+    }
+
+    public Map<String, BindingMetricsSnapshot> getBindings() {
+        return bindings;
+    }
+
+    public BindingMetricsSnapshot get(Class boundClass) {
+        return bindings.get(boundClass.getName());
+    }
+
+    public BindingMetricsSnapshot get(String name) {
+        return bindings.get(name);
+    }
+
+    public long getTotalInstancesCreated() {
+        long total = 0;
+        for (BindingMetricsSnapshot snapshot : bindings.values()) {
+            total += snapshot.getInstancesCreated();
+        }
+        return total;
+    }
+
+    public long getTotalFailures() {
+        long total = 0;
+        for (BindingMetricsSnapshot snapshot : bindings.values()) {
+            total += snapshot.getFailures();
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (BindingMetricsSnapshot snapshot : bindings.values()) {
+            sb.append(snapshot).append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,46 @@
+package net.ijus.nidi.utils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Reads the number of bytes allocated by the current thread. This relies on the HotSpot extension of ThreadMXBean,
+ * so on JVMs that don't support it every method simply reports -1.
+ */
+public class AllocationCounter {
+
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN = findThreadBean();
+
+    /**
+     * @return true if allocated bytes can be measured on this JVM
+     */
+    public static boolean isSupported() {
+        return THREAD_BEAN != null;
+    }
+
+    /**
+     * @return the total number of bytes allocated so far by the current thread, or -1 if it can't be measured
+     */
+    public static long currentThreadAllocatedBytes() {
+        if (THREAD_BEAN == null) {
+            return -1;
+        }
+        return THREAD_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static com.sun.management.ThreadMXBean findThreadBean() {
+        try {
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean hotspotBean = (com.sun.management.ThreadMXBean) bean;
+                if (hotspotBean.isThreadAllocatedMemorySupported()) {
+                    hotspotBean.setThreadAllocatedMemoryEnabled(true);
+                    return hotspotBean;
+                }
+            }
+        } catch (Throwable t) {
+            //not a HotSpot JVM, so allocations just won't be reported
+        }
+        return null;
+    }
+}
@@ -23,5 +23,20 @@ public class ClassUtils {
         return "[ " + join(names, ", ") + " ]";
     }
 
+    /**
+     * returns the name to use for a class in error messages. Anonymous classes don't have a canonical name, so they're
+     * described using their superclass instead.
+     */
+    public static String name(final Class clazz) {
+        String name;
+        if (clazz.isAnonymousClass()) {
+            name = "Anonymous implementation of: " + clazz.getSuperclass().getCanonicalName();
+        } else {
+            name = clazz.getCanonicalName();
+        }
+
+        return name;
+    }
+
 
 }
@@ -0,0 +1,53 @@
+package net.ijus.nidi.utils;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Utilities for running parts of NiDI in parallel
+ */
+public class ConcurrencyUtils {
+
+    /**
+     * The pool used when a ContextBuilder needs to do work in parallel, but no ForkJoinPool has been specified.
+     * It has one thread per available processor, and is only created the first time it's needed.
+     *
+     * @return the shared default pool
+     */
+    public static ForkJoinPool getDefaultPool() {
+        return DefaultPoolHolder.POOL;
+    }
+
+    private static class DefaultPoolHolder {
+        static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * A single daemon thread used for timing out asynchronous requests. It never runs any user code, it only fails
+     * futures whose deadline has passed.
+     *
+     * @return the shared scheduler
+     */
+    public static ScheduledExecutorService getScheduler() {
+        return SchedulerHolder.SCHEDULER;
+    }
+
+    private static class SchedulerHolder {
+        static final ScheduledExecutorService SCHEDULER = createScheduler();
+
+        private static ScheduledExecutorService createScheduler() {
+            ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "nidi-deadlines");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            scheduler.setRemoveOnCancelPolicy(true);
+            return scheduler;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.config
+
+import com.example.interfaces.TransactionFilter
+import com.example.plugins.AmountFilter
+import com.example.plugins.CurrencyFilter
+import net.ijus.nidi.ContextConfig
+import net.ijus.nidi.bindings.Scope
+import net.ijus.nidi.builder.ContextBuilder
+
+/**
+ * Contributes two filters, for testing that multibindings merge when they're inherited
+ */
+class BaseFilterConfig implements ContextConfig {
+
+    @Override
+    void configure(ContextBuilder builder) {
+        builder.multibind(TransactionFilter).addBinding("amount").withScope(Scope.SINGLETON).to(AmountFilter)
+        builder.multibind(TransactionFilter).addBinding("currency").withScope(Scope.SINGLETON).to(CurrencyFilter)
+    }
+}
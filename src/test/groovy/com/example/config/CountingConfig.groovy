@@ -0,0 +1,16 @@
+package com.example.config
+
+import net.ijus.nidi.builder.ContextBuilder
+
+/**
+ * Counts how many times it has been used to configure a Context
+ */
+class CountingConfig extends GeneratedSourceConfig {
+    static int configureCount = 0
+
+    @Override
+    void configure(ContextBuilder builder) {
+        configureCount++
+        super.configure(builder)
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.config
+
+import com.example.general.GhostbustersSetup
+import com.example.impl.ComplexCCProcessor
+import com.example.impl.ComplexFraudDetector
+import com.example.impl.LoggingServiceImpl
+import com.example.interfaces.CreditCardProcessor
+import com.example.interfaces.FraudDetectionService
+import com.example.interfaces.LoggingService
+import com.example.interfaces.RefundProcessor
+import net.ijus.nidi.ContextConfig
+import net.ijus.nidi.bindings.Scope
+import net.ijus.nidi.builder.ContextBuilder
+
+/**
+ * A configuration that only uses things that can be written as plain Java, so it can be used to generate source
+ */
+class GeneratedSourceConfig implements ContextConfig {
+
+    @Override
+    void configure(ContextBuilder builder) {
+        builder.bind(CreditCardProcessor).to(ComplexCCProcessor).withScope(Scope.SINGLETON)
+        builder.bind(RefundProcessor).reference(CreditCardProcessor)
+        builder.bind(LoggingService).to(LoggingServiceImpl).withScope(Scope.ONE_PER_BINDING)
+        builder.bind(FraudDetectionService).to(ComplexFraudDetector).setupInstance(new GhostbustersSetup())
+        builder.bindProperty("fraudDetURL", "www.test-url.com")
+        builder.bindProperty("retries", 3)
+        builder.bindProperty("missing", String, null)
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.config
+
+import net.ijus.nidi.builder.ContextBuilder
+
+/**
+ * The same Bindings as GeneratedSourceConfig, with metrics enabled
+ */
+class MeteredConfig extends GeneratedSourceConfig {
+
+    @Override
+    void configure(ContextBuilder builder) {
+        super.configure(builder)
+        builder.setMetricsEnabled(true)
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.config
+
+import net.ijus.nidi.ContextConfig
+import net.ijus.nidi.builder.ContextBuilder
+
+/**
+ * Binds a mutable constant, and counts how many times it has been used to configure a Context
+ */
+class MutableConstantConfig implements ContextConfig {
+    static int configureCount = 0
+
+    @Override
+    void configure(ContextBuilder builder) {
+        configureCount++
+        builder.bind(List).toObject(new ArrayList())
+        builder.bindProperty("name", "mutable")
+    }
+}
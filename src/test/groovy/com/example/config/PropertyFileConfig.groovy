@@ -0,0 +1,16 @@
+package com.example.config
+
+import net.ijus.nidi.ContextConfig
+import net.ijus.nidi.builder.ContextBuilder
+
+/**
+ * Binds properties from whichever file is set before it's used
+ */
+class PropertyFileConfig implements ContextConfig {
+    static File file
+
+    @Override
+    void configure(ContextBuilder builder) {
+        builder.bindProperties("app", file)
+    }
+}
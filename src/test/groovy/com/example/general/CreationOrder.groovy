@@ -0,0 +1,36 @@
+package com.example.general
+
+/**
+ * Classes that record the order they were created in, to check the order constructor args get created
+ */
+class CreationOrder {
+
+    static final List<String> created = Collections.synchronizedList(new ArrayList<String>())
+
+    static class A {
+        A() { created << "A" }
+    }
+
+    static class B {
+        B() { created << "B" }
+    }
+
+    static class C {
+        C() { created << "C" }
+    }
+
+    static class Top {
+        Top(A a, B b, C c) { created << "Top" }
+    }
+
+    static class Slow {
+        Slow() {
+            Thread.sleep(200)
+            created << "Slow"
+        }
+    }
+
+    static class DependsOnA {
+        DependsOnA(A a) { created << "DependsOnA" }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.general
+
+import net.ijus.nidi.Require
+import net.ijus.nidi.bindings.Scope
+
+/**
+ * Takes properties of several types, which are meant to come from a properties file
+ */
+class FileConfigured {
+
+    String url
+    int port
+    Long timeout
+    boolean enabled
+    Scope scope
+
+    FileConfigured(@Require("db.url") String url, @Require("db.port") int port, @Require("db.timeout") Long timeout,
+                   @Require("db.enabled") boolean enabled, @Require("db.scope") Scope scope) {
+        this.url = url
+        this.port = port
+        this.timeout = timeout
+        this.enabled = enabled
+        this.scope = scope
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.example.general
+
+import com.example.impl.FraudDetectorImpl
+import net.ijus.nidi.instantiation.InstanceSetupFunction
+
+/**
+ * A setup function that is a plain class instead of a closure, so it can be used in generated source
+ */
+class GhostbustersSetup implements InstanceSetupFunction<FraudDetectorImpl> {
+
+    @Override
+    void setup(FraudDetectorImpl instance) {
+        instance.whoYaGonnCall = "Ghostbusters"
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.general
+
+import com.example.interfaces.LoggingService
+import net.ijus.nidi.Require
+
+/**
+ * Takes one of each kind of primitive property, plus a regular dependency
+ */
+class PrimitiveProperties {
+
+    int port
+    long timeout
+    double threshold
+    boolean enabled
+    LoggingService loggingService
+
+    PrimitiveProperties(@Require("port") int port, @Require("timeout") long timeout, @Require("threshold") double threshold,
+                        @Require("enabled") boolean enabled, LoggingService loggingService) {
+        this.port = port
+        this.timeout = timeout
+        this.threshold = threshold
+        this.enabled = enabled
+        this.loggingService = loggingService
+    }
+
+}
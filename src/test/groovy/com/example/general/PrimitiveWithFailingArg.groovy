@@ -0,0 +1,13 @@
+package com.example.general
+
+import net.ijus.nidi.Require
+
+/**
+ * Takes a primitive property and a dependency whose constructor always fails
+ */
+class PrimitiveWithFailingArg {
+
+    PrimitiveWithFailingArg(@Require("port") int port, ThrowingConstructor failing) {
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.example.general
+
+/**
+ * Two classes that both depend on the same class
+ */
+class SharedDependency {
+
+    static class Dep {
+    }
+
+    static class UserA {
+        Dep dep
+        UserA(Dep dep) { this.dep = dep }
+    }
+
+    static class UserB {
+        Dep dep
+        UserB(Dep dep) { this.dep = dep }
+    }
+}
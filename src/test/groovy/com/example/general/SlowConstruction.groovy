@@ -0,0 +1,22 @@
+package com.example.general
+
+import com.example.interfaces.LoggingService
+
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Takes a while to construct, and counts how many times its constructor has been called
+ */
+class SlowConstruction {
+
+    static final AtomicInteger constructed = new AtomicInteger()
+
+    LoggingService loggingService
+
+    SlowConstruction(LoggingService loggingService) {
+        constructed.incrementAndGet()
+        Thread.sleep(200)
+        this.loggingService = loggingService
+    }
+
+}
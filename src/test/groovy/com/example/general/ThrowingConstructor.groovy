@@ -0,0 +1,11 @@
+package com.example.general
+
+/**
+ * Used to test how errors thrown from constructors are reported
+ */
+class ThrowingConstructor {
+
+    ThrowingConstructor() {
+        throw new IllegalStateException("This constructor always fails")
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.general
+
+import com.example.interfaces.LoggingService
+import net.ijus.nidi.Optional
+import net.ijus.nidi.Provider
+
+/**
+ * Gets its LoggingService from a Provider, so a LoggingService is only created when it's actually needed.
+ */
+class WithProvider {
+
+    Provider<LoggingService> loggingServiceProvider
+
+    WithProvider(@Optional Provider<LoggingService> loggingServiceProvider) {
+        this.loggingServiceProvider = loggingServiceProvider
+    }
+
+    LoggingService getLoggingService() {
+        return loggingServiceProvider.get()
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.interfaces
+
+import com.example.misc.Transaction
+
+/**
+ * One step in a chain of filters, used to test multibindings
+ */
+public interface TransactionFilter {
+
+	boolean accept(Transaction transaction)
+
+}
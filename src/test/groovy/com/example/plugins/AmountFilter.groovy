@@ -0,0 +1,12 @@
+package com.example.plugins
+
+import com.example.interfaces.TransactionFilter
+import com.example.misc.Transaction
+
+class AmountFilter implements TransactionFilter {
+
+	@Override
+	boolean accept(Transaction transaction) {
+		return true
+	}
+}
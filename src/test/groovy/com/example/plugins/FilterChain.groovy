@@ -0,0 +1,18 @@
+package com.example.plugins
+
+import com.example.interfaces.TransactionFilter
+
+/**
+ * Takes the same multibinding in every form
+ */
+class FilterChain {
+	List<TransactionFilter> filterList
+	TransactionFilter[] filterArray
+	Set<TransactionFilter> filterSet
+
+	FilterChain(List<TransactionFilter> filterList, TransactionFilter[] filterArray, Set<TransactionFilter> filterSet) {
+		this.filterList = filterList
+		this.filterArray = filterArray
+		this.filterSet = filterSet
+	}
+}
@@ -0,0 +1,18 @@
+package com.example.plugins
+
+import com.example.interfaces.FraudDetectionService
+import com.example.interfaces.TransactionFilter
+import com.example.misc.Transaction
+
+class FraudFilter implements TransactionFilter {
+	FraudDetectionService fraudDetectionService
+
+	FraudFilter(FraudDetectionService fraudDetectionService) {
+		this.fraudDetectionService = fraudDetectionService
+	}
+
+	@Override
+	boolean accept(Transaction transaction) {
+		return !fraudDetectionService.detectFraud(transaction)
+	}
+}
@@ -0,0 +1,11 @@
+package com.example.plugins
+
+import com.example.interfaces.TransactionFilter
+
+class NamedFilterChain {
+	Map<String, TransactionFilter> filters
+
+	NamedFilterChain(Map<String, TransactionFilter> filters) {
+		this.filters = filters
+	}
+}
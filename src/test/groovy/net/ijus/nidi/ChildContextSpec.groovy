@@ -0,0 +1,120 @@
+package net.ijus.nidi
+
+import com.example.impl.BasicCCProcessor
+import com.example.impl.ComplexCCProcessor
+import com.example.impl.FraudDetectorImpl
+import com.example.impl.LoggingServiceImpl
+import com.example.impl.NamespacedLoggingService
+import com.example.interfaces.CreditCardProcessor
+import com.example.interfaces.FraudDetectionService
+import com.example.interfaces.LoggingService
+import net.ijus.nidi.bindings.Scope
+import net.ijus.nidi.bindings.ThreadScopedBinding
+import net.ijus.nidi.builder.ContextBuilder
+import spock.lang.Specification
+
+/**
+ * Tests for child Contexts that overlay a parent
+ */
+class ChildContextSpec extends Specification {
+
+    Context parent
+
+    def setup() {
+        ContextBuilder builder = new ContextBuilder()
+        builder.bind(FraudDetectionService).withScope(Scope.SINGLETON).to(FraudDetectorImpl)
+        builder.bind(LoggingService).withScope(Scope.SINGLETON).to(LoggingServiceImpl)
+        builder.bind(CreditCardProcessor).to(ComplexCCProcessor)
+        builder.bindProperty("stringProperty", "from the parent")
+        parent = builder.build()
+    }
+
+    void "a child should only contain its overrides and fall through to the parent"() {
+        setup:
+        ContextBuilder childBuilder = new ContextBuilder(parent)
+        childBuilder.bind(CreditCardProcessor).to(BasicCCProcessor)
+        Context child = childBuilder.build()
+
+        expect:
+        child.bindingsMap.keySet() == [CreditCardProcessor] as Set
+        child.getInstance(CreditCardProcessor) instanceof BasicCCProcessor
+        parent.getInstance(CreditCardProcessor) instanceof ComplexCCProcessor
+        child.getBinding(LoggingService).is(parent.getBinding(LoggingService))
+        child.containsBinding("stringProperty")
+        child.getInstance("stringProperty") == "from the parent"
+        child.parent.is(parent)
+    }
+
+    void "parent singletons should be shared with bindings in the child"() {
+        setup:
+        Context child = Configuration.configureChild(parent, { ContextBuilder b ->
+            b.bind(FraudDetectionService).to(FraudDetectorImpl)
+            b.bind(CreditCardProcessor).to(ComplexCCProcessor)
+        } as ContextConfig)
+
+        when:
+        ComplexCCProcessor fromChild = child.getInstance(CreditCardProcessor)
+
+        then:
+        fromChild.loggingService.is(parent.getInstance(LoggingService))
+        !fromChild.fraudDetectionService.is(parent.getInstance(FraudDetectionService))
+    }
+
+    void "child bindings should use properties from the parent unless they're overridden"() {
+        setup:
+        ContextBuilder childBuilder = new ContextBuilder(parent)
+        childBuilder.bind(LoggingService).to(NamespacedLoggingService)
+        Context child = childBuilder.build()
+
+        ContextBuilder grandchildBuilder = new ContextBuilder(child)
+        grandchildBuilder.bindProperty("stringProperty", "from the grandchild")
+        grandchildBuilder.bind(LoggingService).to(NamespacedLoggingService)
+        Context grandchild = grandchildBuilder.build()
+
+        expect:
+        child.getInstance(LoggingService).stringProperty == "from the parent"
+        grandchild.getInstance(LoggingService).stringProperty == "from the grandchild"
+        grandchild.getInstance(FraudDetectionService).is(parent.getInstance(FraudDetectionService))
+    }
+
+    void "overriding a binding with null in the child should hide the parent's binding"() {
+        setup:
+        ContextBuilder childBuilder = new ContextBuilder(parent)
+        childBuilder.bind(LoggingService).toNull()
+        childBuilder.bind(CreditCardProcessor).to(ComplexCCProcessor)
+
+        when:
+        childBuilder.build()
+
+        then:
+        thrown(InvalidConfigurationException)
+    }
+
+    void "disposing a child should leave the parent's bindings alone"() {
+        setup:
+        ContextBuilder builder = new ContextBuilder()
+        builder.bind(LoggingService).withScope(Scope.THREAD).to(LoggingServiceImpl)
+        Context threadParent = builder.build()
+
+        ContextBuilder childBuilder = new ContextBuilder(threadParent)
+        childBuilder.bind(CreditCardProcessor).withScope(Scope.THREAD).to(BasicCCProcessor)
+        Context child = childBuilder.build()
+
+        when:
+        int disposed = child.dispose()
+
+        then:
+        disposed == 1
+        ((ThreadScopedBinding) child.getBinding(CreditCardProcessor)).isDisposed()
+        !((ThreadScopedBinding) threadParent.getBinding(LoggingService)).isDisposed()
+        threadParent.getInstance(LoggingService) != null
+    }
+
+    void "the parent must already be built"() {
+        when:
+        new ContextBuilder(new Context())
+
+        then:
+        thrown(InvalidConfigurationException)
+    }
+}
@@ -0,0 +1,155 @@
+package net.ijus.nidi
+
+import com.example.impl.BasicCCProcessor
+import com.example.impl.ComplexCCProcessor
+import com.example.impl.FraudDetectorImpl
+import com.example.impl.LoggingServiceImpl
+import com.example.interfaces.CreditCardProcessor
+import com.example.interfaces.FraudDetectionService
+import com.example.interfaces.LoggingService
+import net.ijus.nidi.builder.ContextBuilder
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Tests for swapping the Context in the ContextHolder
+ */
+class ContextHolderSpec extends Specification {
+
+    def setup() {
+        ContextTestUtils.clearContextHolder()
+    }
+
+    def cleanup() {
+        ContextTestUtils.clearContextHolder()
+    }
+
+    Context newContext(Class impl) {
+        ContextBuilder builder = new ContextBuilder()
+        builder.bind(CreditCardProcessor).to(impl)
+        builder.bind(FraudDetectionService).to(FraudDetectorImpl)
+        builder.bind(LoggingService).to(LoggingServiceImpl)
+        builder.bindProperty("stringProperty", "holder")
+        return builder.build()
+    }
+
+    void "getContext should initialize the holder once and keep the same Context"() {
+        when:
+        Context first = ContextHolder.getContext()
+
+        then:
+        first != null
+        ContextHolder.getContext().is(first)
+        ContextHolder.getCtx().is(first)
+        ContextHolder.version > 0
+    }
+
+    void "swapping should publish the new Context and bump the version"() {
+        setup:
+        Context a = newContext(BasicCCProcessor)
+        Context b = newContext(ComplexCCProcessor)
+        ContextHolder.setContext(a)
+        long version = ContextHolder.version
+
+        when:
+        ContextGeneration old = ContextHolder.swap(b)
+
+        then:
+        old.context.is(a)
+        old.retired
+        old.drained
+        ContextHolder.getContext().is(b)
+        ContextHolder.version > version
+        ContextHolder.getContext().getInstance(CreditCardProcessor) instanceof ComplexCCProcessor
+    }
+
+    void "a retired Context should not be shut down until every lease on it is closed"() {
+        setup:
+        Context a = newContext(BasicCCProcessor)
+        ContextHolder.setContext(a)
+        AtomicInteger shutdowns = new AtomicInteger()
+        ContextShutdownHook hook = { Context ctx -> shutdowns.incrementAndGet() } as ContextShutdownHook
+
+        when:
+        ContextLease lease = ContextHolder.acquire()
+        ContextGeneration old = ContextHolder.swap(newContext(ComplexCCProcessor), hook)
+
+        then:
+        lease.get().is(a)
+        lease.stale
+        !old.drained
+        old.readerCount == 1
+        shutdowns.get() == 0
+
+        when:
+        lease.close()
+        lease.close()
+
+        then:
+        old.drained
+        old.awaitDrained(1, TimeUnit.SECONDS)
+        shutdowns.get() == 1
+    }
+
+    void "leases acquired after a swap should get the new Context"() {
+        setup:
+        ContextHolder.setContext(newContext(BasicCCProcessor))
+        ContextHolder.swap(newContext(ComplexCCProcessor), ContextShutdownHook.DISPOSE)
+
+        when:
+        ContextLease lease = ContextHolder.acquire()
+
+        then:
+        !lease.stale
+        lease.version == ContextHolder.version
+        lease.get().getInstance(CreditCardProcessor) instanceof ComplexCCProcessor
+
+        cleanup:
+        lease?.close()
+    }
+
+    void "readers should always see a complete Context while it's being swapped"() {
+        setup:
+        ContextHolder.setContext(newContext(BasicCCProcessor))
+        int threads = 4
+        CountDownLatch done = new CountDownLatch(threads)
+        AtomicInteger failures = new AtomicInteger()
+        AtomicInteger shutdowns = new AtomicInteger()
+        ContextShutdownHook hook = { Context ctx -> shutdowns.incrementAndGet() } as ContextShutdownHook
+        List<ContextGeneration> retired = []
+
+        when:
+        threads.times {
+            Thread.start {
+                try {
+                    500.times {
+                        ContextLease lease = ContextHolder.acquire()
+                        try {
+                            if (lease.get().getInstance(CreditCardProcessor) == null) {
+                                failures.incrementAndGet()
+                            }
+                        } finally {
+                            lease.close()
+                        }
+                    }
+                } catch (Throwable t) {
+                    failures.incrementAndGet()
+                } finally {
+                    done.countDown()
+                }
+            }
+        }
+        50.times { i ->
+            retired << ContextHolder.swap(newContext(i % 2 ? BasicCCProcessor : ComplexCCProcessor), hook)
+        }
+        done.await(10, TimeUnit.SECONDS)
+
+        then:
+        failures.get() == 0
+        retired.every { it.awaitDrained(1, TimeUnit.SECONDS) }
+        shutdowns.get() == 50
+    }
+}
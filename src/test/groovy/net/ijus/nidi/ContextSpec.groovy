@@ -56,4 +56,50 @@ public class ContextSpec extends Specification {
 		instance instanceof BasicCCProcessor
 
 	}
-}
\ No newline at end of file
+
+	void "a built context should be frozen"() {
+		setup:
+		Context ctx = configureNew({
+			it.bind(CreditCardProcessor).to(BasicCCProcessor)
+			it.bindProperty("myProperty", "myValue")
+		} as ContextConfig)
+
+		expect:
+		ctx.isFrozen()
+		ctx.containsBinding(CreditCardProcessor)
+		ctx.containsBinding("myProperty")
+		ctx.getInstance("myProperty") == "myValue"
+		ctx.bindingsMap.keySet() as List == [CreditCardProcessor, "myProperty"]
+
+		when:
+		ctx.bindingsMap.put(LoggingService, ctx.getBinding(CreditCardProcessor))
+
+		then:
+		thrown(UnsupportedOperationException)
+
+		when:
+		ctx.freeze([:])
+
+		then:
+		thrown(InvalidConfigurationException)
+	}
+
+	void "requesting a class or property without a binding should throw an exception"() {
+		setup:
+		Context ctx = configureNew({
+			it.bind(CreditCardProcessor).to(BasicCCProcessor)
+		} as ContextConfig)
+
+		when:
+		ctx.getInstance(LoggingService)
+
+		then:
+		thrown(InvalidConfigurationException)
+
+		when:
+		ctx.getInstance("missingProperty")
+
+		then:
+		thrown(InvalidConfigurationException)
+	}
+}
@@ -0,0 +1,68 @@
+package net.ijus.nidi
+
+import com.example.impl.BasicCCProcessor
+import com.example.interfaces.CreditCardProcessor
+import net.ijus.nidi.bindings.Scope
+import net.ijus.nidi.instantiation.CreationException
+import net.ijus.nidi.instantiation.InstanceGenerator
+import spock.lang.Specification
+
+import java.util.concurrent.Executors
+
+class ContextTestUtilsSpec extends Specification {
+
+    void "benchmarking a generator should record every iteration in nanoseconds"() {
+        when:
+        BenchmarkReport report = ContextTestUtils.benchmark({ new BasicCCProcessor() } as InstanceGenerator, 1000, 100)
+
+        then:
+        report.operations == 1000
+        report.threads == 1
+        report.p50 > 0
+        report.p50 <= report.p99
+        report.p99 <= report.p999
+        report.p999 <= report.max
+        report.throughput > 0
+    }
+
+    void "benchmarking a context should run on several threads"() {
+        setup:
+        Context ctx = Configuration.configureNew({
+            it.bind(CreditCardProcessor).withScope(Scope.SINGLETON).to(BasicCCProcessor)
+        } as ContextConfig)
+
+        when:
+        BenchmarkReport report = ContextTestUtils.benchmark(ctx, CreditCardProcessor, 500, 50, 4, Executors.defaultThreadFactory())
+
+        then:
+        report.operations == 2000
+        report.threads == 4
+        report.name.contains("CreditCardProcessor")
+    }
+
+    void "latency budgets should be enforced by the report"() {
+        setup:
+        BenchmarkReport report = ContextTestUtils.benchmark({ Thread.sleep(2); "slow" } as InstanceGenerator, 5, 0)
+
+        when:
+        report.assertPercentileBelow(99, 1000)
+
+        then:
+        thrown(AssertionError)
+
+        when:
+        report.assertPercentileBelow(99, 10000000000L)
+
+        then:
+        notThrown(AssertionError)
+    }
+
+    void "failures in the generator should be reported"() {
+        when:
+        ContextTestUtils.benchmark({ throw new IllegalStateException("boom") } as InstanceGenerator, 10, 0, 2, Executors.defaultThreadFactory())
+
+        then:
+        def ex = thrown(CreationException)
+        ex.cause instanceof IllegalStateException
+    }
+}
@@ -0,0 +1,90 @@
+package net.ijus.nidi
+
+import com.example.config.ComplexConfigScript
+import com.example.impl.ComplexCCProcessor
+import com.example.impl.FraudDetectorImpl
+import com.example.impl.LoggingServiceImpl
+import com.example.interfaces.CreditCardProcessor
+import com.example.interfaces.FraudDetectionService
+import com.example.interfaces.LoggingService
+import groovy.json.JsonSlurper
+import net.ijus.nidi.builder.ContextBuilder
+import net.ijus.nidi.instantiation.ConstructorMetadataCache
+import spock.lang.Specification
+
+class StartupTimelineSpec extends Specification {
+
+    void "timing a configuration should record each phase and binding"() {
+        setup:
+        ConstructorMetadataCache.clear()
+
+        when:
+        StartupTimeline timeline = ContextTestUtils.timeConfiguration(new ComplexConfigScript())
+
+        then:
+        timeline.root.children*.category == [StartupTimeline.CONFIG, StartupTimeline.BUILD]
+        timeline.getSpans(StartupTimeline.BINDING)*.name.containsAll([CreditCardProcessor.name, LoggingService.name, FraudDetectionService.name])
+        !timeline.getSpans(StartupTimeline.REFLECTION).isEmpty()
+        timeline.totalNanos >= timeline.root.children.sum { it.inclusiveNanos }
+        !StartupTimeline.isRecording()
+    }
+
+    void "inherited configs should be nested inside the config that inherits them"() {
+        setup:
+        ContextConfig parent = { ContextBuilder b -> b.bind(LoggingService).to(LoggingServiceImpl) } as ContextConfig
+        ContextConfig child = { ContextBuilder b ->
+            b.inheritFrom(parent)
+            b.bind(FraudDetectionService).to(FraudDetectorImpl)
+        } as ContextConfig
+
+        when:
+        StartupTimeline timeline = ContextTestUtils.timeConfiguration(child)
+        StartupTimeline.Span inherit = timeline.getSpans(StartupTimeline.INHERIT).first()
+
+        then:
+        inherit.parent.category == StartupTimeline.CONFIG
+        inherit.parent.inclusiveNanos >= inherit.inclusiveNanos
+    }
+
+    void "first instantiation should be nested by dependency"() {
+        setup:
+        ContextConfig config = { ContextBuilder b ->
+            b.bind(FraudDetectionService).to(FraudDetectorImpl)
+            b.bind(LoggingService).to(LoggingServiceImpl)
+            b.bind(CreditCardProcessor).to(ComplexCCProcessor)
+        } as ContextConfig
+
+        when:
+        StartupTimeline timeline = ContextTestUtils.timeConfiguration(config, CreditCardProcessor)
+        StartupTimeline.Span processor = timeline.getSpans(StartupTimeline.INSTANTIATE).find { it.name == ComplexCCProcessor.name }
+
+        then:
+        processor.parent.is(timeline.root)
+        processor.children*.name as Set == [FraudDetectorImpl.name, LoggingServiceImpl.name] as Set
+        processor.exclusiveNanos <= processor.inclusiveNanos
+        processor.exclusiveNanos == processor.inclusiveNanos - processor.children.sum { it.inclusiveNanos }
+    }
+
+    void "the timeline should export as a text tree and chrome trace json"() {
+        setup:
+        ContextConfig config = { ContextBuilder b -> b.bind(LoggingService).to(LoggingServiceImpl) } as ContextConfig
+        StartupTimeline timeline = ContextTestUtils.timeConfiguration(config, LoggingService)
+
+        when:
+        String tree = timeline.toTextTree()
+        def trace = new JsonSlurper().parseText(timeline.toChromeTrace())
+
+        then:
+        tree.readLines().first().startsWith("timeline Startup")
+        tree.contains("  binding " + LoggingService.name)
+        trace.traceEvents.size() == timeline.spans.size()
+        trace.traceEvents.every { it.ph == 'X' && it.dur >= 0 && it.ts >= 0 }
+        trace.traceEvents*.cat.contains(StartupTimeline.INSTANTIATE)
+    }
+
+    void "spans should not be recorded when no timeline is running"() {
+        expect:
+        StartupTimeline.begin(StartupTimeline.BUILD, "nothing") == null
+        !StartupTimeline.isRecording()
+    }
+}
@@ -0,0 +1,146 @@
+package net.ijus.nidi.aot
+
+import com.example.config.ExampleConfigScript
+import com.example.config.GeneratedSourceConfig
+import com.example.impl.ComplexCCProcessor
+import com.example.impl.ComplexFraudDetector
+import com.example.impl.LoggingServiceImpl
+import com.example.interfaces.CreditCardProcessor
+import com.example.interfaces.FraudDetectionService
+import com.example.interfaces.LoggingService
+import com.example.interfaces.RefundProcessor
+import net.ijus.nidi.InvalidConfigurationException
+import spock.lang.Specification
+
+import javax.tools.JavaCompiler
+import javax.tools.ToolProvider
+
+/**
+ * Tests for generating and compiling the source for a reflection-free Context
+ */
+class ContextSourceGeneratorSpec extends Specification {
+
+    File tempDir
+
+    def setup() {
+        tempDir = File.createTempFile("nidi-aot", "")
+        tempDir.delete()
+        tempDir.mkdirs()
+    }
+
+    def cleanup() {
+        tempDir.deleteDir()
+    }
+
+    void "the generated class should provide the same instances as the Context"() {
+        setup:
+        def generator = ContextSourceGenerator.forConfig(GeneratedSourceConfig, "com.example.generated.GeneratedContext")
+
+        when:
+        def ctx = compileAndCreate(generator, "com.example.generated.GeneratedContext")
+        def ccProc = ctx.getInstance(CreditCardProcessor)
+
+        then:
+        ccProc instanceof ComplexCCProcessor
+        ctx.getInstance(CreditCardProcessor).is(ccProc)
+        ctx.getInstance(RefundProcessor).is(ccProc)
+
+        and: 'each reference to the ONE_PER_BINDING LoggingService gets its own instance'
+        ccProc.loggingService instanceof LoggingServiceImpl
+        ctx.getInstance(LoggingService).is(ctx.getInstance(LoggingService))
+        !ctx.getInstance(LoggingService).is(ccProc.loggingService)
+
+        and: 'FraudDetectionService is ALWAYS_CREATE_NEW and uses the setup function'
+        def fraudDet = ccProc.fraudDetectionService
+        fraudDet instanceof ComplexFraudDetector
+        fraudDet.serviceURL == 'www.test-url.com'
+        fraudDet.whoYaGonnCall == 'Ghostbusters'
+        !ctx.getInstance(FraudDetectionService).is(ctx.getInstance(FraudDetectionService))
+
+        and: 'properties can be requested by name'
+        ctx.getInstance('fraudDetURL') == 'www.test-url.com'
+        ctx.getInstance('retries') == 3
+        ctx.getInstance('missing') == null
+    }
+
+    void "the generated class should throw the same exceptions as the Context for missing bindings"() {
+        setup:
+        def ctx = compileAndCreate(ContextSourceGenerator.forConfig(GeneratedSourceConfig, "GeneratedContext"), "GeneratedContext")
+
+        when:
+        ctx.getInstance(Runnable)
+
+        then:
+        thrown(InvalidConfigurationException)
+
+        when:
+        ctx.getInstance('notBound')
+
+        then:
+        thrown(InvalidConfigurationException)
+    }
+
+    void "the generated source should not use reflection"() {
+        when:
+        String src = ContextSourceGenerator.forConfig(GeneratedSourceConfig, "com.example.generated.GeneratedContext").generate()
+
+        then:
+        src.contains("new com.example.impl.ComplexCCProcessor(")
+        !src.contains("java.lang.reflect")
+        !src.contains("java.lang.invoke")
+        !src.contains("newInstance")
+    }
+
+    void "each cached instance should be created under its own lock"() {
+        when:
+        String src = ContextSourceGenerator.forConfig(GeneratedSourceConfig, "com.example.generated.GeneratedContext").generate()
+        def locks = src.findAll(/synchronized \((\w+)\)/) { match, lock -> lock }
+
+        then:
+        !locks.isEmpty()
+        !locks.contains("this")
+        locks.unique(false) == locks
+        locks.every { src.contains("private final Object " + it + " = new Object();") }
+    }
+
+    void "configurations that can't be written as source should fail to generate"() {
+        when: 'ExampleConfigScript uses a closure as a setup function'
+        ContextSourceGenerator.forConfig(ExampleConfigScript, "GeneratedContext").generate()
+
+        then:
+        def e = thrown(InvalidConfigurationException)
+        e.message.contains("InstanceSetupFunction")
+    }
+
+    void "the source file should be written to the package directory"() {
+        when:
+        File file = ContextSourceGenerator.forConfig(GeneratedSourceConfig, "com.example.generated.GeneratedContext").writeTo(tempDir)
+
+        then:
+        file == new File(tempDir, "com/example/generated/GeneratedContext.java")
+        file.text.startsWith("package com.example.generated;")
+    }
+
+    Object compileAndCreate(ContextSourceGenerator generator, String className) {
+        File sourceFile = generator.writeTo(tempDir)
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler()
+        int result = compiler.run(null, null, null, "-classpath", testClasspath(), "-d", tempDir.absolutePath, sourceFile.absolutePath)
+        assert result == 0
+
+        def loader = new URLClassLoader([tempDir.toURI().toURL()] as URL[], getClass().classLoader)
+        return loader.loadClass(className).newInstance()
+    }
+
+    static String testClasspath() {
+        Set<String> entries = new LinkedHashSet<String>()
+        ClassLoader loader = ContextSourceGeneratorSpec.classLoader
+        while (loader != null) {
+            if (loader instanceof URLClassLoader) {
+                ((URLClassLoader) loader).getURLs().each { entries << new File(it.toURI()).absolutePath }
+            }
+            loader = loader.parent
+        }
+        entries.addAll(System.getProperty("java.class.path").split(File.pathSeparator))
+        return entries.join(File.pathSeparator)
+    }
+}
@@ -0,0 +1,256 @@
+package net.ijus.nidi.aot
+
+import com.example.config.CountingConfig
+import com.example.config.GeneratedSourceConfig
+import com.example.config.MeteredConfig
+import com.example.general.ThrowingConstructor
+import com.example.general.WithProvider
+import com.example.impl.ComplexCCProcessor
+import com.example.impl.ComplexFraudDetector
+import com.example.impl.LoggingServiceImpl
+import com.example.interfaces.CreditCardProcessor
+import com.example.interfaces.FraudDetectionService
+import com.example.interfaces.LoggingService
+import com.example.interfaces.RefundProcessor
+import net.ijus.nidi.Configuration
+import net.ijus.nidi.Context
+import net.ijus.nidi.ContextConfig
+import net.ijus.nidi.InvalidConfigurationException
+import net.ijus.nidi.bindings.PooledBinding
+import net.ijus.nidi.bindings.Scope
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.nio.ByteBuffer
+
+/**
+ * Tests for saving and loading snapshots of a resolved Context
+ */
+class GraphSnapshotSpec extends Specification {
+
+    File tempDir
+    File snapshotFile
+
+    def setup() {
+        tempDir = File.createTempFile("nidi-snapshot", "")
+        tempDir.delete()
+        tempDir.mkdirs()
+        snapshotFile = new File(tempDir, "context.snapshot")
+        CountingConfig.configureCount = 0
+    }
+
+    def cleanup() {
+        tempDir.deleteDir()
+    }
+
+    void "a graph read from a snapshot should be the same as the one that was written"() {
+        setup:
+        ResolvedGraph graph = ResolvedGraph.fromContext(Configuration.configureNew(GeneratedSourceConfig))
+
+        when:
+        GraphSnapshot.write(graph, 42L, snapshotFile)
+        ResolvedGraph read = GraphSnapshot.read(snapshotFile, 42L, getClass().classLoader)
+
+        then:
+        read.getKeys() == graph.getKeys()
+        read.getNodes().size() == graph.getNodes().size()
+        [read.getNodes(), graph.getNodes()].transpose().every { ResolvedNode a, ResolvedNode b ->
+            a.kind == b.kind && a.scope == b.scope && a.implClass == b.implClass && a.boundClass == b.boundClass &&
+                    a.args == b.args && a.parameterTypes == b.parameterTypes && a.value == b.value && a.setupClass == b.setupClass
+        }
+    }
+
+    void "a Context created from a snapshot should provide the same instances"() {
+        setup:
+        GraphSnapshot.write(ResolvedGraph.fromContext(Configuration.configureNew(GeneratedSourceConfig)), 42L, snapshotFile)
+
+        when:
+        Context ctx = GraphSnapshot.read(snapshotFile, 42L, getClass().classLoader).toContext()
+        def ccProc = ctx.getInstance(CreditCardProcessor)
+
+        then:
+        ccProc instanceof ComplexCCProcessor
+        ctx.getInstance(RefundProcessor).is(ccProc)
+        ctx.getInstance(LoggingService).is(ctx.getInstance(LoggingService))
+        !ctx.getInstance(LoggingService).is(ccProc.loggingService)
+        ccProc.fraudDetectionService instanceof ComplexFraudDetector
+        ccProc.fraudDetectionService.whoYaGonnCall == 'Ghostbusters'
+        ctx.getBinding(FraudDetectionService).getScope() == Scope.ALWAYS_CREATE_NEW
+        ctx.getInstance('retries') == 3
+        ctx.getInstance('missing') == null
+        ctx.isLinked()
+    }
+
+    void "configs that set builder options should not get a snapshot"() {
+        when:
+        Context ctx = GraphSnapshot.configure(MeteredConfig, snapshotFile)
+        ctx.getInstance(CreditCardProcessor)
+
+        then:
+        !snapshotFile.exists()
+        ctx.getMetrics().get(CreditCardProcessor).instancesCreated == 1
+
+        when: 'metered Bindings are resolved directly'
+        ResolvedGraph.fromContext(ctx)
+
+        then:
+        InvalidConfigurationException e = thrown()
+        e.message.contains("metrics")
+    }
+
+    void "a POOLED Binding should still be pooled after a round trip through a snapshot"() {
+        setup:
+        def config = { it.bind(LoggingService).withPoolSize(2, 4).to(LoggingServiceImpl) } as ContextConfig
+        GraphSnapshot.write(ResolvedGraph.fromContext(Configuration.configureNew(config)), 42L, snapshotFile)
+
+        when:
+        ResolvedGraph read = GraphSnapshot.read(snapshotFile, 42L, getClass().classLoader)
+        ResolvedNode node = read.getNode(read.getKeys()[LoggingService])
+        PooledBinding binding = read.toContext().getBinding(LoggingService) as PooledBinding
+
+        then:
+        node.scope == Scope.POOLED
+        node.minPoolSize == 2
+        node.maxPoolSize == 4
+        binding.minSize == 2
+        binding.maxSize == 4
+        binding.idleCount == 2
+    }
+
+    void "a snapshot with a different fingerprint should be ignored"() {
+        setup:
+        GraphSnapshot.write(ResolvedGraph.fromContext(Configuration.configureNew(GeneratedSourceConfig)), 42L, snapshotFile)
+
+        expect:
+        GraphSnapshot.read(snapshotFile, 43L, getClass().classLoader) == null
+        GraphSnapshot.read(new File(tempDir, "missing"), 42L, getClass().classLoader) == null
+    }
+
+    void "a corrupt snapshot should be ignored"() {
+        setup:
+        GraphSnapshot.write(ResolvedGraph.fromContext(Configuration.configureNew(GeneratedSourceConfig)), 42L, snapshotFile)
+        byte[] bytes = snapshotFile.bytes
+        snapshotFile.bytes = Arrays.copyOf(bytes, bytes.length - 10)
+
+        expect:
+        GraphSnapshot.read(snapshotFile, 42L, getClass().classLoader) == null
+    }
+
+    @Unroll
+    void "a snapshot with a corrupt #field should be ignored"() {
+        setup:
+        GraphSnapshot.write(ResolvedGraph.fromContext(Configuration.configureNew(GeneratedSourceConfig)), 42L, snapshotFile)
+        ByteBuffer buffer = ByteBuffer.wrap(snapshotFile.bytes)
+        corrupt(buffer)
+        snapshotFile.bytes = buffer.array()
+
+        expect:
+        GraphSnapshot.read(snapshotFile, 42L, getClass().classLoader) == null
+
+        where:
+        field               | corrupt
+        "node kind"         | { ByteBuffer b -> b.put(FIRST_NODE, (byte) 0x7F) }
+        "node count"        | { ByteBuffer b -> b.putInt(FIRST_NODE - 4, -1) }
+        "huge node count"   | { ByteBuffer b -> b.putInt(FIRST_NODE - 4, Integer.MAX_VALUE) }
+        "arg count"         | { ByteBuffer b -> b.putInt(argCountOffset(b), -5) }
+        "huge arg count"    | { ByteBuffer b -> b.putInt(argCountOffset(b), Integer.MAX_VALUE) }
+    }
+
+    void "configure should build the Context normally when the snapshot is corrupt"() {
+        setup:
+        GraphSnapshot.write(ResolvedGraph.fromContext(Configuration.configureNew(GeneratedSourceConfig)), SnapshotFingerprint.of(CountingConfig), snapshotFile)
+        byte[] bytes = snapshotFile.bytes
+        bytes[FIRST_NODE] = (byte) 0x7F
+        snapshotFile.bytes = bytes
+
+        when:
+        Context ctx = GraphSnapshot.configure(CountingConfig, snapshotFile)
+
+        then:
+        CountingConfig.configureCount == 1
+        ctx.getInstance(CreditCardProcessor) instanceof ComplexCCProcessor
+    }
+
+    void "configure should build the Context normally when the snapshot can't be turned into a Context"() {
+        setup: 'a snapshot that uses a constructor that does not exist'
+        List<ResolvedNode> nodes = [
+                new ResolvedNode(0, ResolvedNode.Kind.CONSTANT, Scope.SINGLETON, String, String, null, null, "value", null, null),
+                new ResolvedNode(1, ResolvedNode.Kind.CONSTRUCTOR, Scope.ALWAYS_CREATE_NEW, ThrowingConstructor, ThrowingConstructor, [String] as Class[], [0] as int[], null, null, null)
+        ]
+        GraphSnapshot.write(new ResolvedGraph(nodes, [(ThrowingConstructor): 1]), SnapshotFingerprint.of(CountingConfig), snapshotFile)
+
+        when:
+        Context ctx = GraphSnapshot.configure(CountingConfig, snapshotFile)
+
+        then:
+        CountingConfig.configureCount == 1
+        ctx.getInstance(CreditCardProcessor) instanceof ComplexCCProcessor
+
+        and: 'the bad snapshot was replaced'
+        GraphSnapshot.configure(CountingConfig, snapshotFile).getInstance(CreditCardProcessor) instanceof ComplexCCProcessor
+        CountingConfig.configureCount == 1
+    }
+
+    /**
+     * The offset of the first node, after the magic number, format version, fingerprint and node count
+     */
+    static final int FIRST_NODE = 20
+
+    /**
+     * Skips the first node's kind, scope, bound class and impl class to find its arg count
+     */
+    static int argCountOffset(ByteBuffer buffer) {
+        int pos = FIRST_NODE + 1
+        3.times {
+            pos += 4 + buffer.getInt(pos)
+        }
+        return pos
+    }
+
+    void "configure should only run the config when there's no valid snapshot"() {
+        when:
+        Context first = GraphSnapshot.configure(CountingConfig, snapshotFile)
+
+        then:
+        CountingConfig.configureCount == 1
+        snapshotFile.isFile()
+        first.getInstance(CreditCardProcessor) instanceof ComplexCCProcessor
+
+        when:
+        Context second = GraphSnapshot.configure(CountingConfig, snapshotFile)
+
+        then:
+        CountingConfig.configureCount == 1
+        second.getInstance(CreditCardProcessor) instanceof ComplexCCProcessor
+        !second.getInstance(CreditCardProcessor).is(first.getInstance(CreditCardProcessor))
+    }
+
+    void "Provider params should be rejected with a clear message"() {
+        when:
+        ResolvedGraph.fromContext(Configuration.configureNew({ it.register(WithProvider) } as ContextConfig))
+
+        then:
+        InvalidConfigurationException e = thrown()
+        e.message.contains("Provider<com.example.interfaces.LoggingService>")
+        !e.message.contains("literal")
+    }
+
+    void "values that can't be saved should prevent a snapshot from being written"() {
+        setup:
+        def graph = ResolvedGraph.fromContext(Configuration.configureNew({ it.bindProperty("list", ['a', 'b']) } as ContextConfig))
+
+        when:
+        GraphSnapshot.write(graph, 42L, snapshotFile)
+
+        then:
+        thrown(InvalidConfigurationException)
+        !snapshotFile.exists()
+        tempDir.listFiles().length == 0
+    }
+
+    void "the fingerprint should be stable"() {
+        expect:
+        SnapshotFingerprint.of(GeneratedSourceConfig) == SnapshotFingerprint.of(GeneratedSourceConfig)
+        SnapshotFingerprint.of(GeneratedSourceConfig) != SnapshotFingerprint.of(CountingConfig)
+    }
+}
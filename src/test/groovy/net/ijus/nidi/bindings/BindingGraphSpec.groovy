@@ -0,0 +1,89 @@
+package net.ijus.nidi.bindings
+
+import com.example.impl.ComplexCCProcessor
+import com.example.impl.FraudDetectorImpl
+import com.example.impl.LoggingServiceImpl
+import com.example.interfaces.CreditCardProcessor
+import com.example.interfaces.FraudDetectionService
+import com.example.interfaces.LoggingService
+import com.example.interfaces.PaymentProcessor
+import com.example.interfaces.RefundProcessor
+import net.ijus.nidi.Context
+import net.ijus.nidi.builder.ContextBuilder
+import net.ijus.nidi.instantiation.ConstructorInstanceGenerator
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+
+/**
+ * Tests for linking the Bindings in a built Context
+ */
+class BindingGraphSpec extends Specification {
+
+    ContextBuilder builder = new ContextBuilder()
+
+    void "building a Context should replace references in constructor params with their targets"() {
+        setup:
+        builder.bind(CreditCardProcessor).to(ComplexCCProcessor)
+        builder.bind(FraudDetectionService).withScope(Scope.SINGLETON).to(FraudDetectorImpl)
+        builder.bind(LoggingService).withScope(Scope.ONE_PER_BINDING).to(LoggingServiceImpl)
+
+        when:
+        Context ctx = builder.build()
+        Binding[] args = ((ConstructorInstanceGenerator) ctx.getBinding(CreditCardProcessor).getInstanceGenerator()).getConstructorArgs()
+
+        then:
+        ctx.isLinked()
+        !args.any { it instanceof ContextBindingReference }
+        args[0].is(ctx.getBinding(FraudDetectionService))
+
+        and: 'the ONE_PER_BINDING param gets its own CachingBinding'
+        args[1] instanceof CachingBinding
+        !args[1].is(ctx.getBinding(LoggingService))
+        ctx.getInstance(CreditCardProcessor).loggingService.is(ctx.getInstance(CreditCardProcessor).loggingService)
+        !ctx.getInstance(CreditCardProcessor).loggingService.is(ctx.getInstance(LoggingService))
+    }
+
+    void "chains of references should be collapsed"() {
+        setup:
+        builder.bind(CreditCardProcessor).withScope(Scope.SINGLETON).to(ComplexCCProcessor)
+        builder.bind(RefundProcessor).reference(CreditCardProcessor)
+        builder.bind(PaymentProcessor).reference(RefundProcessor)
+        builder.bind(FraudDetectionService).to(FraudDetectorImpl)
+        builder.bind(LoggingService).to(LoggingServiceImpl)
+
+        when:
+        Context ctx = builder.build()
+
+        then:
+        ctx.getBinding(RefundProcessor).is(ctx.getBinding(CreditCardProcessor))
+        ctx.getBinding(PaymentProcessor).is(ctx.getBinding(CreditCardProcessor))
+        ctx.getBindingsMap().get(PaymentProcessor) instanceof ContextBindingReference
+        ctx.getInstance(PaymentProcessor).is(ctx.getInstance(CreditCardProcessor))
+    }
+
+    void "resolving a reference to a ONE_PER_BINDING Binding from many threads should produce a single CachingBinding"() {
+        setup:
+        builder.bind(LoggingService).withScope(Scope.ONE_PER_BINDING).to(LoggingServiceImpl)
+        Context ctx = builder.build()
+        def reference = new ContextBindingReference(LoggingService, ctx, LoggingService)
+        int threads = 16
+        def start = new CountDownLatch(1)
+        def pool = Executors.newFixedThreadPool(threads)
+
+        when:
+        def futures = (1..threads).collect {
+            pool.submit({ start.await(); reference.getResolvedBinding().getInstance() } as Callable)
+        }
+        start.countDown()
+        def instances = futures*.get()
+
+        then:
+        instances.every { it.is(instances[0]) }
+
+        cleanup:
+        pool.shutdown()
+    }
+}
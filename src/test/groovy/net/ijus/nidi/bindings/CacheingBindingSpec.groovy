@@ -3,8 +3,16 @@ package net.ijus.nidi.bindings
 import com.example.impl.BasicCCProcessor
 import com.example.interfaces.CreditCardProcessor
 import net.ijus.nidi.instantiation.ConstructorInstanceGenerator
+import net.ijus.nidi.instantiation.InstanceGenerator
 import spock.lang.Specification
 
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.atomic.AtomicInteger
+
 /**
  * Created by pfried on 7/13/14.
  */
@@ -24,4 +32,59 @@ public class CacheingBindingSpec extends Specification {
 		1*generator.createNewInstance() >> new BasicCCProcessor()
 		result1.is(result2)
 	}
-}
\ No newline at end of file
+
+	void "concurrent first access should only create one instance"() {
+		setup:
+		AtomicInteger creations = new AtomicInteger()
+		CountDownLatch start = new CountDownLatch(1)
+		InstanceGenerator generator = {
+			creations.incrementAndGet()
+			Thread.sleep(50)
+			new BasicCCProcessor()
+		} as InstanceGenerator
+		CachingBinding binding = new CachingBinding(generator, CreditCardProcessor, BasicCCProcessor, Scope.SINGLETON)
+		ExecutorService executor = Executors.newFixedThreadPool(8)
+
+		when:
+		List<Future> results = (1..8).collect {
+			executor.submit({
+				start.await()
+				binding.getInstance()
+			} as Callable)
+		}
+		start.countDown()
+		def instances = results*.get()
+
+		then:
+		creations.get() == 1
+		instances.every { it.is(instances[0]) }
+
+		cleanup:
+		executor.shutdown()
+	}
+
+	void "a failed creation should be retried by the next caller"() {
+		setup:
+		int calls = 0
+		InstanceGenerator generator = {
+			if (calls++ == 0) {
+				throw new IllegalStateException("first call fails")
+			}
+			new BasicCCProcessor()
+		} as InstanceGenerator
+		CachingBinding binding = new CachingBinding(generator, CreditCardProcessor, BasicCCProcessor, Scope.SINGLETON)
+
+		when:
+		binding.getInstance()
+
+		then:
+		thrown(IllegalStateException)
+
+		when:
+		def instance = binding.getInstance()
+
+		then:
+		instance instanceof BasicCCProcessor
+		binding.getInstance().is(instance)
+	}
+}
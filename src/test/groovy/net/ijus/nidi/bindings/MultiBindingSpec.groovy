@@ -0,0 +1,196 @@
+package net.ijus.nidi.bindings
+
+import com.example.config.BaseFilterConfig
+import com.example.impl.FraudDetectorImpl
+import com.example.interfaces.FraudDetectionService
+import com.example.interfaces.TransactionFilter
+import com.example.plugins.AmountFilter
+import com.example.plugins.CurrencyFilter
+import com.example.plugins.FilterChain
+import com.example.plugins.FraudFilter
+import com.example.plugins.NamedFilterChain
+import net.ijus.nidi.Context
+import net.ijus.nidi.InvalidConfigurationException
+import net.ijus.nidi.builder.ConfigTemplate
+import net.ijus.nidi.builder.ContextBuilder
+import net.ijus.nidi.builder.ContextTemplate
+import spock.lang.Specification
+
+/**
+ * Tests for multibindings
+ */
+class MultiBindingSpec extends Specification {
+
+    ContextBuilder builder = new ContextBuilder()
+
+    def setup() {
+        ConfigTemplate.clear()
+        builder.bind(FraudDetectionService).withScope(Scope.SINGLETON).to(FraudDetectorImpl)
+    }
+
+    void "a constructor should get every element in every form, in the order they were added"() {
+        setup:
+        builder.multibind(TransactionFilter).addBinding().to(AmountFilter)
+        builder.multibind(TransactionFilter).addBinding().to(CurrencyFilter)
+        builder.multibind(TransactionFilter).addBinding().to(FraudFilter)
+        builder.register(FilterChain)
+        Context ctx = builder.build()
+
+        when:
+        FilterChain chain = ctx.getInstance(FilterChain)
+
+        then:
+        chain.filterList*.class == [AmountFilter, CurrencyFilter, FraudFilter]
+        chain.filterArray*.class == [AmountFilter, CurrencyFilter, FraudFilter]
+        chain.filterSet*.class == [AmountFilter, CurrencyFilter, FraudFilter]
+        chain.filterList[2].fraudDetectionService.is(ctx.getInstance(FraudDetectionService))
+        ctx.getAll(TransactionFilter).size() == 3
+    }
+
+    void "singleton elements should be materialized once into an immutable List"() {
+        setup:
+        builder.multibind(TransactionFilter).addBinding().withScope(Scope.SINGLETON).to(AmountFilter)
+        builder.multibind(TransactionFilter).addBinding().toObject(new CurrencyFilter())
+        builder.register(FilterChain)
+        Context ctx = builder.build()
+
+        when:
+        FilterChain first = ctx.getInstance(FilterChain)
+        FilterChain second = ctx.getInstance(FilterChain)
+
+        then:
+        first.filterList.is(second.filterList)
+        first.filterList.is(ctx.getAll(TransactionFilter))
+        first.filterList instanceof RandomAccess
+        ctx.getMultiBinding(TransactionFilter).materialized
+        !first.filterArray.is(second.filterArray)
+        first.filterArray[0].is(second.filterArray[0])
+
+        when:
+        first.filterList.add(new AmountFilter())
+
+        then:
+        thrown(UnsupportedOperationException)
+    }
+
+    void "elements that aren't singletons should be created for every request"() {
+        setup:
+        builder.multibind(TransactionFilter).addBinding().withScope(Scope.ALWAYS_CREATE_NEW).to(AmountFilter)
+        builder.multibind(TransactionFilter).addBinding().withScope(Scope.SINGLETON).to(CurrencyFilter)
+        Context ctx = builder.build()
+
+        when:
+        List<TransactionFilter> first = ctx.getAll(TransactionFilter)
+        List<TransactionFilter> second = ctx.getAll(TransactionFilter)
+
+        then:
+        !first.is(second)
+        !first[0].is(second[0])
+        first[1].is(second[1])
+        !ctx.getMultiBinding(TransactionFilter).materialized
+    }
+
+    void "whether a multibinding can be materialized should be worked out once, when it's linked"() {
+        setup:
+        builder.multibind(TransactionFilter).addBinding().withScope(Scope.ALWAYS_CREATE_NEW).to(AmountFilter)
+        builder.multibind(TransactionFilter).addBinding().withScope(Scope.SINGLETON).to(CurrencyFilter)
+        Context ctx = builder.build()
+        MultiBinding multi = ctx.getMultiBinding(TransactionFilter)
+
+        expect: 'every form shares the result that was worked out when the Context was linked'
+        multi.@materializable == Boolean.FALSE
+        multi.as(MultiBinding.Kind.SET).@materializable == Boolean.FALSE
+        multi.as(MultiBinding.Kind.ARRAY).@materializable == Boolean.FALSE
+        multi.scope == Scope.ALWAYS_CREATE_NEW
+    }
+
+    void "a Map param should get the elements by key"() {
+        setup:
+        builder.multibind(TransactionFilter).addBinding("amount").to(AmountFilter)
+        builder.multibind(TransactionFilter).addBinding("fraud").to(FraudFilter)
+        builder.register(NamedFilterChain)
+
+        when:
+        NamedFilterChain chain = builder.build().getInstance(NamedFilterChain)
+
+        then:
+        chain.filters.keySet() as List == ["amount", "fraud"]
+        chain.filters.fraud instanceof FraudFilter
+    }
+
+    void "a Map param should fail to build if any element doesn't have a key"() {
+        setup:
+        builder.multibind(TransactionFilter).addBinding("amount").to(AmountFilter)
+        builder.multibind(TransactionFilter).addBinding().to(CurrencyFilter)
+        builder.register(NamedFilterChain)
+
+        when:
+        builder.build()
+
+        then:
+        thrown(InvalidConfigurationException)
+    }
+
+    void "elements from inherited configs should come first, and keyed elements should be replaced in place"() {
+        setup:
+        builder.multibind(TransactionFilter).addBinding("fraud").to(FraudFilter)
+        builder.multibind(TransactionFilter).addBinding("amount").withScope(Scope.SINGLETON).to(CurrencyFilter)
+        builder.inheritFrom(BaseFilterConfig)
+        builder.register(NamedFilterChain)
+
+        when:
+        NamedFilterChain chain = builder.build().getInstance(NamedFilterChain)
+
+        then:
+        chain.filters.keySet() as List == ["amount", "currency", "fraud"]
+        chain.filters.amount instanceof CurrencyFilter
+    }
+
+    void "a child Context should add to the multibinding of its parent"() {
+        setup:
+        builder.inheritFrom(BaseFilterConfig)
+        Context parent = builder.build()
+        ContextBuilder childBuilder = new ContextBuilder(parent)
+        childBuilder.multibind(TransactionFilter).addBinding("fraud").to(FraudFilter)
+        Context child = childBuilder.build()
+
+        expect:
+        parent.getAll(TransactionFilter)*.class == [AmountFilter, CurrencyFilter]
+        child.getAll(TransactionFilter)*.class == [AmountFilter, CurrencyFilter, FraudFilter]
+        child.getAll(TransactionFilter)[0].is(parent.getAll(TransactionFilter)[0])
+    }
+
+    void "eager singletons should include the elements of a multibinding"() {
+        setup:
+        builder.setEagerSingletons(true)
+        builder.inheritFrom(BaseFilterConfig)
+
+        when:
+        Context ctx = builder.build()
+
+        then:
+        ctx.getMultiBinding(TransactionFilter).elements.every { it.cachedInstance != null }
+    }
+
+    void "Contexts from a template should get their own singleton elements"() {
+        setup:
+        builder.inheritFrom(BaseFilterConfig)
+        ContextTemplate template = builder.buildTemplate()
+
+        when:
+        List<TransactionFilter> a = template.newContext().getAll(TransactionFilter)
+        List<TransactionFilter> b = template.newContext().getAll(TransactionFilter)
+
+        then:
+        a*.class == [AmountFilter, CurrencyFilter]
+        !a[0].is(b[0])
+    }
+
+    void "getAll should fail for a type that was never multibound"() {
+        when:
+        builder.build().getAll(TransactionFilter)
+
+        then:
+        thrown(InvalidConfigurationException)
+    }
+}
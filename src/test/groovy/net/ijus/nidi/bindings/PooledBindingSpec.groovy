@@ -0,0 +1,132 @@
+package net.ijus.nidi.bindings
+
+import com.example.impl.BasicCCProcessor
+import com.example.impl.LoggingServiceImpl
+import com.example.interfaces.CreditCardProcessor
+import com.example.interfaces.LoggingService
+import net.ijus.nidi.Context
+import net.ijus.nidi.InvalidConfigurationException
+import net.ijus.nidi.builder.ContextBuilder
+import net.ijus.nidi.instantiation.CreationException
+import net.ijus.nidi.instantiation.InstanceGenerator
+import spock.lang.Specification
+
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Tests for Bindings with Scope.POOLED
+ */
+class PooledBindingSpec extends Specification {
+
+    ContextBuilder builder = new ContextBuilder()
+
+    void "building the Context should prefill the pool and leases should return instances to it"() {
+        setup:
+        builder.bind(LoggingService).withPoolSize(2, 4).to(LoggingServiceImpl)
+        Context ctx = builder.build()
+        PooledBinding binding = ctx.getBinding(LoggingService)
+        int prefilled = binding.getIdleCount()
+
+        when:
+        Lease lease = ctx.borrow(LoggingService)
+        def first = lease.get()
+        int idleWhileBorrowed = binding.getIdleCount()
+        lease.close()
+
+        then:
+        binding.getScope() == Scope.POOLED
+        prefilled == 2
+        first instanceof LoggingServiceImpl
+        idleWhileBorrowed == 1
+        binding.getIdleCount() == 2
+
+        when: 'the same thread borrows again'
+        Lease again = ctx.borrow(LoggingService)
+
+        then: 'it gets the instance it just released'
+        again.get().is(first)
+        binding.getCreatedCount() == 2
+    }
+
+    void "instances released to a full pool should be discarded and closed"() {
+        setup:
+        AtomicInteger closed = new AtomicInteger()
+        PooledBinding binding = new PooledBinding({ [close: { closed.incrementAndGet() }] as AutoCloseable } as InstanceGenerator, AutoCloseable, AutoCloseable, 0, 2)
+
+        when:
+        def borrowed = (1..3).collect { binding.borrow() }
+        borrowed.each { binding.release(it) }
+
+        then:
+        binding.getCreatedCount() == 3
+        binding.getIdleCount() == 2
+        closed.get() == 1
+
+        when:
+        binding.dispose()
+
+        then:
+        closed.get() == 3
+        binding.getIdleCount() == 0
+
+        when:
+        binding.borrow()
+
+        then:
+        thrown(CreationException)
+    }
+
+    void "an instance should never be borrowed by two threads at once"() {
+        setup:
+        PooledBinding<AtomicBoolean> binding = new PooledBinding({ new AtomicBoolean() } as InstanceGenerator, AtomicBoolean, AtomicBoolean, 0, 4)
+        AtomicInteger conflicts = new AtomicInteger()
+
+        when:
+        def threads = (1..16).collect {
+            Thread.start {
+                1000.times {
+                    AtomicBoolean inUse = binding.borrow()
+                    if (!inUse.compareAndSet(false, true)) {
+                        conflicts.incrementAndGet()
+                    }
+                    inUse.set(false)
+                    binding.release(inUse)
+                }
+            }
+        }
+        threads*.join()
+
+        then:
+        conflicts.get() == 0
+        binding.getIdleCount() <= 4
+    }
+
+    void "borrowing a Binding that isn't pooled should work like getInstance"() {
+        setup:
+        builder.bind(CreditCardProcessor).withScope(Scope.SINGLETON).to(BasicCCProcessor)
+        Context ctx = builder.build()
+
+        when:
+        Lease lease = ctx.borrow(CreditCardProcessor)
+        lease.close()
+
+        then:
+        lease.get().is(ctx.getInstance(CreditCardProcessor))
+        lease.isClosed()
+    }
+
+    void "invalid pool sizes should be rejected"() {
+        when:
+        builder.bind(LoggingService).withPoolSize(min, max)
+
+        then:
+        thrown(InvalidConfigurationException)
+
+        where:
+        min | max
+        -1  | 4
+        0   | 0
+        5   | 4
+    }
+}
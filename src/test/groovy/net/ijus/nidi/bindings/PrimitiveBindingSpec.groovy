@@ -0,0 +1,120 @@
+package net.ijus.nidi.bindings
+
+import com.example.general.PrimitiveProperties
+import com.example.general.PrimitiveWithFailingArg
+import com.example.general.ThrowingConstructor
+import com.example.impl.LoggingServiceImpl
+import com.example.interfaces.LoggingService
+import net.ijus.nidi.Context
+import net.ijus.nidi.InvalidConfigurationException
+import net.ijus.nidi.builder.ContextBuilder
+import net.ijus.nidi.instantiation.ConstructorInstanceGenerator
+import net.ijus.nidi.instantiation.CreationException
+import spock.lang.Specification
+
+/**
+ * Tests for primitive property bindings
+ */
+class PrimitiveBindingSpec extends Specification {
+
+    ContextBuilder builder = new ContextBuilder()
+
+    def setup() {
+        builder.bind(LoggingService).to(LoggingServiceImpl)
+        builder.bindProperty("port", 8080)
+        builder.bindProperty("timeout", 30000L)
+        builder.bindProperty("threshold", 0.75d)
+        builder.bindProperty("enabled", true)
+    }
+
+    void "primitive properties should be passed to constructors that take primitives"() {
+        setup:
+        builder.register(PrimitiveProperties)
+        Context ctx = builder.build()
+
+        when:
+        PrimitiveProperties instance = ctx.getInstance(PrimitiveProperties)
+
+        then:
+        instance.port == 8080
+        instance.timeout == 30000L
+        instance.threshold == 0.75d
+        instance.enabled
+        instance.loggingService instanceof LoggingServiceImpl
+    }
+
+    void "primitive properties should create PrimitiveBindings that box their value once"() {
+        setup:
+        Context ctx = builder.build()
+
+        expect:
+        ctx.getBinding("port") instanceof PrimitiveBinding
+        ctx.getBinding("port").getBoundClass() == int
+        ctx.getBinding("timeout").getBoundClass() == long
+        ctx.getBinding("threshold").getBoundClass() == double
+        ctx.getBinding("enabled").getBoundClass() == boolean
+        ctx.getInstance("port").is(ctx.getInstance("port"))
+    }
+
+    void "constructor generators should insert the raw values into the constructor handle"() {
+        setup:
+        builder.register(PrimitiveProperties)
+        Context ctx = builder.build()
+        ConstructorInstanceGenerator gen = (ConstructorInstanceGenerator) ctx.getBinding(PrimitiveProperties).getInstanceGenerator()
+
+        expect:
+        gen.primitivesBoundHandle != null
+        gen.remainingArgs == [4] as int[]
+    }
+
+    void "every instance should get the same values when created many times"() {
+        setup:
+        builder.register(PrimitiveProperties)
+        Context ctx = builder.build()
+
+        when:
+        List<PrimitiveProperties> instances = (1..50).collect { ctx.getInstance(PrimitiveProperties) }
+
+        then:
+        instances.toSet().size() == 50
+        instances.every { it.port == 8080 && it.timeout == 30000L && it.threshold == 0.75d && it.enabled }
+    }
+
+    void "a failing dependency should not be wrapped again by a constructor that also takes a primitive"() {
+        setup:
+        builder.register(ThrowingConstructor)
+        builder.register(PrimitiveWithFailingArg)
+        Context ctx = builder.build()
+
+        when:
+        ctx.getInstance(PrimitiveWithFailingArg)
+
+        then:
+        CreationException e = thrown()
+        e.message == "Error creating a new instance of: " + ThrowingConstructor.name
+        e.cause instanceof IllegalStateException
+    }
+
+    void "a primitive binding should reject a value of the wrong type"() {
+        when:
+        new PrimitiveBinding(int, 5L)
+
+        then:
+        thrown(InvalidConfigurationException)
+
+        when:
+        new PrimitiveBinding(String, "nope")
+
+        then:
+        thrown(InvalidConfigurationException)
+    }
+
+    void "binding a primitive property to a value of another type should fail"() {
+        when:
+        builder.bind("port", int).toObject("8080")
+        builder.build()
+
+        then:
+        thrown(InvalidConfigurationException)
+    }
+}
@@ -0,0 +1,73 @@
+package net.ijus.nidi.bindings
+
+import com.example.general.WithProvider
+import com.example.impl.LoggingServiceImpl
+import com.example.interfaces.LoggingService
+import net.ijus.nidi.Context
+import net.ijus.nidi.Provider
+import net.ijus.nidi.builder.ContextBuilder
+import net.ijus.nidi.instantiation.ConstructorInstanceGenerator
+import net.ijus.nidi.instantiation.InstanceGenerator
+import spock.lang.Specification
+
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Tests for injecting Providers as constructor params
+ */
+class ProviderBindingSpec extends Specification {
+
+    ContextBuilder builder = new ContextBuilder()
+
+    void "a Provider should not create anything until get() is called"() {
+        setup:
+        AtomicInteger created = new AtomicInteger()
+        builder.bind(LoggingService).toValue({ created.incrementAndGet(); new LoggingServiceImpl() } as InstanceGenerator)
+        builder.register(WithProvider).withScope(Scope.SINGLETON)
+        builder.setEagerSingletons(true)
+        Context ctx = builder.build()
+        created.set(0) //toValue calls the generator once to find the implementation class
+
+        when:
+        WithProvider withProvider = ctx.getInstance(WithProvider)
+
+        then:
+        created.get() == 0
+
+        when: 'the provided class is ALWAYS_CREATE_NEW'
+        def first = withProvider.getLoggingService()
+        def second = withProvider.getLoggingService()
+
+        then: 'each call creates a new instance'
+        created.get() == 2
+        first instanceof LoggingServiceImpl
+        !first.is(second)
+    }
+
+    void "the Provider should be linked directly to the target Binding"() {
+        setup:
+        builder.bind(LoggingService).withScope(Scope.SINGLETON).to(LoggingServiceImpl)
+        builder.register(WithProvider)
+        Context ctx = builder.build()
+
+        when:
+        Binding arg = ((ConstructorInstanceGenerator) ctx.getBinding(WithProvider).getInstanceGenerator()).getConstructorArgs()[0]
+
+        then:
+        arg instanceof ProviderBinding
+        arg.getProvidedClass() == LoggingService
+        arg.getTarget().is(ctx.getBinding(LoggingService))
+        ctx.getInstance(WithProvider).loggingServiceProvider.is(arg.getInstance())
+        ctx.getInstance(WithProvider).getLoggingService().is(ctx.getInstance(LoggingService))
+    }
+
+    void "an optional Provider with no Binding should provide null"() {
+        setup:
+        builder.register(WithProvider)
+        Context ctx = builder.build()
+
+        expect:
+        ctx.getInstance(WithProvider).loggingServiceProvider instanceof Provider
+        ctx.getInstance(WithProvider).getLoggingService() == null
+    }
+}
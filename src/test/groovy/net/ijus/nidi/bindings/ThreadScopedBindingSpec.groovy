@@ -0,0 +1,90 @@
+package net.ijus.nidi.bindings
+
+import com.example.impl.LoggingServiceImpl
+import com.example.interfaces.LoggingService
+import net.ijus.nidi.Context
+import net.ijus.nidi.builder.ContextBuilder
+import net.ijus.nidi.instantiation.CreationException
+import net.ijus.nidi.instantiation.InstanceGenerator
+import spock.lang.Specification
+
+/**
+ * Tests for Bindings with Scope.THREAD
+ */
+class ThreadScopedBindingSpec extends Specification {
+
+    ContextBuilder builder = new ContextBuilder()
+
+    void "each thread should get its own instance"() {
+        setup:
+        builder.bind(LoggingService).withScope(Scope.THREAD).to(LoggingServiceImpl)
+        Context ctx = builder.build()
+        def others = Collections.synchronizedList([])
+
+        when:
+        def first = ctx.getInstance(LoggingService)
+        def threads = (1..4).collect {
+            Thread.start {
+                def inst = ctx.getInstance(LoggingService)
+                assert inst.is(ctx.getInstance(LoggingService))
+                others << inst
+            }
+        }
+        threads*.join()
+
+        then:
+        ctx.getBinding(LoggingService) instanceof ThreadScopedBinding
+        first instanceof LoggingServiceImpl
+        first.is(ctx.getInstance(LoggingService))
+        others.size() == 4
+        !others.any { it.is(first) }
+        others.toSet().size() == 4
+    }
+
+    void "instances should be released once their thread has died"() {
+        setup:
+        ThreadScopedBinding binding = new ThreadScopedBinding({ new LoggingServiceImpl() } as InstanceGenerator, LoggingService, LoggingServiceImpl)
+
+        when:
+        List<Thread> threads = (1..8).collect { Thread.start { binding.getInstance() } }
+        threads*.join()
+
+        then:
+        binding.getInstanceCount() == 8
+
+        when:
+        threads = null
+        long deadline = System.currentTimeMillis() + 10000
+        while (binding.getInstanceCount() > 0 && System.currentTimeMillis() < deadline) {
+            System.gc()
+            Thread.sleep(10)
+        }
+
+        then:
+        binding.getInstanceCount() == 0
+    }
+
+    void "disposing the Context should close the instances and stop creating new ones"() {
+        setup:
+        AutoCloseable closeable = Mock()
+        builder.bind(AutoCloseable).withScope(Scope.THREAD).toValue({ closeable } as InstanceGenerator)
+        Context ctx = builder.build()
+        ctx.getInstance(AutoCloseable)
+
+        when:
+        int disposed = ctx.dispose()
+
+        then:
+        1 * closeable.close()
+        disposed == 1
+        ctx.isDisposed()
+        ctx.getBinding(AutoCloseable).getInstanceCount() == 0
+
+        when:
+        ctx.getInstance(AutoCloseable)
+
+        then:
+        thrown(CreationException)
+        ctx.dispose() == 0
+    }
+}
@@ -0,0 +1,132 @@
+package net.ijus.nidi.builder
+
+import com.example.config.ComplexConfigScript
+import com.example.config.CountingConfig
+import com.example.config.MutableConstantConfig
+import com.example.config.PropertyFileConfig
+import com.example.impl.ComplexCCProcessor
+import com.example.impl.ComplexFraudDetector
+import com.example.impl.NamespacedLoggingService
+import com.example.interfaces.CreditCardProcessor
+import com.example.interfaces.LoggingService
+import com.example.interfaces.RefundProcessor
+import net.ijus.nidi.Context
+import spock.lang.Specification
+
+/**
+ * Tests for the cached templates used by inheritFrom(Class)
+ */
+class ConfigTemplateSpec extends Specification {
+
+    def setup() {
+        ConfigTemplate.clear()
+        ConfigTemplate.resetStats()
+        CountingConfig.configureCount = 0
+        MutableConstantConfig.configureCount = 0
+    }
+
+    void "a config class should only be run the first time it is inherited from"() {
+        when:
+        3.times {
+            ContextBuilder builder = new ContextBuilder()
+            builder.inheritFrom(CountingConfig)
+            builder.build()
+        }
+
+        then:
+        CountingConfig.configureCount == 1
+        ConfigTemplate.missCount == 1
+        ConfigTemplate.hitCount == 2
+    }
+
+    void "invalidating a template should run the config again"() {
+        setup:
+        new ContextBuilder().inheritFrom(CountingConfig)
+
+        when:
+        ConfigTemplate.invalidate(CountingConfig)
+        new ContextBuilder().inheritFrom(CountingConfig)
+
+        then:
+        CountingConfig.configureCount == 2
+    }
+
+    void "contexts built from the same template should not share instances or builders"() {
+        setup:
+        ContextBuilder first = new ContextBuilder()
+        first.inheritFrom(ComplexConfigScript)
+        ContextBuilder second = new ContextBuilder()
+        second.inheritFrom(ComplexConfigScript)
+
+        when:
+        Context ctx1 = first.build()
+        Context ctx2 = second.build()
+        ComplexCCProcessor proc = ctx1.getInstance(CreditCardProcessor)
+
+        then: 'building the first context did not finalize the second one'
+        ctx2.getInstance(CreditCardProcessor) instanceof ComplexCCProcessor
+        !proc.is(ctx2.getInstance(CreditCardProcessor))
+        ctx1.getInstance(RefundProcessor).is(proc)
+
+        and: 'inner bindings and setup functions were copied'
+        proc.loggingService instanceof NamespacedLoggingService
+        proc.loggingService.stringProperty == 'custom namespace'
+        ((ComplexFraudDetector) proc.fraudDetectionService).whoYaGonnCall == 'Ghost Busters!'
+
+        and: 'the template itself was never built, since building consumes the inner bindings'
+        ConfigTemplate.forClass(ComplexConfigScript).bindings[LoggingService].innerBindings.containsKey('stringProperty')
+    }
+
+    void "contexts inheriting a mutable constant should each get their own object"() {
+        setup:
+        ContextBuilder first = new ContextBuilder()
+        first.inheritFrom(MutableConstantConfig)
+        ContextBuilder second = new ContextBuilder()
+        second.inheritFrom(MutableConstantConfig)
+
+        when:
+        Context ctx1 = first.build()
+        Context ctx2 = second.build()
+
+        then: 'the template is not shared, so the config runs for each Context'
+        !ConfigTemplate.forClass(MutableConstantConfig).isShareable()
+        !ctx1.getInstance(List).is(ctx2.getInstance(List))
+        ctx1.getInstance("name") == "mutable"
+        MutableConstantConfig.configureCount == 3
+
+        and: 'templates that only bind immutable constants are shared'
+        ConfigTemplate.forClass(CountingConfig).isShareable()
+    }
+
+    void "each Context inheriting a property file should get it re-opened"() {
+        setup:
+        File file = File.createTempFile("nidi-template", ".properties")
+        file.text = "greeting=hello"
+        PropertyFileConfig.file = file
+        ContextBuilder first = new ContextBuilder()
+        first.inheritFrom(PropertyFileConfig)
+
+        when:
+        file.text = "greeting=goodbye, world"
+        ContextBuilder second = new ContextBuilder()
+        second.inheritFrom(PropertyFileConfig)
+
+        then:
+        !first.getPropertyFiles()[0].is(second.getPropertyFiles()[0])
+        first.getPropertyFiles()[0].isStale()
+        second.getPropertyFiles()[0].getString("app.greeting") == "goodbye, world"
+
+        cleanup:
+        file.delete()
+    }
+
+    void "bindings in the child should still override the template"() {
+        setup:
+        ContextBuilder builder = new ContextBuilder()
+        builder.bind(CreditCardProcessor).to(com.example.impl.BasicCCProcessor)
+        builder.inheritFrom(ComplexConfigScript)
+
+        expect:
+        builder.build().getInstance(CreditCardProcessor) instanceof com.example.impl.BasicCCProcessor
+    }
+}
@@ -1,7 +1,10 @@
 package net.ijus.nidi.builder
 
+import com.example.config.ComplexConfigScript
+import com.example.general.UnannotatedConstructors
 import com.example.impl.BasicCCProcessor
 import com.example.impl.ComplexCCProcessor
+import com.example.impl.ComplexFraudDetector
 import com.example.impl.ConcreteClassNoInterface
 import com.example.impl.FraudDetectorImpl
 import com.example.impl.LoggingServiceImpl
@@ -9,6 +12,8 @@ import com.example.impl.NamespacedLoggingService
 import com.example.interfaces.CreditCardProcessor
 import com.example.interfaces.FraudDetectionService
 import com.example.interfaces.LoggingService
+import com.example.interfaces.RefundProcessor
+import net.ijus.nidi.Configuration
 import net.ijus.nidi.Context
 import net.ijus.nidi.ContextConfig
 import net.ijus.nidi.InvalidConfigurationException
@@ -16,6 +21,7 @@ import net.ijus.nidi.bindings.Scope
 import spock.lang.Specification
 
 import java.awt.event.MouseAdapter
+import java.util.concurrent.ForkJoinPool
 
 /**
  * Created by pfried on 7/6/14.
@@ -100,4 +106,39 @@ public class ContextBuilderSpec extends Specification {
 	}
 
 
+	void "a parallel build should create the same Context as a normal build"(){
+		setup:
+		builder.parallelBuild = true
+		builder.forkJoinPool = new ForkJoinPool(4)
+		Configuration.configure(builder, ComplexConfigScript)
+
+		when:
+		Context ctx = builder.build()
+		def ccProc = ctx.getInstance(CreditCardProcessor)
+
+		then:
+		ctx.getInstance(RefundProcessor).is(ccProc)
+		ccProc.loggingService instanceof NamespacedLoggingService
+		ccProc.loggingService.stringProperty == 'custom namespace'
+		ccProc.fraudDetectionService instanceof ComplexFraudDetector
+		ccProc.fraudDetectionService.serviceURL == 'www.test-url.com'
+	}
+
+	void "a parallel build should throw the same exception as a normal build"(){
+		setup:
+		builder.parallelBuild = parallel
+		builder.register(FraudDetectorImpl)
+		builder.register(UnannotatedConstructors)
+
+		when:
+		builder.build()
+
+		then:
+		def e = thrown(InvalidConfigurationException)
+		e.message == "The Class: com.example.general.UnannotatedConstructors has more than one constructor, so exactly one Constructor should have the @Inject annotation. Found 0 Constructors with that annotation."
+
+		where:
+		parallel << [false, true]
+	}
+
 }
\ No newline at end of file
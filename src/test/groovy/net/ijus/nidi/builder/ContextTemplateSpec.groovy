@@ -0,0 +1,131 @@
+package net.ijus.nidi.builder
+
+import com.example.config.ComplexConfigScript
+import com.example.general.WithProvider
+import com.example.impl.BasicCCProcessor
+import com.example.impl.ComplexCCProcessor
+import com.example.impl.FraudDetectorImpl
+import com.example.impl.LoggingServiceImpl
+import com.example.interfaces.CreditCardProcessor
+import com.example.interfaces.FraudDetectionService
+import com.example.interfaces.LoggingService
+import com.example.interfaces.RefundProcessor
+import net.ijus.nidi.Configuration
+import net.ijus.nidi.Context
+import net.ijus.nidi.bindings.CachingBinding
+import net.ijus.nidi.bindings.Scope
+import net.ijus.nidi.instantiation.ConstructorMetadataCache
+import spock.lang.Specification
+
+/**
+ * Tests for creating many Contexts from a ContextTemplate
+ */
+class ContextTemplateSpec extends Specification {
+
+    ContextBuilder builder = new ContextBuilder()
+
+    void "each context should get its own singletons"() {
+        setup:
+        Configuration.configure(builder, ComplexConfigScript)
+        ContextTemplate template = builder.buildTemplate()
+
+        when:
+        Context first = template.newContext()
+        Context second = template.newContext()
+        ComplexCCProcessor proc = first.getInstance(CreditCardProcessor)
+
+        then:
+        proc.is(first.getInstance(CreditCardProcessor))
+        first.getInstance(RefundProcessor).is(proc)
+        !second.getInstance(CreditCardProcessor).is(proc)
+        second.getInstance(RefundProcessor).is(second.getInstance(CreditCardProcessor))
+
+        and: 'inner bindings and setup functions are kept'
+        proc.loggingService.stringProperty == 'custom namespace'
+        proc.fraudDetectionService.serviceURL == 'www.test-url.com'
+
+        and: 'the prototype never created anything'
+        ((CachingBinding) template.prototype.getBinding(CreditCardProcessor)).cachedInstance == null
+    }
+
+    void "stateless bindings should be shared and stateful ones copied"() {
+        setup:
+        builder.bind(FraudDetectionService).to(FraudDetectorImpl)
+        builder.bind(LoggingService).withScope(Scope.SINGLETON).to(LoggingServiceImpl)
+        builder.bind(CreditCardProcessor).to(ComplexCCProcessor)
+        builder.bind(RefundProcessor).to(BasicCCProcessor)
+        builder.bindProperty("url", "http://localhost")
+        ContextTemplate template = builder.buildTemplate()
+
+        when:
+        Context ctx = template.newContext()
+
+        then:
+        template.statefulCount == 2
+        ctx.getBinding(FraudDetectionService).is(template.prototype.getBinding(FraudDetectionService))
+        ctx.getBinding(RefundProcessor).is(template.prototype.getBinding(RefundProcessor))
+        ctx.getBinding("url").is(template.prototype.getBinding("url"))
+        !ctx.getBinding(LoggingService).is(template.prototype.getBinding(LoggingService))
+        !ctx.getBinding(CreditCardProcessor).is(template.prototype.getBinding(CreditCardProcessor))
+        ctx.getInstance(CreditCardProcessor).loggingService.is(ctx.getInstance(LoggingService))
+    }
+
+    void "creating a context should not need any reflection"() {
+        setup:
+        Configuration.configure(builder, ComplexConfigScript)
+        ContextTemplate template = builder.buildTemplate()
+        ConstructorMetadataCache.resetStats()
+
+        when:
+        template.newContext().getInstance(CreditCardProcessor)
+
+        then:
+        ConstructorMetadataCache.hitCount == 0
+        ConstructorMetadataCache.missCount == 0
+    }
+
+    void "providers should point at the copies in their own context"() {
+        setup:
+        builder.bind(LoggingService).withScope(Scope.SINGLETON).to(LoggingServiceImpl)
+        builder.register(WithProvider)
+        ContextTemplate template = builder.buildTemplate()
+
+        when:
+        Context ctx = template.newContext()
+        WithProvider withProvider = ctx.getInstance(WithProvider)
+
+        then:
+        withProvider.loggingServiceProvider.get().is(ctx.getInstance(LoggingService))
+        !withProvider.loggingServiceProvider.get().is(template.newContext().getInstance(LoggingService))
+    }
+
+    void "eager singletons should be created for each new context"() {
+        setup:
+        builder.eagerSingletons = true
+        builder.bind(LoggingService).withScope(Scope.SINGLETON).to(LoggingServiceImpl)
+        ContextTemplate template = builder.buildTemplate()
+
+        expect:
+        ((CachingBinding) template.prototype.getBinding(LoggingService)).cachedInstance == null
+        ((CachingBinding) template.newContext().getBinding(LoggingService)).cachedInstance != null
+    }
+
+    void "templates of child contexts should share the parent's bindings"() {
+        setup:
+        builder.bind(LoggingService).withScope(Scope.SINGLETON).to(LoggingServiceImpl)
+        Context parent = builder.build()
+        ContextBuilder childBuilder = new ContextBuilder(parent)
+        childBuilder.bind(FraudDetectionService).withScope(Scope.SINGLETON).to(FraudDetectorImpl)
+        childBuilder.bind(CreditCardProcessor).withScope(Scope.SINGLETON).to(ComplexCCProcessor)
+        ContextTemplate template = childBuilder.buildTemplate()
+
+        when:
+        Context first = template.newContext()
+        Context second = template.newContext()
+
+        then:
+        first.getInstance(CreditCardProcessor).loggingService.is(parent.getInstance(LoggingService))
+        second.getInstance(CreditCardProcessor).loggingService.is(parent.getInstance(LoggingService))
+        !first.getInstance(FraudDetectionService).is(second.getInstance(FraudDetectionService))
+    }
+}
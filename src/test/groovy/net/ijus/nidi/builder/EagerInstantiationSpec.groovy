@@ -0,0 +1,112 @@
+package net.ijus.nidi.builder
+
+import com.example.general.CreationOrder
+import com.example.general.ThrowingConstructor
+import com.example.impl.ComplexCCProcessor
+import com.example.impl.FraudDetectorImpl
+import com.example.impl.LoggingServiceImpl
+import com.example.interfaces.CreditCardProcessor
+import com.example.interfaces.FraudDetectionService
+import com.example.interfaces.LoggingService
+import net.ijus.nidi.Context
+import net.ijus.nidi.bindings.CachingBinding
+import net.ijus.nidi.bindings.Scope
+import net.ijus.nidi.instantiation.CreationException
+import spock.lang.Specification
+
+import java.util.concurrent.ForkJoinPool
+
+/**
+ * Tests for eagerly creating singletons when a Context is built
+ */
+class EagerInstantiationSpec extends Specification {
+
+    ContextBuilder builder = new ContextBuilder()
+
+    def setup() {
+        builder.setEagerSingletons(true)
+    }
+
+    void "singletons should be created while building the context"() {
+        setup:
+        builder.bind(CreditCardProcessor).withScope(Scope.SINGLETON).to(ComplexCCProcessor)
+        builder.bind(FraudDetectionService).withScope(Scope.SINGLETON).to(FraudDetectorImpl)
+        builder.bind(LoggingService).to(LoggingServiceImpl)
+
+        when:
+        Context ctx = builder.build()
+        CachingBinding procBinding = (CachingBinding) ctx.getBinding(CreditCardProcessor)
+        CachingBinding fraudBinding = (CachingBinding) ctx.getBinding(FraudDetectionService)
+
+        then:
+        procBinding.getCachedInstance() instanceof ComplexCCProcessor
+        fraudBinding.getCachedInstance() instanceof FraudDetectorImpl
+        procBinding.getCachedInstance().fraudDetectionService.is(fraudBinding.getCachedInstance())
+        ctx.getInstance(CreditCardProcessor).is(procBinding.getCachedInstance())
+    }
+
+    void "singletons should be created after the singletons they depend on"() {
+        setup:
+        builder.bind(CreditCardProcessor).withScope(Scope.SINGLETON).to(ComplexCCProcessor)
+        builder.bind(FraudDetectionService).withScope(Scope.SINGLETON).to(FraudDetectorImpl)
+        builder.bind(LoggingService).withScope(Scope.ONE_PER_BINDING).to(LoggingServiceImpl)
+        builder.setEagerSingletons(false)
+        Context ctx = builder.build()
+
+        when:
+        def initializer = new SingletonInitializer(new ForkJoinPool(2))
+        int count = initializer.initialize(ctx.getBindingsMap().values())
+        CachingBinding procBinding = initializer.getCachingBindings().find { it.boundClass == CreditCardProcessor }
+
+        then: 'the top level LoggingService binding and the reference from ComplexCCProcessor each get their own instance'
+        count == 4
+        initializer.getDependencies(procBinding)*.getBoundClass() as Set == [FraudDetectionService, LoggingService] as Set
+        initializer.getDependencies(procBinding).every { initializer.getDependencies(it).isEmpty() }
+        initializer.getDependencies(procBinding).every { initializer.getCachingBindings().indexOf(it) < initializer.getCachingBindings().indexOf(procBinding) }
+
+        def proc = ctx.getInstance(CreditCardProcessor)
+        proc.loggingService != null
+        !proc.loggingService.is(ctx.getInstance(LoggingService))
+    }
+
+    void "a slow singleton should only hold up the singletons that depend on it"() {
+        setup:
+        CreationOrder.created.clear()
+        builder.setForkJoinPool(new ForkJoinPool(2))
+        builder.bind(CreationOrder.Slow).withScope(Scope.SINGLETON).to(CreationOrder.Slow)
+        builder.bind(CreationOrder.A).withScope(Scope.SINGLETON).to(CreationOrder.A)
+        builder.bind(CreationOrder.DependsOnA).withScope(Scope.SINGLETON).to(CreationOrder.DependsOnA)
+
+        when:
+        builder.build()
+
+        then:
+        CreationOrder.created == ["A", "DependsOnA", "Slow"]
+    }
+
+    void "exceptions thrown by constructors should be thrown from build"() {
+        setup:
+        builder.bind(ThrowingConstructor).withScope(Scope.SINGLETON).to(ThrowingConstructor)
+
+        when:
+        builder.build()
+
+        then:
+        thrown(CreationException)
+    }
+
+    void "the pool used for eager instantiation should be configurable"() {
+        setup:
+        def pool = new ForkJoinPool(1)
+
+        expect:
+        builder.getForkJoinPool() != null
+
+        when:
+        builder.setForkJoinPool(pool)
+
+        then:
+        builder.getForkJoinPool().is(pool)
+    }
+
+}
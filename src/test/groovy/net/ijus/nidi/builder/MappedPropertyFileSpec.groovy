@@ -0,0 +1,162 @@
+package net.ijus.nidi.builder
+
+import com.example.general.FileConfigured
+import net.ijus.nidi.Context
+import net.ijus.nidi.InvalidConfigurationException
+import net.ijus.nidi.bindings.PrimitiveBinding
+import net.ijus.nidi.bindings.Scope
+import spock.lang.Specification
+
+/**
+ * Tests for binding properties from memory-mapped files
+ */
+class MappedPropertyFileSpec extends Specification {
+
+    File tempDir
+    File propsFile
+    ContextBuilder builder = new ContextBuilder()
+
+    def setup() {
+        tempDir = File.createTempFile("nidi-props", "")
+        tempDir.delete()
+        tempDir.mkdirs()
+        propsFile = new File(tempDir, "db.properties")
+        propsFile.setText("""
+# database settings
+! another comment
+url = jdbc:h2:mem:test
+port: 5432
+timeout 30000
+enabled=true
+scope=SINGLETON
+greeting = caf\\u00e9 \\
+    au lait
+path=C:\\\\data\\ttabbed
+unicode=żółw
+key\\ with\\ spaces=spaced
+notANumber=abc
+""", "UTF-8")
+    }
+
+    def cleanup() {
+        tempDir.deleteDir()
+    }
+
+    void "the file should be indexed without parsing any values"() {
+        when:
+        MappedPropertyFile file = new MappedPropertyFile("db", propsFile)
+
+        then:
+        file.size() == 10
+        file.contains("db.url")
+        !file.contains("url")
+        file.getKeys().every { it.startsWith("db.") }
+        file.getNamespace() == "db"
+    }
+
+    void "values should be decoded like java.util.Properties"() {
+        setup:
+        MappedPropertyFile file = new MappedPropertyFile(null, propsFile)
+        Properties expected = new Properties()
+        propsFile.withReader("UTF-8") { expected.load(it) }
+
+        expect:
+        file.getKeys() == expected.stringPropertyNames()
+        file.getKeys().every { file.getString(it) == expected.getProperty(it) }
+        file.getString("greeting") == "caf\u00e9 au lait"
+        file.getString("key with spaces") == "spaced"
+        file.getString("missing") == null
+    }
+
+    void "constructor params should get file properties converted to their type"() {
+        setup:
+        builder.bindProperties("db", propsFile)
+        builder.register(FileConfigured)
+        Context ctx = builder.build()
+
+        when:
+        FileConfigured instance = ctx.getInstance(FileConfigured)
+
+        then:
+        instance.url == "jdbc:h2:mem:test"
+        instance.port == 5432
+        instance.timeout == 30000L
+        instance.enabled
+        instance.scope == Scope.SINGLETON
+        ctx.getBinding("db.port") instanceof PrimitiveBinding
+    }
+
+    void "only properties that are used should be bound in the Context"() {
+        setup:
+        builder.bindProperties("db", propsFile)
+        builder.register(FileConfigured)
+        Context ctx = builder.build()
+
+        expect:
+        ctx.getInstance("db.url") == "jdbc:h2:mem:test"
+        !ctx.containsBinding("db.greeting")
+    }
+
+    void "explicit properties and later files should take precedence"() {
+        setup:
+        File overrides = new File(tempDir, "overrides.properties")
+        overrides.text = "port=6543\ntimeout=10\n"
+        builder.bindProperties("db", propsFile)
+        builder.bindProperties("db", overrides)
+        builder.bindProperty("db.url", "jdbc:h2:mem:explicit")
+        builder.register(FileConfigured)
+
+        when:
+        FileConfigured instance = builder.build().getInstance(FileConfigured)
+
+        then:
+        instance.url == "jdbc:h2:mem:explicit"
+        instance.port == 6543
+        instance.timeout == 10L
+    }
+
+    void "a value that can't be converted should fail the build"() {
+        setup:
+        new File(tempDir, "bad.properties").text = "port=abc\nurl=x\ntimeout=1\nenabled=true\nscope=SINGLETON\n"
+        builder.bindProperties("db", new File(tempDir, "bad.properties"))
+        builder.register(FileConfigured)
+
+        when:
+        builder.build()
+
+        then:
+        InvalidConfigurationException e = thrown()
+        e.message.contains("db.port")
+    }
+
+    void "a file that changes after it was indexed should not be read"() {
+        setup:
+        MappedPropertyFile file = new MappedPropertyFile("db", propsFile)
+
+        when: 'the file is truncated'
+        propsFile.text = "url=x"
+
+        then:
+        file.isStale()
+        file.contains("db.url")
+
+        when:
+        file.getString("db.url")
+
+        then:
+        InvalidConfigurationException e = thrown()
+        e.message.contains("has changed")
+
+        and: 'reopening it picks up the change'
+        file.reopen().getString("db.url") == "x"
+        file.reopen().getNamespace() == "db"
+    }
+
+    void "a file that doesn't exist should fail right away"() {
+        when:
+        builder.bindProperties("db", new File(tempDir, "missing.properties"))
+
+        then:
+        thrown(InvalidConfigurationException)
+    }
+}
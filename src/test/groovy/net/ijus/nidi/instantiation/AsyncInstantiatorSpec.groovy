@@ -0,0 +1,155 @@
+package net.ijus.nidi.instantiation
+
+import com.example.general.SlowConstruction
+import com.example.impl.ComplexCCProcessor
+import com.example.impl.FraudDetectorImpl
+import com.example.impl.LoggingServiceImpl
+import com.example.interfaces.CreditCardProcessor
+import com.example.interfaces.FraudDetectionService
+import com.example.interfaces.LoggingService
+import net.ijus.nidi.Context
+import net.ijus.nidi.bindings.Scope
+import net.ijus.nidi.builder.ContextBuilder
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * Tests for Context.getInstanceAsync
+ */
+class AsyncInstantiatorSpec extends Specification {
+
+    ExecutorService executor = Executors.newFixedThreadPool(4)
+    ContextBuilder builder = new ContextBuilder()
+
+    /**
+     * toValue calls each generator once while configuring, so the generators only wait once this is set
+     */
+    AtomicBoolean armed = new AtomicBoolean()
+
+    def setup() {
+        builder.setAsyncExecutor(executor)
+    }
+
+    def cleanup() {
+        executor.shutdownNow()
+    }
+
+    void "independent constructor args should be created at the same time"() {
+        setup:
+        CountDownLatch bothStarted = new CountDownLatch(2)
+        builder.bind(FraudDetectionService).toValue({ awaitOther(bothStarted); new FraudDetectorImpl() } as InstanceGenerator)
+        builder.bind(LoggingService).toValue({ awaitOther(bothStarted); new LoggingServiceImpl() } as InstanceGenerator)
+        builder.bind(CreditCardProcessor).to(ComplexCCProcessor)
+        Context ctx = builder.build()
+        armed.set(true)
+
+        when:
+        ComplexCCProcessor result = ctx.getInstanceAsync(CreditCardProcessor).get(10, TimeUnit.SECONDS)
+
+        then: 'neither arg could have finished unless both were running at once'
+        result.fraudDetectionService instanceof FraudDetectorImpl
+        result.loggingService instanceof LoggingServiceImpl
+    }
+
+    void "singletons created asynchronously should be cached"() {
+        setup:
+        builder.bind(FraudDetectionService).withScope(Scope.SINGLETON).to(FraudDetectorImpl)
+        builder.bind(LoggingService).withScope(Scope.SINGLETON).to(LoggingServiceImpl)
+        builder.bind(CreditCardProcessor).withScope(Scope.SINGLETON).to(ComplexCCProcessor)
+        Context ctx = builder.build()
+
+        when:
+        InstanceFuture future = ctx.getInstanceAsync(CreditCardProcessor)
+        def instance = future.get(10, TimeUnit.SECONDS)
+
+        then:
+        instance.is(ctx.getInstance(CreditCardProcessor))
+        instance.loggingService.is(ctx.getInstance(LoggingService))
+
+        and: 'once cached, the future is already done'
+        ctx.getInstanceAsync(CreditCardProcessor).isDone()
+    }
+
+    void "a singleton requested asynchronously and synchronously at once should only be constructed once"() {
+        setup:
+        SlowConstruction.constructed.set(0)
+        builder.bind(LoggingService).to(LoggingServiceImpl)
+        builder.bind(SlowConstruction).withScope(Scope.SINGLETON).to(SlowConstruction)
+        Context ctx = builder.build()
+
+        when:
+        InstanceFuture first = ctx.getInstanceAsync(SlowConstruction)
+        InstanceFuture second = ctx.getInstanceAsync(SlowConstruction)
+        def sync = ctx.getInstance(SlowConstruction)
+
+        then:
+        first.get(10, TimeUnit.SECONDS).is(sync)
+        second.get(10, TimeUnit.SECONDS).is(sync)
+        SlowConstruction.constructed.get() == 1
+    }
+
+    void "a failing arg should fail the request and cancel the other args"() {
+        setup:
+        CountDownLatch never = new CountDownLatch(1)
+        CountDownLatch interrupted = new CountDownLatch(1)
+        builder.bind(FraudDetectionService).toValue({
+            if (armed.get()) {
+                try {
+                    never.await(10, TimeUnit.SECONDS)
+                } catch (InterruptedException e) {
+                    interrupted.countDown()
+                }
+            }
+            new FraudDetectorImpl()
+        } as InstanceGenerator)
+        builder.bind(LoggingService).toValue({
+            if (armed.get()) {
+                Thread.sleep(100)
+                throw new IllegalStateException("no logging today")
+            }
+            new LoggingServiceImpl()
+        } as InstanceGenerator)
+        builder.bind(CreditCardProcessor).to(ComplexCCProcessor)
+        Context ctx = builder.build()
+        armed.set(true)
+
+        when:
+        ctx.getInstanceAsync(CreditCardProcessor).get(10, TimeUnit.SECONDS)
+
+        then:
+        ExecutionException e = thrown()
+        e.cause instanceof IllegalStateException
+        interrupted.await(5, TimeUnit.SECONDS)
+    }
+
+    void "a request should fail once its deadline has passed"() {
+        setup:
+        CountDownLatch never = new CountDownLatch(1)
+        builder.bind(FraudDetectionService).toValue({ if (armed.get()) { never.await(10, TimeUnit.SECONDS) }; new FraudDetectorImpl() } as InstanceGenerator)
+        builder.bind(LoggingService).to(LoggingServiceImpl)
+        builder.bind(CreditCardProcessor).to(ComplexCCProcessor)
+        Context ctx = builder.build()
+        armed.set(true)
+
+        when:
+        ctx.getInstanceAsync(CreditCardProcessor, 100, TimeUnit.MILLISECONDS).get(10, TimeUnit.SECONDS)
+
+        then:
+        ExecutionException e = thrown()
+        e.cause instanceof TimeoutException
+    }
+
+    private void awaitOther(CountDownLatch latch) {
+        if (armed.get()) {
+            latch.countDown()
+            assert latch.await(5, TimeUnit.SECONDS)
+        }
+    }
+}
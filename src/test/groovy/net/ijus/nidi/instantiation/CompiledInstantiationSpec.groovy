@@ -0,0 +1,138 @@
+package net.ijus.nidi.instantiation
+
+import com.example.config.ComplexConfigScript
+import com.example.general.CreationOrder
+import com.example.general.ThrowingConstructor
+import com.example.general.WithOptionalClass
+import com.example.impl.ComplexCCProcessor
+import com.example.impl.ConcreteClassNoInterface
+import com.example.impl.ComplexFraudDetector
+import com.example.impl.FraudDetectorImpl
+import com.example.impl.LoggingServiceImpl
+import com.example.impl.NamespacedLoggingService
+import com.example.interfaces.CreditCardProcessor
+import com.example.interfaces.FraudDetectionService
+import com.example.interfaces.LoggingService
+import com.example.interfaces.RefundProcessor
+import net.ijus.nidi.Configuration
+import net.ijus.nidi.Context
+import net.ijus.nidi.builder.ContextBuilder
+import spock.lang.Specification
+
+/**
+ * Tests for building Contexts with compiled instantiation enabled
+ */
+class CompiledInstantiationSpec extends Specification {
+
+    ContextBuilder builder = new ContextBuilder()
+
+    def setup() {
+        builder.setCompiledInstantiation(true)
+    }
+
+    void "compiled generators should create nested ALWAYS_CREATE_NEW dependencies"() {
+        setup:
+        builder.bind(CreditCardProcessor).to(ComplexCCProcessor)
+        builder.bind(FraudDetectionService).to(FraudDetectorImpl)
+        builder.bind(LoggingService).to(LoggingServiceImpl)
+
+        when:
+        Context ctx = builder.build()
+        def proc1 = ctx.getInstance(CreditCardProcessor)
+        def proc2 = ctx.getInstance(CreditCardProcessor)
+
+        then:
+        ((ConstructorInstanceGenerator) ctx.getBinding(CreditCardProcessor).getInstanceGenerator()).isCompiled()
+        proc1 instanceof ComplexCCProcessor
+        proc1.fraudDetectionService instanceof FraudDetectorImpl
+        proc1.loggingService instanceof LoggingServiceImpl
+        !proc1.is(proc2)
+        !proc1.loggingService.is(proc2.loggingService)
+    }
+
+    void "compiled generators should create constructor args in the same order as non-compiled ones"() {
+        setup:
+        ContextBuilder reflectiveBuilder = new ContextBuilder()
+        [builder, reflectiveBuilder].each {
+            it.register(CreationOrder.A)
+            it.register(CreationOrder.B)
+            it.register(CreationOrder.C)
+            it.register(CreationOrder.Top)
+        }
+        Context compiled = builder.build()
+        Context reflective = reflectiveBuilder.build()
+
+        when:
+        CreationOrder.created.clear()
+        reflective.getInstance(CreationOrder.Top)
+        List<String> reflectiveOrder = new ArrayList<String>(CreationOrder.created)
+        CreationOrder.created.clear()
+        compiled.getInstance(CreationOrder.Top)
+
+        then:
+        ((ConstructorInstanceGenerator) compiled.getBinding(CreationOrder.Top).getInstanceGenerator()).isCompiled()
+        reflectiveOrder == ["A", "B", "C", "Top"]
+        CreationOrder.created == reflectiveOrder
+    }
+
+    void "compiled generators should respect scopes, constants and setup functions"() {
+        setup:
+        Configuration.configure(builder, ComplexConfigScript)
+
+        when:
+        Context ctx = builder.build()
+        def ccProc = ctx.getInstance(CreditCardProcessor)
+
+        then:
+        ctx.getInstance(RefundProcessor).is(ccProc)
+        ctx.getInstance(CreditCardProcessor).is(ccProc)
+        ccProc.loggingService instanceof NamespacedLoggingService
+        ccProc.loggingService.stringProperty == 'custom namespace'
+
+        def fraudDet = (ComplexFraudDetector) ccProc.fraudDetectionService
+        fraudDet.serviceURL == 'www.test-url.com'
+        !fraudDet.loggingService.is(ccProc.loggingService)
+    }
+
+    void "compiled generators should apply setup functions to new instances"() {
+        setup:
+        builder.bind(LoggingService).to(LoggingServiceImpl)
+        builder.register(ConcreteClassNoInterface).setupInstance({
+            it.stringProperty = "custom value"
+        } as InstanceSetupFunction)
+
+        when:
+        Context ctx = builder.build()
+        def instance = ctx.getInstance(ConcreteClassNoInterface)
+
+        then:
+        instance.stringProperty == "custom value"
+        instance.loggingService instanceof LoggingServiceImpl
+    }
+
+    void "compiled generators should pass null for optional params bound to null"() {
+        setup:
+        builder.bind(CreditCardProcessor).to(WithOptionalClass)
+        builder.bind(LoggingService).toNull()
+
+        when:
+        Context ctx = builder.build()
+
+        then:
+        ((WithOptionalClass) ctx.getInstance(CreditCardProcessor)).loggingService == null
+    }
+
+    void "exceptions thrown by a compiled constructor should be wrapped in a CreationException"() {
+        setup:
+        builder.register(ThrowingConstructor)
+        Context ctx = builder.build()
+
+        when:
+        ctx.getInstance(ThrowingConstructor)
+
+        then:
+        def ex = thrown(CreationException)
+        ex.cause instanceof IllegalStateException
+        ex.message.contains(ThrowingConstructor.name)
+    }
+}
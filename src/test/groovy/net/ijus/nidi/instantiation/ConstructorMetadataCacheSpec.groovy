@@ -0,0 +1,85 @@
+package net.ijus.nidi.instantiation
+
+import com.example.general.UnannotatedConstructors
+import com.example.impl.ComplexCCProcessor
+import com.example.impl.FraudDetectorImpl
+import com.example.impl.LoggingServiceImpl
+import com.example.interfaces.CreditCardProcessor
+import com.example.interfaces.FraudDetectionService
+import com.example.interfaces.LoggingService
+import net.ijus.nidi.InvalidConfigurationException
+import net.ijus.nidi.builder.ContextBuilder
+import spock.lang.Specification
+
+/**
+ * Tests for the JVM-wide ConstructorMetadataCache
+ */
+class ConstructorMetadataCacheSpec extends Specification {
+
+    def setup() {
+        ConstructorMetadataCache.clear()
+        ConstructorMetadataCache.resetStats()
+    }
+
+    void "metadata should only be resolved once per class"() {
+        when:
+        def first = ConstructorMetadataCache.get(ComplexCCProcessor)
+        def second = ConstructorMetadataCache.get(ComplexCCProcessor)
+
+        then:
+        first.is(second)
+        ConstructorMetadataCache.getMissCount() == 1
+        ConstructorMetadataCache.getHitCount() == 1
+        ConstructorMetadataCache.getHitRate() == 0.5d
+    }
+
+    void "clearing the cache should cause metadata to be resolved again"() {
+        setup:
+        def first = ConstructorMetadataCache.get(ComplexCCProcessor)
+
+        when:
+        ConstructorMetadataCache.clear()
+        def second = ConstructorMetadataCache.get(ComplexCCProcessor)
+
+        then:
+        !first.is(second)
+        first.getConstructor() == second.getConstructor()
+        ConstructorMetadataCache.getMissCount() == 2
+    }
+
+    void "classes that fail to resolve should not be cached"() {
+        when:
+        ConstructorMetadataCache.get(UnannotatedConstructors)
+
+        then:
+        thrown(InvalidConfigurationException)
+
+        when:
+        ConstructorMetadataCache.get(UnannotatedConstructors)
+
+        then:
+        thrown(InvalidConfigurationException)
+        ConstructorMetadataCache.getMissCount() == 2
+    }
+
+    void "metadata should be shared between ContextBuilders"() {
+        setup:
+        def buildContext = {
+            ContextBuilder builder = new ContextBuilder()
+            builder.bind(CreditCardProcessor).to(ComplexCCProcessor)
+            builder.bind(FraudDetectionService).to(FraudDetectorImpl)
+            builder.bind(LoggingService).to(LoggingServiceImpl)
+            builder.build()
+        }
+
+        when:
+        buildContext()
+        long missesAfterFirst = ConstructorMetadataCache.getMissCount()
+        buildContext()
+
+        then:
+        missesAfterFirst == 3
+        ConstructorMetadataCache.getMissCount() == 3
+        ConstructorMetadataCache.getHitCount() >= 3
+    }
+}
@@ -0,0 +1,56 @@
+package net.ijus.nidi.instantiation
+
+import com.example.general.CorrectConstAnnotation
+import com.example.general.UnannotatedConstructors
+import com.example.general.WithOptionalClass
+import com.example.general.WithOptionalProperty
+import com.example.impl.ComplexCCProcessor
+import com.example.interfaces.FraudDetectionService
+import com.example.interfaces.LoggingService
+import net.ijus.nidi.Inject
+import net.ijus.nidi.InvalidConfigurationException
+import spock.lang.Specification
+
+/**
+ * Tests for resolving ConstructorMetadata
+ */
+class ConstructorMetadataSpec extends Specification {
+
+    void "metadata should describe the resolved constructor"() {
+        when:
+        ConstructorMetadata metadata = ConstructorMetadata.forClass(ComplexCCProcessor)
+
+        then:
+        metadata.getType() == ComplexCCProcessor
+        metadata.getConstructor() == ComplexCCProcessor.getConstructor(FraudDetectionService, LoggingService)
+        metadata.getParameterCount() == 2
+        metadata.getParameterTypes() == [FraudDetectionService, LoggingService] as Class[]
+        metadata.getBoundAnnotationValue(0) == null
+        !metadata.isParameterOptional(1)
+        metadata.getConstructorHandle().type().returnType() == ComplexCCProcessor
+    }
+
+    void "metadata should include the values of @Require and @Optional annotations"() {
+        expect:
+        ConstructorMetadata.forClass(clazz).getBoundAnnotationValue(0) == value
+        ConstructorMetadata.forClass(clazz).isParameterOptional(0) == optional
+
+        where:
+        clazz                 | value                | optional
+        WithOptionalProperty  | 'optionalProperty'   | true
+        WithOptionalClass     | null                 | true
+    }
+
+    void "resolving a class with more than one un-annotated constructor should throw an exception"() {
+        when:
+        ConstructorMetadata.forClass(UnannotatedConstructors)
+
+        then:
+        thrown(InvalidConfigurationException)
+    }
+
+    void "the annotated constructor should be used when there are several"() {
+        expect:
+        ConstructorMetadata.forClass(CorrectConstAnnotation).getConstructor().isAnnotationPresent(Inject)
+    }
+}
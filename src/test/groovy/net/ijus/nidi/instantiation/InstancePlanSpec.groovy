@@ -0,0 +1,116 @@
+package net.ijus.nidi.instantiation
+
+import com.example.impl.ComplexCCProcessor
+import com.example.impl.ComplexFraudDetector
+import com.example.impl.LoggingServiceImpl
+import com.example.interfaces.CreditCardProcessor
+import com.example.interfaces.FraudDetectionService
+import com.example.interfaces.LoggingService
+import net.ijus.nidi.Context
+import net.ijus.nidi.Instances
+import net.ijus.nidi.InvalidConfigurationException
+import net.ijus.nidi.bindings.Scope
+import net.ijus.nidi.builder.ContextBuilder
+import spock.lang.Specification
+
+/**
+ * Tests for Context.getInstances
+ */
+class InstancePlanSpec extends Specification {
+
+    ContextBuilder builder = new ContextBuilder()
+
+    def setup() {
+        builder.bind(CreditCardProcessor).to(ComplexCCProcessor)
+        builder.bind(FraudDetectionService).to(ComplexFraudDetector)
+        builder.bindProperty("fraudDetURL", "http://fraud.example.com")
+    }
+
+    void "getInstances should return an instance for every key, in order"() {
+        setup:
+        builder.bind(LoggingService).withScope(Scope.SINGLETON).to(LoggingServiceImpl)
+        Context ctx = builder.build()
+
+        when:
+        Instances instances = ctx.getInstances(CreditCardProcessor, "fraudDetURL", FraudDetectionService)
+
+        then:
+        instances.size() == 3
+        instances.get(CreditCardProcessor) instanceof ComplexCCProcessor
+        instances.get(FraudDetectionService) instanceof ComplexFraudDetector
+        instances.get("fraudDetURL") == "http://fraud.example.com"
+        instances.get(1) == "http://fraud.example.com"
+        instances.asMap().keySet() as List == [CreditCardProcessor, "fraudDetURL", FraudDetectionService]
+    }
+
+    void "a shared singleton should only be planned once per batch"() {
+        setup:
+        builder.bind(LoggingService).withScope(Scope.SINGLETON).to(LoggingServiceImpl)
+        Context ctx = builder.build()
+
+        when:
+        InstancePlan plan = ctx.planInstances(CreditCardProcessor, FraudDetectionService, LoggingService)
+        Object[] instances = plan.execute()
+
+        then:
+        plan.stepCount == 5
+        instances[0].loggingService.is(instances[2])
+        instances[1].loggingService.is(instances[2])
+        instances[0].fraudDetectionService != instances[1]
+    }
+
+    void "ALWAYS_CREATE_NEW dependencies should still be created for every use"() {
+        setup:
+        builder.bind(LoggingService).withScope(Scope.ALWAYS_CREATE_NEW).to(LoggingServiceImpl)
+        Context ctx = builder.build()
+
+        when:
+        InstancePlan plan = ctx.planInstances(CreditCardProcessor, FraudDetectionService, LoggingService)
+        Object[] instances = plan.execute()
+
+        then:
+        plan.stepCount == 8
+        !instances[0].loggingService.is(instances[2])
+        !instances[1].loggingService.is(instances[2])
+        !instances[0].loggingService.is(instances[1].loggingService)
+    }
+
+    void "plans should be cached per key set"() {
+        setup:
+        builder.bind(LoggingService).to(LoggingServiceImpl)
+        Context ctx = builder.build()
+
+        when:
+        ctx.getInstances(CreditCardProcessor, LoggingService)
+        ctx.getInstances(CreditCardProcessor, LoggingService)
+        ctx.getInstances(LoggingService, CreditCardProcessor)
+
+        then:
+        ctx.cachedPlanCount == 2
+    }
+
+    void "requesting a key that isn't bound should fail"() {
+        setup:
+        builder.bind(LoggingService).to(LoggingServiceImpl)
+        Context ctx = builder.build()
+
+        when:
+        ctx.getInstances(CreditCardProcessor, "noSuchProperty")
+
+        then:
+        thrown(InvalidConfigurationException)
+        ctx.cachedPlanCount == 0
+    }
+
+    void "asking the result for a key that wasn't requested should fail"() {
+        setup:
+        builder.bind(LoggingService).to(LoggingServiceImpl)
+        Instances instances = builder.build().getInstances(LoggingService)
+
+        when:
+        instances.get(CreditCardProcessor)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+}
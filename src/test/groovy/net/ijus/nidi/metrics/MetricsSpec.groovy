@@ -0,0 +1,123 @@
+package net.ijus.nidi.metrics
+
+import com.example.general.SharedDependency
+import com.example.general.ThrowingConstructor
+import com.example.impl.ComplexCCProcessor
+import com.example.impl.FraudDetectorImpl
+import com.example.impl.LoggingServiceImpl
+import com.example.interfaces.CreditCardProcessor
+import com.example.interfaces.FraudDetectionService
+import com.example.interfaces.LoggingService
+import net.ijus.nidi.Context
+import net.ijus.nidi.bindings.BasicBinding
+import net.ijus.nidi.bindings.CachingBinding
+import net.ijus.nidi.bindings.Scope
+import net.ijus.nidi.builder.ContextBuilder
+import spock.lang.Specification
+
+import java.lang.management.ManagementFactory
+
+/**
+ * Tests for the per-binding metrics
+ */
+class MetricsSpec extends Specification {
+
+    ContextBuilder builder = new ContextBuilder()
+
+    void "bindings should be uninstrumented when metrics are disabled"() {
+        setup:
+        builder.bind(FraudDetectionService).withScope(Scope.SINGLETON).to(FraudDetectorImpl)
+        builder.bind(LoggingService).to(LoggingServiceImpl)
+        Context ctx = builder.build()
+
+        expect:
+        ctx.getBinding(FraudDetectionService).getClass() == CachingBinding
+        ctx.getBinding(LoggingService).getClass() == BasicBinding
+        !ctx.getMetrics().isEnabled()
+        ctx.getMetrics().getBindings().isEmpty()
+    }
+
+    void "instances created and cache hits should be counted"() {
+        setup:
+        builder.setMetricsEnabled(true)
+        builder.bind(FraudDetectionService).withScope(Scope.SINGLETON).to(FraudDetectorImpl)
+        builder.bind(LoggingService).to(LoggingServiceImpl)
+        builder.bind(CreditCardProcessor).to(ComplexCCProcessor)
+        Context ctx = builder.build()
+
+        when:
+        3.times { ctx.getInstance(CreditCardProcessor) }
+        ctx.getInstance(FraudDetectionService)
+        MetricsSnapshot metrics = ctx.getMetrics()
+
+        then:
+        metrics.isEnabled()
+        metrics.get(CreditCardProcessor).instancesCreated == 3
+        metrics.get(CreditCardProcessor).cacheHits == 0
+        metrics.get(LoggingService).instancesCreated == 3
+        metrics.get(FraudDetectionService).instancesCreated == 1
+        metrics.get(FraudDetectionService).cacheHits == 3
+        metrics.get(FraudDetectionService).scope == 'SINGLETON'
+        metrics.get(CreditCardProcessor).latencyMax > 0
+        metrics.get(CreditCardProcessor).latencyP50 <= metrics.get(CreditCardProcessor).latencyMax
+        metrics.totalInstancesCreated == 7
+    }
+
+    void "references to a ONE_PER_BINDING binding should record into its metrics"() {
+        setup:
+        builder.setMetricsEnabled(true)
+        builder.bind(SharedDependency.Dep).withScope(Scope.ONE_PER_BINDING).to(SharedDependency.Dep)
+        builder.bind(SharedDependency.UserA).to(SharedDependency.UserA)
+        builder.bind(SharedDependency.UserB).to(SharedDependency.UserB)
+        Context ctx = builder.build()
+
+        when:
+        SharedDependency.UserA first = ctx.getInstance(SharedDependency.UserA)
+        SharedDependency.UserB other = ctx.getInstance(SharedDependency.UserB)
+        SharedDependency.UserA second = ctx.getInstance(SharedDependency.UserA)
+
+        then:
+        first.dep.is(second.dep)
+        !first.dep.is(other.dep)
+        ctx.getMetrics().get(SharedDependency.Dep).instancesCreated == 2
+        ctx.getMetrics().get(SharedDependency.Dep).cacheHits == 1
+    }
+
+    void "failed constructions should be counted"() {
+        setup:
+        builder.setMetricsEnabled(true)
+        builder.bind(ThrowingConstructor).to(ThrowingConstructor)
+        Context ctx = builder.build()
+
+        when:
+        ctx.getInstance(ThrowingConstructor)
+
+        then:
+        thrown(Exception)
+        ctx.getMetrics().get(ThrowingConstructor).failures == 1
+        ctx.getMetrics().get(ThrowingConstructor).instancesCreated == 0
+    }
+
+    void "metrics should be registered as MBeans until the context is disposed"() {
+        setup:
+        builder.setMetricsEnabled(true)
+        builder.setJmxName("MetricsSpec")
+        builder.bind(FraudDetectionService).withScope(Scope.SINGLETON).to(FraudDetectorImpl)
+        Context ctx = builder.build()
+        def server = ManagementFactory.getPlatformMBeanServer()
+        def name = ContextMetrics.objectName("MetricsSpec", FraudDetectionService.name)
+
+        when:
+        ctx.getInstance(FraudDetectionService)
+
+        then:
+        server.isRegistered(name)
+        server.getAttribute(name, "InstancesCreated") == 1L
+
+        when:
+        ctx.dispose()
+
+        then:
+        !server.isRegistered(name)
+    }
+}
@@ -0,0 +1,63 @@
+package net.ijus.nidi.utils
+
+import spock.lang.Specification
+
+class LatencyHistogramSpec extends Specification {
+
+    LatencyHistogram histogram = new LatencyHistogram()
+
+    void "small values should be recorded exactly"() {
+        when:
+        (1..50).each { histogram.record(it) }
+
+        then:
+        histogram.count == 50
+        histogram.getValueAtPercentile(50) == 25
+        histogram.getValueAtPercentile(100) == 50
+        histogram.max == 50
+        histogram.mean == 25.5d
+    }
+
+    void "percentiles of large values should be within a few percent"() {
+        when:
+        (1..100000).each { histogram.record(it * 1000L) }
+
+        then:
+        Math.abs(histogram.getValueAtPercentile(50) - 50000000L) < 50000000L * 0.04
+        Math.abs(histogram.getValueAtPercentile(99) - 99000000L) < 99000000L * 0.04
+        Math.abs(histogram.getValueAtPercentile(99.9) - 99900000L) < 99900000L * 0.04
+        histogram.getValueAtPercentile(100) == 100000000L
+    }
+
+    void "bucket bounds should contain the values that map to them"() {
+        expect:
+        LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(value)) >= value
+        LatencyHistogram.bucketIndex(LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(value))) == LatencyHistogram.bucketIndex(value)
+
+        where:
+        value << [0L, 63L, 64L, 65L, 127L, 128L, 1000L, 123456789L, Long.MAX_VALUE]
+    }
+
+    void "histograms should be able to be combined"() {
+        setup:
+        LatencyHistogram other = new LatencyHistogram()
+
+        when:
+        histogram.record(10)
+        other.record(20)
+        other.record(30)
+        histogram.add(other)
+
+        then:
+        histogram.count == 3
+        histogram.max == 30
+        histogram.getValueAtPercentile(50) == 20
+    }
+
+    void "an empty histogram should report zeros"() {
+        expect:
+        histogram.getValueAtPercentile(99) == 0
+        histogram.max == 0
+        histogram.mean == 0
+    }
+}